@@ -428,6 +428,7 @@ resolve_release_name
 run_jobs
 
 # Useful settings
-#    -Djoinjob.tasks=sgv \
-#    -Djoinjob.clean=false \
-#    -Djoinjob.sequential=true \
+#    -Djoin.tasks=sgv \
+#    -Djoin.clean=false \
+#    -Djoin.sequential=true \
+#    -Djoin.parallelism=4 \
@@ -28,6 +28,7 @@ import org.icgc.dcc.release.job.id.config.IdProperties;
 import org.icgc.dcc.release.job.id.config.PostgresqlProperties;
 import org.icgc.dcc.release.job.imports.config.MongoProperties;
 import org.icgc.dcc.release.job.index.config.IndexProperties;
+import org.icgc.dcc.release.job.join.config.JoinProperties;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -49,6 +50,12 @@ public class WorkflowProperties {
     return new SnpEffProperties();
   }
 
+  @Bean
+  @ConfigurationProperties(prefix = "join")
+  public JoinProperties joinProperties() {
+    return new JoinProperties();
+  }
+
   @Bean
   @ConfigurationProperties(prefix = "document")
   public DocumentProperties documentProperties() {
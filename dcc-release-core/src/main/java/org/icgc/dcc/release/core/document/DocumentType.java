@@ -189,6 +189,7 @@ public enum DocumentType {
   );
 
   public static final int DEFAULT_PARALLELISM = 0;
+  private static final String POOL_PREFIX = "document-";
 
   /**
    * The corresponding entity of the index type.
@@ -269,6 +270,14 @@ public enum DocumentType {
     return this.parallelism == DEFAULT_PARALLELISM;
   }
 
+  /**
+   * @return name of the fair scheduler pool the documents of this type are written in. The pool is weighted by the
+   * {@link #priority}.
+   */
+  public String getPool() {
+    return POOL_PREFIX + name;
+  }
+
   private static DocumentTypeAttributes attributes() {
     return new DocumentTypeAttributes();
   }
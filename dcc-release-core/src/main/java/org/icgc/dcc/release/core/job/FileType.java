@@ -110,6 +110,7 @@ public enum FileType implements Identifiable {
   //
 
   CLINICAL(true),
+  RAW_SEQUENCE_DATA(true),
 
   DONOR_ORPHANED(true),
   SPECIMEN_ORPHANED(true),
@@ -146,6 +147,9 @@ public enum FileType implements Identifiable {
   PROJECT_SUMMARY(false),
   RELEASE_SUMMARY(false),
 
+  // Genes with gene sets pivoted by type, shared by the document types
+  GENE_PIVOTED(false),
+
   EXPORT_INPUT(true), EXPORT_OUTPUT(true),
 
   // Index types
@@ -170,7 +174,10 @@ public enum FileType implements Identifiable {
   PROJECT_TEXT_DOCUMENT(false),
   PROJECT_DOCUMENT(false),
 
-  RELEASE_DOCUMENT(false);
+  RELEASE_DOCUMENT(false),
+
+  // Documents too big to be stored with the rest of their type
+  BIG_DOCUMENT(false);
 
   @Getter
   private final boolean partitioned;
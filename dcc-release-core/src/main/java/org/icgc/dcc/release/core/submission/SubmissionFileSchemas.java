@@ -18,6 +18,7 @@
 package org.icgc.dcc.release.core.submission;
 
 import java.io.Serializable;
+import java.util.Collection;
 import java.util.Map;
 
 import lombok.NonNull;
@@ -47,4 +48,8 @@ public class SubmissionFileSchemas implements Serializable {
     return fileSchemas.get(schemaName);
   }
 
+  public Collection<SubmissionFileSchema> values() {
+    return fileSchemas.values();
+  }
+
 }
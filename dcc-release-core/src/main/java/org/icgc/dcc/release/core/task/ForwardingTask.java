@@ -41,4 +41,14 @@ public class ForwardingTask implements Task {
     return delegate.getType();
   }
 
+  @Override
+  public TaskPriority getPriority() {
+    return delegate.getPriority();
+  }
+
+  @Override
+  public String getPool() {
+    return delegate.getPool();
+  }
+
 }
\ No newline at end of file
@@ -28,15 +28,19 @@ import static org.icgc.dcc.release.core.util.Tuples.tuple;
 import java.util.List;
 import java.util.regex.Pattern;
 
+import lombok.SneakyThrows;
 import lombok.val;
 import lombok.extern.slf4j.Slf4j;
 
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.hadoop.io.Text;
 import org.apache.hadoop.mapred.JobConf;
 import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaRDD;
 import org.icgc.dcc.common.hadoop.fs.HadoopUtils;
 import org.icgc.dcc.release.core.document.Document;
+import org.icgc.dcc.release.core.document.RawDocument;
 import org.icgc.dcc.release.core.job.FileType;
 import org.icgc.dcc.release.core.util.DocumentRDDs;
 import org.icgc.dcc.release.core.util.HadoopFiles;
@@ -44,6 +48,8 @@ import org.icgc.dcc.release.core.util.JavaRDDs;
 import org.icgc.dcc.release.core.util.ObjectNodeRDDs;
 import org.icgc.dcc.release.core.util.Partitions;
 
+import scala.Tuple2;
+
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
 @Slf4j
@@ -72,6 +78,23 @@ public abstract class GenericTask implements Task {
     return new JobConf(sparkContext.hadoopConfiguration());
   }
 
+  /**
+   * @return size in bytes of the {@code inputFileType} files or {@code 0} if they don't exist
+   */
+  @SneakyThrows
+  protected long getInputSize(TaskContext taskContext, FileType inputFileType) {
+    val fileSystem = taskContext.getFileSystem();
+    val path = new Path(taskContext.getPath(inputFileType));
+    if (!fileSystem.exists(path)) {
+      return 0L;
+    }
+
+    val size = fileSystem.getContentSummary(path).getLength();
+    log.debug("Resolved size of {} as {}", path, formatBytes(size));
+
+    return size;
+  }
+
   protected JavaRDD<ObjectNode> readInput(TaskContext taskContext, FileType inputFileType) {
     val conf = createJobConf(taskContext);
 
@@ -174,6 +197,32 @@ public abstract class GenericTask implements Task {
     return readAllSequenceFileInput(taskContext, conf, inputFileType, ObjectNode.class);
   }
 
+  /**
+   * Reads the document IDs and sources as stored, without decoding them. The writables are reused by the record
+   * reader, so they must be consumed before moving to the next record.
+   */
+  protected JavaPairRDD<Text, BytesWritable> readUnpartitionedRawSequenceFileInput(TaskContext taskContext,
+      FileType inputFileType) {
+    val filePath = taskContext.getPath(inputFileType);
+    val sparkContext = taskContext.getSparkContext();
+    if (!exists(sparkContext, filePath)) {
+      log.debug("{} does not exist. Skipping...", filePath);
+
+      return JavaPairRDD.fromJavaRDD(sparkContext.<Tuple2<Text, BytesWritable>> emptyRDD());
+    }
+
+    val fileTypePath = new Path(taskContext.getJobContext().getWorkingDir(), inputFileType.getDirName());
+    val inputPaths = inputFileType.isPartitioned() ?
+        resolveInputPaths(taskContext, fileTypePath) :
+        singleton(fileTypePath);
+
+    return inputPaths.stream()
+        .peek(inputPath -> log.debug("Reading {} ...", inputPath)) // Optional
+        .<JavaPairRDD<Text, BytesWritable>> map(inputPath -> JavaRDDs.sequenceFile(sparkContext, inputPath.toString(),
+            Text.class, BytesWritable.class))
+        .reduce((x, y) -> x.union(y)).get();
+  }
+
   protected void writeOutput(TaskContext taskContext, JavaRDD<ObjectNode> processed, FileType outputFileType) {
     val outputPath = taskContext.getPath(outputFileType);
 
@@ -211,6 +260,14 @@ public abstract class GenericTask implements Task {
     }
   }
 
+  protected void writeRawDocOutput(TaskContext taskContext, JavaRDD<RawDocument> processed, String outputPath) {
+    if (taskContext.isCompressOutput()) {
+      DocumentRDDs.saveAsSequenceIdRawDocumentFile(processed, outputPath);
+    } else {
+      DocumentRDDs.saveAsTextRawDocumentFile(processed, outputPath);
+    }
+  }
+
   private JavaRDD<ObjectNode> readSequenceFileInput(TaskContext taskContext, FileType inputFileType) {
     val conf = createJobConf(taskContext);
     if (isReadAll(taskContext, inputFileType)) {
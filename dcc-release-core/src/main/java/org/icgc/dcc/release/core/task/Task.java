@@ -37,6 +37,13 @@ public interface Task {
     return TaskPriority.NORMAL;
   }
 
+  /**
+   * @return fair scheduler pool to run the task in. {@code null} for the default pool.
+   */
+  default String getPool() {
+    return getPriority().getPool();
+  }
+
   void execute(TaskContext taskContext);
 
   static String getName(Class<? extends Task> taskClass, String... info) {
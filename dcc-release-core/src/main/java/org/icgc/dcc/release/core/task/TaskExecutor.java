@@ -157,13 +157,13 @@ public class TaskExecutor {
     val description = "Task of type " + task.getType();
 
     sparkContext.setJobGroup(task.getName(), description, interrupt);
-    setPriority(task.getPriority());
+    setPool(task.getPool());
   }
 
-  private void setPriority(TaskPriority priority) {
+  private void setPool(String pool) {
     // This setting is thread local. It will be visible only to the current task.
     // See http://spark.apache.org/docs/latest/job-scheduling.html#fair-scheduler-pools
-    sparkContext.setLocalProperty("spark.scheduler.pool", priority.getPool());
+    sparkContext.setLocalProperty("spark.scheduler.pool", pool);
   }
 
   private TaskContext createTaskContext(JobContext jobContext, Optional<String> projectName) {
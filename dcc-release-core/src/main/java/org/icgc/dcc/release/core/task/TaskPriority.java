@@ -25,11 +25,16 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor(access = PRIVATE)
 public enum TaskPriority {
 
-  HIGH("high"),
+  HIGH("high", 10),
 
   // Setting scheduler pool to default. http://spark.apache.org/docs/latest/job-scheduling.html#fair-scheduler-pools
-  NORMAL(null);
+  NORMAL(null, 1);
 
   private final String pool;
 
+  /**
+   * Weight of the fair scheduler pools of this priority.
+   */
+  private final int weight;
+
 }
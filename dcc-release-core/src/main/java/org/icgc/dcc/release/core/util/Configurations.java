@@ -18,9 +18,11 @@
 package org.icgc.dcc.release.core.util;
 
 import static com.google.common.base.Strings.isNullOrEmpty;
-import static com.google.common.io.Files.copy;
-import static com.google.common.io.Resources.asByteSource;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.io.Files.write;
 import static com.google.common.io.Resources.getResource;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static lombok.AccessLevel.PRIVATE;
 
 import java.io.File;
@@ -38,14 +40,17 @@ import org.apache.hadoop.mapred.JobConf;
 import org.apache.spark.SparkConf;
 import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaRDD;
+import org.icgc.dcc.release.core.document.DocumentType;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.common.io.Resources;
 
 @Slf4j
 @NoArgsConstructor(access = PRIVATE)
 public final class Configurations {
 
   public static final String SCHEDULER_CONFIG = "scheduler.xml";
+  private static final String SCHEDULER_CONFIG_END = "</allocations>";
 
   public static void addCompressionCodec(@NonNull JobConf conf, Class<? extends CompressionCodec> codecClass) {
     val codecsProperty = "io.compression.codecs";
@@ -97,7 +102,27 @@ public final class Configurations {
   private static void copyConfig(File configFile) {
     val configLocation = getResource(SCHEDULER_CONFIG);
     log.debug("Config location: {}", configLocation);
-    copy(asByteSource(configLocation), configFile);
+    val config = Resources.toString(configLocation, UTF_8);
+    val end = config.lastIndexOf(SCHEDULER_CONFIG_END);
+    checkState(end >= 0, "Malformed scheduler config %s", configLocation);
+
+    write(config.substring(0, end) + createDocumentPools() + config.substring(end), configFile, UTF_8);
+  }
+
+  /**
+   * Each document type is written in its own pool weighted by the priority of the type.
+   */
+  private static String createDocumentPools() {
+    val pools = new StringBuilder();
+    for (val documentType : DocumentType.values()) {
+      pools.append(format("  <pool name=\"%s\">%n", documentType.getPool()))
+          .append(format("    <schedulingMode>FAIR</schedulingMode>%n"))
+          .append(format("    <weight>%d</weight>%n", documentType.getPriority().getWeight()))
+          .append(format("    <minShare>0</minShare>%n"))
+          .append(format("  </pool>%n"));
+    }
+
+    return pools.toString();
   }
 
 }
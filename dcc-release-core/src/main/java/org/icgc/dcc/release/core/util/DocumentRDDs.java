@@ -21,7 +21,7 @@ import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static lombok.AccessLevel.PRIVATE;
-import static org.icgc.dcc.release.core.util.JacksonFactory.SMILE_READER;
+import static org.icgc.dcc.release.core.util.DocumentSources.readSource;
 import static org.icgc.dcc.release.core.util.JacksonFactory.SMILE_WRITER;
 import static org.icgc.dcc.release.core.util.ObjectNodes.MAPPER;
 import static org.icgc.dcc.release.core.util.ObjectNodes.textValue;
@@ -40,6 +40,7 @@ import org.apache.spark.api.java.JavaSparkContext;
 import org.apache.spark.api.java.function.PairFunction;
 import org.icgc.dcc.release.core.document.Document;
 import org.icgc.dcc.release.core.document.DocumentType;
+import org.icgc.dcc.release.core.document.RawDocument;
 
 import scala.Tuple2;
 
@@ -76,10 +77,26 @@ public final class DocumentRDDs {
     JavaRDDs.saveAsSequenceFile(pairRdd, Text.class, BytesWritable.class, path, conf);
   }
 
+  public static void saveAsTextRawDocumentFile(@NonNull JavaRDD<RawDocument> rdd, @NonNull String path) {
+    val output = rdd.map(row -> new String(row.getSource(), UTF_8));
+    JavaRDDs.saveAsTextFile(output, path);
+  }
+
+  /**
+   * Saves the JSON-encoded sources as is. They are read back by {@link #combineDocumentSequenceFile} the same way as
+   * the Smile-encoded ones.
+   */
+  public static void saveAsSequenceIdRawDocumentFile(@NonNull JavaRDD<RawDocument> rdd, @NonNull String path) {
+    val conf = Configurations.createJobConf(rdd);
+    val pairRdd = rdd.mapToPair(row -> tuple(new Text(row.getId()), new BytesWritable(row.getSource())));
+
+    JavaRDDs.saveAsSequenceFile(pairRdd, Text.class, BytesWritable.class, path, conf);
+  }
+
   private static PairFunction<Tuple2<Text, BytesWritable>, String, ObjectNode> convertToIdAndSource() {
     return tuple -> {
       String documentId = new String(tuple._1.copyBytes(), UTF_8);
-      ObjectNode value = (ObjectNode) SMILE_READER.readValue(tuple._2.copyBytes());
+      ObjectNode value = readSource(tuple._2.copyBytes());
 
       return tuple(documentId, value);
     };
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.core.util;
+
+import static lombok.AccessLevel.PRIVATE;
+import static org.icgc.dcc.release.core.util.JacksonFactory.MAPPER;
+import static org.icgc.dcc.release.core.util.JacksonFactory.READER;
+import static org.icgc.dcc.release.core.util.JacksonFactory.SMILE_FACTORY;
+import static org.icgc.dcc.release.core.util.JacksonFactory.SMILE_READER;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import lombok.Cleanup;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+import lombok.SneakyThrows;
+import lombok.val;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.io.ByteStreams;
+
+/**
+ * Utilities for document sources stored in the document sequence files. A source is either Smile-encoded (the
+ * default) or JSON-encoded (written by streaming document transforms). As the Smile header is not written, the
+ * encoding is detected by the first byte which is always <code>{</code> for a JSON object.
+ */
+@NoArgsConstructor(access = PRIVATE)
+public final class DocumentSources {
+
+  /**
+   * Constants.
+   */
+  private static final byte JSON_OBJECT_START = '{';
+
+  public static boolean isJson(@NonNull byte[] source) {
+    return isJson(source, 0, source.length);
+  }
+
+  public static boolean isJson(@NonNull byte[] source, int offset, int length) {
+    return length > 0 && source[offset] == JSON_OBJECT_START;
+  }
+
+  public static ObjectReader getReader(@NonNull byte[] source) {
+    return isJson(source) ? READER : SMILE_READER;
+  }
+
+  @SneakyThrows
+  public static ObjectNode readSource(@NonNull byte[] source) {
+    return getReader(source).readValue(source);
+  }
+
+  /**
+   * @return {@code source} itself if it's already JSON-encoded
+   */
+  @SneakyThrows
+  public static byte[] toJson(@NonNull byte[] source) {
+    if (isJson(source)) {
+      return source;
+    }
+
+    val buffer = new ByteArrayBuilder(source.length);
+    writeJson(source, 0, source.length, buffer);
+
+    return buffer.toByteArray();
+  }
+
+  /**
+   * Writes {@code length} bytes of {@code source} starting at {@code offset} to {@code outputStream} as JSON. A
+   * Smile-encoded source is transcoded token by token, without building a tree. The {@code outputStream} is left open.
+   */
+  public static void writeJson(@NonNull byte[] source, int offset, int length, @NonNull OutputStream outputStream)
+      throws IOException {
+    if (isJson(source, offset, length)) {
+      outputStream.write(source, offset, length);
+
+      return;
+    }
+
+    @Cleanup
+    val parser = SMILE_FACTORY.createParser(source, offset, length);
+    @Cleanup
+    val generator = MAPPER.getFactory().createGenerator(outputStream);
+    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    parser.nextToken();
+    generator.copyCurrentStructure(parser);
+  }
+
+  /**
+   * Streams the source read from {@code inputStream} to {@code outputStream} as JSON. A Smile-encoded source is
+   * transcoded token by token, without building a tree. Both streams are left open.
+   */
+  public static void writeJson(@NonNull InputStream inputStream, @NonNull OutputStream outputStream)
+      throws IOException {
+    val bufferedInputStream = new BufferedInputStream(inputStream);
+    bufferedInputStream.mark(1);
+    val first = bufferedInputStream.read();
+    bufferedInputStream.reset();
+
+    if (first == JSON_OBJECT_START) {
+      ByteStreams.copy(bufferedInputStream, outputStream);
+
+      return;
+    }
+
+    @Cleanup
+    val parser = SMILE_FACTORY.createParser(bufferedInputStream);
+    parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+    @Cleanup
+    val generator = MAPPER.getFactory().createGenerator(outputStream);
+    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    parser.nextToken();
+    generator.copyCurrentStructure(parser);
+  }
+
+}
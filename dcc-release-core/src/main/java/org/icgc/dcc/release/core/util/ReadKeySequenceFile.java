@@ -17,6 +17,8 @@
  */
 package org.icgc.dcc.release.core.util;
 
+import static org.icgc.dcc.release.core.util.DocumentSources.isJson;
+import static org.icgc.dcc.release.core.util.JacksonFactory.createObjectReader;
 import static org.icgc.dcc.release.core.util.JacksonFactory.createSmileObjectReader;
 import static org.icgc.dcc.release.core.util.Tuples.tuple;
 import lombok.NonNull;
@@ -35,6 +37,7 @@ public final class ReadKeySequenceFile<T> implements
 
   private final Class<T> clazz;
   private transient ObjectReader reader;
+  private transient ObjectReader jsonReader;
 
   public ReadKeySequenceFile(@NonNull Class<T> clazz) {
     this.clazz = clazz;
@@ -45,7 +48,10 @@ public final class ReadKeySequenceFile<T> implements
     checkReader();
 
     val key = tuple._1.toString();
-    T value = reader.readValue(tuple._2.copyBytes());
+    val bytes = tuple._2.copyBytes();
+
+    // Document sequence files may contain JSON-encoded sources written by the streaming document transforms
+    T value = isJson(bytes) ? jsonReader.readValue(bytes) : reader.readValue(bytes);
 
     return tuple(key, value);
   }
@@ -53,6 +59,7 @@ public final class ReadKeySequenceFile<T> implements
   private void checkReader() {
     if (reader == null) {
       reader = createSmileObjectReader(clazz);
+      jsonReader = createObjectReader(clazz);
     }
   }
 
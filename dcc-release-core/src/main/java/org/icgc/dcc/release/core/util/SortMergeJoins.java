@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.core.util;
+
+import static com.google.common.base.Preconditions.checkState;
+import static lombok.AccessLevel.PRIVATE;
+import static org.icgc.dcc.release.core.util.Tuples.tuple;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+import lombok.val;
+
+import org.apache.spark.HashPartitioner;
+import org.apache.spark.api.java.JavaPairRDD;
+import org.apache.spark.api.java.JavaRDD;
+
+import scala.Tuple2;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.PeekingIterator;
+
+/**
+ * Joins of two pair RDDs which don't build in-memory hash tables of either side.
+ * <p>
+ * Both RDDs are co-partitioned with the same partitioner and sorted by key within the partitions. The partitions are
+ * then merged in a single pass. This is an alternative to broadcasting a lookup side which is too big to be collected
+ * on the driver.
+ */
+@NoArgsConstructor(access = PRIVATE)
+public final class SortMergeJoins {
+
+  /**
+   * Left outer joins {@code left} and {@code right}. Keys of the {@code right} RDD must be unique, i.e. it is a lookup
+   * side. A repeated key fails the join, the same as with {@link #collectLookup(JavaPairRDD)}.
+   */
+  public static <K extends Comparable<? super K>, L, R> JavaRDD<Tuple2<L, Optional<R>>> leftOuterJoin(
+      @NonNull JavaPairRDD<K, L> left, @NonNull JavaPairRDD<K, R> right, int partitions) {
+    val partitioner = new HashPartitioner(Math.max(1, partitions));
+    val sortedLeft = left.repartitionAndSortWithinPartitions(partitioner);
+    val sortedRight = right.repartitionAndSortWithinPartitions(partitioner);
+
+    return sortedLeft.zipPartitions(sortedRight, (l, r) -> MoreIterables.once(merge(l, r)));
+  }
+
+  /**
+   * Left outer joins {@code left} with the values of {@code right} grouped by key, the same as grouping {@code right}
+   * by key and left outer joining the groups. Only the values of a single key are held in memory at a time. The groups
+   * are absent for the keys without values.
+   */
+  public static <K extends Comparable<? super K>, L, R>
+      JavaRDD<Tuple2<K, Tuple2<L, Optional<Iterable<R>>>>> leftOuterGroupJoin(
+          @NonNull JavaPairRDD<K, L> left, @NonNull JavaPairRDD<K, R> right, int partitions) {
+    val partitioner = new HashPartitioner(Math.max(1, partitions));
+    val sortedLeft = left.repartitionAndSortWithinPartitions(partitioner);
+    val sortedRight = right.repartitionAndSortWithinPartitions(partitioner);
+
+    return sortedLeft.zipPartitions(sortedRight, (l, r) -> MoreIterables.once(mergeGroups(l, r)));
+  }
+
+  /**
+   * Collects the lookup side of a broadcast join, the counterpart of
+   * {@link #leftOuterJoin(JavaPairRDD, JavaPairRDD, int)} for a small {@code lookup}. A repeated key fails the same as
+   * in the sort-merge join, so the result doesn't depend on the join picked.
+   */
+  public static <K, V> Map<K, V> collectLookup(@NonNull JavaPairRDD<K, V> lookup) {
+    val pairs = lookup.collect();
+    val map = Maps.<K, V> newHashMapWithExpectedSize(pairs.size());
+    for (val pair : pairs) {
+      checkUniqueKey(map.put(pair._1, pair._2) == null, pair._1);
+    }
+
+    return map;
+  }
+
+  static <K extends Comparable<? super K>, L, R> Iterator<Tuple2<L, Optional<R>>> merge(
+      Iterator<Tuple2<K, L>> left, Iterator<Tuple2<K, R>> right) {
+    return new AbstractIterator<Tuple2<L, Optional<R>>>() {
+
+      /**
+       * State.
+       */
+      private Tuple2<K, R> entry;
+
+      @Override
+      protected Tuple2<L, Optional<R>> computeNext() {
+        if (!left.hasNext()) {
+          // Checks the rest of the lookup keys, as the broadcast lookup does
+          while (right.hasNext()) {
+            nextEntry();
+          }
+
+          return endOfData();
+        }
+
+        Tuple2<K, L> next = left.next();
+        K key = next._1;
+
+        // Skip lookup keys which don't have a left counterpart. The last one is kept, as the next left key could be the
+        // same
+        while ((entry == null || entry._1.compareTo(key) < 0) && right.hasNext()) {
+          nextEntry();
+        }
+
+        boolean match = entry != null && entry._1.compareTo(key) == 0;
+        Optional<R> value = match ? Optional.of(entry._2) : Optional.<R> absent();
+
+        return tuple(next._2, value);
+      }
+
+      private void nextEntry() {
+        Tuple2<K, R> previous = entry;
+        entry = right.next();
+        checkUniqueKey(previous == null || previous._1.compareTo(entry._1) != 0, entry._1);
+      }
+
+    };
+  }
+
+  static <K extends Comparable<? super K>, L, R> Iterator<Tuple2<K, Tuple2<L, Optional<Iterable<R>>>>>
+      mergeGroups(Iterator<Tuple2<K, L>> left, Iterator<Tuple2<K, R>> right) {
+    final PeekingIterator<Tuple2<K, R>> values = Iterators.peekingIterator(right);
+
+    return new AbstractIterator<Tuple2<K, Tuple2<L, Optional<Iterable<R>>>>>() {
+
+      /**
+       * State.
+       */
+      private K groupKey;
+      private List<R> group;
+
+      @Override
+      protected Tuple2<K, Tuple2<L, Optional<Iterable<R>>>> computeNext() {
+        if (!left.hasNext()) {
+          return endOfData();
+        }
+
+        Tuple2<K, L> next = left.next();
+        K key = next._1;
+
+        // Repeated left keys share the group
+        if (groupKey == null || groupKey.compareTo(key) != 0) {
+          // Skip values which don't have a left counterpart
+          while (values.hasNext() && values.peek()._1.compareTo(key) < 0) {
+            values.next();
+          }
+
+          group = Lists.newArrayList();
+          while (values.hasNext() && values.peek()._1.compareTo(key) == 0) {
+            group.add(values.next()._2);
+          }
+
+          groupKey = key;
+        }
+
+        Optional<Iterable<R>> value = group.isEmpty() ? Optional.<Iterable<R>> absent() : Optional.of(group);
+
+        return tuple(key, tuple(next._2, value));
+      }
+
+    };
+  }
+
+  private static void checkUniqueKey(boolean unique, Object key) {
+    checkState(unique, "Lookup key '%s' is not unique", key);
+  }
+
+}
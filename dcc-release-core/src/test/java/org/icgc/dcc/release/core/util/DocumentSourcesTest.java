@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.core.util;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.icgc.dcc.release.core.function.JsonNodes.$;
+import static org.icgc.dcc.release.core.util.JacksonFactory.MAPPER;
+import static org.icgc.dcc.release.core.util.JacksonFactory.SMILE_WRITER;
+
+import java.io.ByteArrayInputStream;
+
+import lombok.val;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.base.Strings;
+
+public class DocumentSourcesTest {
+
+  private static final ObjectNode SOURCE = $("{id:'1', name:'gene', score:0.5, sets:[{id:'GO:1'}, {id:null}], "
+      + "nested:{flag:true, count:1234567890123}}");
+
+  @Test
+  public void testIsJson() throws Exception {
+    assertThat(DocumentSources.isJson(MAPPER.writeValueAsBytes(SOURCE))).isTrue();
+    assertThat(DocumentSources.isJson(SMILE_WRITER.writeValueAsBytes(SOURCE))).isFalse();
+    assertThat(DocumentSources.isJson(new byte[0])).isFalse();
+  }
+
+  @Test
+  public void testWriteJsonSmile() throws Exception {
+    val smile = SMILE_WRITER.writeValueAsBytes(SOURCE);
+    val buffer = new ByteArrayBuilder();
+
+    DocumentSources.writeJson(smile, 0, smile.length, buffer);
+
+    assertThat(MAPPER.readTree(buffer.toByteArray())).isEqualTo(SOURCE);
+  }
+
+  @Test
+  public void testWriteJsonRange() throws Exception {
+    // Hadoop writables are usually backed by a larger array
+    val smile = SMILE_WRITER.writeValueAsBytes(SOURCE);
+    val padded = new byte[smile.length + 8];
+    System.arraycopy(smile, 0, padded, 3, smile.length);
+    val buffer = new ByteArrayBuilder();
+
+    DocumentSources.writeJson(padded, 3, smile.length, buffer);
+
+    assertThat(MAPPER.readTree(buffer.toByteArray())).isEqualTo(SOURCE);
+  }
+
+  @Test
+  public void testWriteJsonReusedBuffer() throws Exception {
+    val buffer = new ByteArrayBuilder();
+    val first = SMILE_WRITER.writeValueAsBytes($("{id:'first', padding:'" + Strings.repeat("x", 10_000) + "'}"));
+    DocumentSources.writeJson(first, 0, first.length, buffer);
+
+    buffer.reset();
+    val second = SMILE_WRITER.writeValueAsBytes(SOURCE);
+    DocumentSources.writeJson(second, 0, second.length, buffer);
+
+    assertThat(MAPPER.readTree(buffer.toByteArray())).isEqualTo(SOURCE);
+  }
+
+  @Test
+  public void testWriteJsonPassThrough() throws Exception {
+    val json = "{\"id\":\"1\"}".getBytes(UTF_8);
+    val buffer = new ByteArrayBuilder();
+
+    DocumentSources.writeJson(json, 0, json.length, buffer);
+
+    assertThat(buffer.toByteArray()).isEqualTo(json);
+    assertThat(DocumentSources.toJson(json)).isSameAs(json);
+  }
+
+  @Test
+  public void testWriteJsonStream() throws Exception {
+    val smile = new ByteArrayInputStream(SMILE_WRITER.writeValueAsBytes(SOURCE));
+    val buffer = new ByteArrayBuilder();
+
+    DocumentSources.writeJson(smile, buffer);
+
+    assertThat(MAPPER.readTree(buffer.toByteArray())).isEqualTo(SOURCE);
+  }
+
+  @Test
+  public void testWriteJsonStreamPassThrough() throws Exception {
+    val json = MAPPER.writeValueAsBytes(SOURCE);
+    val buffer = new ByteArrayBuilder();
+
+    DocumentSources.writeJson(new ByteArrayInputStream(json), buffer);
+
+    assertThat(buffer.toByteArray()).isEqualTo(json);
+  }
+
+  @Test
+  public void testToJson() throws Exception {
+    val json = DocumentSources.toJson(SMILE_WRITER.writeValueAsBytes(SOURCE));
+
+    assertThat(DocumentSources.isJson(json)).isTrue();
+    assertThat(DocumentSources.readSource(json)).isEqualTo(SOURCE);
+  }
+
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.core.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.icgc.dcc.release.core.util.Tuples.tuple;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.List;
+
+import lombok.val;
+
+import org.apache.spark.api.java.JavaPairRDD;
+import org.junit.Test;
+
+import scala.Tuple2;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+
+public class SortMergeJoinsTest {
+
+  @Test
+  public void testMerge() {
+    val left = ImmutableList.of(tuple("a", 1), tuple("b", 2), tuple("b", 3), tuple("d", 4));
+    val right = ImmutableList.of(tuple("b", "B"), tuple("c", "C"), tuple("d", "D"), tuple("e", "E"));
+
+    val result = ImmutableList.copyOf(SortMergeJoins.merge(left.iterator(), right.iterator()));
+
+    assertThat(result).containsExactly(
+        tuple(1, Optional.<String> absent()),
+        tuple(2, Optional.of("B")),
+        tuple(3, Optional.of("B")),
+        tuple(4, Optional.of("D")));
+  }
+
+  @Test
+  public void testMergeEmptyLookup() {
+    val left = ImmutableList.of(tuple("a", 1));
+    val result = ImmutableList.copyOf(SortMergeJoins.merge(left.iterator(),
+        Collections.<Tuple2<String, String>> emptyIterator()));
+
+    assertThat(result).containsExactly(tuple(1, Optional.<String> absent()));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testMergeDuplicateLookupKey() {
+    val left = ImmutableList.of(tuple("a", 1), tuple("b", 2));
+    val right = ImmutableList.of(tuple("b", "B1"), tuple("b", "B2"));
+
+    ImmutableList.copyOf(SortMergeJoins.merge(left.iterator(), right.iterator()));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testMergeDuplicateUnmatchedLookupKey() {
+    // Fails as the broadcast lookup does, even though nothing is joined to the key
+    val left = ImmutableList.of(tuple("a", 1));
+    val right = ImmutableList.of(tuple("c", "C1"), tuple("c", "C2"));
+
+    ImmutableList.copyOf(SortMergeJoins.merge(left.iterator(), right.iterator()));
+  }
+
+  @Test
+  public void testCollectLookup() {
+    val lookup = SortMergeJoins.collectLookup(mockPairs(ImmutableList.of(tuple("b", "B"), tuple("c", "C"))));
+
+    assertThat(lookup).containsOnlyKeys("b", "c");
+    assertThat(lookup.get("b")).isEqualTo("B");
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testCollectLookupDuplicateKey() {
+    SortMergeJoins.collectLookup(mockPairs(ImmutableList.of(tuple("b", "B1"), tuple("b", "B2"))));
+  }
+
+  @Test
+  public void testMergeGroups() {
+    val left = ImmutableList.of(tuple("a", 1), tuple("b", 2), tuple("b", 3), tuple("d", 4));
+    val right = ImmutableList.of(tuple("b", "B1"), tuple("b", "B2"), tuple("c", "C"), tuple("d", "D"),
+        tuple("e", "E"));
+
+    val result = ImmutableList.copyOf(SortMergeJoins.mergeGroups(left.iterator(), right.iterator()));
+
+    assertThat(result).containsExactly(
+        tuple("a", tuple(1, Optional.<Iterable<String>> absent())),
+        tuple("b", tuple(2, Optional.<Iterable<String>> of(ImmutableList.of("B1", "B2")))),
+        tuple("b", tuple(3, Optional.<Iterable<String>> of(ImmutableList.of("B1", "B2")))),
+        tuple("d", tuple(4, Optional.<Iterable<String>> of(ImmutableList.of("D")))));
+  }
+
+  @Test
+  public void testMergeGroupsEmptyValues() {
+    val left = ImmutableList.of(tuple("a", 1));
+    val result = ImmutableList.copyOf(SortMergeJoins.mergeGroups(left.iterator(),
+        Collections.<Tuple2<String, String>> emptyIterator()));
+
+    assertThat(result).containsExactly(tuple("a", tuple(1, Optional.<Iterable<String>> absent())));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static JavaPairRDD<String, String> mockPairs(List<Tuple2<String, String>> pairs) {
+    JavaPairRDD<String, String> rdd = mock(JavaPairRDD.class);
+    when(rdd.collect()).thenReturn(pairs);
+
+    return rdd;
+  }
+
+}
@@ -41,4 +41,36 @@ public class DocumentProperties implements Serializable {
    */
   List<String> includeTypes = newArrayList();
 
+  /**
+   * Fraction of the observations sampled to detect hypermutated donors. Non-positive disables the detection.
+   */
+  double skewSampleFraction = 0.05;
+
+  /**
+   * Donors with at least this many times the median number of observations are split over {@link #skewSalts} keys.
+   */
+  double skewFactor = 100;
+
+  /**
+   * Number of sub-keys a hypermutated donor is split into.
+   */
+  int skewSalts = 32;
+
+  /**
+   * Documents bigger than the threshold are written to the big documents directory instead of the document files.
+   * Applies to the gene-centric documents.
+   */
+  int bigDocumentThresholdMb = 100;
+
+  /**
+   * Number of light document types written concurrently, in addition to the heavy ones.
+   */
+  int concurrentTypes = 4;
+
+  /**
+   * Number of heavy document types, the ones which read the observations or have a custom parallelism, written
+   * concurrently.
+   */
+  int concurrentHeavyTypes = 1;
+
 }
@@ -18,6 +18,7 @@
 package org.icgc.dcc.release.job.document.context;
 
 import static java.lang.String.format;
+import static org.icgc.dcc.release.core.util.SmileMaps.decodeLazily;
 import static org.icgc.dcc.release.job.document.util.Fakes.FAKE_GENE_ID;
 import static org.icgc.dcc.release.job.document.util.Fakes.createFakeGene;
 
@@ -105,7 +106,7 @@ public class DefaultDocumentContext implements DocumentContext {
   }
 
   private Map<String, ObjectNode> filterGenes() {
-    return documentJobContext.getGenesBroadcast().getValue();
+    return decodeLazily(documentJobContext.getGenesBroadcast().getValue());
   }
 
   private Map<String, ObjectNode> filterProjects() {
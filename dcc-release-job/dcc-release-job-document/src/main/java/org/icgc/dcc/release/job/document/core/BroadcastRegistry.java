@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.document.core;
+
+import static java.lang.String.format;
+import static org.icgc.dcc.release.job.document.util.DocumentTypes.getBroadcastDependencies;
+import static org.icgc.dcc.release.job.document.util.DocumentTypes.getFields;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import lombok.NonNull;
+import lombok.SneakyThrows;
+import lombok.Value;
+import lombok.val;
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.spark.api.java.JavaSparkContext;
+import org.apache.spark.broadcast.Broadcast;
+import org.icgc.dcc.release.core.document.DocumentType;
+import org.icgc.dcc.release.core.job.JobContext;
+import org.icgc.dcc.release.core.task.Task;
+import org.icgc.dcc.release.job.document.model.BroadcastType;
+import org.icgc.dcc.release.job.document.task.ResolveCivicTask;
+import org.icgc.dcc.release.job.document.task.ResolveClinvarTask;
+import org.icgc.dcc.release.job.document.task.ResolveDonorsTask;
+import org.icgc.dcc.release.job.document.task.ResolveGenesTask;
+import org.icgc.dcc.release.job.document.task.ResolveProjectsTask;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+
+/**
+ * Reference counted registry of the broadcasts the document types depend on.
+ * <p>
+ * A broadcast is resolved by the first document type which depends on it and is reused by the following document types
+ * which read the same fields of the broadcast collection. Document types acquiring a broadcast while it is being
+ * resolved wait for it instead of resolving it again. It is destroyed when the last of them is released.
+ * <p>
+ * This class is thread-safe, so concurrently executed document types may share it.
+ */
+@Slf4j
+public class BroadcastRegistry {
+
+  /**
+   * Dependencies.
+   */
+  private final JavaSparkContext sparkContext;
+
+  /**
+   * State.
+   */
+  private final Map<BroadcastKey, Integer> references = Maps.newHashMap();
+  private final Map<BroadcastKey, CompletableFuture<Broadcast<?>>> broadcasts = Maps.newHashMap();
+
+  public BroadcastRegistry(@NonNull JavaSparkContext sparkContext, @NonNull Iterable<DocumentType> documentTypes) {
+    this.sparkContext = sparkContext;
+    for (val documentType : documentTypes) {
+      for (val broadcastType : getBroadcastDependencies(documentType)) {
+        references.merge(createKey(documentType, broadcastType), 1, Integer::sum);
+      }
+    }
+  }
+
+  /**
+   * Resolves the broadcasts the {@code documentType} depends on, which were not resolved by a previous document type.
+   */
+  public Map<BroadcastType, Broadcast<?>> acquire(@NonNull JobContext jobContext, @NonNull DocumentType documentType) {
+    val resolving = Maps.<BroadcastKey, Task> newLinkedHashMap();
+    val futures = Maps.<BroadcastType, CompletableFuture<Broadcast<?>>> newLinkedHashMap();
+    synchronized (this) {
+      for (val broadcastType : getBroadcastDependencies(documentType)) {
+        val key = createKey(documentType, broadcastType);
+        CompletableFuture<Broadcast<?>> future = broadcasts.get(key);
+        if (future == null) {
+          future = new CompletableFuture<Broadcast<?>>();
+          broadcasts.put(key, future);
+          resolving.put(key, createDependencyTask(broadcastType, documentType));
+        } else {
+          log.info("Reusing {} broadcast for {}", broadcastType, documentType);
+        }
+
+        futures.put(broadcastType, future);
+      }
+    }
+
+    if (!resolving.isEmpty()) {
+      resolve(jobContext, resolving, futures);
+    }
+
+    val result = ImmutableMap.<BroadcastType, Broadcast<?>> builder();
+    for (val entry : futures.entrySet()) {
+      result.put(entry.getKey(), entry.getValue().join());
+    }
+
+    return result.build();
+  }
+
+  /**
+   * Releases the broadcasts the {@code documentType} depends on. Destroys the ones no other document type depends on.
+   */
+  public synchronized void release(@NonNull DocumentType documentType) {
+    for (val broadcastType : getBroadcastDependencies(documentType)) {
+      val key = createKey(documentType, broadcastType);
+      val count = references.merge(key, -1, Integer::sum);
+      if (count == 0) {
+        references.remove(key);
+        val future = broadcasts.remove(key);
+        if (future != null && future.isDone() && !future.isCompletedExceptionally()) {
+          log.info("Destroying {} broadcast after {}", broadcastType, documentType);
+          future.join().destroy(false);
+        }
+      }
+    }
+  }
+
+  private void resolve(JobContext jobContext, Map<BroadcastKey, Task> tasks,
+      Map<BroadcastType, CompletableFuture<Broadcast<?>>> futures) {
+    try {
+      jobContext.execute(tasks.values());
+      for (val entry : tasks.entrySet()) {
+        val type = entry.getKey().getType();
+        futures.get(type).complete(createBroadcast(type, entry.getValue()));
+      }
+    } catch (Throwable t) {
+      // Fail the document types waiting for the broadcasts as well
+      for (val key : tasks.keySet()) {
+        futures.get(key.getType()).completeExceptionally(t);
+      }
+
+      throw t;
+    }
+  }
+
+  private Broadcast<?> createBroadcast(BroadcastType broadcastType, Task task) {
+    switch (broadcastType) {
+    case PROJECT:
+      return sparkContext.broadcast(((ResolveProjectsTask) task).getProjectIdProjects());
+    case DONOR:
+      return sparkContext.broadcast(((ResolveDonorsTask) task).getProjectDonors());
+    case GENE:
+      return sparkContext.broadcast(((ResolveGenesTask) task).getGeneIdGenes());
+    case CLINVAR:
+      return sparkContext.broadcast(((ResolveClinvarTask) task).getAnnotationIdClinvar());
+    case CIVIC:
+      return sparkContext.broadcast(((ResolveCivicTask) task).getAnnotationIdCivic());
+    default:
+      throw new IllegalArgumentException(format("Unrecoginzed broadcast type %s", broadcastType));
+    }
+  }
+
+  @SneakyThrows
+  private static Task createDependencyTask(BroadcastType broadcastType, DocumentType documentType) {
+    val clazz = broadcastType.getDependencyClass();
+    val constructor = clazz.getConstructor(DocumentType.class);
+
+    return constructor.newInstance(documentType);
+  }
+
+  private static BroadcastKey createKey(DocumentType documentType, BroadcastType broadcastType) {
+    val fields = getFields(documentType).getFields(broadcastType.getCollection());
+
+    return new BroadcastKey(
+        broadcastType,
+        ImmutableList.copyOf(fields.getIncludedFields()),
+        ImmutableList.copyOf(fields.getExcludedFields()));
+  }
+
+  /**
+   * Broadcasts of the same type are interchangeable if they project the same fields.
+   */
+  @Value
+  private static class BroadcastKey {
+
+    BroadcastType type;
+    List<String> includedFields;
+    List<String> excludedFields;
+
+  }
+
+}
@@ -17,18 +17,31 @@
  */
 package org.icgc.dcc.release.job.document.core;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static java.lang.String.format;
 import static org.icgc.dcc.common.core.util.stream.Collectors.toImmutableSet;
-import static org.icgc.dcc.release.job.document.util.DocumentTypes.getBroadcastDependencies;
+import static org.icgc.dcc.release.job.document.core.DocumentPlanner.getExecutionOrder;
+import static org.icgc.dcc.release.job.document.core.DocumentPlanner.getPivotedGenesConsumers;
+import static org.icgc.dcc.release.job.document.core.DocumentPlanner.getPivotedGenesFields;
+import static org.icgc.dcc.release.job.document.core.DocumentPlanner.getSharedObservationFields;
+import static org.icgc.dcc.release.job.document.core.DocumentPlanner.getSharedObservationsConsumers;
+import static org.icgc.dcc.release.job.document.core.DocumentPlanner.isHeavy;
 import static org.icgc.dcc.release.job.document.util.DocumentTypes.getDocumentClassName;
+import static org.icgc.dcc.release.job.document.util.DocumentTypes.isSharedObservations;
 
 import java.lang.reflect.Constructor;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.val;
+import lombok.extern.slf4j.Slf4j;
 
 import org.apache.spark.api.java.JavaSparkContext;
 import org.apache.spark.broadcast.Broadcast;
@@ -43,18 +56,16 @@ import org.icgc.dcc.release.job.document.config.DocumentProperties;
 import org.icgc.dcc.release.job.document.core.DocumentJobContext.DocumentJobContextBuilder;
 import org.icgc.dcc.release.job.document.model.BroadcastType;
 import org.icgc.dcc.release.job.document.task.CreateVCFFileTask;
-import org.icgc.dcc.release.job.document.task.ResolveDonorsTask;
-import org.icgc.dcc.release.job.document.task.ResolveGenesTask;
-import org.icgc.dcc.release.job.document.task.ResolveProjectsTask;
-import org.icgc.dcc.release.job.document.task.ResolveClinvarTask;
-import org.icgc.dcc.release.job.document.task.ResolveCivicTask;
+import org.icgc.dcc.release.job.document.task.PivotGenesTask;
+import org.icgc.dcc.release.job.document.task.ResolveObservationsTask;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
+@Slf4j
 @Component
 @RequiredArgsConstructor(onConstructor = @__({ @Autowired }))
 public class DocumentJob extends GenericJob {
@@ -89,15 +100,32 @@ public class DocumentJob extends GenericJob {
     for (val documentType : DocumentType.values()) {
       outputFileTypes.add(documentType.getOutputFileType());
     }
+    outputFileTypes.add(FileType.BIG_DOCUMENT);
+    outputFileTypes.add(FileType.GENE_PIVOTED);
 
     return outputFileTypes.toArray(new FileType[outputFileTypes.size()]);
   }
 
   private void write(JobContext jobContext) {
-    for (val documentType : getDocumentTypes()) {
-      val documentJobContext = createDocumentJobContext(jobContext, documentType);
-      jobContext.execute(createStreamingTask(jobContext, documentType, documentJobContext));
-      destroyBroadcasts(documentJobContext);
+    val documentTypes = getDocumentTypes();
+    val sharedObservations = resolveSharedObservations(jobContext, documentTypes);
+    pivotGenes(jobContext, documentTypes);
+    val broadcasts = new BroadcastRegistry(sparkContext, documentTypes);
+
+    // Light types are not queued behind the heavy ones
+    val heavyTypesExecutor = createExecutor("heavy", properties.getConcurrentHeavyTypes());
+    val lightTypesExecutor = createExecutor("light", properties.getConcurrentTypes());
+    try {
+      val futures = Lists.<Future<?>> newArrayList();
+      for (val documentType : getExecutionOrder(documentTypes)) {
+        val executor = isHeavy(documentType) ? heavyTypesExecutor : lightTypesExecutor;
+        futures.add(executor.submit(() -> write(jobContext, documentType, sharedObservations, broadcasts)));
+      }
+
+      await(futures);
+    } finally {
+      heavyTypesExecutor.shutdownNow();
+      lightTypesExecutor.shutdownNow();
     }
 
     // Generate SSM VCF file
@@ -106,6 +134,45 @@ public class DocumentJob extends GenericJob {
     }
   }
 
+  private void write(JobContext jobContext, DocumentType documentType, SharedObservations sharedObservations,
+      BroadcastRegistry broadcasts) {
+    log.info("Writing {} documents...", documentType);
+    val documentJobContext = createDocumentJobContext(jobContext, documentType, sharedObservations, broadcasts);
+    try {
+      jobContext.execute(createStreamingTask(jobContext, documentType, documentJobContext));
+    } finally {
+      // Also when failed or cancelled, so that the other types still running don't hold on to them
+      broadcasts.release(documentType);
+      releaseObservations(documentJobContext);
+    }
+  }
+
+  private static ExecutorService createExecutor(String name, int threads) {
+    checkArgument(threads > 0, "Number of concurrent %s document types must be positive", name);
+    val threadFactory = new ThreadFactoryBuilder()
+        .setNameFormat("document-" + name + "-%d")
+        .build();
+
+    return Executors.newFixedThreadPool(threads, threadFactory);
+  }
+
+  /**
+   * Waits for all the document types, failing fast on the first failure.
+   */
+  @SneakyThrows
+  private void await(List<Future<?>> futures) {
+    for (val future : futures) {
+      try {
+        future.get();
+      } catch (ExecutionException e) {
+        log.error("Failed to write documents. Cancelling the other document types...");
+        sparkContext.cancelAllJobs();
+
+        throw e.getCause();
+      }
+    }
+  }
+
   private Iterable<DocumentType> getDocumentTypes() {
     val includeTypes = properties.getIncludeTypes();
 
@@ -116,6 +183,47 @@ public class DocumentJob extends GenericJob {
             .collect(toImmutableSet());
   }
 
+  /**
+   * Reads the observations once for all the consuming document types.
+   * 
+   * @return {@code null} if there is nothing to share
+   */
+  private SharedObservations resolveSharedObservations(JobContext jobContext, Iterable<DocumentType> documentTypes) {
+    val consumers = getSharedObservationsConsumers(documentTypes);
+    if (consumers.size() < 2) {
+      return null;
+    }
+
+    val fields = getSharedObservationFields(consumers);
+    log.info("Sharing observations between {}. Included fields: {}. Excluded fields: {}", consumers,
+        fields.getIncludedFields(), fields.getExcludedFields());
+    val resolveObservationsTask = new ResolveObservationsTask(fields);
+    jobContext.execute(resolveObservationsTask);
+
+    val sharedObservations =
+        new SharedObservations(sparkContext, resolveObservationsTask.getProjectObservations(), consumers.size());
+
+    // Before the consumers are submitted, which would otherwise all compute them at the same time
+    log.info("Persisted {} shared observations", sharedObservations.materialize());
+
+    return sharedObservations;
+  }
+
+  /**
+   * Pivots the genes once for all the consuming document types.
+   */
+  private static void pivotGenes(JobContext jobContext, Iterable<DocumentType> documentTypes) {
+    val consumers = getPivotedGenesConsumers(documentTypes);
+    if (consumers.isEmpty()) {
+      return;
+    }
+
+    val fields = getPivotedGenesFields(consumers);
+    log.info("Pivoting genes for {}. Included fields: {}. Excluded fields: {}", consumers,
+        fields.getIncludedFields(), fields.getExcludedFields());
+    jobContext.execute(new PivotGenesTask(fields));
+  }
+
   @SneakyThrows
   private Task createStreamingTask(JobContext jobContext, DocumentType documentType, DocumentJobContext documentJobContext) {
     val constructor = getConstructor(documentType);
@@ -132,37 +240,38 @@ public class DocumentJob extends GenericJob {
     return constructor;
   }
 
-  private DocumentJobContext createDocumentJobContext(JobContext jobContext, DocumentType documentType) {
-    val documentJobBuilder = DocumentJobContext.builder();
-    val documentJobDependencies = resolveDependencies(jobContext, documentType);
-    setDependencies(documentJobBuilder, documentJobDependencies);
+  private DocumentJobContext createDocumentJobContext(JobContext jobContext, DocumentType documentType,
+      SharedObservations sharedObservations, BroadcastRegistry broadcasts) {
+    val documentJobBuilder = DocumentJobContext.builder()
+        .properties(properties);
+    if (isSharedObservations(documentType)) {
+      documentJobBuilder.observations(sharedObservations);
+    }
+
+    setDependencies(documentJobBuilder, broadcasts.acquire(jobContext, documentType));
 
     return documentJobBuilder.build();
   }
 
-  private void setDependencies(DocumentJobContextBuilder documentJobBuilder,
-      Map<BroadcastType, ? extends Task> documentJobDependencies) {
+  private static void setDependencies(DocumentJobContextBuilder documentJobBuilder,
+      Map<BroadcastType, Broadcast<?>> documentJobDependencies) {
     for (val entry : documentJobDependencies.entrySet()) {
+      val broadcast = entry.getValue();
       switch (entry.getKey()) {
       case PROJECT:
-        val resolveProjectsTask = (ResolveProjectsTask) entry.getValue();
-        documentJobBuilder.projectsBroadcast(createBroadcast(resolveProjectsTask.getProjectIdProjects()));
+        documentJobBuilder.projectsBroadcast(cast(broadcast));
         break;
       case DONOR:
-        val resolveDonorsTask = (ResolveDonorsTask) entry.getValue();
-        documentJobBuilder.donorsBroadcast(createBroadcast(resolveDonorsTask.getProjectDonors()));
+        documentJobBuilder.donorsBroadcast(cast(broadcast));
         break;
       case GENE:
-        val resolveGenesTask = (ResolveGenesTask) entry.getValue();
-        documentJobBuilder.genesBroadcast(createBroadcast(resolveGenesTask.getGeneIdGenes()));
+        documentJobBuilder.genesBroadcast(cast(broadcast));
         break;
       case CLINVAR:
-        val resolveClinvarTask = (ResolveClinvarTask) entry.getValue();
-        documentJobBuilder.clinvarBroadcast(createBroadcast(resolveClinvarTask.getAnnotationIdClinvar()));
+        documentJobBuilder.clinvarBroadcast(cast(broadcast));
         break;
       case CIVIC:
-        val resolveCivicTask = (ResolveCivicTask) entry.getValue();
-        documentJobBuilder.civicBroadcast(createBroadcast(resolveCivicTask.getAnnotationIdCivic()));
+        documentJobBuilder.civicBroadcast(cast(broadcast));
         break;
       default:
         throw new IllegalArgumentException(format("Unrecoginzed broadcast type %s", entry.getKey()));
@@ -170,56 +279,16 @@ public class DocumentJob extends GenericJob {
     }
   }
 
-  private static Map<BroadcastType, ? extends Task> resolveDependencies(JobContext jobContext,
-      DocumentType documentType) {
-    val tasksBuilder = ImmutableMap.<BroadcastType, Task> builder();
-    for (val dependencyTask : getBroadcastDependencies(documentType)) {
-      tasksBuilder.put(dependencyTask, createDependentyTask(dependencyTask, documentType));
-    }
-
-    val tasks = tasksBuilder.build();
-    jobContext.execute(tasks.values());
-
-    return tasks;
+  @SuppressWarnings("unchecked")
+  private static <T> Broadcast<T> cast(Broadcast<?> broadcast) {
+    return (Broadcast<T>) broadcast;
   }
 
-  @SneakyThrows
-  private static Task createDependentyTask(BroadcastType dependencyTask, DocumentType documentType) {
-    val clazz = dependencyTask.getDependencyClass();
-    val constructor = clazz.getConstructor(DocumentType.class);
-
-    return constructor.newInstance(documentType);
-  }
-
-  private <T> Broadcast<T> createBroadcast(T value) {
-    return sparkContext.broadcast(value);
-  }
-
-  private static void destroyBroadcasts(DocumentJobContext documentJobContext) {
-    val projects = documentJobContext.getProjectsBroadcast();
-    if (projects != null) {
-      projects.destroy(false);
-    }
-
-    val donors = documentJobContext.getDonorsBroadcast();
-    if (donors != null) {
-      donors.destroy(false);
-    }
-
-    val genes = documentJobContext.getGenesBroadcast();
-    if (genes != null) {
-      genes.destroy(false);
-    }
-
-    val clinvar = documentJobContext.getClinvarBroadcast();
-    if (clinvar != null) {
-      clinvar.destroy(false);
-    }
-
-    val civic = documentJobContext.getCivicBroadcast();
-    if (civic != null) {
-      civic.destroy(false);
+  private static void releaseObservations(DocumentJobContext documentJobContext) {
+    val observations = documentJobContext.getObservations();
+    if (observations != null) {
+      observations.release();
     }
   }
 
-}
\ No newline at end of file
+}
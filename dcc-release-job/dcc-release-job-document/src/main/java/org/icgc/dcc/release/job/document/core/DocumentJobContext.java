@@ -25,6 +25,7 @@ import lombok.Value;
 
 import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.broadcast.Broadcast;
+import org.icgc.dcc.release.job.document.config.DocumentProperties;
 
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
@@ -34,8 +35,18 @@ public class DocumentJobContext implements Serializable {
 
   Broadcast<Map<String, ObjectNode>> projectsBroadcast;
   Broadcast<Map<String, ObjectNode>> donorsBroadcast;
-  Broadcast<Map<String, ObjectNode>> genesBroadcast;
+  /**
+   * Smile-encoded genes.
+   */
+  Broadcast<Map<String, byte[]>> genesBroadcast;
   Broadcast<Map<String, ObjectNode>> clinvarBroadcast;
   Broadcast<Map<String, Iterable<ObjectNode>>> civicBroadcast;
 
+  DocumentProperties properties;
+
+  /**
+   * Driver side only.
+   */
+  transient SharedObservations observations;
+
 }
\ No newline at end of file
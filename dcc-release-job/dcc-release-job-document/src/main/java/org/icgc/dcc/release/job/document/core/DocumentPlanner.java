@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.document.core;
+
+import static com.google.common.collect.Iterables.isEmpty;
+import static java.util.Comparator.comparing;
+import static java.util.Comparator.naturalOrder;
+import static java.util.stream.Collectors.toList;
+import static lombok.AccessLevel.PRIVATE;
+import static org.icgc.dcc.release.job.document.model.CollectionFields.collectionFields;
+import static org.icgc.dcc.release.job.document.util.DocumentTypes.getFields;
+import static org.icgc.dcc.release.job.document.util.DocumentTypes.isPivotedGenes;
+import static org.icgc.dcc.release.job.document.util.DocumentTypes.isSharedObservations;
+import static org.icgc.dcc.release.job.document.util.GeneUtils.getPivotedGeneFields;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+import lombok.val;
+
+import org.icgc.dcc.release.core.document.DocumentType;
+import org.icgc.dcc.release.job.document.model.CollectionFields;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+/**
+ * Plans the order of the document types executed by the {@link DocumentJob} and the inputs shared between them.
+ */
+@NoArgsConstructor(access = PRIVATE)
+public final class DocumentPlanner {
+
+  private static final String FIELD_PATH_SEPARATOR = ".";
+
+  /**
+   * Heavy document types read the observations or need a custom parallelism. The number of them written concurrently
+   * is capped.
+   */
+  public static boolean isHeavy(@NonNull DocumentType documentType) {
+    return isSharedObservations(documentType) || !documentType.hasDefaultParallelism();
+  }
+
+  /**
+   * @return {@code documentTypes} ordered by priority, highest first, and then by declaration order
+   */
+  public static List<DocumentType> getExecutionOrder(@NonNull Iterable<DocumentType> documentTypes) {
+    val result = Lists.newArrayList(documentTypes);
+    result.sort(comparing(DocumentType::getPriority).thenComparing(naturalOrder()));
+
+    return result;
+  }
+
+  /**
+   * @return document types which read the {@link SharedObservations}
+   */
+  public static List<DocumentType> getSharedObservationsConsumers(@NonNull Iterable<DocumentType> documentTypes) {
+    val result = ImmutableList.<DocumentType> builder();
+    for (val documentType : documentTypes) {
+      if (isSharedObservations(documentType)) {
+        result.add(documentType);
+      }
+    }
+
+    return result.build();
+  }
+
+  /**
+   * @return observation fields which satisfy every one of the {@code documentTypes}
+   */
+  public static CollectionFields getSharedObservationFields(@NonNull Collection<DocumentType> documentTypes) {
+    return union(documentTypes.stream()
+        .map(documentType -> getFields(documentType).getObservationFields())
+        .collect(toList()));
+  }
+
+  /**
+   * @return document types which read the genes pivoted by the {@code PivotGenesTask}
+   */
+  public static List<DocumentType> getPivotedGenesConsumers(@NonNull Iterable<DocumentType> documentTypes) {
+    val result = ImmutableList.<DocumentType> builder();
+    for (val documentType : documentTypes) {
+      if (isPivotedGenes(documentType)) {
+        result.add(documentType);
+      }
+    }
+
+    return result.build();
+  }
+
+  /**
+   * @return pivoted gene fields which satisfy every one of the {@code documentTypes}
+   */
+  public static CollectionFields getPivotedGenesFields(@NonNull Collection<DocumentType> documentTypes) {
+    return union(documentTypes.stream()
+        .map(documentType -> getPivotedGeneFields(getFields(documentType).getGeneFields()))
+        .collect(toList()));
+  }
+
+  /**
+   * Resolves the narrowest fields which contain every one of the {@code fields}. Filtering a value with the result and
+   * then with any of the {@code fields} is equivalent to filtering it with that {@code fields} only.
+   */
+  static CollectionFields union(@NonNull Collection<CollectionFields> fields) {
+    val projecting = fields.stream().filter(DocumentPlanner::isProjecting).collect(toList());
+    val excluding = fields.stream().filter(f -> !isProjecting(f)).collect(toList());
+    if (excluding.isEmpty()) {
+      // Keep every included field
+      val includedFields = Sets.<String> newLinkedHashSet();
+      for (val projectingFields : projecting) {
+        Iterables.addAll(includedFields, projectingFields.getIncludedFields());
+      }
+
+      return collectionFields()
+          .includedFields(includedFields)
+          .excludedFields(intersect(fields))
+          .build();
+    }
+
+    // Exclude only what every excluding consumer excludes and no projecting consumer needs
+    val excludedFields = intersect(excluding);
+    for (val projectingFields : projecting) {
+      for (val includedField : projectingFields.getIncludedFields()) {
+        excludedFields.removeIf(excludedField -> isOverlapping(includedField, excludedField));
+      }
+    }
+
+    return collectionFields()
+        .excludedFields(excludedFields)
+        .build();
+  }
+
+  private static boolean isProjecting(CollectionFields fields) {
+    return !isEmpty(fields.getIncludedFields());
+  }
+
+  private static Set<String> intersect(Collection<CollectionFields> fields) {
+    Set<String> result = null;
+    for (val collectionFields : fields) {
+      val excludedFields = Sets.newLinkedHashSet(collectionFields.getExcludedFields());
+      if (result == null) {
+        result = excludedFields;
+      } else {
+        result.retainAll(excludedFields);
+      }
+    }
+
+    return result == null ? Sets.newLinkedHashSet() : result;
+  }
+
+  private static boolean isOverlapping(String path, String otherPath) {
+    return path.equals(otherPath)
+        || path.startsWith(otherPath + FIELD_PATH_SEPARATOR)
+        || otherPath.startsWith(path + FIELD_PATH_SEPARATOR);
+  }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.document.core;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.NonNull;
+import lombok.val;
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.api.java.JavaSparkContext;
+import org.icgc.dcc.release.core.task.TaskContext;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Observations read once and shared between the document types which consume them.
+ * <p>
+ * The observations of each project are projected to the union of the fields required by the consumers and persisted
+ * serialized, so every consumer deserializes its own copy and is free to mutate it. They are unpersisted when the last
+ * consumer releases them.
+ */
+@Slf4j
+public class SharedObservations {
+
+  /**
+   * Dependencies.
+   */
+  private final JavaSparkContext sparkContext;
+
+  /**
+   * State.
+   */
+  private final Map<String, JavaRDD<ObjectNode>> projectObservations;
+  private final AtomicInteger consumers;
+
+  public SharedObservations(@NonNull JavaSparkContext sparkContext,
+      @NonNull Map<String, JavaRDD<ObjectNode>> projectObservations, int consumers) {
+    checkState(!projectObservations.isEmpty(), "No observations to share");
+    this.sparkContext = sparkContext;
+    this.projectObservations = projectObservations;
+    this.consumers = new AtomicInteger(consumers);
+  }
+
+  /**
+   * @return observations of the project of the {@code taskContext} or of all the projects if the task is not project
+   * specific
+   */
+  public JavaRDD<ObjectNode> get(@NonNull TaskContext taskContext) {
+    val projectName = taskContext.getProjectName();
+    if (projectName.isPresent()) {
+      val observations = projectObservations.get(projectName.get());
+      checkState(observations != null, "Observations of project '%s' are not shared", projectName.get());
+
+      return observations;
+    }
+
+    return getAll();
+  }
+
+  /**
+   * Computes and persists the observations of all the projects in a single job.
+   * 
+   * @return the number of observations
+   */
+  public long materialize() {
+    return getAll().count();
+  }
+
+  /**
+   * Called by a consumer once it has finished reading the observations.
+   */
+  public void release() {
+    if (consumers.decrementAndGet() == 0) {
+      log.info("Unpersisting shared observations of {} projects...", projectObservations.size());
+      for (val observations : projectObservations.values()) {
+        observations.unpersist(false);
+      }
+    }
+  }
+
+  private JavaRDD<ObjectNode> getAll() {
+    val observations = ImmutableList.copyOf(projectObservations.values());
+
+    return sparkContext.union(observations.get(0), observations.subList(1, observations.size()));
+  }
+
+}
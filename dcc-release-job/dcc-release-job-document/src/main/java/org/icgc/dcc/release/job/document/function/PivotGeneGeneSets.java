@@ -17,15 +17,11 @@
  */
 package org.icgc.dcc.release.job.document.function;
 
-import static org.icgc.dcc.common.core.json.Jackson.asArrayNode;
 import static org.icgc.dcc.common.core.model.FieldNames.GENE_SETS;
-import static org.icgc.dcc.release.core.util.ObjectNodes.textValue;
 import static org.icgc.dcc.release.job.document.model.CollectionFieldAccessors.getGeneGeneSetId;
 import static org.icgc.dcc.release.job.document.model.CollectionFieldAccessors.getGeneGeneSetType;
 import static org.icgc.dcc.release.job.document.model.CollectionFieldAccessors.getGeneGeneSets;
-import static org.icgc.dcc.release.job.document.model.CollectionFieldAccessors.removeGeneGeneSets;
 
-import java.util.List;
 import java.util.Map;
 
 import lombok.NonNull;
@@ -34,10 +30,12 @@ import lombok.val;
 
 import org.apache.spark.api.java.function.Function;
 
-import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import com.google.common.collect.ImmutableList;
 
+/**
+ * Pivots the gene sets of a gene by gene set type. The pivoted gene sets replace the {@code sets} of the gene, so they
+ * are projected as a whole. {@link UnnestGeneGeneSets} moves them to the top level of the gene.
+ */
 @RequiredArgsConstructor
 public class PivotGeneGeneSets implements Function<ObjectNode, ObjectNode> {
 
@@ -49,51 +47,28 @@ public class PivotGeneGeneSets implements Function<ObjectNode, ObjectNode> {
   @Override
   public ObjectNode call(ObjectNode gene) throws Exception {
     val geneGeneSets = getGeneGeneSets(gene);
-    if (!geneGeneSets.isMissingNode()) {
-      // Transform
-      for (val geneGeneSet : geneGeneSets) {
-        val id = getGeneGeneSetId(geneGeneSet);
-        val type = getGeneGeneSetType(geneGeneSet);
-
-        val goTerm = GO_TERM_TYPE.equals(type);
-        if (goTerm) {
-          val ontology = geneSetOntologies.get(id);
-          gene.with(type).withArray(ontology).add(id);
-        } else {
-          gene.withArray(type).add(id);
-        }
-      }
+    if (geneGeneSets.isMissingNode()) {
+      return gene;
     }
 
-    pivotDrugs(gene);
-    // TODO: This need to only occur if not the "gene" index
-    removeGeneGeneSets(gene);
-
-    return gene;
-  }
-
-  // TODO: Drugs are not present in the 'gene-sets' collection. Confirm they should not be there.
-  private static void pivotDrugs(ObjectNode gene) {
-    val geneSets = gene.path(GENE_SETS);
-    // Drugs could be added on line 65
-    if (!geneSets.isMissingNode() && !gene.has("drug")) {
-      val drugIds = filterDrugIds(asArrayNode(geneSets));
-      if (!drugIds.isEmpty()) {
-        val drugs = gene.withArray("drug");
-        drugs.addPOJO(drugIds);
+    // Transform
+    val pivoted = gene.objectNode();
+    for (val geneGeneSet : geneGeneSets) {
+      val id = getGeneGeneSetId(geneGeneSet);
+      val type = getGeneGeneSetType(geneGeneSet);
+
+      val goTerm = GO_TERM_TYPE.equals(type);
+      if (goTerm) {
+        val ontology = geneSetOntologies.get(id);
+        pivoted.with(type).withArray(ontology).add(id);
+      } else {
+        pivoted.withArray(type).add(id);
       }
     }
-  }
 
-  private static List<String> filterDrugIds(ArrayNode geneSets) {
-    val drugNodes = ImmutableList.<String> builder();
-    for (val element : geneSets) {
-      if (textValue(element, "type").equals("drug")) {
-        drugNodes.add(textValue(element, "id"));
-      }
-    }
+    gene.set(GENE_SETS, pivoted);
 
-    return drugNodes.build();
+    return gene;
   }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.document.function;
+
+import static org.icgc.dcc.common.core.model.FieldNames.GENE_SETS;
+import lombok.val;
+
+import org.apache.spark.api.java.function.Function;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Moves the gene sets pivoted by {@link PivotGeneGeneSets} to the top level of the gene, one field per gene set type.
+ * The gene set IDs are appended to the arrays the gene already has, as when pivoted in place.
+ */
+public class UnnestGeneGeneSets implements Function<ObjectNode, ObjectNode> {
+
+  @Override
+  public ObjectNode call(ObjectNode gene) throws Exception {
+    val pivoted = gene.remove(GENE_SETS);
+    if (pivoted != null && pivoted.isObject()) {
+      merge(gene, (ObjectNode) pivoted);
+    }
+
+    return gene;
+  }
+
+  private static void merge(ObjectNode target, ObjectNode source) {
+    val fields = source.fields();
+    while (fields.hasNext()) {
+      val field = fields.next();
+      val value = field.getValue();
+      if (value.isArray()) {
+        target.withArray(field.getKey()).addAll((ArrayNode) value);
+      } else if (value.isObject()) {
+        // GO terms, by ontology
+        merge(target.with(field.getKey()), (ObjectNode) value);
+      } else {
+        target.set(field.getKey(), value);
+      }
+    }
+  }
+
+}
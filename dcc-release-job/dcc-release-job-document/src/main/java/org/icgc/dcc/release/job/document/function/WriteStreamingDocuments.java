@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.document.function;
+
+import static org.icgc.dcc.release.core.util.JacksonFactory.MAPPER;
+
+import java.util.Iterator;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.val;
+
+import org.apache.spark.api.java.function.FlatMapFunction;
+import org.icgc.dcc.release.core.document.RawDocument;
+import org.icgc.dcc.release.job.document.core.DocumentContext;
+import org.icgc.dcc.release.job.document.core.StreamingDocumentTransform;
+
+import com.fasterxml.jackson.core.util.BufferRecycler;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.Iterators;
+
+/**
+ * Writes the documents of a partition with a {@link StreamingDocumentTransform}. A single byte buffer is reused for
+ * all the documents of the partition, so only the final copy of each document is allocated.
+ */
+@RequiredArgsConstructor
+public class WriteStreamingDocuments implements FlatMapFunction<Iterator<ObjectNode>, RawDocument> {
+
+  /**
+   * Dependencies.
+   */
+  @NonNull
+  private final StreamingDocumentTransform transform;
+  @NonNull
+  private final DocumentContext context;
+
+  @Override
+  public Iterable<RawDocument> call(Iterator<ObjectNode> roots) throws Exception {
+    val buffer = new ByteArrayBuilder(new BufferRecycler());
+
+    return () -> Iterators.transform(roots, root -> writeDocument(root, buffer));
+  }
+
+  @SneakyThrows
+  private RawDocument writeDocument(ObjectNode root, ByteArrayBuilder buffer) {
+    buffer.reset();
+    String id;
+    try (val generator = MAPPER.getFactory().createGenerator(buffer)) {
+      id = transform.transformDocument(root, context, generator);
+    }
+
+    return new RawDocument(context.getType(), id, buffer.toByteArray());
+  }
+
+}
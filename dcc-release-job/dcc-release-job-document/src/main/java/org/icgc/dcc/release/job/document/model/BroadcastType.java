@@ -19,6 +19,8 @@ package org.icgc.dcc.release.job.document.model;
 
 import lombok.Getter;
 
+import org.icgc.dcc.common.core.model.ReleaseCollection;
+
 import org.icgc.dcc.release.core.task.Task;
 import org.icgc.dcc.release.job.document.task.ResolveDonorsTask;
 import org.icgc.dcc.release.job.document.task.ResolveGenesTask;
@@ -31,17 +33,24 @@ import org.icgc.dcc.release.job.document.task.ResolveCivicTask;
  */
 public enum BroadcastType {
 
-  PROJECT(ResolveProjectsTask.class),
-  DONOR(ResolveDonorsTask.class),
-  GENE(ResolveGenesTask.class),
-  CLINVAR(ResolveClinvarTask.class),
-  CIVIC(ResolveCivicTask.class);
+  PROJECT(ResolveProjectsTask.class, ReleaseCollection.PROJECT_COLLECTION),
+  DONOR(ResolveDonorsTask.class, ReleaseCollection.DONOR_COLLECTION),
+  GENE(ResolveGenesTask.class, ReleaseCollection.GENE_COLLECTION),
+  CLINVAR(ResolveClinvarTask.class, ReleaseCollection.CLINVAR_COLLECTION),
+  CIVIC(ResolveCivicTask.class, ReleaseCollection.CIVIC_COLLECTION);
 
   @Getter
   Class<? extends Task> dependencyClass;
 
-  private BroadcastType(Class<? extends Task> dependencyClass) {
+  /**
+   * Collection whose fields projection determines the broadcast value.
+   */
+  @Getter
+  ReleaseCollection collection;
+
+  private BroadcastType(Class<? extends Task> dependencyClass, ReleaseCollection collection) {
     this.dependencyClass = dependencyClass;
+    this.collection = collection;
   }
 
 }
@@ -55,6 +55,8 @@ public class DocumentTypeAttributes {
   Collection<BroadcastType> broadcastDependencies = DEFAULT_BROADCASTS;
   @NonNull
   DocumentFields fields = DEFAULT_DOCUMENT_FIELDS;
+  boolean sharedObservations = false;
+  boolean pivotedGenes = false;
   int batchSize = DEFAULT_BATCH_SIZE;
   int statusInterval = DEFAULT_STATUS_INTERVAL;
 
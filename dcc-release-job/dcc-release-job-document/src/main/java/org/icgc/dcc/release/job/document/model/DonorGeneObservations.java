@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.document.model;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+import lombok.EqualsAndHashCode;
+import lombok.NonNull;
+import lombok.ToString;
+import lombok.val;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Observations of a donor, nested by gene and observation type (e.g. "ssm") the way they are embedded in the genes of a
+ * donor-centric document. Partial aggregates built from disjoint subsets of the donor's observations are merged into
+ * the complete one.
+ */
+@ToString
+@EqualsAndHashCode
+public class DonorGeneObservations implements Serializable {
+
+  /**
+   * State.
+   */
+  private final Map<String, Map<String, Collection<Occurrence>>> genes = Maps.newLinkedHashMap();
+
+  public void add(@NonNull String geneId, @NonNull Occurrence observation) {
+    getTypeArray(geneId, observation.get_type()).add(observation);
+  }
+
+  public DonorGeneObservations merge(@NonNull DonorGeneObservations other) {
+    for (val gene : other.genes.entrySet()) {
+      for (val type : gene.getValue().entrySet()) {
+        getTypeArray(gene.getKey(), type.getKey()).addAll(type.getValue());
+      }
+    }
+
+    return this;
+  }
+
+  public Set<String> getGeneIds() {
+    return genes.keySet();
+  }
+
+  /**
+   * @return observations of the gene keyed by the observation type
+   */
+  public Map<String, Collection<Occurrence>> getGeneObservations(@NonNull String geneId) {
+    return genes.get(geneId);
+  }
+
+  private Collection<Occurrence> getTypeArray(String geneId, String observationType) {
+    return genes
+        .computeIfAbsent(geneId, key -> Maps.newLinkedHashMap())
+        .computeIfAbsent(observationType, key -> Lists.newArrayList());
+  }
+
+}
@@ -22,6 +22,7 @@ import java.util.Collection;
 
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import lombok.Data;
+import lombok.val;
 
 import org.icgc.dcc.release.core.model.Observation;
 
@@ -50,6 +51,34 @@ public class Occurrence implements Serializable {
   private ObjectNode clinical_significance;
   private ObjectNode clinical_evidence;
 
+  /**
+   * @return a copy sharing the field values with this occurrence
+   */
+  public Occurrence shallowCopy() {
+    val copy = new Occurrence();
+    copy._donor_id = _donor_id;
+    copy._mutation_id = _mutation_id;
+    copy._type = _type;
+    copy.consequence = consequence;
+    copy.mutation_type = mutation_type;
+    copy.chromosome = chromosome;
+    copy.chromosome_start = chromosome_start;
+    copy.chromosome_end = chromosome_end;
+    copy.chromosome_strand = chromosome_strand;
+    copy.observation = observation;
+    copy.reference_genome_allele = reference_genome_allele;
+    copy.mutated_from_allele = mutated_from_allele;
+    copy.mutated_to_allele = mutated_to_allele;
+    copy._project_id = _project_id;
+    copy.mutation = mutation;
+    copy.consequence_type = consequence_type;
+    copy.assembly_version = assembly_version;
+    copy.clinical_significance = clinical_significance;
+    copy.clinical_evidence = clinical_evidence;
+
+    return copy;
+  }
+
   @Data
   public static class Consequence implements Serializable {
 
@@ -68,5 +97,27 @@ public class Occurrence implements Serializable {
     private String gene_affected;
     private String transcript_affected;
 
+    /**
+     * @return a copy sharing the field values with this consequence
+     */
+    public Consequence shallowCopy() {
+      val copy = new Consequence();
+      copy._gene_id = _gene_id;
+      copy.consequence_type = consequence_type;
+      copy.functional_impact_prediction_summary = functional_impact_prediction_summary;
+      copy.protein_domain_affected = protein_domain_affected;
+      copy.gene_build_version = gene_build_version;
+      copy._transcript_id = _transcript_id;
+      copy.cds_change = cds_change;
+      copy.aa_change = aa_change;
+      copy.aa_mutation = aa_mutation;
+      copy.cds_mutation = cds_mutation;
+      copy.note = note;
+      copy.gene_affected = gene_affected;
+      copy.transcript_affected = transcript_affected;
+
+      return copy;
+    }
+
   }
 }
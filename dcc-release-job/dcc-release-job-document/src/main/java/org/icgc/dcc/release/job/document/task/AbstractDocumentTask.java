@@ -18,17 +18,20 @@
 package org.icgc.dcc.release.job.document.task;
 
 import static org.icgc.dcc.release.job.document.util.DocumentTypes.getFields;
-import static org.icgc.dcc.release.job.document.util.GeneUtils.pivotGenes;
+import static org.icgc.dcc.release.job.document.util.GeneUtils.getPivotedGeneFields;
 import lombok.val;
 
 import org.apache.spark.api.java.JavaRDD;
 import org.icgc.dcc.release.core.document.Document;
 import org.icgc.dcc.release.core.document.DocumentType;
+import org.icgc.dcc.release.core.document.RawDocument;
 import org.icgc.dcc.release.core.function.FilterFields;
 import org.icgc.dcc.release.core.job.FileType;
 import org.icgc.dcc.release.core.task.GenericTask;
 import org.icgc.dcc.release.core.task.TaskContext;
 import org.icgc.dcc.release.core.util.JacksonFactory;
+import org.icgc.dcc.release.job.document.core.SharedObservations;
+import org.icgc.dcc.release.job.document.function.UnnestGeneGeneSets;
 import org.icgc.dcc.release.job.document.model.CollectionFields;
 import org.icgc.dcc.release.job.document.model.Occurrence;
 import org.icgc.dcc.release.job.document.util.CollectionFieldsFilterAdapter;
@@ -40,10 +43,24 @@ public abstract class AbstractDocumentTask extends GenericTask {
   private static final FileType GENE_SET_INPUT_TYPE = FileType.GENE_SET_SUMMARY;
 
   protected final DocumentType type;
+  private final SharedObservations sharedObservations;
 
   public AbstractDocumentTask(DocumentType type) {
+    this(type, null);
+  }
+
+  /**
+   * @param sharedObservations read instead of the observations input if not {@code null}
+   */
+  public AbstractDocumentTask(DocumentType type, SharedObservations sharedObservations) {
     super(type.getName());
     this.type = type;
+    this.sharedObservations = sharedObservations;
+  }
+
+  @Override
+  public String getPool() {
+    return type.getPool();
   }
 
   protected JavaRDD<ObjectNode> readDiagrams(TaskContext taskContext) {
@@ -71,12 +88,14 @@ public abstract class AbstractDocumentTask extends GenericTask {
     return filterFields(readInput(taskContext, FileType.DONOR_SUMMARY), fields);
   }
 
+  /**
+   * Reads the genes pivoted once for all the document types by the {@link PivotGenesTask}.
+   */
   protected JavaRDD<ObjectNode> readGenesPivoted(TaskContext taskContext) {
-    val fields = getFields(type).getGeneFields();
-    val genes = filterFields(readInput(taskContext, FileType.GENE_SUMMARY), fields);
-    val geneSets = readInput(taskContext, GENE_SET_INPUT_TYPE);
+    val fields = getPivotedGeneFields(getFields(type).getGeneFields());
 
-    return pivotGenes(genes, geneSets);
+    return filterFields(readInput(taskContext, FileType.GENE_PIVOTED), fields)
+        .map(new UnnestGeneGeneSets());
   }
 
   protected JavaRDD<ObjectNode> readGenes(TaskContext taskContext) {
@@ -91,7 +110,11 @@ public abstract class AbstractDocumentTask extends GenericTask {
 
   protected JavaRDD<ObjectNode> readObservations(TaskContext taskContext) {
     val fields = getFields(type).getObservationFields();
-    return filterFields(readInput(taskContext, FileType.OBSERVATION_FI), fields);
+    val observations = sharedObservations == null ?
+        readInput(taskContext, FileType.OBSERVATION_FI) :
+        sharedObservations.get(taskContext);
+
+    return filterFields(observations, fields);
   }
 
   protected JavaRDD<ObjectNode> readMutations(TaskContext taskContext) {
@@ -104,6 +127,11 @@ public abstract class AbstractDocumentTask extends GenericTask {
     super.writeDocOutput(taskContext, processed, outputPath);
   }
 
+  protected void writeRawDocOutput(TaskContext taskContext, JavaRDD<RawDocument> processed) {
+    val outputPath = taskContext.getPath(type.getOutputFileType());
+    super.writeRawDocOutput(taskContext, processed, outputPath);
+  }
+
   protected JavaRDD<Occurrence> readOccurrences(TaskContext taskContext) {
     return readObservations(taskContext)
         .map(row -> JacksonFactory.MAPPER.treeToValue(row, Occurrence.class));
@@ -17,6 +17,7 @@
  */
 package org.icgc.dcc.release.job.document.task;
 
+import static org.icgc.dcc.release.core.util.Partitions.getPartitionsCount;
 import static org.icgc.dcc.release.core.util.Tuples.tuple;
 import static org.icgc.dcc.release.job.document.model.CollectionFieldAccessors.getMutationId;
 import static org.icgc.dcc.release.job.document.model.CollectionFieldAccessors.getObservationMutationId;
@@ -29,6 +30,8 @@ import org.icgc.dcc.release.core.document.Document;
 import org.icgc.dcc.release.core.document.DocumentType;
 import org.icgc.dcc.release.core.task.TaskContext;
 import org.icgc.dcc.release.core.task.TaskType;
+import org.icgc.dcc.release.core.util.SortMergeJoins;
+import org.icgc.dcc.release.job.document.core.SharedObservations;
 
 import scala.Tuple2;
 
@@ -40,8 +43,9 @@ abstract class AbstractMutationDocumentTask extends AbstractDocumentTask {
   private final Function<Tuple2<String, Tuple2<ObjectNode, Optional<Iterable<ObjectNode>>>>, Document> transformFunction;
 
   public AbstractMutationDocumentTask(@NonNull DocumentType documentType,
-      Function<Tuple2<String, Tuple2<ObjectNode, Optional<Iterable<ObjectNode>>>>, Document> transformFunction) {
-    super(documentType);
+      Function<Tuple2<String, Tuple2<ObjectNode, Optional<Iterable<ObjectNode>>>>, Document> transformFunction,
+      SharedObservations sharedObservations) {
+    super(documentType, sharedObservations);
     this.transformFunction = transformFunction;
   }
 
@@ -61,9 +65,12 @@ abstract class AbstractMutationDocumentTask extends AbstractDocumentTask {
 
   private JavaRDD<Document> transform(JavaRDD<ObjectNode> mutations, JavaRDD<ObjectNode> observations) {
     val mutationPairs = mutations.mapToPair(mutation -> tuple(getMutationId(mutation), mutation));
-    val observationPairs = observations.groupBy(observation -> getObservationMutationId(observation));
+    val observationPairs = observations.mapToPair(observation -> tuple(getObservationMutationId(observation),
+        observation));
 
-    val mutationObservationsPairs = mutationPairs.leftOuterJoin(observationPairs);
+    // Partitioned as the observations grouped by mutation
+    val partitions = getPartitionsCount(observationPairs, mutationPairs);
+    val mutationObservationsPairs = SortMergeJoins.leftOuterGroupJoin(mutationPairs, observationPairs, partitions);
     val transformed = mutationObservationsPairs.map(transformFunction);
 
     return transformed;
@@ -17,19 +17,28 @@
  */
 package org.icgc.dcc.release.job.document.task;
 
+import static java.lang.Math.floorMod;
+import static java.util.Collections.emptySet;
+import static java.util.stream.Collectors.toList;
+import static org.icgc.dcc.common.core.util.stream.Collectors.toImmutableSet;
 import static org.icgc.dcc.release.core.util.Partitions.getPartitionsCount;
 import static org.icgc.dcc.release.core.util.Tuples.tuple;
 import static org.icgc.dcc.release.job.document.model.CollectionFieldAccessors.getDonorId;
 
 import java.util.Collection;
+import java.util.Map.Entry;
+import java.util.Set;
 
 import lombok.NonNull;
 import lombok.val;
+import lombok.extern.slf4j.Slf4j;
 
 import org.apache.hadoop.io.BytesWritable;
 import org.apache.hadoop.io.Text;
+import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.api.java.function.PairFunction;
+import org.apache.spark.storage.StorageLevel;
 import org.icgc.dcc.release.core.document.DocumentType;
 import org.icgc.dcc.release.core.job.FileType;
 import org.icgc.dcc.release.core.task.TaskContext;
@@ -40,35 +49,121 @@ import org.icgc.dcc.release.core.util.JavaRDDs;
 import org.icgc.dcc.release.job.document.core.DocumentJobContext;
 import org.icgc.dcc.release.job.document.function.PairDonor;
 import org.icgc.dcc.release.job.document.model.Donor;
+import org.icgc.dcc.release.job.document.model.DonorGeneObservations;
 import org.icgc.dcc.release.job.document.model.Occurrence;
 import org.icgc.dcc.release.job.document.transform.DonorCentricDocumentTransform;
 
 import com.google.common.collect.Lists;
 
+@Slf4j
 public class DonorCentricDocumentTask extends AbstractDocumentTask {
 
+  /**
+   * Constants.
+   */
+  private static final long SKEW_SAMPLE_SEED = 1L;
+  private static final long MIN_HOT_DONOR_SAMPLED_OCCURRENCES = 2L;
+
   private final DocumentJobContext documentJobContext;
 
   public DonorCentricDocumentTask(@NonNull DocumentJobContext documentJobContext) {
-    super(DocumentType.DONOR_CENTRIC_TYPE);
+    super(DocumentType.DONOR_CENTRIC_TYPE, documentJobContext.getObservations());
     this.documentJobContext = documentJobContext;
   }
 
   @Override
   public void execute(TaskContext taskContext) {
+    val properties = documentJobContext.getProperties();
+    val keyedOccurrences = readOccurrences(taskContext).mapToPair(keyOccurrence());
+
+    // Sampled and then aggregated, which would otherwise read and parse the observations twice
+    val sampled = properties.getSkewSampleFraction() > 0;
+    if (sampled) {
+      keyedOccurrences.persist(StorageLevel.MEMORY_AND_DISK_SER());
+    }
+
+    try {
+      val hotDonorIds = resolveHotDonorIds(keyedOccurrences, properties.getSkewSampleFraction(),
+          properties.getSkewFactor());
+      val occurrences = aggregateOccurrences(keyedOccurrences, hotDonorIds, properties.getSkewSalts());
+
+      val donors = readDonors(taskContext)
+          .mapToPair(donor -> tuple(getDonorId(donor), donor));
+
+      val partitionNumbers = getPartitionsCount(occurrences, donors);
+      val output = donors.leftOuterJoin(occurrences, partitionNumbers)
+          .map(new DonorCentricDocumentTransform(documentJobContext));
+
+      writeDonors(taskContext, output);
+    } finally {
+      if (sampled) {
+        keyedOccurrences.unpersist(false);
+      }
+    }
+  }
+
+  /**
+   * Samples the occurrences per donor histogram to find the donors which have at least {@code skewFactor} times the
+   * median number of occurrences.
+   */
+  static Set<String> resolveHotDonorIds(JavaPairRDD<String, Occurrence> occurrences, double sampleFraction,
+      double skewFactor) {
+    if (sampleFraction <= 0) {
+      return emptySet();
+    }
+
+    val histogram = occurrences.keys()
+        .sample(false, Math.min(sampleFraction, 1.0), SKEW_SAMPLE_SEED)
+        .countByValue();
+    if (histogram.isEmpty()) {
+      return emptySet();
+    }
+
+    val counts = histogram.values().stream().sorted().collect(toList());
+    val median = counts.get(counts.size() / 2);
+    val threshold = Math.max(median * skewFactor, MIN_HOT_DONOR_SAMPLED_OCCURRENCES);
+    val hotDonorIds = histogram.entrySet().stream()
+        .filter(entry -> entry.getValue() >= threshold)
+        .map(Entry::getKey)
+        .collect(toImmutableSet());
+    if (!hotDonorIds.isEmpty()) {
+      log.info("Salting hot donors {}. Median sampled occurrences: {}", hotDonorIds, median);
+    }
+
+    return hotDonorIds;
+  }
+
+  /**
+   * Aggregates the occurrences by donor. Occurrences of the hot donors are spread over {@code salts} sub-keys which are
+   * aggregated independently and then merged, so a single task does not have to process all of them.
+   */
+  static JavaPairRDD<String, DonorGeneObservations> aggregateOccurrences(JavaPairRDD<String, Occurrence> occurrences,
+      Set<String> hotDonorIds, int salts) {
+    if (hotDonorIds.isEmpty() || salts < 2) {
+      return aggregateByDonor(occurrences);
+    }
+
+    val coldOccurrences = occurrences.filter(tuple -> !hotDonorIds.contains(tuple._1));
+    val hotOccurrences = occurrences.filter(tuple -> hotDonorIds.contains(tuple._1));
+
+    // Equal occurrences must share a salt to be deduplicated the same way as in the unsalted aggregation
     Collection<Occurrence> zeroValue = Lists.newArrayList();
-    val occurrences = readOccurrences(taskContext)
-        .mapToPair(keyOccurrence())
-        .aggregateByKey(zeroValue, AggregateFunctions::aggregateCollection, CombineFunctions::combineCollections);
+    val saltedObservations = hotOccurrences
+        .mapToPair(tuple -> tuple(tuple(tuple._1, floorMod(tuple._2.hashCode(), salts)), tuple._2))
+        .aggregateByKey(zeroValue, AggregateFunctions::aggregateCollection, CombineFunctions::combineCollections)
+        .mapToPair(tuple -> tuple(tuple._1._1, DonorCentricDocumentTransform.aggregate(tuple._2)))
+        .reduceByKey(DonorGeneObservations::merge);
 
-    val donors = readDonors(taskContext)
-        .mapToPair(donor -> tuple(getDonorId(donor), donor));
+    return aggregateByDonor(coldOccurrences).union(saltedObservations);
+  }
 
-    val partitionNumbers = getPartitionsCount(occurrences, donors);
-    val output = donors.leftOuterJoin(occurrences, partitionNumbers)
-        .map(new DonorCentricDocumentTransform(documentJobContext));
+  private static JavaPairRDD<String, DonorGeneObservations> aggregateByDonor(
+      JavaPairRDD<String, Occurrence> occurrences) {
+    Collection<Occurrence> zeroValue = Lists.newArrayList();
 
-    writeDonors(taskContext, output);
+    return occurrences
+        .aggregateByKey(zeroValue, AggregateFunctions::aggregateCollection, CombineFunctions::combineCollections)
+        .mapValues(DonorCentricDocumentTransform::aggregate);
   }
 
   private PairFunction<Occurrence, String, Occurrence> keyOccurrence() {
@@ -17,36 +17,47 @@
  */
 package org.icgc.dcc.release.job.document.task;
 
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.base.Strings.isNullOrEmpty;
+import static java.lang.Math.floorMod;
 import static org.icgc.dcc.release.core.util.Partitions.getPartitionsCount;
 import static org.icgc.dcc.release.core.util.Tuples.tuple;
 import static org.icgc.dcc.release.job.document.model.CollectionFieldAccessors.getGeneId;
+import static org.icgc.dcc.release.job.document.transform.GeneCentricDocumentStreamingTransform.GENE_RECORD_DONOR_ID;
 
-import java.util.Collection;
+import java.io.Serializable;
+import java.util.Comparator;
 
+import lombok.EqualsAndHashCode;
 import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
 import lombok.val;
 
+import org.apache.hadoop.fs.Path;
+import org.apache.spark.Partitioner;
 import org.apache.spark.api.java.JavaRDD;
 import org.icgc.dcc.release.core.document.Document;
 import org.icgc.dcc.release.core.document.DocumentType;
+import org.icgc.dcc.release.core.job.FileType;
 import org.icgc.dcc.release.core.task.TaskContext;
 import org.icgc.dcc.release.core.task.TaskType;
-import org.icgc.dcc.release.core.util.AggregateFunctions;
-import org.icgc.dcc.release.core.util.CombineFunctions;
+import org.icgc.dcc.release.core.util.Configurations;
+import org.icgc.dcc.release.core.util.JacksonFactory;
 import org.icgc.dcc.release.job.document.core.DocumentJobContext;
 import org.icgc.dcc.release.job.document.function.PairGeneIdObservation;
 import org.icgc.dcc.release.job.document.model.Occurrence;
-import org.icgc.dcc.release.job.document.transform.GeneCentricDocumentTransform;
+import org.icgc.dcc.release.job.document.transform.GeneCentricDocumentStreamingTransform;
+
+import scala.Tuple2;
 
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import com.google.common.collect.Lists;
 
 public class GeneCentricDocumentTask extends AbstractDocumentTask {
 
   private final DocumentJobContext documentJobContext;
 
   public GeneCentricDocumentTask(@NonNull DocumentJobContext documentJobContext) {
-    super(DocumentType.GENE_CENTRIC_TYPE);
+    super(DocumentType.GENE_CENTRIC_TYPE, documentJobContext.getObservations());
     this.documentJobContext = documentJobContext;
   }
 
@@ -65,18 +76,71 @@ public class GeneCentricDocumentTask extends AbstractDocumentTask {
 
   private JavaRDD<Document> transform(TaskContext taskContext, JavaRDD<ObjectNode> genes,
       JavaRDD<Occurrence> occurrences) {
-    Collection<Occurrence> zeroValue = Lists.newArrayList();
-    val occurrancePairs = occurrences
+    val geneRecords = genes
+        .mapToPair(gene -> tuple(tuple(getGeneId(gene), GENE_RECORD_DONOR_ID), gene));
+    val observationRecords = occurrences
         .flatMapToPair(new PairGeneIdObservation())
-        .aggregateByKey(zeroValue, AggregateFunctions::aggregateCollection, CombineFunctions::combineCollections);
+        .mapToPair(GeneCentricDocumentTask::keyObservation);
 
-    val partitionsNumber = getPartitionsCount(occurrancePairs, genes);
-    val output = genes
-        .mapToPair(gene -> tuple(getGeneId(gene), gene))
-        .leftOuterJoin(occurrancePairs, partitionsNumber)
-        .map(new GeneCentricDocumentTransform(documentJobContext));
+    val partitioner = new GeneIdPartitioner(getPartitionsCount(occurrences, genes));
+    val properties = documentJobContext.getProperties();
+    val output = geneRecords.union(observationRecords)
+        .repartitionAndSortWithinPartitions(partitioner, new GeneDonorIdComparator())
+        .mapPartitions(new GeneCentricDocumentStreamingTransform(documentJobContext,
+            properties.getBigDocumentThresholdMb() * 1024L * 1024L, getBigDocumentsDir(taskContext),
+            Configurations.getSettings(taskContext.getFileSystem().getConf())));
 
     return output;
   }
 
+  private static Tuple2<Tuple2<String, String>, ObjectNode> keyObservation(Tuple2<String, Occurrence> tuple) {
+    val observation = tuple._2;
+    val donorId = observation.get_donor_id();
+    checkState(!isNullOrEmpty(donorId), "Observation %s has no donor id", observation.get_mutation_id());
+    ObjectNode observationJson = JacksonFactory.MAPPER.valueToTree(observation);
+
+    return tuple(tuple(tuple._1, donorId), observationJson);
+  }
+
+  private static String getBigDocumentsDir(TaskContext taskContext) {
+    val path = new Path(taskContext.getPath(FileType.BIG_DOCUMENT));
+
+    // Written by the executors
+    return taskContext.getFileSystem().makeQualified(path).toString();
+  }
+
+  /**
+   * Co-locates the gene with all of its observations.
+   */
+  @RequiredArgsConstructor
+  @EqualsAndHashCode(callSuper = false)
+  private static class GeneIdPartitioner extends Partitioner {
+
+    private final int partitions;
+
+    @Override
+    public int numPartitions() {
+      return partitions;
+    }
+
+    @Override
+    public int getPartition(Object key) {
+      val geneId = ((Tuple2<?, ?>) key)._1;
+
+      return floorMod(geneId.hashCode(), partitions);
+    }
+
+  }
+
+  private static class GeneDonorIdComparator implements Comparator<Tuple2<String, String>>, Serializable {
+
+    @Override
+    public int compare(Tuple2<String, String> left, Tuple2<String, String> right) {
+      val result = left._1.compareTo(right._1);
+
+      return result != 0 ? result : left._2.compareTo(right._2);
+    }
+
+  }
+
 }
@@ -23,7 +23,9 @@ import lombok.val;
 import org.icgc.dcc.release.core.document.DocumentType;
 import org.icgc.dcc.release.core.task.TaskContext;
 import org.icgc.dcc.release.core.task.TaskType;
+import org.icgc.dcc.release.job.document.context.DefaultDocumentContext;
 import org.icgc.dcc.release.job.document.core.DocumentJobContext;
+import org.icgc.dcc.release.job.document.function.WriteStreamingDocuments;
 import org.icgc.dcc.release.job.document.transform.GeneTextDocumentTransform;
 
 public class GeneTextDocumentTask extends AbstractDocumentTask {
@@ -43,9 +45,11 @@ public class GeneTextDocumentTask extends AbstractDocumentTask {
   @Override
   public void execute(TaskContext taskContext) {
     val genes = readGenesPivoted(taskContext);
-    val output = genes.map(new GeneTextDocumentTransform(documentJobContext));
+    val transform = new GeneTextDocumentTransform(documentJobContext);
+    val context = new DefaultDocumentContext(type, documentJobContext);
+    val output = genes.mapPartitions(new WriteStreamingDocuments(transform, context));
 
-    writeDocOutput(taskContext, output);
+    writeRawDocOutput(taskContext, output);
   }
 
 }
@@ -24,7 +24,8 @@ import org.icgc.dcc.release.job.document.transform.MutationCentricDocumentTransf
 public class MutationCentricDocumentTask extends AbstractMutationDocumentTask {
 
   public MutationCentricDocumentTask(DocumentJobContext documentJobContext) {
-    super(DocumentType.MUTATION_CENTRIC_TYPE, new MutationCentricDocumentTransform(documentJobContext));
+    super(DocumentType.MUTATION_CENTRIC_TYPE, new MutationCentricDocumentTransform(documentJobContext),
+        documentJobContext.getObservations());
   }
 
 }
@@ -26,7 +26,8 @@ import org.icgc.dcc.release.job.document.transform.MutationTextDocumentTransform
 public class MutationTextDocumentTask extends AbstractMutationDocumentTask {
 
   public MutationTextDocumentTask(@NonNull DocumentJobContext documentJobContext) {
-    super(DocumentType.MUTATION_TEXT_TYPE, new MutationTextDocumentTransform(documentJobContext));
+    super(DocumentType.MUTATION_TEXT_TYPE, new MutationTextDocumentTransform(documentJobContext),
+        documentJobContext.getObservations());
   }
 
 }
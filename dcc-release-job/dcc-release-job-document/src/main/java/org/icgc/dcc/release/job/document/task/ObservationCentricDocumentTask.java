@@ -34,7 +34,7 @@ public class ObservationCentricDocumentTask extends AbstractDocumentTask {
   private final DocumentJobContext documentJobContext;
 
   public ObservationCentricDocumentTask(@NonNull DocumentJobContext documentJobContext) {
-    super(DocumentType.OBSERVATION_CENTRIC_TYPE);
+    super(DocumentType.OBSERVATION_CENTRIC_TYPE, documentJobContext.getObservations());
     this.documentJobContext = documentJobContext;
   }
 
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.document.task;
+
+import static org.icgc.dcc.release.job.document.util.GeneUtils.pivotGenes;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+
+import org.icgc.dcc.release.core.function.FilterFields;
+import org.icgc.dcc.release.core.job.FileType;
+import org.icgc.dcc.release.core.task.GenericTask;
+import org.icgc.dcc.release.core.task.TaskContext;
+import org.icgc.dcc.release.core.task.TaskType;
+import org.icgc.dcc.release.job.document.model.CollectionFields;
+import org.icgc.dcc.release.job.document.util.CollectionFieldsFilterAdapter;
+
+/**
+ * Pivots the gene sets of the genes once for all the document types which read the pivoted genes. The genes are
+ * projected to the union of the fields the document types require.
+ */
+@RequiredArgsConstructor
+public class PivotGenesTask extends GenericTask {
+
+  @NonNull
+  private final CollectionFields fields;
+
+  @Override
+  public TaskType getType() {
+    return TaskType.FILE_TYPE;
+  }
+
+  @Override
+  public void execute(TaskContext taskContext) {
+    val genes = readInput(taskContext, FileType.GENE_SUMMARY)
+        .map(new FilterFields(new CollectionFieldsFilterAdapter(fields)));
+    val geneSets = readInput(taskContext, FileType.GENE_SET_SUMMARY);
+
+    writeOutput(taskContext, pivotGenes(genes, geneSets), FileType.GENE_PIVOTED);
+  }
+
+}
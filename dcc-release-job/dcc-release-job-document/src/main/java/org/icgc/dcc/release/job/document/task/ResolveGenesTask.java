@@ -17,6 +17,7 @@
  */
 package org.icgc.dcc.release.job.document.task;
 
+import static org.icgc.dcc.release.core.util.JacksonFactory.SMILE_WRITER;
 import static org.icgc.dcc.release.core.util.Tuples.tuple;
 import static org.icgc.dcc.release.job.document.model.CollectionFieldAccessors.getGeneId;
 
@@ -27,14 +28,17 @@ import lombok.Getter;
 import org.icgc.dcc.release.core.document.DocumentType;
 import org.icgc.dcc.release.core.task.TaskContext;
 import org.icgc.dcc.release.core.task.TaskType;
+import org.icgc.dcc.release.core.util.SmileMaps;
 import org.icgc.dcc.release.core.util.SparkWorkaroundUtils;
 
-import com.fasterxml.jackson.databind.node.ObjectNode;
-
+/**
+ * Resolves the pivoted genes of a document type Smile-encoded, so the broadcast is compact and only the genes a
+ * consumer touches are decoded. See {@link SmileMaps#decodeLazily(Map)}.
+ */
 public class ResolveGenesTask extends AbstractDocumentTask {
 
   @Getter
-  private  Map<String, ObjectNode> geneIdGenes;
+  private Map<String, byte[]> geneIdGenes;
 
   public ResolveGenesTask(DocumentType type) {
     super(type);
@@ -48,7 +52,7 @@ public class ResolveGenesTask extends AbstractDocumentTask {
   @Override
   public void execute(TaskContext taskContext) {
     geneIdGenes = readGenesPivoted(taskContext)
-        .mapToPair(gene -> tuple(getGeneId(gene), gene))
+        .mapToPair(gene -> tuple(getGeneId(gene), SMILE_WRITER.writeValueAsBytes(gene)))
         .collectAsMap();
 
     geneIdGenes = SparkWorkaroundUtils.toHashMap(geneIdGenes);
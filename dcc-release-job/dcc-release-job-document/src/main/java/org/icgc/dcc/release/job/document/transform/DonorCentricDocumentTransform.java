@@ -18,7 +18,10 @@
 package org.icgc.dcc.release.job.document.transform;
 
 import static com.google.common.base.Objects.firstNonNull;
+import static com.google.common.base.Preconditions.checkState;
 import static java.util.Collections.singleton;
+import static java.util.Comparator.naturalOrder;
+import static java.util.Comparator.nullsFirst;
 import static org.icgc.dcc.common.core.model.FieldNames.GENE_ID;
 import static org.icgc.dcc.release.job.document.model.CollectionFieldAccessors.getSSMVariantAnnotationId;
 import static org.icgc.dcc.release.job.document.util.Fakes.FAKE_GENE_ID;
@@ -40,13 +43,13 @@ import org.icgc.dcc.release.job.document.core.DocumentContext;
 import org.icgc.dcc.release.job.document.core.DocumentJobContext;
 import org.icgc.dcc.release.job.document.core.DocumentTransform;
 import org.icgc.dcc.release.job.document.model.Donor;
+import org.icgc.dcc.release.job.document.model.DonorGeneObservations;
 import org.icgc.dcc.release.job.document.model.Occurrence;
 import org.icgc.dcc.release.job.document.model.Occurrence.Consequence;
 
 import org.icgc.dcc.release.job.document.util.MutationAnnotationData;
 import scala.Tuple2;
 
-import com.esotericsoftware.kryo.Kryo;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableMap;
@@ -55,11 +58,19 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 
-public final class DonorCentricDocumentTransform implements Function<Tuple2<String, Tuple2<ObjectNode, Optional<Collection<Occurrence>>>>, Donor> {
+public final class DonorCentricDocumentTransform implements
+    Function<Tuple2<String, Tuple2<ObjectNode, Optional<DonorGeneObservations>>>, Donor> {
+
+  /**
+   * Constants.
+   */
+  private static final Comparator<Occurrence> OBSERVATION_ORDER =
+      Comparator.<Occurrence, String> comparing(Occurrence::get_mutation_id, nullsFirst(naturalOrder()))
+          .thenComparingInt(Occurrence::hashCode)
+          .thenComparing(Occurrence::toString);
 
   private final DocumentJobContext documentJobContext;
   private final DocumentTransform delegate;
-  private transient Kryo objectClonner;
 
   public DonorCentricDocumentTransform(@NonNull DocumentJobContext documentJobContext) {
     this.documentJobContext = documentJobContext;
@@ -68,30 +79,28 @@ public final class DonorCentricDocumentTransform implements Function<Tuple2<Stri
 
   @Override
   @SuppressWarnings("unchecked")
-  public Donor call(Tuple2<String, Tuple2<ObjectNode, Optional<Collection<Occurrence>>>> tuple) throws Exception {
+  public Donor call(Tuple2<String, Tuple2<ObjectNode, Optional<DonorGeneObservations>>> tuple) throws Exception {
     val donorId = tuple._1;
     val donorJson = tuple._2._1;
     val documentContext = createContext(donorId);
     delegate.transformDocument(donorJson, documentContext);
     val donor = convertDonor(donorJson);
 
-    val occurrencesOpt = tuple._2._2;
-    if (!occurrencesOpt.isPresent()) {
+    val observationsOpt = tuple._2._2;
+    if (!observationsOpt.isPresent()) {
       return donor;
     }
 
-    checkObjectClonnerInitialized();
-    val occurrences = occurrencesOpt.get();
-    val donorGenesObservations = documentDonorGenesObservations(occurrences);
+    val donorGenesObservations = observationsOpt.get();
     val donorGeneSummaries = documentDonorGeneSummaries(donor.getGene());
 
     // Nest
-    for (val donorGeneId : donorGenesObservations.keySet()) {
+    for (val donorGeneId : donorGenesObservations.getGeneIds()) {
       val gene = getGene(donorGeneId);
 
       // Construct
-      val donorGeneObservations = donorGenesObservations.get(donorGeneId);
-      val donorGeneTree = createDonorGeneTree(gene, donorGeneObservations, objectClonner);
+      val donorGeneObservations = donorGenesObservations.getGeneObservations(donorGeneId);
+      val donorGeneTree = createDonorGeneTree(gene, donorGeneObservations);
 
       // Merge
       val donorGene = donorGeneSummaries.get(donorGeneId);
@@ -115,35 +124,54 @@ public final class DonorCentricDocumentTransform implements Function<Tuple2<Stri
     return donor;
   }
 
-  @SneakyThrows
-  private static Map<String, Object> createDonorGeneTree(Map<String, Object> donorGene,
-      Iterable<Occurrence> donorGeneObservations, Kryo objectClonner) {
-    val gene = Maps.newHashMap(donorGene);
-    // Process each observation associated with the current gene
-    for (val donorGeneObservationOriginal : donorGeneObservations) {
-      val donorGeneObservation = objectClonner.copy(donorGeneObservationOriginal);
+  /**
+   * Nests the {@code occurrences} of a donor under the genes they affect. Applicable to any subset of the donor's
+   * occurrences as long as equal occurrences end up in the same subset, in which case merging the partial results gives
+   * the same observations as aggregating all of them at once.
+   */
+  public static DonorGeneObservations aggregate(@NonNull Iterable<Occurrence> occurrences) {
+    val donorGenesObservations = documentDonorGenesObservations(occurrences);
+    val result = new DonorGeneObservations();
+    for (val entry : donorGenesObservations.entries()) {
+      val donorGeneId = entry.getKey();
+      val donorGeneObservation = projectGeneObservation(donorGeneId, entry.getValue());
 
-      // Add to feature type array (e.g. "ssm")
-      val observationType = donorGeneObservation.get_type();
-      val array = getTypeArray(gene, observationType);
+      result.add(donorGeneId, donorGeneObservation);
+    }
 
-      // Remove unrelated gene consequences
-      val donorGeneId = getGeneId((String) donorGene.get(GENE_ID));
-      val consequences = filterGeneObservationConsequences(donorGeneId, donorGeneObservation);
-      donorGeneObservation.setConsequence(consequences);
+    return result;
+  }
 
-      unsetGeneId(donorGeneObservation);
+  /**
+   * Copies the observation with only the consequences related to the gene. The rest of the values are shared with the
+   * original as neither is modified afterwards, except for the annotation data which is replaced rather than modified.
+   */
+  private static Occurrence projectGeneObservation(String geneId, Occurrence geneObservation) {
+    val projection = geneObservation.shallowCopy();
 
-      array.add(donorGeneObservation);
-    }
+    // Remove unrelated gene consequences
+    val consequences = filterGeneObservationConsequences(geneId, geneObservation);
+    projection.setConsequence(consequences);
 
-    return gene;
+    return projection;
   }
 
-  private static void unsetGeneId(final org.icgc.dcc.release.job.document.model.Occurrence donorGeneObservation) {
-    for (val consequence : donorGeneObservation.getConsequence()) {
-      consequence.set_gene_id(null);
+  /**
+   * Nests the observations of a gene by type. The observations are sorted, as their order otherwise depends on the
+   * shuffle, which differs between the salted and unsalted aggregations.
+   */
+  public static Map<String, Object> createDonorGeneTree(@NonNull Map<String, Object> donorGene,
+      @NonNull Map<String, Collection<Occurrence>> donorGeneObservations) {
+    val gene = Maps.newHashMap(donorGene);
+    for (val entry : donorGeneObservations.entrySet()) {
+      // Add to feature type array (e.g. "ssm")
+      val array = getTypeArray(gene, entry.getKey());
+      val observations = Lists.newArrayList(entry.getValue());
+      observations.sort(OBSERVATION_ORDER);
+      array.addAll(observations);
     }
+
+    return gene;
   }
 
   @SuppressWarnings("unchecked")
@@ -158,7 +186,7 @@ public final class DonorCentricDocumentTransform implements Function<Tuple2<Stri
   }
 
   /**
-   * Returns consequences related to the target gene
+   * Returns copies of the consequences related to the target gene without the gene id.
    */
   private static Collection<Consequence> filterGeneObservationConsequences(String geneId, Occurrence geneObservation) {
     val consequences = geneObservation.getConsequence();
@@ -172,7 +200,9 @@ public final class DonorCentricDocumentTransform implements Function<Tuple2<Stri
       val related = geneId.equals(consequenceGeneId);
 
       if (related) {
-        filteredConsequenes.add(consequence);
+        val filteredConsequence = consequence.shallowCopy();
+        filteredConsequence.set_gene_id(null);
+        filteredConsequenes.add(filteredConsequence);
       }
     }
 
@@ -243,8 +273,10 @@ public final class DonorCentricDocumentTransform implements Function<Tuple2<Stri
     }
 
     val gene = documentJobContext.getGenesBroadcast().value().get(donorGeneId);
+    checkState(gene != null, "No gene found for gene id '%s'", donorGeneId);
+
     Map<String, Object> map = Maps.newHashMap();
-    map = JacksonFactory.MAPPER.treeToValue(gene, map.getClass());
+    map = JacksonFactory.SMILE_MAPPER.readValue(gene, map.getClass());
 
     return map;
   }
@@ -263,10 +295,4 @@ public final class DonorCentricDocumentTransform implements Function<Tuple2<Stri
     return new DonorCentricDocumentContext(donorId, documentJobContext, Optional.absent());
   }
 
-  private void checkObjectClonnerInitialized() {
-    if (objectClonner == null) {
-      objectClonner = new Kryo();
-    }
-  }
-
-}
\ No newline at end of file
+}
@@ -0,0 +1,362 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.document.transform;
+
+import static com.google.common.base.Preconditions.checkState;
+import static org.icgc.dcc.common.core.model.FieldNames.GENE_DONORS;
+import static org.icgc.dcc.common.core.model.FieldNames.GENE_SUMMARY;
+import static org.icgc.dcc.release.job.document.model.CollectionFieldAccessors.getGeneDonors;
+import static org.icgc.dcc.release.job.document.transform.GeneCentricDocumentTransform.findGeneDonor;
+import static org.icgc.dcc.release.job.document.transform.GeneCentricDocumentTransform.getAffectedDonorCount;
+import static org.icgc.dcc.release.job.document.transform.GeneCentricDocumentTransform.nestGeneDonor;
+import static org.icgc.dcc.release.job.document.transform.GeneCentricDocumentTransform.summarize;
+import static org.icgc.dcc.release.job.document.util.JsonNodes.isEmpty;
+
+import java.io.IOException;
+import java.math.RoundingMode;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.val;
+
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.spark.api.java.function.FlatMapFunction;
+import org.icgc.dcc.common.hadoop.fs.FileSystems;
+import org.icgc.dcc.release.core.document.Document;
+import org.icgc.dcc.release.core.util.JacksonFactory;
+import org.icgc.dcc.release.job.document.context.GeneCentricDocumentContext;
+import org.icgc.dcc.release.job.document.core.DocumentJobContext;
+import org.icgc.dcc.release.job.document.util.BigDocumentWriter;
+import org.icgc.dcc.release.job.document.util.Fakes;
+
+import scala.Tuple2;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.base.Optional;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+import com.google.common.collect.PeekingIterator;
+import com.google.common.collect.Sets;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingOutputStream;
+import com.google.common.math.LongMath;
+
+/**
+ * Creates gene-centric documents from a partition of gene and observation records sorted by gene and donor id. Each
+ * gene record is keyed with {@link #GENE_RECORD_DONOR_ID} so it precedes the observations of the gene.
+ * <p>
+ * Observations are nested one donor at a time, so only the gene and the observations of the current donor are held in
+ * memory besides the document built so far. Once the document outgrows {@code bigDocumentThreshold} it is streamed to
+ * {@code bigDocumentsDir} donor by donor and is not emitted. Either way, the donors with observations of the gene come
+ * first, in donor id order, followed by the rest.
+ * <p>
+ * The size of the document is estimated from the number of nested observations, and only measured once it gets near
+ * the threshold.
+ */
+@RequiredArgsConstructor
+public class GeneCentricDocumentStreamingTransform implements
+    FlatMapFunction<Iterator<Tuple2<Tuple2<String, String>, ObjectNode>>, Document> {
+
+  /**
+   * Constants.
+   */
+  public static final String GENE_RECORD_DONOR_ID = "";
+
+  /**
+   * Dependencies.
+   */
+  @NonNull
+  private final DocumentJobContext documentJobContext;
+
+  /**
+   * Configuration.
+   */
+  private final long bigDocumentThreshold;
+  @NonNull
+  private final String bigDocumentsDir;
+  @NonNull
+  private final Map<String, String> fileSystemSettings;
+
+  @Override
+  public Iterable<Document> call(Iterator<Tuple2<Tuple2<String, String>, ObjectNode>> records) throws Exception {
+    val input = Iterators.peekingIterator(records);
+    val fileSystem = FileSystems.getFileSystem(fileSystemSettings);
+    val geneDonorSizes = new GeneDonorSizes();
+
+    return () -> new AbstractIterator<Document>() {
+
+      @Override
+      protected Document computeNext() {
+        while (input.hasNext()) {
+          val document = transformGene(input, fileSystem, geneDonorSizes);
+          if (document.isPresent()) {
+            return document.get();
+          }
+        }
+
+        return endOfData();
+      }
+
+    };
+  }
+
+  private Optional<Document> transformGene(PeekingIterator<Tuple2<Tuple2<String, String>, ObjectNode>> input,
+      FileSystem fileSystem, GeneDonorSizes geneDonorSizes) {
+    val geneId = input.peek()._1._1;
+    if (!isGeneRecord(input.peek())) {
+      // Same as the outer join with the genes: observations of unknown genes are dropped
+      while (isGeneRecord(input, geneId)) {
+        input.next();
+      }
+
+      return Optional.absent();
+    }
+
+    val assembler = new GeneDocumentAssembler(geneId, input.next()._2, fileSystem, geneDonorSizes);
+    while (isGeneRecord(input, geneId)) {
+      val donorId = input.peek()._1._2;
+      checkState(!GENE_RECORD_DONOR_ID.equals(donorId), "Duplicate gene %s", geneId);
+
+      // Set semantics are required
+      val geneDonorObservations = Sets.<ObjectNode> newLinkedHashSet();
+      while (isGeneRecord(input, geneId) && donorId.equals(input.peek()._1._2)) {
+        geneDonorObservations.add(input.next()._2);
+      }
+
+      assembler.nest(donorId, geneDonorObservations);
+    }
+
+    return assembler.finish();
+  }
+
+  private static boolean isGeneRecord(Tuple2<Tuple2<String, String>, ObjectNode> record) {
+    return GENE_RECORD_DONOR_ID.equals(record._1._2);
+  }
+
+  private static boolean isGeneRecord(PeekingIterator<Tuple2<Tuple2<String, String>, ObjectNode>> input,
+      String geneId) {
+    return input.hasNext() && geneId.equals(input.peek()._1._1);
+  }
+
+  /**
+   * Builds the document of a single gene.
+   */
+  private class GeneDocumentAssembler {
+
+    /**
+     * State.
+     */
+    private final String geneId;
+    private final ObjectNode gene;
+    private final FileSystem fileSystem;
+    private final ArrayNode geneDonors;
+    private final GeneCentricDocumentContext context;
+    private final GeneDonorSizes geneDonorSizes;
+    private final List<ObjectNode> nestedGeneDonors = Lists.newArrayList();
+    private final Set<JsonNode> nestedGeneDonorSet = Sets.newIdentityHashSet();
+    private long size;
+    private boolean measured;
+
+    /**
+     * Spilling state.
+     */
+    private BigDocumentWriter writer;
+    private int writtenGeneDonorCount;
+    private int affectedDonorCount;
+
+    GeneDocumentAssembler(String geneId, ObjectNode gene, FileSystem fileSystem, GeneDonorSizes geneDonorSizes) {
+      this.geneId = geneId;
+      this.gene = gene;
+      this.fileSystem = fileSystem;
+      this.geneDonors = getGeneDonors(gene);
+      this.context = new GeneCentricDocumentContext(geneId, documentJobContext, Optional.absent());
+      this.geneDonorSizes = geneDonorSizes;
+      this.size = getSize(gene);
+    }
+
+    @SneakyThrows
+    void nest(String geneDonorId, Collection<ObjectNode> geneDonorObservations) {
+      val geneDonor = findGeneDonor(gene, geneDonors, geneDonorId);
+      nestGeneDonor(gene, geneDonor, geneDonorObservations, context);
+      nestedGeneDonors.add(geneDonor);
+      nestedGeneDonorSet.add(geneDonor);
+
+      if (writer != null) {
+        write(geneDonor);
+        return;
+      }
+
+      val observationCount = geneDonorObservations.size();
+      if (measured) {
+        size += geneDonorSizes.measure(geneDonor, observationCount);
+      } else {
+        size += geneDonorSizes.estimate(geneDonor, observationCount);
+
+        // Measured once near the threshold, where the estimate is not good enough
+        if (size > bigDocumentThreshold / 2) {
+          size = getSize(gene);
+          measured = true;
+        }
+      }
+
+      if (size > bigDocumentThreshold) {
+        spill();
+      }
+    }
+
+    @SneakyThrows
+    Optional<Document> finish() {
+      if (writer == null) {
+        orderGeneDonors();
+        if (isEmpty(geneDonors)) {
+          // Ensure arrays are present with at least 1 element
+          geneDonors.add(Fakes.createPlaceholder());
+        }
+
+        summarize(gene, getAffectedDonorCount(gene));
+
+        return Optional.of(new Document(context.getType(), geneId, gene));
+      }
+
+      // Donors without observations of the gene
+      for (val geneDonor : geneDonors) {
+        if (!nestedGeneDonorSet.contains(geneDonor)) {
+          write((ObjectNode) geneDonor);
+        }
+      }
+
+      val generator = writer.getGenerator();
+      if (writtenGeneDonorCount == 0) {
+        generator.writeTree(Fakes.createPlaceholder());
+      }
+
+      generator.writeEndArray();
+      generator.writeFieldName(GENE_SUMMARY);
+      generator.writeTree(summarize(gene, affectedDonorCount));
+      generator.writeEndObject();
+      writer.close();
+
+      return Optional.absent();
+    }
+
+    /**
+     * Writes what has been assembled so far and switches to writing each donor as soon as it is nested.
+     */
+    private void spill() throws IOException {
+      writer = new BigDocumentWriter(fileSystem, bigDocumentsDir, context.getType(), geneId);
+      val generator = writer.getGenerator();
+      generator.writeStartObject();
+      val fields = gene.fields();
+      while (fields.hasNext()) {
+        val field = fields.next();
+        if (!GENE_DONORS.equals(field.getKey()) && !GENE_SUMMARY.equals(field.getKey())) {
+          generator.writeFieldName(field.getKey());
+          generator.writeTree(field.getValue());
+        }
+      }
+
+      generator.writeArrayFieldStart(GENE_DONORS);
+      for (val geneDonor : nestedGeneDonors) {
+        write(geneDonor);
+      }
+    }
+
+    /**
+     * Orders the donors as they are written once spilled: the nested ones first, in the order they were nested.
+     */
+    private void orderGeneDonors() {
+      val ordered = Lists.<JsonNode> newArrayList(nestedGeneDonors);
+      for (val geneDonor : geneDonors) {
+        if (!nestedGeneDonorSet.contains(geneDonor)) {
+          ordered.add(geneDonor);
+        }
+      }
+
+      geneDonors.removeAll();
+      geneDonors.addAll(ordered);
+    }
+
+    private void write(ObjectNode geneDonor) throws IOException {
+      writer.getGenerator().writeTree(geneDonor);
+      writtenGeneDonorCount++;
+      if (!Fakes.isPlaceholder(geneDonor)) {
+        affectedDonorCount++;
+      }
+
+      // Written donors are not needed anymore
+      geneDonor.removeAll();
+    }
+
+  }
+
+  /**
+   * Estimates the size of the nested gene donors of a partition by their number of observations, from the ones
+   * measured so far.
+   */
+  private static class GeneDonorSizes {
+
+    /**
+     * Constants.
+     */
+    private static final int MIN_MEASURED_OBSERVATIONS = 1_000;
+
+    /**
+     * State.
+     */
+    private long measuredBytes;
+    private long measuredObservations;
+
+    /**
+     * Measures the first gene donors of the partition, until there are enough of them to estimate the rest.
+     */
+    long estimate(ObjectNode geneDonor, int observationCount) {
+      if (measuredObservations < MIN_MEASURED_OBSERVATIONS) {
+        return measure(geneDonor, observationCount);
+      }
+
+      return LongMath.divide(measuredBytes * observationCount, measuredObservations, RoundingMode.CEILING);
+    }
+
+    long measure(ObjectNode geneDonor, int observationCount) {
+      val size = getSize(geneDonor);
+      measuredBytes += size;
+      measuredObservations += observationCount;
+
+      return size;
+    }
+
+  }
+
+  @SneakyThrows
+  private static long getSize(ObjectNode node) {
+    val counter = new CountingOutputStream(ByteStreams.nullOutputStream());
+    JacksonFactory.SMILE_WRITER.writeValue(counter, node);
+
+    return counter.getCount();
+  }
+
+}
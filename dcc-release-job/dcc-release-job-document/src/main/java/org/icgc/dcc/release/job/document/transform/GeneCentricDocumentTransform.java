@@ -27,52 +27,29 @@ import static org.icgc.dcc.release.job.document.model.CollectionFieldAccessors.*
 import static org.icgc.dcc.release.job.document.util.JsonNodes.isEmpty;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 
 import javafx.util.Pair;
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
 import lombok.val;
 
-import org.apache.spark.api.java.function.Function;
 import org.icgc.dcc.release.core.document.Document;
 import org.icgc.dcc.release.core.util.Loggers;
-import org.icgc.dcc.release.job.document.context.GeneCentricDocumentContext;
 import org.icgc.dcc.release.job.document.core.DocumentContext;
-import org.icgc.dcc.release.job.document.core.DocumentJobContext;
 import org.icgc.dcc.release.job.document.core.DocumentTransform;
-import org.icgc.dcc.release.job.document.model.Occurrence;
 import org.icgc.dcc.release.job.document.util.MutationAnnotationData;
 import org.icgc.dcc.release.job.document.util.Fakes;
 
-import scala.Tuple2;
-
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.collect.Multimap;
 
 /**
  * {@link DocumentTransform} implementation that creates a nested gene-centric document.
  */
-@RequiredArgsConstructor
-public class GeneCentricDocumentTransform extends AbstractCentricDocumentTransform implements
-    Function<Tuple2<String, Tuple2<ObjectNode, Optional<Collection<Occurrence>>>>, Document> {
-
-  private final DocumentJobContext documentJobContext;
-
-  @Override
-  public Document call(Tuple2<String, Tuple2<ObjectNode, Optional<Collection<Occurrence>>>> tuple) throws Exception {
-    val geneId = tuple._1;
-    val gene = tuple._2._1;
-    val observations = tuple._2._2;
-    val documentContext = new GeneCentricDocumentContext(geneId, documentJobContext, observations);
-
-    return transformDocument(gene, documentContext);
-  }
+public class GeneCentricDocumentTransform extends AbstractCentricDocumentTransform {
 
   @Override
   public Document transformDocument(@NonNull ObjectNode gene, @NonNull DocumentContext context) {
@@ -88,30 +65,8 @@ public class GeneCentricDocumentTransform extends AbstractCentricDocumentTransfo
     // Nest
     val geneDonors = getGeneDonors(gene);
     for (val geneDonorId : geneDonorsObservations.keySet()) {
-      val donor = context.getDonor(geneDonorId).deepCopy();
-
-      // Extract donor non-feature type summary values for merging
-      val donorSummary = donor.has(DONOR_SUMMARY) ? (ObjectNode) donor.remove(DONOR_SUMMARY) : donor.objectNode();
-
-      // Find gene donor and remove summary for merging
       val geneDonor = findGeneDonor(gene, geneDonors, geneDonorId);
-      val geneDonorSummary = geneDonor.has(GENE_DONOR_SUMMARY) ?
-          (ObjectNode) geneDonor.remove(GENE_DONOR_SUMMARY) : geneDonor.objectNode();
-
-      // Merge
-      geneDonorSummary.setAll(donorSummary);
-      geneDonor.setAll(donor);
-      geneDonor.set(GENE_DONOR_SUMMARY, geneDonorSummary);
-
-      // Add donor-project info
-      val donorProjectId = getDonorProjectId(donor);
-      val donorProject = context.getProject(donorProjectId).deepCopy();
-      geneDonor.set(GENE_DONOR_PROJECT, donorProject);
-
-      // Merge
-      val geneDonorObservations = geneDonorsObservations.get(geneDonorId);
-      val geneDonorTree = createGeneDonorTree(gene, donor, geneDonorObservations, context);
-      geneDonor.setAll(geneDonorTree);
+      nestGeneDonor(gene, geneDonor, geneDonorsObservations.get(geneDonorId), context);
     }
 
     if (isEmpty(geneDonors)) {
@@ -122,12 +77,46 @@ public class GeneCentricDocumentTransform extends AbstractCentricDocumentTransfo
     /**
      * Summary: {@code gene._summary}.
      */
-    val summary = gene.with(GENE_SUMMARY);
+    summarize(gene, getAffectedDonorCount(gene));
+
+    return new Document(context.getType(), geneId, gene);
+  }
 
-    val affectedDonorCount = getAffectedDonorCount(gene);
+  /**
+   * Merges the donor, its project and its observations of the gene into the {@code geneDonor} summary.
+   */
+  static void nestGeneDonor(ObjectNode gene, ObjectNode geneDonor, Iterable<ObjectNode> geneDonorObservations,
+      DocumentContext context) {
+    val geneDonorId = getGeneDonorId(geneDonor);
+    val donor = context.getDonor(geneDonorId).deepCopy();
+
+    // Extract donor non-feature type summary values for merging
+    val donorSummary = donor.has(DONOR_SUMMARY) ? (ObjectNode) donor.remove(DONOR_SUMMARY) : donor.objectNode();
+
+    // Remove gene donor summary for merging
+    val geneDonorSummary = geneDonor.has(GENE_DONOR_SUMMARY) ?
+        (ObjectNode) geneDonor.remove(GENE_DONOR_SUMMARY) : geneDonor.objectNode();
+
+    // Merge
+    geneDonorSummary.setAll(donorSummary);
+    geneDonor.setAll(donor);
+    geneDonor.set(GENE_DONOR_SUMMARY, geneDonorSummary);
+
+    // Add donor-project info
+    val donorProjectId = getDonorProjectId(donor);
+    val donorProject = context.getProject(donorProjectId).deepCopy();
+    geneDonor.set(GENE_DONOR_PROJECT, donorProject);
+
+    // Merge
+    val geneDonorTree = createGeneDonorTree(gene, donor, geneDonorObservations, context);
+    geneDonor.setAll(geneDonorTree);
+  }
+
+  static ObjectNode summarize(ObjectNode gene, int affectedDonorCount) {
+    val summary = gene.with(GENE_SUMMARY);
     summary.put(GENE_SUMMARY_AFFECTED_DONOR_COUNT, affectedDonorCount);
 
-    return new Document(context.getType(), geneId, gene);
+    return summary;
   }
 
   private static ObjectNode createGeneDonorTree(ObjectNode gene, ObjectNode geneDonor,
@@ -156,7 +145,7 @@ public class GeneCentricDocumentTransform extends AbstractCentricDocumentTransfo
     return geneDonor;
   }
 
-  private static ObjectNode findGeneDonor(Object gene, ArrayNode geneDonors, Object geneDonorId) {
+  static ObjectNode findGeneDonor(Object gene, ArrayNode geneDonors, Object geneDonorId) {
     for (val value : geneDonors) {
       val geneDonor = (ObjectNode) value;
 
@@ -170,7 +159,7 @@ public class GeneCentricDocumentTransform extends AbstractCentricDocumentTransfo
     throw new NoSuchElementException("No gene donor summary found for donor id '" + geneDonorId + "' and gene " + gene);
   }
 
-  private static int getAffectedDonorCount(ObjectNode gene) {
+  static int getAffectedDonorCount(ObjectNode gene) {
     val geneDonors = gene.withArray(GENE_DONORS);
     int rawAffectedDonorCount = geneDonors.size();
 
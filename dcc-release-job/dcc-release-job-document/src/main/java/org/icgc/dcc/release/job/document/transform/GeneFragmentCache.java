@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.document.transform;
+
+import static org.icgc.dcc.common.core.model.FieldNames.GENE_ID;
+import static org.icgc.dcc.common.core.model.FieldNames.GENE_SYMBOL;
+import static org.icgc.dcc.common.core.model.FieldNames.GENE_TRANSCRIPTS;
+import static org.icgc.dcc.release.job.document.model.CollectionFieldAccessors.getTranscriptId;
+import static org.icgc.dcc.release.job.document.util.Fakes.createFakeGene;
+import static org.icgc.dcc.release.job.document.util.Fakes.isFakeGeneId;
+import static org.icgc.dcc.release.job.document.util.JsonNodes.defaultMissing;
+
+import java.util.Map;
+
+import lombok.NonNull;
+import lombok.SneakyThrows;
+import lombok.Value;
+import lombok.val;
+
+import org.icgc.dcc.release.job.document.core.DocumentContext;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+
+/**
+ * Genes projected once into the form embedded in the transcripts of a mutation-centric document, so they are neither
+ * copied nor pruned per consequence. The fragments are shared between documents and must not be modified. The least
+ * recently used fragments are evicted above {@link #MAX_FRAGMENTS}.
+ */
+final class GeneFragmentCache {
+
+  /**
+   * Constants.
+   */
+  static final int MAX_FRAGMENTS = 10_000;
+
+  /**
+   * State.
+   */
+  private final Cache<String, GeneFragment> fragments = CacheBuilder.newBuilder()
+      .maximumSize(MAX_FRAGMENTS)
+      .build();
+
+  @SneakyThrows
+  GeneFragment get(@NonNull String geneId, @NonNull DocumentContext context) {
+    return fragments.get(geneId,
+        () -> createFragment(isFakeGeneId(geneId) ? createFakeGene() : context.getGene(geneId)));
+  }
+
+  private static GeneFragment createFragment(ObjectNode gene) {
+    // Children are shared with the source gene, which is not modified either
+    val projection = gene.objectNode();
+    val fields = gene.fields();
+    while (fields.hasNext()) {
+      val field = fields.next();
+      if (!GENE_TRANSCRIPTS.equals(field.getKey())) {
+        projection.set(field.getKey(), field.getValue());
+      }
+    }
+
+    // Default missing values
+    defaultMissing(projection, GENE_ID);
+    defaultMissing(projection, GENE_SYMBOL);
+
+    val transcripts = Maps.<String, ObjectNode> newHashMap();
+    for (val element : gene.path(GENE_TRANSCRIPTS)) {
+      val transcriptId = getTranscriptId(element);
+      if (transcriptId != null) {
+        transcripts.putIfAbsent(transcriptId, (ObjectNode) element);
+      }
+    }
+
+    return new GeneFragment(projection, ImmutableMap.copyOf(transcripts));
+  }
+
+  @Value
+  static class GeneFragment {
+
+    /**
+     * The gene without its transcripts.
+     */
+    ObjectNode gene;
+    Map<String, ObjectNode> transcripts;
+
+    ObjectNode getTranscript(String transcriptId) {
+      return transcripts.get(transcriptId);
+    }
+
+  }
+
+}
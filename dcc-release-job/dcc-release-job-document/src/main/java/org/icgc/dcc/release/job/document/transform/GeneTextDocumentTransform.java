@@ -20,6 +20,10 @@ package org.icgc.dcc.release.job.document.transform;
 import static org.icgc.dcc.common.core.model.FieldNames.GENE_ID;
 import static org.icgc.dcc.release.core.util.ObjectNodes.MAPPER;
 
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+
 import org.apache.spark.api.java.function.Function;
 import org.icgc.dcc.release.core.document.Document;
 import org.icgc.dcc.release.core.document.DocumentType;
@@ -27,8 +31,13 @@ import org.icgc.dcc.release.job.document.context.DefaultDocumentContext;
 import org.icgc.dcc.release.job.document.core.DocumentContext;
 import org.icgc.dcc.release.job.document.core.DocumentJobContext;
 import org.icgc.dcc.release.job.document.core.DocumentTransform;
+import org.icgc.dcc.release.job.document.core.StreamingDocumentTransform;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 
 import lombok.NonNull;
 import lombok.val;
@@ -36,7 +45,25 @@ import lombok.val;
 /**
  * {@link DocumentTransform} implementation that creates a gene document.
  */
-public class GeneTextDocumentTransform implements DocumentTransform, Function<ObjectNode, Document> {
+public class GeneTextDocumentTransform implements DocumentTransform, StreamingDocumentTransform,
+    Function<ObjectNode, Document> {
+
+  /**
+   * Constants.
+   */
+  private static final String EXTERNAL_DB_IDS = "external_db_ids";
+  private static final Map<String, String> EXTERNAL_DB_ID_FIELDS = ImmutableMap.<String, String> builder()
+      .put("uniprotkbSwissprot", "uniprotkb_swissprot")
+      .put("omimGene", "omim_gene")
+      .put("entrezGene", "entrez_gene")
+      .put("hgnc", "hgnc")
+      .put("ensemblTranscriptId", "Ensembl_transcript_id")
+      .put("ensemblTranslationId", "Ensembl_translation_id")
+      .build();
+  private static final Set<String> SKIPPED_FIELDS = ImmutableSet.<String> builder()
+      .add(EXTERNAL_DB_IDS, GENE_ID, "id", "type")
+      .addAll(EXTERNAL_DB_ID_FIELDS.keySet())
+      .build();
 
   private final DocumentContext documentContext;
 
@@ -53,26 +80,16 @@ public class GeneTextDocumentTransform implements DocumentTransform, Function<Ob
   public Document transformDocument(@NonNull ObjectNode gene, @NonNull DocumentContext context) {
     // Identifiers
     val geneId = gene.get(GENE_ID).asText();
-    val externalDbIds = gene.get("external_db_ids");
-
-    val uniprotkbSwissprot = externalDbIds.get("uniprotkb_swissprot");
-    val omimGene = externalDbIds.get("omim_gene");
-    val entrezGene = externalDbIds.get("entrez_gene");
-    val hgnc = externalDbIds.get("hgnc");
-    val ensemblTranscriptId = externalDbIds.get("Ensembl_transcript_id");
-    val ensemblTranslationId = externalDbIds.get("Ensembl_translation_id");
+    val externalDbIds = gene.get(EXTERNAL_DB_IDS);
 
     gene.put("id", geneId);
-    gene.set("uniprotkbSwissprot", uniprotkbSwissprot);
-    gene.set("omimGene", omimGene);
-    gene.set("entrezGene", entrezGene);
-    gene.set("hgnc", hgnc);
-    gene.set("ensemblTranscriptId", ensemblTranscriptId);
-    gene.set("ensemblTranslationId", ensemblTranslationId);
+    for (val entry : EXTERNAL_DB_ID_FIELDS.entrySet()) {
+      gene.set(entry.getKey(), externalDbIds.get(entry.getValue()));
+    }
 
     gene.put("type", "gene");
 
-    gene.remove("external_db_ids");
+    gene.remove(EXTERNAL_DB_IDS);
     gene.remove(GENE_ID);
 
     val geneText = MAPPER.createObjectNode();
@@ -81,4 +98,49 @@ public class GeneTextDocumentTransform implements DocumentTransform, Function<Ob
     return new Document(context.getType(), geneId, geneText);
   }
 
+  /**
+   * Writes the same document as {@link #transformDocument(ObjectNode, DocumentContext)} without modifying the
+   * {@code gene}.
+   */
+  @Override
+  public String transformDocument(@NonNull ObjectNode gene, @NonNull DocumentContext context,
+      @NonNull JsonGenerator generator) throws IOException {
+    // Identifiers
+    val geneId = gene.get(GENE_ID).asText();
+    val externalDbIds = gene.get(EXTERNAL_DB_IDS);
+
+    generator.writeStartObject();
+    generator.writeObjectFieldStart("text");
+
+    val fields = gene.fields();
+    while (fields.hasNext()) {
+      val field = fields.next();
+      if (!SKIPPED_FIELDS.contains(field.getKey())) {
+        generator.writeFieldName(field.getKey());
+        generator.writeTree(field.getValue());
+      }
+    }
+
+    generator.writeStringField("id", geneId);
+    for (val entry : EXTERNAL_DB_ID_FIELDS.entrySet()) {
+      generator.writeFieldName(entry.getKey());
+      writeNullable(generator, externalDbIds.get(entry.getValue()));
+    }
+
+    generator.writeStringField("type", "gene");
+
+    generator.writeEndObject();
+    generator.writeEndObject();
+
+    return geneId;
+  }
+
+  private static void writeNullable(JsonGenerator generator, JsonNode value) throws IOException {
+    if (value == null) {
+      generator.writeNull();
+    } else {
+      generator.writeTree(value);
+    }
+  }
+
 }
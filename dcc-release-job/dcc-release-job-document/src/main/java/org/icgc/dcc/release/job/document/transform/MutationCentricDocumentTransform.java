@@ -21,9 +21,6 @@ import static com.google.common.base.Objects.firstNonNull;
 import static com.google.common.collect.Lists.newArrayList;
 import static org.icgc.dcc.common.core.model.FieldNames.CONSEQUENCE_AA_MUTATION;
 import static org.icgc.dcc.common.core.model.FieldNames.DONOR_PROJECT_ID;
-import static org.icgc.dcc.common.core.model.FieldNames.GENE_ID;
-import static org.icgc.dcc.common.core.model.FieldNames.GENE_SYMBOL;
-import static org.icgc.dcc.common.core.model.FieldNames.GENE_TRANSCRIPTS;
 import static org.icgc.dcc.common.core.model.FieldNames.MUTATION_OBSERVATION_DONOR;
 import static org.icgc.dcc.common.core.model.FieldNames.MUTATION_OBSERVATION_PROJECT;
 import static org.icgc.dcc.common.core.model.FieldNames.MUTATION_TRANSCRIPTS_CONSEQUENCE;
@@ -41,8 +38,6 @@ import static org.icgc.dcc.common.core.model.FieldNames.OBSERVATION_TYPE;
 import static org.icgc.dcc.release.job.document.model.CollectionFieldAccessors.*;
 import static org.icgc.dcc.release.job.document.util.Fakes.FAKE_GENE_ID;
 import static org.icgc.dcc.release.job.document.util.Fakes.FAKE_TRANSCRIPT_ID;
-import static org.icgc.dcc.release.job.document.util.Fakes.createFakeGene;
-import static org.icgc.dcc.release.job.document.util.Fakes.isFakeGeneId;
 import static org.icgc.dcc.release.job.document.util.JsonNodes.defaultMissing;
 import static org.icgc.dcc.release.job.document.util.JsonNodes.defaultObject;
 
@@ -50,7 +45,6 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.TreeMap;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.Iterables;
 import javafx.util.Pair;
 import org.apache.spark.api.java.function.Function;
@@ -142,6 +136,11 @@ public class MutationCentricDocumentTransform extends AbstractCentricDocumentTra
   private final DocumentJobContext documentJobContext;
   private static final DocumentCallback SUMMARY_CALLBACK = new MutationCentricSummaryCallback();
 
+  /**
+   * State.
+   */
+  private transient GeneFragmentCache geneFragments;
+
   @Override
   public Document call(Tuple2<String, Tuple2<ObjectNode, Optional<Iterable<ObjectNode>>>> tuple) throws Exception {
     val mutation = tuple._2._1;
@@ -155,6 +154,8 @@ public class MutationCentricDocumentTransform extends AbstractCentricDocumentTra
   @Override
   public Document transformDocument(@NonNull ObjectNode mutation, @NonNull DocumentContext context) {
 
+    val geneFragments = getGeneFragments();
+
     // Indexes
     // - f(transcriptId) -> transcript
     val mutationTranscriptMap = newTreeMap();
@@ -221,20 +222,19 @@ public class MutationCentricDocumentTransform extends AbstractCentricDocumentTra
         // Get gene associated with consequence: {@code consequence._gene_id}
         val consequenceGeneId =
             firstNonNull(getObservationConsequenceGeneId(consequence), FAKE_GENE_ID);
-        val consequenceGene =
-            isFakeGeneId(consequenceGeneId) ? createFakeGene() : context.getGene(consequenceGeneId).deepCopy();
+        val consequenceGene = geneFragments.get(consequenceGeneId, context);
 
         // Get gene transcript associated with consequence: {@code consequence._transcript_id}
         val consequenceGeneTranscriptId =
             firstNonNull(getObservationConsequenceTranscriptId(consequence), FAKE_TRANSCRIPT_ID);
-        val consequenceGeneTranscript = findGeneTranscript(consequenceGene, consequenceGeneTranscriptId);
+        val consequenceGeneTranscript = consequenceGene.getTranscript(consequenceGeneTranscriptId);
 
         // Index transcript by transcript id
         mutationTranscriptMap.put(
             consequenceGeneTranscriptId, consequenceGeneTranscript);
         // Index gene by transcript id
         mutationTranscriptGeneMap.put(
-            consequenceGeneTranscriptId, consequenceGene);
+            consequenceGeneTranscriptId, consequenceGene.getGene());
         // Index consequence by transcript id
         mutationTranscriptConsequenceMap.put(
             consequenceGeneTranscriptId, consequence);
@@ -250,7 +250,7 @@ public class MutationCentricDocumentTransform extends AbstractCentricDocumentTra
       val transcriptId = transcriptEntry.getKey();
       // Resolve or create fake transcript
       val transcript =
-          Fakes.isFakeTranscriptId(transcriptId) ? Fakes.createFakeTranscript() : transcriptEntry.getValue();
+          Fakes.isFakeTranscriptId(transcriptId) ? Fakes.createFakeTranscript() : transcriptEntry.getValue().deepCopy();
 
       // Resolve children
       val gene = mutationTranscriptGeneMap.get(transcriptId);
@@ -290,13 +290,10 @@ public class MutationCentricDocumentTransform extends AbstractCentricDocumentTra
 
   private static ObjectNode attachVariantAnnotationData(ObjectNode mutation, ObjectNode clinvar, Iterable<ObjectNode> civic) {
 
-    // ObjectMapper mapper used to create new nodes
-    ObjectMapper mapper = new ObjectMapper();
-
     // Attach empty nodes used later on
-    val external_db_ids = mapper.createObjectNode();
-    val clinical_significance = mapper.createObjectNode();
-    val clinical_evidence = mapper.createObjectNode();
+    val external_db_ids = mutation.objectNode();
+    val clinical_significance = mutation.objectNode();
+    val clinical_evidence = mutation.objectNode();
     mutation.set("external_db_ids", external_db_ids);
     mutation.set("clinical_significance", clinical_significance);
     mutation.set("clinical_evidence", clinical_evidence);
@@ -378,30 +375,13 @@ public class MutationCentricDocumentTransform extends AbstractCentricDocumentTra
     ((ObjectNode)mutation.get("external_db_ids")).put("civic", civicId);
     mutation.set("description", description);
 
-    ObjectMapper mapper = new ObjectMapper();
-
-    ArrayNode civicData = mapper.createArrayNode();
+    ArrayNode civicData = mutation.arrayNode();
     civic.forEach(civicData::add);
     ((ObjectNode)mutation.get("clinical_evidence")).set("civic", civicData);
 
     return mutation;
   }
 
-  private static ObjectNode findGeneTranscript(ObjectNode gene, String transcriptId) {
-    val geneTranscripts = getGeneTranscripts(gene);
-
-    for (val element : geneTranscripts) {
-      val geneTranscript = (ObjectNode) element;
-      val geneTranscriptId = getTranscriptId(geneTranscript);
-
-      if (geneTranscriptId.equals(transcriptId)) {
-        return geneTranscript;
-      }
-    }
-
-    return null;
-  }
-
   private static ObjectNode createMutationSsmOccurrence(ObjectNode observation, ObjectNode donor, ObjectNode project) {
     ObjectNode ssmOccurrence = observation.deepCopy();
 
@@ -432,18 +412,15 @@ public class MutationCentricDocumentTransform extends AbstractCentricDocumentTra
     return ssmOccurrence;
   }
 
+  /**
+   * @param gene projected and shared gene fragment
+   */
   private static ObjectNode createMutationTranscript(ObjectNode transcript, ObjectNode gene, ObjectNode consequence) {
     // Copy and default (empty if missing)
     val consequenceCopy = defaultObject(consequence).deepCopy();
-    val geneCopy = defaultObject(gene).deepCopy();
 
     // Default missing values
     defaultMissing(consequenceCopy, CONSEQUENCE_AA_MUTATION);
-    defaultMissing(geneCopy, GENE_ID);
-    defaultMissing(geneCopy, GENE_SYMBOL);
-
-    // Prune
-    geneCopy.remove(GENE_TRANSCRIPTS);
 
     // Remove
     val impactPredictionSummary =
@@ -452,12 +429,20 @@ public class MutationCentricDocumentTransform extends AbstractCentricDocumentTra
 
     // Embed
     transcript.set(MUTATION_TRANSCRIPTS_CONSEQUENCE, consequenceCopy);
-    transcript.set(MUTATION_TRANSCRIPTS_GENE, geneCopy);
+    transcript.set(MUTATION_TRANSCRIPTS_GENE, gene);
     transcript.set(MUTATION_TRANSCRIPTS_FUNCTIONAL_IMPACT_PREDICTION_SUMMARY, impactPredictionSummary);
 
     return transcript;
   }
 
+  private GeneFragmentCache getGeneFragments() {
+    if (geneFragments == null) {
+      geneFragments = new GeneFragmentCache();
+    }
+
+    return geneFragments;
+  }
+
   private static TreeMap<String, ObjectNode> newTreeMap() {
     return Maps.<String, ObjectNode> newTreeMap();
   }
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.document.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.val;
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.icgc.dcc.release.core.document.DocumentType;
+import org.icgc.dcc.release.core.util.JacksonFactory;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Streams a document which is too big to be stored with the rest of the documents to its own gzipped Smile file. The
+ * file name follows the {@code <document type>_<id>.gz} convention of the big documents indexing.
+ */
+@Slf4j
+public class BigDocumentWriter implements Closeable {
+
+  /**
+   * Constants.
+   */
+  public static final String BIG_DOCUMENT_EXTENSION = ".gz";
+
+  /**
+   * State.
+   */
+  private final OutputStream outputStream;
+  @Getter
+  private final JsonGenerator generator;
+
+  public BigDocumentWriter(@NonNull FileSystem fileSystem, @NonNull String bigDocumentsDir,
+      @NonNull DocumentType type, @NonNull String id) throws IOException {
+    val path = new Path(bigDocumentsDir, getBigDocumentFileName(type, id));
+    log.info("Saving big document to {}", path);
+    this.outputStream = new GZIPOutputStream(fileSystem.create(path));
+    this.generator = JacksonFactory.SMILE_MAPPER.getFactory().createGenerator(outputStream);
+  }
+
+  public static String getBigDocumentFileName(@NonNull DocumentType type, @NonNull String id) {
+    return type.getName() + "_" + id + BIG_DOCUMENT_EXTENSION;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      generator.close();
+    } finally {
+      outputStream.close();
+    }
+  }
+
+}
@@ -51,6 +51,20 @@ public final class DocumentTypes {
     return DOCUMENT_TYPES.get(documentType).broadcastDependencies();
   }
 
+  public static boolean isSharedObservations(@NonNull DocumentType documentType) {
+    return DOCUMENT_TYPES.get(documentType).sharedObservations();
+  }
+
+  /**
+   * @return whether the {@code documentType} reads the genes pivoted by the {@link PivotGenesTask}, directly or through
+   * the genes broadcast
+   */
+  public static boolean isPivotedGenes(@NonNull DocumentType documentType) {
+    val attributes = DOCUMENT_TYPES.get(documentType);
+
+    return attributes.pivotedGenes() || attributes.broadcastDependencies().contains(BroadcastType.GENE);
+  }
+
   public static DocumentFields getFields(@NonNull DocumentType documentType) {
     return DOCUMENT_TYPES.get(documentType).fields();
   }
@@ -213,6 +227,7 @@ public final class DocumentTypes {
   private static DocumentTypeAttributes defineDonorCentricType() {
     return attributes()
         .documentClassName(DonorCentricDocumentTask.class.getName())
+        .sharedObservations(true)
         .broadcastDependencies(ImmutableList.of(BroadcastType.GENE, BroadcastType.PROJECT, BroadcastType.CLINVAR, BroadcastType.CIVIC))
         .fields(fields()
             .projectFields(
@@ -310,6 +325,7 @@ public final class DocumentTypes {
   private static DocumentTypeAttributes defineGeneTextType() {
     return attributes()
         .documentClassName(GeneTextDocumentTask.class.getName())
+        .pivotedGenes(true)
         .fields(fields()
             .geneFields(
                 geneFields()
@@ -326,6 +342,8 @@ public final class DocumentTypes {
   private static DocumentTypeAttributes defineGeneCentricType() {
     return attributes()
         .documentClassName(GeneCentricDocumentTask.class.getName())
+        .pivotedGenes(true)
+        .sharedObservations(true)
         .broadcastDependencies(ImmutableList.of(BroadcastType.DONOR, BroadcastType.PROJECT, BroadcastType.CLINVAR, BroadcastType.CIVIC))
         .fields(
             fields()
@@ -414,6 +432,7 @@ public final class DocumentTypes {
   private static DocumentTypeAttributes defineObservationCentricType() {
     return attributes()
         .documentClassName(ObservationCentricDocumentTask.class.getName())
+        .sharedObservations(true)
         .broadcastDependencies(of(BroadcastType.DONOR, BroadcastType.PROJECT, BroadcastType.GENE, BroadcastType.CLINVAR, BroadcastType.CIVIC))
         .fields(
             fields()
@@ -489,6 +508,7 @@ public final class DocumentTypes {
   private static DocumentTypeAttributes defineMutationTextType() {
     return attributes()
         .documentClassName(MutationTextDocumentTask.class.getName())
+        .sharedObservations(true)
         .broadcastDependencies(ImmutableList.of(BroadcastType.GENE))
         .fields(fields()
             .mutationFields(
@@ -520,6 +540,7 @@ public final class DocumentTypes {
   private static DocumentTypeAttributes defineMutationCentricType() {
     return attributes()
         .documentClassName(MutationCentricDocumentTask.class.getName())
+        .sharedObservations(true)
         .broadcastDependencies(of(BroadcastType.DONOR, BroadcastType.PROJECT, BroadcastType.GENE, BroadcastType.CLINVAR, BroadcastType.CIVIC))
         .fields(
             fields()
@@ -18,27 +18,34 @@
 package org.icgc.dcc.release.job.document.util;
 
 import static lombok.AccessLevel.PRIVATE;
+import static org.icgc.dcc.common.core.model.FieldNames.GENE_SETS;
 import static org.icgc.dcc.common.core.model.FieldNames.GENE_SET_GO_TERM;
 import static org.icgc.dcc.common.core.model.FieldNames.GENE_SET_ID;
+import static org.icgc.dcc.release.job.document.model.CollectionFields.collectionFields;
 import static org.icgc.dcc.release.core.util.FieldNames.IndexFieldNames.GO_TERM_ONTOLOGY;
 import static org.icgc.dcc.release.core.util.Tuples.tuple;
 
 import java.util.Map;
+import java.util.Set;
 
 import lombok.NoArgsConstructor;
+import lombok.NonNull;
 import lombok.val;
 
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.api.java.function.PairFunction;
 import org.icgc.dcc.release.job.document.function.PivotGeneGeneSets;
+import org.icgc.dcc.release.job.document.model.CollectionFields;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.Sets;
 
 @NoArgsConstructor(access = PRIVATE)
 public final class GeneUtils {
 
   private static final String MISSING_VALUE = "";
+  private static final String GENE_SETS_PREFIX = GENE_SETS + ".";
 
   public static JavaRDD<ObjectNode> pivotGenes(JavaRDD<ObjectNode> genes, JavaRDD<ObjectNode> geneSets) {
     val geneSetIdOntologyPairs = createGeneSetIdOntologyPairs(geneSets);
@@ -46,6 +53,26 @@ public final class GeneUtils {
     return genes.map(new PivotGeneGeneSets(geneSetIdOntologyPairs));
   }
 
+  /**
+   * Translates the {@code geneFields} of a document type to the fields of the pivoted genes. The pivoted gene sets
+   * replace the {@code sets} of a gene, so projecting any field of the gene sets projects all the pivoted gene sets.
+   */
+  public static CollectionFields getPivotedGeneFields(@NonNull CollectionFields geneFields) {
+    return collectionFields()
+        .includedFields(getPivotedGeneFields(geneFields.getIncludedFields()))
+        .excludedFields(getPivotedGeneFields(geneFields.getExcludedFields()))
+        .build();
+  }
+
+  private static Set<String> getPivotedGeneFields(Iterable<String> fields) {
+    val result = Sets.<String> newLinkedHashSet();
+    for (val field : fields) {
+      result.add(field.startsWith(GENE_SETS_PREFIX) ? GENE_SETS : field);
+    }
+
+    return result;
+  }
+
   private static Map<String, String> createGeneSetIdOntologyPairs(JavaRDD<ObjectNode> geneSets) {
     return geneSets
         .mapToPair(pairGeneSetOntology())
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.document.core;
+
+import static java.util.Collections.nCopies;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import lombok.Cleanup;
+import lombok.val;
+
+import org.apache.spark.api.java.JavaSparkContext;
+import org.apache.spark.broadcast.Broadcast;
+import org.icgc.dcc.release.core.document.DocumentType;
+import org.icgc.dcc.release.core.job.JobContext;
+import org.icgc.dcc.release.core.task.Task;
+import org.icgc.dcc.release.job.document.model.BroadcastType;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+public class BroadcastRegistryTest {
+
+  /**
+   * Depends on the {@link BroadcastType#PROJECT} broadcast only.
+   */
+  private static final DocumentType DOCUMENT_TYPE = DocumentType.DONOR_TYPE;
+
+  JavaSparkContext sparkContext;
+  JobContext jobContext;
+  Broadcast<?> broadcast;
+
+  @Before
+  public void setUp() {
+    sparkContext = mock(JavaSparkContext.class);
+    jobContext = mock(JobContext.class);
+    broadcast = mock(Broadcast.class);
+    doReturn(broadcast).when(sparkContext).broadcast(any());
+  }
+
+  @Test
+  public void testAcquireReusesBroadcast() {
+    val registry = new BroadcastRegistry(sparkContext, ImmutableList.of(DOCUMENT_TYPE, DOCUMENT_TYPE));
+
+    val first = registry.acquire(jobContext, DOCUMENT_TYPE);
+    val second = registry.acquire(jobContext, DOCUMENT_TYPE);
+
+    assertThat(first).containsOnlyKeys(BroadcastType.PROJECT);
+    assertThat(second.get(BroadcastType.PROJECT)).isSameAs(first.get(BroadcastType.PROJECT));
+    verify(jobContext, times(1)).execute(anyCollectionOf(Task.class));
+    verify(sparkContext, times(1)).broadcast(any());
+  }
+
+  @Test
+  public void testReleaseDestroysAfterLastReference() {
+    val registry = new BroadcastRegistry(sparkContext, ImmutableList.of(DOCUMENT_TYPE, DOCUMENT_TYPE));
+    registry.acquire(jobContext, DOCUMENT_TYPE);
+    registry.acquire(jobContext, DOCUMENT_TYPE);
+
+    registry.release(DOCUMENT_TYPE);
+    verify(broadcast, never()).destroy(false);
+
+    registry.release(DOCUMENT_TYPE);
+    verify(broadcast, times(1)).destroy(false);
+  }
+
+  @Test
+  public void testReleaseBeforeAcquire() {
+    val registry = new BroadcastRegistry(sparkContext, ImmutableList.of(DOCUMENT_TYPE));
+
+    registry.release(DOCUMENT_TYPE);
+
+    verify(broadcast, never()).destroy(false);
+  }
+
+  @Test
+  public void testAcquireConcurrently() throws Exception {
+    val threads = 8;
+    val registry = new BroadcastRegistry(sparkContext, nCopies(threads, DOCUMENT_TYPE));
+
+    // Keep the broadcast resolving long enough for the other threads to wait on it
+    doAnswer(invocation -> {
+      MILLISECONDS.sleep(200);
+      return null;
+    }).when(jobContext).execute(anyCollectionOf(Task.class));
+
+    @Cleanup("shutdown")
+    val executor = Executors.newFixedThreadPool(threads);
+    val futures = Lists.<Future<Map<BroadcastType, Broadcast<?>>>> newArrayList();
+    for (int i = 0; i < threads; i++) {
+      Callable<Map<BroadcastType, Broadcast<?>>> acquire = () -> registry.acquire(jobContext, DOCUMENT_TYPE);
+      futures.add(executor.submit(acquire));
+    }
+
+    List<Broadcast<?>> acquired = Lists.newArrayList();
+    for (val future : futures) {
+      acquired.add(future.get().get(BroadcastType.PROJECT));
+    }
+
+    assertThat(acquired).hasSize(threads).containsOnly(broadcast);
+    verify(jobContext, times(1)).execute(anyCollectionOf(Task.class));
+    verify(sparkContext, times(1)).broadcast(any());
+
+    for (int i = 0; i < threads; i++) {
+      registry.release(DOCUMENT_TYPE);
+    }
+    verify(broadcast, times(1)).destroy(false);
+  }
+
+}
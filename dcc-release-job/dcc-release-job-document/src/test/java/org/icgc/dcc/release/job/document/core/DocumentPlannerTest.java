@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.document.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.icgc.dcc.release.job.document.model.CollectionFields.collectionFields;
+
+import lombok.val;
+
+import org.icgc.dcc.release.core.document.DocumentType;
+import org.icgc.dcc.release.core.util.JacksonFactory;
+import org.icgc.dcc.release.job.document.model.CollectionFields;
+import org.icgc.dcc.release.job.document.util.CollectionFieldsFilterAdapter;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableList;
+
+public class DocumentPlannerTest {
+
+  @Test
+  public void testGetSharedObservationsConsumers() {
+    val consumers = DocumentPlanner.getSharedObservationsConsumers(ImmutableList.of(
+        DocumentType.GENE_TYPE,
+        DocumentType.DONOR_CENTRIC_TYPE,
+        DocumentType.MUTATION_CENTRIC_TYPE));
+
+    assertThat(consumers).containsExactly(DocumentType.DONOR_CENTRIC_TYPE, DocumentType.MUTATION_CENTRIC_TYPE);
+  }
+
+  @Test
+  public void testIsHeavy() {
+    assertThat(DocumentPlanner.isHeavy(DocumentType.DONOR_CENTRIC_TYPE)).isTrue();
+    assertThat(DocumentPlanner.isHeavy(DocumentType.MUTATION_CENTRIC_TYPE)).isTrue();
+    assertThat(DocumentPlanner.isHeavy(DocumentType.RELEASE_TYPE)).isFalse();
+    assertThat(DocumentPlanner.isHeavy(DocumentType.DRUG_TEXT_TYPE)).isFalse();
+  }
+
+  @Test
+  public void testGetExecutionOrder() {
+    val order = DocumentPlanner.getExecutionOrder(ImmutableList.of(
+        DocumentType.MUTATION_CENTRIC_TYPE,
+        DocumentType.GENE_TYPE,
+        DocumentType.DONOR_CENTRIC_TYPE,
+        DocumentType.RELEASE_TYPE));
+
+    assertThat(order).containsExactly(
+        DocumentType.DONOR_CENTRIC_TYPE,
+        DocumentType.RELEASE_TYPE,
+        DocumentType.GENE_TYPE,
+        DocumentType.MUTATION_CENTRIC_TYPE);
+  }
+
+  @Test
+  public void testUnionIncluded() {
+    val first = collectionFields().includedFields("a", "c.d").build();
+    val second = collectionFields().includedFields("b", "c.e").build();
+    val union = DocumentPlanner.union(ImmutableList.of(first, second));
+
+    assertThat(union.getIncludedFields()).containsExactly("a", "c.d", "b", "c.e");
+    assertThat(union.getExcludedFields()).containsExactly("_id");
+
+    assertFilter(union, first);
+    assertFilter(union, second);
+  }
+
+  @Test
+  public void testUnionExcluded() {
+    val first = collectionFields().excludedFields("_id", "a", "c.d").build();
+    val second = collectionFields().excludedFields("_id", "a", "b").build();
+    val third = collectionFields().includedFields("a.x").build();
+    val union = DocumentPlanner.union(ImmutableList.of(first, second, third));
+
+    assertThat(union.getIncludedFields()).isEmpty();
+    assertThat(union.getExcludedFields()).containsExactly("_id");
+
+    assertFilter(union, first);
+    assertFilter(union, second);
+    assertFilter(union, third);
+  }
+
+  @Test
+  public void testUnionDefault() {
+    val union = DocumentPlanner.union(ImmutableList.of(
+        collectionFields().includedFields("a").build(),
+        CollectionFields.DEFAULT_COLLECTION_FIELDS));
+
+    assertThat(union.getIncludedFields()).isEmpty();
+    assertThat(union.getExcludedFields()).containsExactly("_id");
+  }
+
+  private static void assertFilter(CollectionFields union, CollectionFields fields) {
+    val expected = filter(createObservation(), fields);
+    val actual = filter(filter(createObservation(), union), fields);
+
+    assertThat(actual).isEqualTo(expected);
+  }
+
+  private static ObjectNode filter(ObjectNode value, CollectionFields fields) {
+    return new CollectionFieldsFilterAdapter(fields).filter(value);
+  }
+
+  private static ObjectNode createObservation() {
+    val observation = JacksonFactory.MAPPER.createObjectNode();
+    observation.put("_id", "1");
+    observation.putObject("a").put("x", 1).put("y", 2);
+    observation.put("b", "b");
+    observation.putObject("c").put("d", 3).put("e", 4);
+    observation.put("f", "f");
+
+    return observation;
+  }
+
+}
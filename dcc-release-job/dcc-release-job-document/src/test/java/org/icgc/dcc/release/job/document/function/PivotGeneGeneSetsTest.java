@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.document.function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.icgc.dcc.release.job.document.model.CollectionFields.collectionFields;
+
+import lombok.val;
+
+import org.icgc.dcc.release.core.util.JacksonFactory;
+import org.icgc.dcc.release.job.document.model.CollectionFields;
+import org.icgc.dcc.release.job.document.util.CollectionFieldsFilterAdapter;
+import org.icgc.dcc.release.job.document.util.GeneUtils;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableMap;
+
+public class PivotGeneGeneSetsTest {
+
+  private final PivotGeneGeneSets pivot = new PivotGeneGeneSets(ImmutableMap.of("GO:1", "biological_process"));
+  private final UnnestGeneGeneSets unnest = new UnnestGeneGeneSets();
+
+  @Test
+  public void testPivot() throws Exception {
+    val fields = collectionFields().includedFields("_gene_id", "sets.id", "sets.type").build();
+    val gene = read(pivot(fields));
+
+    assertThat(gene).isEqualTo(read("{'_gene_id':'G1','pathway':['P1','P2'],'go_term':{'biological_process':['GO:1']},"
+        + "'drug':['D1']}"));
+  }
+
+  @Test
+  public void testPivotNotProjected() throws Exception {
+    val fields = collectionFields().includedFields("_gene_id", "symbol").build();
+    val gene = read(pivot(fields));
+
+    assertThat(gene).isEqualTo(read("{'_gene_id':'G1','symbol':'S1'}"));
+  }
+
+  @Test
+  public void testPivotNoGeneSets() throws Exception {
+    val gene = read("{'_gene_id':'G1'}");
+
+    assertThat(unnest.call(pivot.call(gene.deepCopy()))).isEqualTo(gene);
+  }
+
+  @Test
+  public void testUnnestAppends() throws Exception {
+    val gene = read("{'_gene_id':'G1','drug':['D0'],'go_term':{'cellular_component':['GO:2'],"
+        + "'biological_process':['GO:0']},'sets':{'drug':['D1'],'go_term':{'biological_process':['GO:1']}}}");
+
+    assertThat(unnest.call(gene)).isEqualTo(read("{'_gene_id':'G1','drug':['D0','D1'],"
+        + "'go_term':{'cellular_component':['GO:2'],'biological_process':['GO:0','GO:1']}}"));
+  }
+
+  @Test
+  public void testGetPivotedGeneFields() {
+    val fields = GeneUtils.getPivotedGeneFields(
+        collectionFields().includedFields("_gene_id", "sets.id", "sets.type", "symbol").build());
+
+    assertThat(fields.getIncludedFields()).containsExactly("_gene_id", "sets", "symbol");
+    assertThat(fields.getExcludedFields()).containsExactly("_id");
+  }
+
+  /**
+   * Pivots the full gene and projects it the way the document tasks do.
+   */
+  private String pivot(CollectionFields fields) throws Exception {
+    val pivoted = pivot.call(createGene());
+    val projected = new CollectionFieldsFilterAdapter(GeneUtils.getPivotedGeneFields(fields)).filter(pivoted);
+
+    return unnest.call(projected).toString();
+  }
+
+  private static ObjectNode createGene() {
+    return read("{'_gene_id':'G1','symbol':'S1','sets':["
+        + "{'id':'P1','type':'pathway','name':'N1'},"
+        + "{'id':'GO:1','type':'go_term','name':'N2'},"
+        + "{'id':'P2','type':'pathway','name':'N3'},"
+        + "{'id':'D1','type':'drug','name':'N4'}]}");
+  }
+
+  private static ObjectNode read(String json) {
+    try {
+      return (ObjectNode) JacksonFactory.MAPPER.readTree(json.replace('\'', '"'));
+    } catch (Exception e) {
+      throw new IllegalArgumentException(e);
+    }
+  }
+
+}
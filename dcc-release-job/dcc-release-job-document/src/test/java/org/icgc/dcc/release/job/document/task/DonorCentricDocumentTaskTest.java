@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.document.task;
+
+import static java.util.Collections.emptySet;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.icgc.dcc.release.core.util.Tuples.tuple;
+import static org.icgc.dcc.release.job.document.task.DonorCentricDocumentTask.aggregateOccurrences;
+import static org.icgc.dcc.release.job.document.task.DonorCentricDocumentTask.resolveHotDonorIds;
+import static org.icgc.dcc.release.job.document.transform.DonorCentricDocumentTransform.createDonorGeneTree;
+import static org.icgc.dcc.release.job.document.util.Fakes.FAKE_GENE_ID;
+
+import lombok.SneakyThrows;
+import lombok.val;
+
+import org.apache.spark.api.java.JavaPairRDD;
+import org.icgc.dcc.release.core.util.JacksonFactory;
+import org.icgc.dcc.release.job.document.model.DonorGeneObservations;
+import org.icgc.dcc.release.job.document.model.Occurrence;
+import org.icgc.dcc.release.job.document.model.Occurrence.Consequence;
+import org.icgc.dcc.release.test.job.AbstractJobTest;
+import org.junit.Test;
+
+import scala.Tuple2;
+
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+public class DonorCentricDocumentTaskTest extends AbstractJobTest {
+
+  private static final String HOT_DONOR_ID = "DO0";
+  private static final int DONORS = 21;
+  private static final int MEDIAN_OCCURRENCES = 20;
+  private static final int SALTS = 8;
+
+  @Test
+  public void testResolveHotDonorIds() {
+    val occurrences = createSkewedOccurrences();
+
+    assertThat(resolveHotDonorIds(occurrences, 1.0, 100)).containsOnly(HOT_DONOR_ID);
+    assertThat(resolveHotDonorIds(occurrences, 1.0, 102)).isEmpty();
+    assertThat(resolveHotDonorIds(occurrences, 0.0, 100)).isEmpty();
+  }
+
+  @Test
+  public void testAggregateOccurrences_salted() {
+    val occurrences = createSkewedOccurrences();
+    val hotDonorIds = resolveHotDonorIds(occurrences, 1.0, 100);
+
+    val expected = aggregateOccurrences(occurrences, emptySet(), SALTS).collectAsMap();
+    val actual = aggregateOccurrences(occurrences, hotDonorIds, SALTS).collectAsMap();
+
+    // The nested documents are the same, byte for byte
+    assertThat(actual).hasSize(DONORS);
+    assertThat(actual.keySet()).isEqualTo(expected.keySet());
+    for (val donorId : expected.keySet()) {
+      assertThat(serialize(actual.get(donorId))).isEqualTo(serialize(expected.get(donorId)));
+    }
+
+    // Duplicates are dropped, consequences are restricted to the nesting gene
+    val hotDonor = actual.get(HOT_DONOR_ID);
+    assertThat(hotDonor.getGeneIds()).containsOnly("G0", "G1", "G2", "G3", "G4", FAKE_GENE_ID);
+    val geneObservations = HashMultiset.create(hotDonor.getGeneObservations("G0").get("ssm"));
+    for (val occurrence : geneObservations.elementSet()) {
+      assertThat(geneObservations.count(occurrence)).isEqualTo(1);
+      assertThat(occurrence.getConsequence()).hasSize(1);
+    }
+  }
+
+  private JavaPairRDD<String, Occurrence> createSkewedOccurrences() {
+    val occurrences = Lists.<Tuple2<String, Occurrence>> newArrayList();
+    for (int donor = 0; donor < DONORS; donor++) {
+      val donorId = "DO" + donor;
+      val count = HOT_DONOR_ID.equals(donorId) ? 100 * MEDIAN_OCCURRENCES : MEDIAN_OCCURRENCES;
+      for (int i = 0; i < count; i++) {
+        occurrences.add(tuple(donorId, createOccurrence(i)));
+      }
+    }
+
+    // Duplicate observations of the hot donor
+    for (int i = 0; i < MEDIAN_OCCURRENCES; i++) {
+      occurrences.add(tuple(HOT_DONOR_ID, createOccurrence(i)));
+    }
+
+    return sparkContext.parallelizePairs(occurrences, 4);
+  }
+
+  private static Occurrence createOccurrence(int i) {
+    val occurrence = new Occurrence();
+    occurrence.set_mutation_id("MU" + i);
+    occurrence.set_type("ssm");
+    if (i % 7 != 0) {
+      occurrence.setConsequence(ImmutableList.of(
+          createConsequence("G" + i % 5),
+          createConsequence("G" + (i + 1) % 5)));
+    }
+
+    return occurrence;
+  }
+
+  private static Consequence createConsequence(String geneId) {
+    val consequence = new Consequence();
+    consequence.set_gene_id(geneId);
+    consequence.setConsequence_type("missense_variant");
+
+    return consequence;
+  }
+
+  /**
+   * Serializes the genes of a donor as they are nested in the donor-centric document.
+   */
+  @SneakyThrows
+  private static byte[] serialize(DonorGeneObservations donor) {
+    val genes = Maps.<String, Object> newTreeMap();
+    for (val geneId : donor.getGeneIds()) {
+      genes.put(geneId, createDonorGeneTree(ImmutableMap.of(), donor.getGeneObservations(geneId)));
+    }
+
+    return JacksonFactory.MAPPER.writeValueAsBytes(genes);
+  }
+
+}
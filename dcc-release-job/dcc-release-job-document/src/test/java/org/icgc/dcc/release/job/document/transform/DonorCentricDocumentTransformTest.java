@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.document.transform;
+
+import static com.google.common.base.Objects.firstNonNull;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.icgc.dcc.release.job.document.util.Fakes.FAKE_GENE_ID;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+
+import lombok.val;
+
+import org.icgc.dcc.release.core.util.JacksonFactory;
+import org.icgc.dcc.release.job.document.model.DonorGeneObservations;
+import org.icgc.dcc.release.job.document.model.Occurrence;
+import org.icgc.dcc.release.job.document.model.Occurrence.Consequence;
+import org.icgc.dcc.release.test.util.TestFiles;
+import org.junit.Test;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.Lists;
+
+public class DonorCentricDocumentTransformTest {
+
+  private static final File OBSERVATIONS_FIXTURE =
+      new File("src/test/resources/fixtures/input/observation_fi/project_name=BRCA-UK/part-00000");
+
+  private static final ObjectReader OCCURRENCE_READER = JacksonFactory.MAPPER
+      .reader(Occurrence.class)
+      .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+  @Test
+  public void testAggregate_fixture() throws Exception {
+    verifyAggregate(readOccurrences());
+  }
+
+  @Test
+  public void testAggregate_synthetic() throws Exception {
+    val multiGene = createOccurrence("MU1", "G1", "G2", "G1");
+    val noConsequences = createOccurrence("MU2");
+    noConsequences.setConsequence(null);
+    val emptyConsequences = createOccurrence("MU3");
+    val unknownGene = createOccurrence("MU4", (String) null);
+
+    verifyAggregate(ImmutableList.of(multiGene, noConsequences, emptyConsequences, unknownGene,
+        createOccurrence("MU1", "G1", "G2", "G1")));
+  }
+
+  @Test
+  public void testAggregate_original() throws Exception {
+    val occurrences = readOccurrences();
+    val expected = readOccurrences();
+
+    DonorCentricDocumentTransform.aggregate(occurrences);
+
+    assertThat(occurrences).isEqualTo(expected);
+  }
+
+  private static void verifyAggregate(List<Occurrence> occurrences) {
+    val expected = aggregateWithKryo(occurrences);
+    val actual = DonorCentricDocumentTransform.aggregate(occurrences);
+
+    assertThat(actual.getGeneIds()).containsExactlyElementsOf(expected.getGeneIds());
+    for (val geneId : expected.getGeneIds()) {
+      assertThat(actual.getGeneObservations(geneId)).isEqualTo(expected.getGeneObservations(geneId));
+    }
+  }
+
+  /**
+   * The previous implementation which deep copied each observation.
+   */
+  private static DonorGeneObservations aggregateWithKryo(Iterable<Occurrence> occurrences) {
+    val genesObservations = ImmutableSetMultimap.<String, Occurrence> builder();
+    for (val occurrence : occurrences) {
+      val consequences = occurrence.getConsequence();
+      if (consequences == null || consequences.isEmpty()) {
+        genesObservations.put(FAKE_GENE_ID, occurrence);
+      } else {
+        for (val consequence : consequences) {
+          genesObservations.put(firstNonNull(consequence.get_gene_id(), FAKE_GENE_ID), occurrence);
+        }
+      }
+    }
+
+    val kryo = new Kryo();
+    val result = new DonorGeneObservations();
+    for (val entry : genesObservations.build().entries()) {
+      val geneId = entry.getKey();
+      val observation = kryo.copy(entry.getValue());
+      if (observation.getConsequence() == null) {
+        observation.setConsequence(Collections.emptyList());
+      } else {
+        val consequences = Lists.<Consequence> newArrayList();
+        for (val consequence : observation.getConsequence()) {
+          if (geneId.equals(firstNonNull(consequence.get_gene_id(), FAKE_GENE_ID))) {
+            consequences.add(consequence);
+          }
+        }
+        observation.setConsequence(consequences);
+      }
+
+      for (val consequence : observation.getConsequence()) {
+        consequence.set_gene_id(null);
+      }
+
+      result.add(geneId, observation);
+    }
+
+    return result;
+  }
+
+  private static List<Occurrence> readOccurrences() throws Exception {
+    val occurrences = Lists.<Occurrence> newArrayList();
+    for (val row : TestFiles.readInputFile(OBSERVATIONS_FIXTURE)) {
+      occurrences.add(OCCURRENCE_READER.treeToValue(row, Occurrence.class));
+    }
+
+    return occurrences;
+  }
+
+  private static Occurrence createOccurrence(String mutationId, String... geneIds) {
+    val occurrence = new Occurrence();
+    occurrence.set_mutation_id(mutationId);
+    occurrence.set_donor_id("DO1");
+    occurrence.set_type("ssm");
+    occurrence.setConsequence_type(new String[] { "missense_variant" });
+
+    val consequences = Lists.<Consequence> newArrayList();
+    int i = 0;
+    for (val geneId : geneIds) {
+      val consequence = new Consequence();
+      consequence.set_gene_id(geneId);
+      consequence.set_transcript_id("T" + i++);
+      consequence.setConsequence_type("missense_variant");
+      consequences.add(consequence);
+    }
+    occurrence.setConsequence(consequences);
+
+    return occurrence;
+  }
+
+}
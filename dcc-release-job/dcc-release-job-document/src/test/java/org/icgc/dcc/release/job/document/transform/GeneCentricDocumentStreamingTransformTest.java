@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.document.transform;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.icgc.dcc.common.core.model.FieldNames.DONOR_ID;
+import static org.icgc.dcc.common.core.model.FieldNames.DONOR_PROJECT_ID;
+import static org.icgc.dcc.common.core.model.FieldNames.GENE_DONORS;
+import static org.icgc.dcc.common.core.model.FieldNames.GENE_DONOR_DONOR_ID;
+import static org.icgc.dcc.common.core.model.FieldNames.GENE_ID;
+import static org.icgc.dcc.common.core.model.FieldNames.OBSERVATION_TYPE;
+import static org.icgc.dcc.common.core.model.FieldNames.PROJECT_ID;
+import static org.icgc.dcc.common.core.util.stream.Collectors.toImmutableList;
+import static org.icgc.dcc.release.core.util.Tuples.tuple;
+import static org.icgc.dcc.release.job.document.transform.GeneCentricDocumentStreamingTransform.GENE_RECORD_DONOR_ID;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import lombok.Cleanup;
+import lombok.val;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.spark.broadcast.Broadcast;
+import org.icgc.dcc.release.core.document.Document;
+import org.icgc.dcc.release.core.document.DocumentType;
+import org.icgc.dcc.release.core.util.Configurations;
+import org.icgc.dcc.release.core.util.JacksonFactory;
+import org.icgc.dcc.release.job.document.core.DocumentJobContext;
+import org.icgc.dcc.release.job.document.util.BigDocumentWriter;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import scala.Tuple2;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+
+public class GeneCentricDocumentStreamingTransformTest {
+
+  /**
+   * Constants.
+   */
+  private static final String PROJECT = "P1";
+  private static final String SPILLED_GENE = "G1";
+  private static final String SMALL_GENE = "G2";
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  DocumentJobContext documentJobContext;
+  File bigDocumentsDir;
+
+  @Before
+  public void setUp() throws Exception {
+    documentJobContext = DocumentJobContext.builder()
+        .projectsBroadcast(broadcast(ImmutableMap.of(PROJECT, object(PROJECT_ID, PROJECT))))
+        .donorsBroadcast(broadcast(ImmutableMap.of(
+            "D1", donor("D1"),
+            "D2", donor("D2"),
+            "D3", donor("D3"))))
+        .build();
+    bigDocumentsDir = tmp.newFolder("big_document");
+  }
+
+  @Test
+  public void testCallBelowThreshold() throws Exception {
+    val documents = transform(Long.MAX_VALUE);
+
+    assertThat(getIds(documents)).containsExactly(SPILLED_GENE, SMALL_GENE);
+    assertThat(bigDocumentsDir.list()).isEmpty();
+
+    // Donors with observations first, as when spilled
+    assertThat(getGeneDonorIds(documents.get(0).getSource())).containsExactly("D1", "D2", "D3");
+  }
+
+  @Test
+  public void testCallAboveThreshold() throws Exception {
+    val expected = transform(Long.MAX_VALUE).get(0).getSource();
+
+    // Genes are only spilled once they outgrow the threshold with their donors
+    val documents = transform(1L);
+
+    assertThat(getIds(documents)).containsExactly(SMALL_GENE);
+    val fileName = BigDocumentWriter.getBigDocumentFileName(DocumentType.GENE_CENTRIC_TYPE, SPILLED_GENE);
+    assertThat(bigDocumentsDir.list()).contains(fileName);
+    assertThat(readBigDocument(new File(bigDocumentsDir, fileName))).isEqualTo(expected);
+  }
+
+  private List<Document> transform(long bigDocumentThreshold) throws Exception {
+    val transform = new GeneCentricDocumentStreamingTransform(documentJobContext, bigDocumentThreshold,
+        bigDocumentsDir.getAbsolutePath(), Configurations.getSettings(new Configuration()));
+
+    return Lists.newArrayList(transform.call(createRecords().iterator()));
+  }
+
+  /**
+   * Records as sorted by gene and donor id. D3 is a donor of the gene without observations of it, and the donors of the
+   * gene are not in donor id order.
+   */
+  private static List<Tuple2<Tuple2<String, String>, ObjectNode>> createRecords() {
+    return ImmutableList.of(
+        tuple(tuple(SPILLED_GENE, GENE_RECORD_DONOR_ID), gene(SPILLED_GENE, "D3", "D2", "D1")),
+        tuple(tuple(SPILLED_GENE, "D1"), observation("O1")),
+        tuple(tuple(SPILLED_GENE, "D1"), observation("O2")),
+        tuple(tuple(SPILLED_GENE, "D2"), observation("O3")),
+        tuple(tuple(SMALL_GENE, GENE_RECORD_DONOR_ID), gene(SMALL_GENE)),
+        // Observation of an unknown gene
+        tuple(tuple("G3", "D1"), observation("O4")));
+  }
+
+  private static List<String> getIds(List<Document> documents) {
+    return documents.stream().map(Document::getId).collect(toImmutableList());
+  }
+
+  private static List<String> getGeneDonorIds(ObjectNode gene) {
+    val geneDonorIds = ImmutableList.<String> builder();
+    for (val geneDonor : gene.path(GENE_DONORS)) {
+      geneDonorIds.add(geneDonor.path(GENE_DONOR_DONOR_ID).textValue());
+    }
+
+    return geneDonorIds.build();
+  }
+
+  private static ObjectNode gene(String geneId, String... donorIds) {
+    val gene = object(GENE_ID, geneId);
+    val geneDonors = gene.withArray(GENE_DONORS);
+    for (val donorId : donorIds) {
+      geneDonors.add(object(GENE_DONOR_DONOR_ID, donorId));
+    }
+
+    return gene;
+  }
+
+  private static ObjectNode donor(String donorId) {
+    return object(DONOR_ID, donorId).put(DONOR_PROJECT_ID, PROJECT);
+  }
+
+  private static ObjectNode observation(String observationId) {
+    return object(OBSERVATION_TYPE, "cnsm")
+        .put("observation_id", observationId)
+        .put("padding", Strings.repeat("x", 100));
+  }
+
+  private static ObjectNode object(String fieldName, String value) {
+    return JacksonFactory.MAPPER.createObjectNode().put(fieldName, value);
+  }
+
+  private static JsonNode readBigDocument(File file) throws Exception {
+    @Cleanup
+    val inputStream = new GZIPInputStream(new FileInputStream(file));
+
+    return JacksonFactory.SMILE_MAPPER.readTree(inputStream);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> Broadcast<Map<String, T>> broadcast(Map<String, T> value) {
+    Broadcast<Map<String, T>> broadcast = mock(Broadcast.class);
+    when(broadcast.getValue()).thenReturn(value);
+
+    return broadcast;
+  }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.document.transform;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.icgc.dcc.release.core.util.JacksonFactory.MAPPER;
+
+import java.io.File;
+import java.util.List;
+
+import lombok.val;
+
+import org.icgc.dcc.release.core.document.DocumentType;
+import org.icgc.dcc.release.core.document.RawDocument;
+import org.icgc.dcc.release.core.util.DocumentSources;
+import org.icgc.dcc.release.job.document.context.DefaultDocumentContext;
+import org.icgc.dcc.release.job.document.core.DocumentJobContext;
+import org.icgc.dcc.release.job.document.function.WriteStreamingDocuments;
+import org.icgc.dcc.release.test.util.TestFiles;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+public class GeneTextDocumentTransformTest {
+
+  private static final File GENES_FIXTURE = new File("src/test/resources/fixtures/input/gene_summary/part-00000");
+
+  private final DocumentJobContext documentJobContext = DocumentJobContext.builder().build();
+  private final GeneTextDocumentTransform transform = new GeneTextDocumentTransform(documentJobContext);
+  private final DefaultDocumentContext context =
+      new DefaultDocumentContext(DocumentType.GENE_TEXT_TYPE, documentJobContext);
+
+  @Test
+  public void testTransformDocument_fixture() throws Exception {
+    verifyTransformDocument(TestFiles.readInputFile(GENES_FIXTURE));
+  }
+
+  @Test
+  public void testTransformDocument_externalDbIds() throws Exception {
+    val gene = (ObjectNode) MAPPER.readTree("{'_gene_id':'G1','symbol':'S1','external_db_ids':"
+        + "{'hgnc':['H1'],'omim_gene':['O1','O2'],'Ensembl_transcript_id':[]}}".replace('\'', '"'));
+
+    verifyTransformDocument(ImmutableList.of(gene));
+  }
+
+  @Test
+  public void testTransformDocument_original() throws Exception {
+    val genes = TestFiles.readInputFile(GENES_FIXTURE);
+    val expected = TestFiles.readInputFile(GENES_FIXTURE);
+
+    writeDocuments(genes);
+
+    assertThat(genes).isEqualTo(expected);
+  }
+
+  private void verifyTransformDocument(List<ObjectNode> genes) throws Exception {
+    val documents = writeDocuments(genes);
+
+    assertThat(documents).hasSameSizeAs(genes);
+    for (int i = 0; i < genes.size(); i++) {
+      val expected = transform.transformDocument(genes.get(i).deepCopy(), context);
+      val actual = documents.get(i);
+
+      assertThat(actual.getType()).isEqualTo(expected.getType());
+      assertThat(actual.getId()).isEqualTo(expected.getId());
+      assertThat(DocumentSources.isJson(actual.getSource())).isTrue();
+      assertThat(DocumentSources.readSource(actual.getSource())).isEqualTo(expected.getSource());
+    }
+  }
+
+  private List<RawDocument> writeDocuments(List<ObjectNode> genes) throws Exception {
+    return Lists.newArrayList(new WriteStreamingDocuments(transform, context).call(genes.iterator()));
+  }
+
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.document.transform;
+
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static org.icgc.dcc.common.core.model.FieldNames.DONOR_ID;
+import static org.icgc.dcc.common.core.model.FieldNames.DONOR_PROJECT_ID;
+import static org.icgc.dcc.common.core.model.FieldNames.GENE_ID;
+import static org.icgc.dcc.common.core.model.FieldNames.GENE_SYMBOL;
+import static org.icgc.dcc.common.core.model.FieldNames.GENE_TRANSCRIPTS;
+import static org.icgc.dcc.common.core.model.FieldNames.GENE_TRANSCRIPTS_TRANSCRIPT_ID;
+import static org.icgc.dcc.common.core.model.FieldNames.MUTATION_CHROMOSOME;
+import static org.icgc.dcc.common.core.model.FieldNames.MUTATION_CHROMOSOME_END;
+import static org.icgc.dcc.common.core.model.FieldNames.MUTATION_CHROMOSOME_START;
+import static org.icgc.dcc.common.core.model.FieldNames.MUTATION_ID;
+import static org.icgc.dcc.common.core.model.FieldNames.MUTATION_MUTATION;
+import static org.icgc.dcc.common.core.model.FieldNames.OBSERVATION_CONSEQUENCES;
+import static org.icgc.dcc.common.core.model.FieldNames.OBSERVATION_CONSEQUENCES_CONSEQUENCE_TYPE;
+import static org.icgc.dcc.common.core.model.FieldNames.OBSERVATION_CONSEQUENCES_GENE_ID;
+import static org.icgc.dcc.common.core.model.FieldNames.OBSERVATION_CONSEQUENCES_TRANSCRIPT_ID;
+import static org.icgc.dcc.common.core.model.FieldNames.OBSERVATION_DONOR_ID;
+import static org.icgc.dcc.common.core.model.FieldNames.PROJECT_ID;
+
+import java.util.Map;
+
+import lombok.val;
+
+import org.icgc.dcc.release.core.document.Document;
+import org.icgc.dcc.release.core.document.DocumentType;
+import org.icgc.dcc.release.job.document.core.DocumentContext;
+import org.icgc.dcc.release.job.document.core.DocumentJobContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+
+/**
+ * Measures {@link MutationCentricDocumentTransform} on a synthetic mutation observed with 50 consequences spread over
+ * genes with many transcripts.
+ * <p>
+ * Run with {@code main} from the IDE or with the JMH runner from the test classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class MutationCentricDocumentTransformBenchmark {
+
+  private static final JsonNodeFactory FACTORY = JsonNodeFactory.instance;
+
+  private static final int CONSEQUENCES = 50;
+  private static final int GENES = 10;
+  private static final int GENE_TRANSCRIPTS_COUNT = 40;
+
+  private static final String MUTATION_ID_VALUE = "MU1";
+  private static final String DONOR_ID_VALUE = "DO1";
+  private static final String PROJECT_ID_VALUE = "PR1";
+
+  private MutationCentricDocumentTransform transform;
+  private BenchmarkDocumentContext context;
+  private ObjectNode mutationTemplate;
+  private ObjectNode observationTemplate;
+
+  /**
+   * Inputs are modified by the transform.
+   */
+  private ObjectNode mutation;
+
+  @Setup(Level.Trial)
+  public void setUpTrial() {
+    transform = new MutationCentricDocumentTransform(DocumentJobContext.builder().build());
+    mutationTemplate = createMutation();
+    observationTemplate = createObservation();
+    context = new BenchmarkDocumentContext(createGenes());
+  }
+
+  @Setup(Level.Invocation)
+  public void setUpInvocation() {
+    mutation = mutationTemplate.deepCopy();
+    context.setObservation(observationTemplate.deepCopy());
+  }
+
+  @Benchmark
+  public Document transformDocument() {
+    return transform.transformDocument(mutation, context);
+  }
+
+  public static void main(String... args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(MutationCentricDocumentTransformBenchmark.class.getSimpleName())
+        .build())
+        .run();
+  }
+
+  private static ObjectNode createMutation() {
+    return FACTORY.objectNode()
+        .put(MUTATION_ID, MUTATION_ID_VALUE)
+        .put(MUTATION_CHROMOSOME, "1")
+        .put(MUTATION_CHROMOSOME_START, 100)
+        .put(MUTATION_CHROMOSOME_END, 100)
+        .put(MUTATION_MUTATION, "A>T");
+  }
+
+  private static ObjectNode createObservation() {
+    val observation = FACTORY.objectNode()
+        .put(OBSERVATION_DONOR_ID, DONOR_ID_VALUE);
+    val consequences = observation.putArray(OBSERVATION_CONSEQUENCES);
+    for (int i = 0; i < CONSEQUENCES; i++) {
+      consequences.addObject()
+          .put(OBSERVATION_CONSEQUENCES_GENE_ID, getGeneId(i % GENES))
+          .put(OBSERVATION_CONSEQUENCES_TRANSCRIPT_ID, getTranscriptId(i % GENES, i))
+          .put(OBSERVATION_CONSEQUENCES_CONSEQUENCE_TYPE, "missense_variant");
+    }
+
+    return observation;
+  }
+
+  private static Map<String, ObjectNode> createGenes() {
+    val genes = Maps.<String, ObjectNode> newHashMap();
+    for (int i = 0; i < GENES; i++) {
+      val gene = FACTORY.objectNode()
+          .put(GENE_ID, getGeneId(i))
+          .put(GENE_SYMBOL, "SYMBOL" + i);
+      val transcripts = gene.putArray(GENE_TRANSCRIPTS);
+      for (int j = 0; j < GENE_TRANSCRIPTS_COUNT * GENES; j += GENES) {
+        transcripts.addObject()
+            .put(GENE_TRANSCRIPTS_TRANSCRIPT_ID, getTranscriptId(i, j + i))
+            .put("name", "TRANSCRIPT" + j)
+            .put("length", 1000 + j);
+      }
+
+      genes.put(getGeneId(i), gene);
+    }
+
+    return genes;
+  }
+
+  private static String getGeneId(int gene) {
+    return "ENSG" + gene;
+  }
+
+  private static String getTranscriptId(int gene, int transcript) {
+    return "ENST" + gene + "." + transcript;
+  }
+
+  private static class BenchmarkDocumentContext implements DocumentContext {
+
+    private final Map<String, ObjectNode> genes;
+    private final ObjectNode donor = FACTORY.objectNode()
+        .put(DONOR_ID, DONOR_ID_VALUE)
+        .put(DONOR_PROJECT_ID, PROJECT_ID_VALUE);
+    private final ObjectNode project = FACTORY.objectNode()
+        .put(PROJECT_ID, PROJECT_ID_VALUE);
+    private ObjectNode observation;
+
+    BenchmarkDocumentContext(Map<String, ObjectNode> genes) {
+      this.genes = genes;
+    }
+
+    void setObservation(ObjectNode observation) {
+      this.observation = observation;
+    }
+
+    @Override
+    public DocumentType getType() {
+      return DocumentType.MUTATION_CENTRIC_TYPE;
+    }
+
+    @Override
+    public Map<String, ObjectNode> getProjects() {
+      return ImmutableMap.of(PROJECT_ID_VALUE, project);
+    }
+
+    @Override
+    public Map<String, ObjectNode> getDonors() {
+      return ImmutableMap.of(DONOR_ID_VALUE, donor);
+    }
+
+    @Override
+    public Map<String, ObjectNode> getGenes() {
+      return genes;
+    }
+
+    @Override
+    public ObjectNode getClinvar(String annotationId) {
+      return null;
+    }
+
+    @Override
+    public Iterable<ObjectNode> getCivic(String annotationId) {
+      return null;
+    }
+
+    @Override
+    public ObjectNode getProject(String projectId) {
+      return project;
+    }
+
+    @Override
+    public ObjectNode getDonor(String donorId) {
+      return donor;
+    }
+
+    @Override
+    public ObjectNode getGene(String geneId) {
+      return genes.get(geneId);
+    }
+
+    @Override
+    public Iterable<ObjectNode> getGenesByGeneSetId(String geneSetId) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Iterable<ObjectNode> getObservationsByDonorId(String donorId) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Iterable<ObjectNode> getObservationsByGeneId(String geneId) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Iterable<ObjectNode> getObservationsByMutationId(String mutationId) {
+      return singletonList(observation);
+    }
+
+  }
+
+}
@@ -52,6 +52,58 @@ public class IndexProperties {
    */
   int bigDocumentThresholdMb = 100;
 
+  /**
+   * Size at which a container of big documents is closed and the next one started.
+   */
+  int bigDocumentContainerSizeMb = 256;
+
+  /**
+   * Hadoop codec compressing the big documents in their containers. {@code snappy} needs the native Hadoop libraries,
+   * {@code default} doesn't.
+   */
+  String bigDocumentCodec = "snappy";
+
+  /**
+   * Maximum size of a bulk request.
+   */
+  int bulkSizeMb = 10;
+
+  /**
+   * Maximum number of concurrent bulk requests per executor. The actual number adapts to the cluster load.
+   */
+  int maxBulkConcurrency = 8;
+
+  /**
+   * Bulk request latency above which the number of concurrent bulk requests is decreased.
+   */
+  long bulkTargetLatencyMs = 5_000;
+
+  /**
+   * Maximum number of retries of bulk items rejected by an overloaded cluster.
+   */
+  int bulkMaxRetries = 10;
+
+  /**
+   * Whether to group the documents by the index shard they are routed to before indexing them.
+   */
+  boolean routeDocuments = false;
+
+  /**
+   * Whether to update the index with the document changes since the previous release, instead of reindexing all the
+   * documents.
+   */
+  boolean incremental = false;
+
+  /**
+   * The index updated incrementally. Defaults to the index of the release.
+   */
+  String incrementalIndexName;
+
+  /**
+   * The working directory of the previous release, holding the document hashes of its index.
+   */
+  String previousWorkingDir;
+
   /**
    * Load only big documents.
    */
@@ -62,6 +114,11 @@ public class IndexProperties {
    */
   boolean exportEsIndex = true;
 
+  /**
+   * Number of Elasticsearch index tarballs written in parallel per document type.
+   */
+  int exportShards = 1;
+
   /**
    * Whether to index document to Elasticsearch cluster;
    */
@@ -72,4 +129,24 @@ public class IndexProperties {
    */
   boolean forceMerge = true;
 
+  /**
+   * Whether to verify the loaded index against the documents on the executors.
+   */
+  boolean verifyDocuments = true;
+
+  /**
+   * Fraction of the documents whose indexed sources are compared with them by the verification.
+   */
+  double verifySamplingRate = 0.01;
+
+  /**
+   * Whether to build the index offline on the executors as a snapshot repository, instead of loading the cluster.
+   */
+  boolean buildSnapshot = false;
+
+  /**
+   * Whether to verify the built snapshot by restoring it on an embedded node.
+   */
+  boolean verifySnapshot = false;
+
 }
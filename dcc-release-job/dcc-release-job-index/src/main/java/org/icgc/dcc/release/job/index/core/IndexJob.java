@@ -18,19 +18,31 @@
 package org.icgc.dcc.release.job.index.core;
 
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.base.Strings.emptyToNull;
+import static com.google.common.base.Strings.isNullOrEmpty;
 import static com.google.common.collect.ImmutableSet.copyOf;
 import static com.google.common.collect.Sets.difference;
 import static org.icgc.dcc.common.core.util.stream.Collectors.toImmutableList;
 import static org.icgc.dcc.common.core.util.stream.Collectors.toImmutableSet;
 import static org.icgc.dcc.dcc.common.es.TransportClientFactory.createClient;
 import static org.icgc.dcc.release.core.document.DocumentType.DONOR_CENTRIC_TYPE;
+import static org.icgc.dcc.release.job.index.utils.IndexSnapshots.getPartsPath;
+import static org.icgc.dcc.release.job.index.utils.IndexSnapshots.getSnapshotPath;
 import static org.icgc.dcc.release.job.index.utils.IndexTasks.getBigFilesPath;
 import static org.icgc.dcc.release.job.index.utils.IndexTasks.getEsExportPath;
 import static org.icgc.dcc.release.job.index.utils.IndexTasks.getIndexName;
 
+import java.io.IOException;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
@@ -42,15 +54,24 @@ import org.icgc.dcc.release.core.job.JobType;
 import org.icgc.dcc.release.core.task.DeleteFileTask;
 import org.icgc.dcc.release.core.task.Task;
 import org.icgc.dcc.release.job.index.config.IndexProperties;
+import org.icgc.dcc.release.job.index.io.BigDocumentSettings;
+import org.icgc.dcc.release.job.index.io.BigFileWriter;
+import org.icgc.dcc.release.job.index.io.BulkSettings;
+import org.icgc.dcc.release.job.index.io.TransportBulkSender;
+import org.icgc.dcc.release.job.index.io.TransportSearchBackend;
 import org.icgc.dcc.release.job.index.service.IndexService;
 import org.icgc.dcc.release.job.index.service.IndexVerificationService;
 import org.icgc.dcc.release.job.index.task.EsExportTask;
+import org.icgc.dcc.release.job.index.task.IncrementalIndexTask;
 import org.icgc.dcc.release.job.index.task.IndexBigFilesTask;
+import org.icgc.dcc.release.job.index.task.IndexSnapshotTask;
 import org.icgc.dcc.release.job.index.task.IndexTask;
+import org.icgc.dcc.release.job.index.task.VerifyIndexTask;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 
@@ -66,6 +87,11 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor(onConstructor = @__({ @Autowired }))
 public class IndexJob extends GenericJob {
 
+  /**
+   * Constants.
+   */
+  private static final long BULK_BACKOFF_MS = 500;
+
   /**
    * Dependencies.
    */
@@ -81,10 +107,8 @@ public class IndexJob extends GenericJob {
   public void execute(JobContext jobContext) {
     clean(jobContext);
 
-    val indexName = getIndexName(jobContext.getReleaseName());
+    val indexName = resolveIndexName(jobContext);
     val indexTypes = getIndexTypes();
-    val esTaskExecutor = Executors.newFixedThreadPool(10);
-    val indexTaskExecutor = Executors.newFixedThreadPool(10);
     val allTasks = createTasks(indexName, indexTypes, "");
     val indexTasks = allTasks.getLeft();
     val esTasks = allTasks.getRight();
@@ -101,16 +125,38 @@ public class IndexJob extends GenericJob {
 //      return;
 //    }
 
-    jobContext.execute(esTaskExecutor, esTasks);
+    if (!esTasks.isEmpty()) {
+      @Cleanup("shutdown")
+      val esTaskExecutor = Executors.newFixedThreadPool(getPoolSize(jobContext, esTasks.size()));
+      jobContext.execute(esTaskExecutor, esTasks);
+    }
+
+    if (properties.isBuildSnapshot()) {
+      log.info("Building index snapshot. Skipping loading of the Elasticsearch cluster...");
+      jobContext.execute(indexTasks);
+      return;
+    }
+
+    if (isLoadTypes() && !properties.isIncremental()) {
+      // Fails before the index is touched rather than in the first task writing a big document
+      BigFileWriter.getCodec(jobContext.getFileSystem().getConf(), properties.getBigDocumentCodec());
+    }
 
     @Cleanup
     val client = createClient(properties.getEsUri(), false);
     @Cleanup
     val indexService = new IndexService(client);
 
-    prepareIndex(indexName, indexService, indexTypes);
+    val indexCreated = prepareIndex(indexName, indexService, indexTypes);
 
-    jobContext.execute(indexTaskExecutor, indexTasks);
+    if (isLoadTypes()) {
+      loadTypes(jobContext, indexName, indexService, createTypeTasks(indexName, indexTypes, indexCreated),
+          isPutMappings(indexCreated));
+    } else if (!indexTasks.isEmpty()) {
+      @Cleanup("shutdown")
+      val indexTaskExecutor = Executors.newFixedThreadPool(getPoolSize(jobContext, indexTasks.size()));
+      jobContext.execute(indexTaskExecutor, indexTasks);
+    }
 
 //    val noBigFilesTasks = allTasks.stream()
 //        .filter(task -> !(task instanceof IndexBigFilesTask))
@@ -147,6 +193,13 @@ public class IndexJob extends GenericJob {
     log.info("Verifying index...");
     val verificationService = new IndexVerificationService(client, indexName);
     verificationService.verify();
+
+    // The loaded types are verified by their pipelines
+    if (!isLoadTypes() && properties.isVerifyDocuments()) {
+      log.info("Verifying documents...");
+      jobContext.execute(new VerifyIndexTask(indexName, indexTypes, properties.getVerifySamplingRate(),
+          TransportSearchBackend.createFactory(properties.getEsUri(), indexName)));
+    }
   }
 
   Collection<Task> createTasks(String indexName, Set<DocumentType> indexTypes) {
@@ -181,15 +234,124 @@ public class IndexJob extends GenericJob {
     return Pair.of(indexTasks.build(), esTasks.build());
   }
 
-  private void prepareIndex(String indexName, IndexService indexService, Set<DocumentType> indexTypes) {
+  /**
+   * @return whether the index was created
+   */
+  boolean prepareIndex(String indexName, IndexService indexService, Set<DocumentType> indexTypes) {
     log.info("Initializing index {} ..." + indexName + "/" + indexTypes);
-    if (isIndexAll()) {
-      indexService.initializeIndex(indexName, indexTypes);
+    boolean indexCreated = false;
+    if (properties.isIncremental()) {
+      indexCreated = indexService.initializeIncrementalIndex(indexName);
+    } else if (isIndexAll()) {
+      indexCreated = indexService.initializeIndex(indexName, indexTypes);
     } else {
       log.info("Unfreezing index because of indexing of big documents only...");
       indexService.unfreezeIndex(indexName);
     }
     indexService.optimizeForIndexing(indexName);
+
+    return indexCreated;
+  }
+
+  /**
+   * The mappings of the types are put as they are loaded into a created index, except for an incremental one, which is
+   * created with the mappings of all the types.
+   */
+  boolean isPutMappings(boolean indexCreated) {
+    return indexCreated && !properties.isIncremental();
+  }
+
+  /**
+   * Loads the types in a pipeline each. A pipeline puts the mapping of its type, loads its documents and big documents
+   * and verifies them, so that the mappings and verifications of some types overlap the loading of the others. The
+   * loading tasks of all the pipelines share an executor, in which the tasks of the pipelines started last wait for the
+   * first ones.
+   */
+  void loadTypes(JobContext jobContext, String indexName, IndexService indexService,
+      Map<DocumentType, List<Task>> typeTasks, boolean putMappings) {
+    val pipelineExecutor = Executors.newFixedThreadPool(Math.max(1, typeTasks.size()));
+    val taskExecutor = Executors.newFixedThreadPool(getTaskPoolSize(jobContext, typeTasks.keySet()));
+    try {
+      val pipelines = new ExecutorCompletionService<Void>(pipelineExecutor);
+      for (val entry : typeTasks.entrySet()) {
+        pipelines.submit(() -> {
+          loadType(jobContext, indexName, indexService, entry.getKey(), entry.getValue(), putMappings, taskExecutor);
+          return null;
+        });
+      }
+
+      await(jobContext, pipelines, typeTasks.size());
+    } finally {
+      pipelineExecutor.shutdownNow();
+      taskExecutor.shutdownNow();
+    }
+  }
+
+  /**
+   * Waits for all the pipelines, failing fast on the first one to fail.
+   */
+  @SneakyThrows
+  private static void await(JobContext jobContext, CompletionService<Void> pipelines, int pipelineCount) {
+    for (int i = 0; i < pipelineCount; i++) {
+      try {
+        pipelines.take().get();
+      } catch (ExecutionException e) {
+        log.error("Failed to load a type. Cancelling the other types...");
+        jobContext.getJavaSparkContext().cancelAllJobs();
+
+        throw e.getCause();
+      }
+    }
+  }
+
+  private void loadType(JobContext jobContext, String indexName, IndexService indexService,
+      DocumentType documentType, List<Task> tasks, boolean putMappings, ExecutorService taskExecutor) {
+    if (putMappings) {
+      indexService.putTypeMapping(indexName, documentType);
+    }
+
+    log.info("Loading type '{}'...", documentType.getName());
+    for (val task : tasks) {
+      jobContext.execute(taskExecutor, task);
+    }
+
+    if (properties.isVerifyDocuments()) {
+      log.info("Verifying documents of type '{}'...", documentType.getName());
+      indexService.refreshIndex(indexName);
+      jobContext.execute(taskExecutor, new VerifyIndexTask(indexName, ImmutableSet.of(documentType),
+          properties.getVerifySamplingRate(), TransportSearchBackend.createFactory(properties.getEsUri(), indexName)));
+    }
+  }
+
+  /**
+   * A thread per task the types are loaded with: a task per project for the types loaded by project, and a single task
+   * for the others, including the types with a parallelism of their own.
+   */
+  int getTaskPoolSize(JobContext jobContext, Collection<DocumentType> documentTypes) {
+    val projectCount = jobContext.getProjectNames().size();
+    val taskCount = documentTypes.stream()
+        .mapToInt(documentType -> isLoadedByProject(documentType) ? projectCount : 1)
+        .sum();
+
+    return getPoolSize(jobContext, taskCount);
+  }
+
+  /**
+   * Same as {@link IndexTask#getType()} and {@link IncrementalIndexTask#getType()}.
+   */
+  private boolean isLoadedByProject(DocumentType documentType) {
+    val partitioned = documentType.getOutputFileType().isPartitioned();
+
+    return properties.isIncremental() ? partitioned : partitioned && documentType.hasDefaultParallelism();
+  }
+
+  /**
+   * More concurrent tasks than the cluster parallelism would only wait for each other in Spark.
+   */
+  private static int getPoolSize(JobContext jobContext, int taskCount) {
+    val parallelism = jobContext.getJavaSparkContext().defaultParallelism();
+
+    return Math.max(1, Math.min(taskCount, parallelism));
   }
 
   private void clean(JobContext jobContext) {
@@ -202,6 +364,12 @@ public class IndexJob extends GenericJob {
       log.info("Prepared clean big documents directory task.");
     }
 
+    if (properties.isBuildSnapshot()) {
+      cleanupTasks.add(new DeleteFileTask(getSnapshotPath(workingDir)));
+      cleanupTasks.add(new DeleteFileTask(getPartsPath(workingDir)));
+      log.info("Prepared clean index snapshot directories tasks.");
+    }
+
     if (properties.isExportEsIndex()) {
       val esExportPath = getEsExportPath(workingDir);
       cleanupTasks.add(new DeleteFileTask(esExportPath));
@@ -217,29 +385,121 @@ public class IndexJob extends GenericJob {
     return properties.isBigDocumentsOnly() == false;
   }
 
+  /**
+   * Whether the types are loaded, as opposed to their big documents only.
+   */
+  private boolean isLoadTypes() {
+    return properties.isIndexDocuments() && isIndexAll();
+  }
+
   private Collection<? extends Task> createEsExportTasks(String indexName, Set<DocumentType> indexTypes) {
     return indexTypes.stream()
-        .map(dt -> new EsExportTask(indexName, dt))
+        .map(dt -> new EsExportTask(indexName, dt, properties.getExportShards()))
         .collect(toImmutableList());
   }
 
   @SneakyThrows
   private Collection<Task> createIndexTasks(final String indexName, Set<DocumentType> indexTypes) {
-    val indexTasks = ImmutableList.<Task> builder();
-    indexTasks.add(new IndexBigFilesTask(properties.getEsUri()));
+    if (properties.isBuildSnapshot()) {
+      return ImmutableList.of(createIndexSnapshotTask(indexName, indexTypes));
+    }
 
-    if (!properties.isBigDocumentsOnly()) {
-      log.info("Big indexing documents only. Skip the rest index tasks creation...");
-      for (val indexType : indexTypes) {
-        indexTasks.add(createIndexTask(indexName, indexType));
-      }
+    if (!isLoadTypes()) {
+      log.info("Indexing big documents only. Skip the rest index tasks creation...");
+      return ImmutableList.of(new IndexBigFilesTask(properties.getEsUri()));
     }
 
-    return indexTasks.build();
+    // The index is prepared after the tasks are created
+    return createTypeTasks(indexName, indexTypes, false).values().stream()
+        .flatMap(Collection::stream)
+        .collect(toImmutableList());
   }
 
-  private IndexTask createIndexTask(String indexName, DocumentType documentType) {
-    return new IndexTask(properties.getEsUri(), indexName, documentType, properties.getBigDocumentThresholdMb());
+  /**
+   * @param indexCreated whether the index was created, so that an incremental load has to upsert all the documents
+   * @return the tasks loading each type, to be executed in order
+   */
+  @SneakyThrows
+  Map<DocumentType, List<Task>> createTypeTasks(String indexName, Set<DocumentType> indexTypes, boolean indexCreated) {
+    if (properties.isIncremental()) {
+      log.info("Creating incremental index tasks...");
+    }
+
+    val typeTasks = ImmutableMap.<DocumentType, List<Task>> builder();
+    for (val indexType : indexTypes) {
+      typeTasks.put(indexType, properties.isIncremental() ?
+          ImmutableList.of(createIncrementalIndexTask(indexName, indexType, indexCreated)) :
+          ImmutableList.of(createIndexTask(indexName, indexType), new IndexBigFilesTask(properties.getEsUri(),
+              indexType)));
+    }
+
+    return typeTasks.build();
+  }
+
+  private IndexTask createIndexTask(String indexName, DocumentType documentType) throws IOException {
+    val routingShards = properties.isRouteDocuments() ? IndexService.getNumberOfShards() : 0;
+
+    return new IndexTask(properties.getEsUri(), indexName, documentType, createBulkSettings(),
+        createBigDocumentSettings(), routingShards);
+  }
+
+  private IncrementalIndexTask createIncrementalIndexTask(String indexName, DocumentType documentType,
+      boolean indexCreated) {
+    val esUri = properties.getEsUri();
+    val previousWorkingDir = getPreviousWorkingDir(indexName, indexCreated);
+
+    return new IncrementalIndexTask(esUri, documentType, previousWorkingDir, createBulkSettings(),
+        createBigDocumentSettings(), TransportBulkSender.createFactory(esUri, indexName));
+  }
+
+  /**
+   * The unchanged documents are skipped against the hashes of the previous release, which a newly created index doesn't
+   * have the documents of.
+   */
+  private Optional<String> getPreviousWorkingDir(String indexName, boolean indexCreated) {
+    val previousWorkingDir = Optional.ofNullable(emptyToNull(properties.getPreviousWorkingDir()));
+    if (indexCreated && previousWorkingDir.isPresent()) {
+      log.warn("Index '{}' was created. Ignoring the document hashes of the previous release in '{}'...", indexName,
+          previousWorkingDir.get());
+
+      return Optional.empty();
+    }
+
+    return previousWorkingDir;
+  }
+
+  private IndexSnapshotTask createIndexSnapshotTask(String indexName, Set<DocumentType> indexTypes)
+      throws IOException {
+    return new IndexSnapshotTask(indexName, indexTypes, IndexService.getNumberOfShards(), createBulkSettings(),
+        properties.isForceMerge(), properties.isVerifySnapshot());
+  }
+
+  private BulkSettings createBulkSettings() {
+    return BulkSettings.builder()
+        .maxBulkBytes(properties.getBulkSizeMb() * 1024L * 1024L)
+        .maxConcurrency(properties.getMaxBulkConcurrency())
+        .targetLatencyMs(properties.getBulkTargetLatencyMs())
+        .maxRetries(properties.getBulkMaxRetries())
+        .backoffMs(BULK_BACKOFF_MS)
+        .build();
+  }
+
+  private BigDocumentSettings createBigDocumentSettings() {
+    return BigDocumentSettings.builder()
+        .thresholdBytes(properties.getBigDocumentThresholdMb() * 1024L * 1024L)
+        .containerBytes(properties.getBigDocumentContainerSizeMb() * 1024L * 1024L)
+        .codec(properties.getBigDocumentCodec())
+        .build();
+  }
+
+  private String resolveIndexName(JobContext jobContext) {
+    val incrementalIndexName = properties.getIncrementalIndexName();
+    if (properties.isIncremental() && !isNullOrEmpty(incrementalIndexName)) {
+      log.info("Updating index '{}' incrementally...", incrementalIndexName);
+      return incrementalIndexName;
+    }
+
+    return getIndexName(jobContext.getReleaseName());
   }
 
   private Set<DocumentType> getIndexTypes() {
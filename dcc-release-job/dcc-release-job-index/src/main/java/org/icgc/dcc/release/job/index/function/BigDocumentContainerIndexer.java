@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.index.function;
+
+import static org.icgc.dcc.release.core.util.DocumentSources.writeJson;
+import static org.icgc.dcc.release.job.index.io.DocumentWriterFactory.createJsonDocumentWriter;
+import static org.icgc.dcc.release.job.index.utils.IndexTasks.getDocumentTypeFromFileName;
+
+import java.util.List;
+import java.util.Map;
+
+import lombok.Cleanup;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.spark.api.java.function.VoidFunction;
+import org.icgc.dcc.common.hadoop.fs.Configurations;
+import org.icgc.dcc.release.job.index.io.BigDocumentContainerReader;
+import org.icgc.dcc.release.job.index.model.ContainerRange;
+
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+
+/**
+ * Indexes a bin of big document container ranges. The sources are transcoded to JSON in a buffer reused across the
+ * bin, as in {@link BigFileIndexer}.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public final class BigDocumentContainerIndexer implements VoidFunction<List<ContainerRange>> {
+
+  @NonNull
+  private final String esUri;
+  @NonNull
+  private final String indexName;
+  @NonNull
+  private final Map<String, String> fsSettings;
+
+  @Override
+  public void call(List<ContainerRange> ranges) throws Exception {
+    val conf = Configurations.fromMap(fsSettings);
+    @Cleanup
+    val documentWriter = createJsonDocumentWriter(esUri, indexName);
+    val id = new Text();
+    val source = new BytesWritable();
+    val buffer = new ByteArrayBuilder();
+
+    int loadedDocsCount = 0;
+    for (val range : ranges) {
+      val type = getDocumentTypeFromFileName(new Path(range.getPath()).getName());
+      log.info("Loading {} to {} index type...", range, type.getName());
+
+      @Cleanup
+      val reader = new BigDocumentContainerReader(conf, range);
+      while (reader.next(id, source)) {
+        buffer.reset();
+        writeJson(source.getBytes(), 0, source.getLength(), buffer);
+        documentWriter.write(id.toString(), type, buffer.toByteArray());
+        loadedDocsCount++;
+      }
+    }
+
+    log.info("Loaded {} big documents from {} container ranges", loadedDocsCount, ranges.size());
+  }
+
+}
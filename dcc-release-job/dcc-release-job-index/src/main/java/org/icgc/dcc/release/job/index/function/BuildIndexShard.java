@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.index.function;
+
+import static com.google.common.base.Preconditions.checkState;
+import static org.icgc.dcc.release.core.util.DocumentSources.writeJson;
+import static org.icgc.dcc.release.job.index.service.IndexService.NUMBER_OF_SHARDS_SETTING;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+
+import lombok.Cleanup;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.hadoop.fs.Path;
+import org.apache.spark.api.java.function.Function2;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.snapshots.SnapshotState;
+import org.icgc.dcc.common.hadoop.fs.Configurations;
+import org.icgc.dcc.common.hadoop.fs.FileSystems;
+import org.icgc.dcc.release.core.document.DocumentType;
+import org.icgc.dcc.release.job.index.io.AdaptiveBulkController;
+import org.icgc.dcc.release.job.index.io.AdaptiveBulkWriter;
+import org.icgc.dcc.release.job.index.io.BulkSettings;
+import org.icgc.dcc.release.job.index.io.TransportBulkSender;
+import org.icgc.dcc.release.job.index.model.IndexSnapshotShard;
+import org.icgc.dcc.release.job.index.service.IndexService;
+import org.icgc.dcc.release.job.index.utils.EmbeddedNodes;
+import org.icgc.dcc.release.job.index.utils.EsRouting;
+import org.icgc.dcc.release.job.index.utils.IndexSnapshots;
+
+import scala.Tuple2;
+
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.google.common.collect.Maps;
+
+/**
+ * Builds the shard with the partition's index on an embedded node local to the executor, snapshots it and copies the
+ * snapshot repository to {@code partsDir}. The partition must hold the documents routed to the shard, keyed by ID.
+ * 
+ * @see IndexSnapshots
+ */
+@Slf4j
+@RequiredArgsConstructor
+public final class BuildIndexShard implements
+    Function2<Integer, Iterator<Tuple2<String, Tuple2<DocumentType, byte[]>>>, Iterator<IndexSnapshotShard>> {
+
+  /**
+   * Constants.
+   */
+  private static final String HOME_DIR = "home";
+  private static final String REPOSITORY_DIR = "repository";
+
+  /**
+   * Configuration.
+   */
+  @NonNull
+  private final String indexName;
+  private final int shards;
+  @NonNull
+  private final String partsDir;
+  @NonNull
+  private final Map<String, String> fsSettings;
+  @NonNull
+  private final BulkSettings bulkSettings;
+  private final boolean forceMerge;
+
+  @Override
+  public Iterator<IndexSnapshotShard> call(Integer shard,
+      Iterator<Tuple2<String, Tuple2<DocumentType, byte[]>>> documents) throws Exception {
+    val localDir = Files.createTempDirectory("dcc-index-shard-").toFile();
+    try {
+      val repositoryDir = new File(localDir, REPOSITORY_DIR);
+      val snapshotShard = buildShard(shard, documents, new File(localDir, HOME_DIR), repositoryDir);
+      copyRepository(shard, repositoryDir);
+      log.info("Finished {}", snapshotShard);
+
+      return Collections.singleton(snapshotShard).iterator();
+    } finally {
+      FileUtils.deleteDirectory(localDir);
+    }
+  }
+
+  private IndexSnapshotShard buildShard(int shard, Iterator<Tuple2<String, Tuple2<DocumentType, byte[]>>> documents,
+      File homeDir, File repositoryDir) throws IOException {
+    @Cleanup
+    val node = EmbeddedNodes.startNode(homeDir, repositoryDir);
+    val client = node.client();
+
+    createIndex(client);
+    val counts = indexDocuments(client, shard, documents);
+    commit(client);
+    val snapshotUuid = snapshot(client, shard, repositoryDir);
+
+    return new IndexSnapshotShard(shard, snapshotUuid, IndexSnapshots.getIndexId(repositoryDir), counts);
+  }
+
+  private void createIndex(Client client) throws IOException {
+    val settings = IndexService.getSettings()
+        .put(NUMBER_OF_SHARDS_SETTING, shards)
+        .put("index.number_of_replicas", 0)
+        .put("index.refresh_interval", "-1");
+
+    new IndexService(client).createIndex(indexName, settings);
+    client.admin().cluster()
+        .prepareHealth(indexName)
+        .setWaitForGreenStatus()
+        .execute()
+        .actionGet();
+  }
+
+  private Map<String, Long> indexDocuments(Client client, int shard,
+      Iterator<Tuple2<String, Tuple2<DocumentType, byte[]>>> documents) throws IOException {
+    // The node client is owned by the node, so the writer is only flushed
+    val controller = new AdaptiveBulkController(bulkSettings.getMaxConcurrency(), bulkSettings.getTargetLatencyMs());
+    val writer = new AdaptiveBulkWriter(new TransportBulkSender(client, indexName), controller, bulkSettings);
+    val buffer = new ByteArrayBuilder();
+    val counts = Maps.<String, Long> newHashMap();
+
+    while (documents.hasNext()) {
+      val document = documents.next();
+      val id = document._1;
+      val documentType = document._2._1;
+      val source = document._2._2;
+      checkState(EsRouting.getShard(id, shards) == shard, "Document '%s' doesn't belong to shard %s of %s", id, shard,
+          shards);
+
+      buffer.reset();
+      writeJson(source, 0, source.length, buffer);
+      writer.write(id, documentType, buffer.toByteArray());
+      counts.merge(documentType.getName(), 1L, Long::sum);
+    }
+
+    writer.flush();
+    log.info("Indexed shard {} of {}: {}", shard, shards, writer.getMetrics());
+
+    return counts;
+  }
+
+  private void commit(Client client) {
+    val indices = client.admin().indices();
+    if (forceMerge) {
+      // Merging offline spares the cluster the merge of the restored index
+      indices.prepareForceMerge(indexName)
+          .setMaxNumSegments(1)
+          .execute()
+          .actionGet();
+    } else {
+      indices.prepareFlush(indexName)
+          .setWaitIfOngoing(true)
+          .execute()
+          .actionGet();
+    }
+  }
+
+  private String snapshot(Client client, int shard, File repositoryDir) {
+    EmbeddedNodes.registerRepository(client, IndexSnapshots.REPOSITORY_NAME, repositoryDir);
+    val snapshotInfo = client.admin().cluster()
+        .prepareCreateSnapshot(IndexSnapshots.REPOSITORY_NAME, IndexSnapshots.getSnapshotName(indexName))
+        .setIndices(indexName)
+        .setWaitForCompletion(true)
+        .execute()
+        .actionGet()
+        .getSnapshotInfo();
+    checkState(snapshotInfo.state() == SnapshotState.SUCCESS && snapshotInfo.failedShards() == 0,
+        "Failed to snapshot shard %s of %s: %s", shard, shards, snapshotInfo.reason());
+
+    return snapshotInfo.snapshotId().getUUID();
+  }
+
+  private void copyRepository(int shard, File repositoryDir) throws IOException {
+    val fileSystem = FileSystems.getFileSystem(Configurations.fromMap(fsSettings));
+    val partPath = IndexSnapshots.getPartPath(new Path(partsDir), shard);
+
+    // Clears the output of a previous attempt
+    fileSystem.delete(partPath, true);
+    fileSystem.copyFromLocalFile(new Path(repositoryDir.getAbsolutePath()), partPath);
+  }
+
+}
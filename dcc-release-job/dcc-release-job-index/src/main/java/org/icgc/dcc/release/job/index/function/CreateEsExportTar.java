@@ -19,7 +19,6 @@ package org.icgc.dcc.release.job.index.function;
 
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Strings.isNullOrEmpty;
-import static java.lang.String.format;
 import static org.icgc.dcc.common.core.util.Joiners.PATH;
 import static org.icgc.dcc.release.core.util.ObjectNodes.textValue;
 
@@ -41,21 +40,28 @@ import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
 import org.apache.hadoop.fs.Path;
 import org.apache.spark.api.java.function.FlatMapFunction;
-import org.apache.spark.api.java.function.VoidFunction;
+import org.apache.spark.api.java.function.Function2;
 import org.icgc.dcc.common.core.util.Separators;
 import org.icgc.dcc.common.hadoop.fs.Configurations;
 import org.icgc.dcc.common.hadoop.fs.FileSystems;
 import org.icgc.dcc.release.core.document.Document;
 import org.icgc.dcc.release.core.util.JacksonFactory;
+import org.icgc.dcc.release.job.index.model.EsExportShard;
 import org.icgc.dcc.release.job.index.service.IndexService;
 import org.icgc.dcc.release.job.index.task.EsExportTask;
+import org.icgc.dcc.release.job.index.utils.EsExports;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
+/**
+ * Writes the documents of a partition to the archive of the shard with the partition's index. Every archive starts
+ * with its own {@code _settings} and {@code _mapping} entries, so it can be restored on its own. An empty partition
+ * gets an archive without documents, so that every shard is listed in the manifest.
+ */
 @Slf4j
 @RequiredArgsConstructor
-public final class CreateEsExportTar implements VoidFunction<Iterator<Document>> {
+public final class CreateEsExportTar implements Function2<Integer, Iterator<Document>, Iterator<EsExportShard>> {
 
   private static final ObjectMapper MAPPER = JacksonFactory.MAPPER;
 
@@ -65,27 +71,24 @@ public final class CreateEsExportTar implements VoidFunction<Iterator<Document>>
   private final String workingDir;
   @NonNull
   private final String documentTypeName;
+  private final int shards;
   @NonNull
   private final Map<String, String> fileSystemSettings;
 
   @Override
-  public void call(Iterator<Document> documents) throws Exception {
-    if (!documents.hasNext()) {
-      log.warn("Empty partition.");
-
-      return;
-    }
-
-    log.info("Started processing '{}' file type...", documentTypeName);
-    val archivePath = getOutputPath(getArchiveName());
+  public Iterator<EsExportShard> call(Integer shard, Iterator<Document> documents) throws Exception {
+    log.info("Started processing '{}' file type shard {} of {}...", documentTypeName, shard, shards);
+    val archiveName = EsExports.getArchiveName(indexName, documentTypeName, shard, shards);
+    val minHash = EsExports.getMinHash(shard, shards);
+    val maxHash = EsExports.getMaxHash(shard, shards);
     @Cleanup
-    val tarOutputStream = getOutputStream(archivePath);
+    val tarOutputStream = getOutputStream(getOutputPath(archiveName));
     addMeta(tarOutputStream);
 
-    int docs = 0;
+    long docs = 0;
     while (documents.hasNext()) {
       val document = documents.next();
-      writeDocument(tarOutputStream, document);
+      writeDocument(tarOutputStream, document, shard);
       docs++;
       if (docs % 10_000 == 0) {
         log.info("Processed {} documents", docs);
@@ -93,13 +96,19 @@ public final class CreateEsExportTar implements VoidFunction<Iterator<Document>>
     }
     tarOutputStream.finish();
 
+    val exportShard = new EsExportShard(shard, archiveName, docs, minHash, maxHash);
+    log.info("Finished {}", exportShard);
+
+    return Collections.singletonList(exportShard).iterator();
   }
 
-  private void writeDocument(TarArchiveOutputStream tarOutputStream, Document document) throws Exception {
+  private void writeDocument(TarArchiveOutputStream tarOutputStream, Document document, int shard) throws Exception {
     val documentId = document.getId();
     val documentType = document.getType();
     checkState(documentType.getName().equals(documentTypeName),
         "Document '%s' doesn't belong to archive with document type '%s'", documentId, documentType);
+    checkState(EsExports.getShard(documentId, shards) == shard,
+        "Document '%s' doesn't belong to archive shard %s of %s", documentId, shard, shards);
     val source = document.getSource();
     val sourceDocumentId = textValue(source, documentType.getPrimaryKey());
     if (!isNullOrEmpty(sourceDocumentId)) {
@@ -132,10 +141,6 @@ public final class CreateEsExportTar implements VoidFunction<Iterator<Document>>
     return PATH.join(indexName, documentTypeName, documentId);
   }
 
-  private String getArchiveName() {
-    return format("%s_%s.tar.gz", indexName.toLowerCase(), documentTypeName);
-  }
-
   private Path getOutputPath(String fileName) {
     return new Path(workingDir + Separators.PATH + EsExportTask.ES_EXPORT_DIR + Separators.PATH + fileName);
   }
@@ -17,9 +17,9 @@
  */
 package org.icgc.dcc.release.job.index.function;
 
-import static org.icgc.dcc.release.job.index.io.DocumentWriterFactory.createFilteringDocumentWriter;
-import static org.icgc.dcc.release.job.index.utils.Documents.convertDocument;
+import static org.icgc.dcc.release.core.util.DocumentSources.writeJson;
 
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.Map;
 
@@ -28,47 +28,85 @@ import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.val;
 
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.hadoop.io.Text;
 import org.apache.spark.api.java.function.FlatMapFunction;
-import org.apache.spark.api.java.function.VoidFunction;
-import org.icgc.dcc.release.core.document.Document;
-import org.icgc.dcc.release.job.index.io.DocumentWriterContext;
+import org.icgc.dcc.release.core.document.DocumentType;
+import org.icgc.dcc.release.job.index.io.AdaptiveBulkController;
+import org.icgc.dcc.release.job.index.io.AdaptiveBulkWriter;
+import org.icgc.dcc.release.job.index.io.BigDocumentSettings;
+import org.icgc.dcc.release.job.index.io.BigFileWriter;
+import org.icgc.dcc.release.job.index.io.BulkMetrics;
+import org.icgc.dcc.release.job.index.io.BulkSenderFactory;
+import org.icgc.dcc.release.job.index.io.BulkSettings;
 
-import com.google.common.collect.Lists;
+import scala.Tuple2;
 
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+
+/**
+ * Indexes the document sources as stored in the document sequence files. Smile-encoded sources are transcoded to JSON
+ * in a buffer reused across the partition, so no document tree is built. Documents over the threshold are written to
+ * big document containers instead. Returns the bulk metrics of the partition.
+ */
 @RequiredArgsConstructor
-public final class DocumentIndexer implements VoidFunction<Iterator<Document>> {
+public final class DocumentIndexer implements FlatMapFunction<Iterator<Tuple2<Text, BytesWritable>>, BulkMetrics> {
 
   private static final long serialVersionUID = 3834434199819463998L;
 
+  /**
+   * Configuration.
+   */
   @NonNull
   private final String esUri;
   @NonNull
-  private final String indexName;
+  private final DocumentType documentType;
   @NonNull
   private final Map<String, String> fsSettings;
-  private final int documentThreshold;
   @NonNull
   private final String workingDir;
+  @NonNull
+  private final BulkSettings bulkSettings;
+  @NonNull
+  private final BigDocumentSettings bigDocumentSettings;
+
+  /**
+   * Dependencies.
+   */
+  @NonNull
+  private final BulkSenderFactory senderFactory;
 
   @Override
-  public void call(Iterator<Document> document) throws Exception {
+  public Iterable<BulkMetrics> call(Iterator<Tuple2<Text, BytesWritable>> documents) throws Exception {
+    val controller = AdaptiveBulkController.getController(esUri, bulkSettings);
+    @Cleanup
+    val bulkWriter = new AdaptiveBulkWriter(senderFactory.createSender(), controller, bulkSettings);
     @Cleanup
-    val documentWriter = createFilteringDocumentWriter(createDocumentWriterContext());
+    val bigFileWriter = new BigFileWriter(workingDir, documentType, fsSettings, bigDocumentSettings);
+    val threshold = bigDocumentSettings.getThresholdBytes();
+    val buffer = new ByteArrayBuilder();
+
+    while (documents.hasNext()) {
+      val document = documents.next();
+      val id = document._1.toString();
+      val source = document._2;
 
-    while (document.hasNext()) {
-      documentWriter.write(convertDocument(document.next()));
+      buffer.reset();
+      writeJson(source.getBytes(), 0, source.getLength(), buffer);
+
+      // The bulk request keeps the source until it's sent, so it gets its own copy of the buffer
+      val json = buffer.toByteArray();
+      if (json.length > threshold) {
+        bigFileWriter.write(id, source);
+        bulkWriter.getMetrics().recordBigDocument();
+      } else {
+        bulkWriter.write(id, documentType, json);
+      }
     }
 
-  }
+    bulkWriter.flush();
 
-  private DocumentWriterContext createDocumentWriterContext() {
-    return DocumentWriterContext.builder()
-        .indexName(indexName)
-        .documentThreshold(documentThreshold)
-        .workingDir(workingDir)
-        .fsSettings(fsSettings)
-        .esUri(esUri)
-        .build();
+    return Collections.singleton(bulkWriter.getMetrics());
   }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.index.function;
+
+import static org.icgc.dcc.common.hadoop.fs.HadoopUtils.getInputStream;
+import static org.icgc.dcc.release.core.util.Tuples.tuple;
+import static org.icgc.dcc.release.job.index.utils.IndexTasks.getIdFromFileName;
+
+import java.util.Map;
+
+import lombok.Cleanup;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.spark.api.java.function.PairFunction;
+import org.icgc.dcc.common.hadoop.fs.FileSystems;
+
+import scala.Tuple2;
+
+import com.google.common.io.ByteStreams;
+
+/**
+ * Reads a big document file into the ID and the Smile-encoded source the document would have been stored with among
+ * the other documents of its type.
+ */
+@RequiredArgsConstructor
+public final class ReadBigDocument implements PairFunction<String, Text, BytesWritable> {
+
+  @NonNull
+  private final Map<String, String> fsSettings;
+
+  @Override
+  public Tuple2<Text, BytesWritable> call(String file) throws Exception {
+    val fileSystem = FileSystems.getFileSystem(fsSettings);
+    val path = new Path(file);
+
+    @Cleanup
+    val inputStream = getInputStream(fileSystem, path);
+
+    return tuple(new Text(getIdFromFileName(path.getName())), new BytesWritable(ByteStreams.toByteArray(inputStream)));
+  }
+
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.index.function;
+
+import static com.google.common.base.Preconditions.checkState;
+import static org.apache.hadoop.io.SequenceFile.Writer.compression;
+import static org.apache.hadoop.io.SequenceFile.Writer.file;
+import static org.apache.hadoop.io.SequenceFile.Writer.keyClass;
+import static org.apache.hadoop.io.SequenceFile.Writer.valueClass;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+
+import lombok.Cleanup;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.io.SequenceFile.CompressionType;
+import org.apache.hadoop.io.Text;
+import org.apache.spark.api.java.function.Function2;
+import org.icgc.dcc.common.hadoop.fs.Configurations;
+import org.icgc.dcc.release.core.document.DocumentType;
+import org.icgc.dcc.release.job.index.io.AdaptiveBulkController;
+import org.icgc.dcc.release.job.index.io.AdaptiveBulkWriter;
+import org.icgc.dcc.release.job.index.io.BigDocumentSettings;
+import org.icgc.dcc.release.job.index.io.BulkSenderFactory;
+import org.icgc.dcc.release.job.index.io.BulkSettings;
+import org.icgc.dcc.release.job.index.model.UpdateSummary;
+import org.icgc.dcc.release.job.index.utils.IndexHashes;
+
+import scala.Tuple2;
+
+import com.google.common.base.Optional;
+
+/**
+ * Applies the changes between the previous and the current documents of a partition to the index. The partition holds
+ * the current and previous hashes of a document, and the JSON source of the upserted ones, keyed by ID. New and changed
+ * documents are upserted, and documents gone from the current release deleted. Sources over the big document threshold
+ * are sent in requests of their own. The current hashes are written to the partition's sidecar file in
+ * {@code hashesDir}.
+ */
+@RequiredArgsConstructor
+public final class UpdateDocuments implements Function2<Integer,
+    Iterator<Tuple2<String, Tuple2<Tuple2<Optional<Long>, Optional<Long>>, Optional<byte[]>>>>, Iterator<UpdateSummary>> {
+
+  /**
+   * Configuration.
+   */
+  @NonNull
+  private final String esUri;
+  @NonNull
+  private final DocumentType documentType;
+  @NonNull
+  private final String hashesDir;
+  @NonNull
+  private final Map<String, String> fsSettings;
+  @NonNull
+  private final BulkSettings bulkSettings;
+  @NonNull
+  private final BigDocumentSettings bigDocumentSettings;
+
+  /**
+   * Dependencies.
+   */
+  @NonNull
+  private final BulkSenderFactory senderFactory;
+
+  @Override
+  public Iterator<UpdateSummary> call(Integer partition,
+      Iterator<Tuple2<String, Tuple2<Tuple2<Optional<Long>, Optional<Long>>, Optional<byte[]>>>> documents) throws Exception {
+    val controller = AdaptiveBulkController.getController(esUri, bulkSettings);
+    @Cleanup
+    val bulkWriter = new AdaptiveBulkWriter(senderFactory.createSender(), controller, bulkSettings);
+    @Cleanup
+    val hashWriter = createHashWriter(partition);
+    val threshold = bigDocumentSettings.getThresholdBytes();
+    val summary = new UpdateSummary();
+
+    while (documents.hasNext()) {
+      val document = documents.next();
+      val id = document._1;
+      val currentHash = document._2._1._1;
+      val previousHash = document._2._1._2;
+      val source = document._2._2;
+
+      if (!currentHash.isPresent()) {
+        bulkWriter.delete(id, documentType);
+        summary.recordDelete();
+        continue;
+      }
+
+      val hash = currentHash.get().longValue();
+      hashWriter.append(new Text(id), new LongWritable(hash));
+      if (previousHash.isPresent() && previousHash.get().longValue() == hash) {
+        summary.recordUnchanged();
+        continue;
+      }
+
+      checkState(source.isPresent(), "No source for upserted document '%s'", id);
+      val json = source.get();
+      if (json.length > threshold) {
+        bulkWriter.writeSingle(id, documentType, json);
+        summary.recordBigUpsert();
+      } else {
+        bulkWriter.write(id, documentType, json);
+        summary.recordUpsert();
+      }
+    }
+
+    bulkWriter.flush();
+
+    return Collections.singleton(summary).iterator();
+  }
+
+  private SequenceFile.Writer createHashWriter(int partition) throws IOException {
+    val path = new Path(hashesDir, IndexHashes.getPartFileName(partition));
+
+    return SequenceFile.createWriter(Configurations.fromMap(fsSettings),
+        file(path),
+        keyClass(Text.class),
+        valueClass(LongWritable.class),
+        compression(CompressionType.BLOCK));
+  }
+
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.index.function;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.icgc.dcc.release.core.util.DocumentSources.writeJson;
+import static org.icgc.dcc.release.job.index.utils.Documents.getHash;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+
+import lombok.Cleanup;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.spark.api.java.function.FlatMapFunction;
+import org.icgc.dcc.release.core.document.DocumentType;
+import org.icgc.dcc.release.job.index.io.SearchBackend;
+import org.icgc.dcc.release.job.index.io.SearchBackendFactory;
+import org.icgc.dcc.release.job.index.model.DocumentVerification;
+import org.icgc.dcc.release.job.index.model.SourceFilter;
+
+import scala.Tuple2;
+
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+/**
+ * Hashes the documents of a partition as they are indexed, that is transcoded to JSON, and compares a sample of them
+ * with their indexed sources in multi-get batches. Documents are sampled by ID hash, so the sample doesn't depend on
+ * the partitioning. The sampled documents of a type filtering its sources are compared once filtered the same way.
+ */
+@RequiredArgsConstructor
+public final class VerifyDocuments
+    implements FlatMapFunction<Iterator<Tuple2<Text, BytesWritable>>, DocumentVerification> {
+
+  /**
+   * Constants.
+   */
+  private static final HashFunction SAMPLING_HASH_FUNCTION = Hashing.murmur3_32();
+  private static final long SAMPLING_HASH_SPACE = 1L << 32;
+
+  /**
+   * Configuration.
+   */
+  @NonNull
+  private final DocumentType documentType;
+  @NonNull
+  private final SourceFilter sourceFilter;
+  private final double samplingRate;
+  private final int batchSize;
+  @NonNull
+  private final SearchBackendFactory backendFactory;
+
+  @Override
+  public Iterable<DocumentVerification> call(Iterator<Tuple2<Text, BytesWritable>> documents) throws Exception {
+    @Cleanup
+    val backend = backendFactory.createBackend();
+    val verification = new DocumentVerification(documentType.getName());
+    val buffer = new ByteArrayBuilder();
+    val batch = Maps.<String, Long> newLinkedHashMap();
+
+    while (documents.hasNext()) {
+      val document = documents.next();
+      val id = document._1.toString();
+      val source = document._2;
+
+      buffer.reset();
+      writeJson(source.getBytes(), 0, source.getLength(), buffer);
+      val json = buffer.toByteArray();
+      val hash = getHash(id, json);
+      verification.recordDocument(hash);
+
+      if (isSampled(id, samplingRate)) {
+        batch.put(id, sourceFilter.isFiltering() ? getHash(id, sourceFilter.apply(json)) : hash);
+        if (batch.size() >= batchSize) {
+          verifyBatch(backend, batch, verification);
+        }
+      }
+    }
+
+    verifyBatch(backend, batch, verification);
+
+    return Collections.singleton(verification);
+  }
+
+  public static boolean isSampled(@NonNull String id, double samplingRate) {
+    val hash = SAMPLING_HASH_FUNCTION.hashString(id, UTF_8).asInt() & 0xFFFFFFFFL;
+
+    return hash < samplingRate * SAMPLING_HASH_SPACE;
+  }
+
+  private void verifyBatch(SearchBackend backend, Map<String, Long> batch, DocumentVerification verification)
+      throws IOException {
+    if (batch.isEmpty()) {
+      return;
+    }
+
+    val sources = backend.getSources(documentType.getName(), ImmutableList.copyOf(batch.keySet()));
+    for (val entry : batch.entrySet()) {
+      val id = entry.getKey();
+      val source = sources.get(id);
+      if (source == null) {
+        verification.recordMissing(id);
+      } else if (getIndexedHash(id, source) != entry.getValue()) {
+        verification.recordMismatched(id);
+      } else {
+        verification.recordMatched();
+      }
+    }
+
+    batch.clear();
+  }
+
+  /**
+   * The indexed sources of a type filtering them are compared in the same canonical form as the sampled documents.
+   */
+  private long getIndexedHash(String id, byte[] source) {
+    return getHash(id, sourceFilter.isFiltering() ? sourceFilter.apply(source) : source);
+  }
+
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.index.io;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import lombok.NonNull;
+import lombok.Value;
+import lombok.val;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Limits the number of bulk requests in flight to a cluster from all the partitions indexed by an executor.
+ * <p>
+ * The limit follows an AIMD (additive increase, multiplicative decrease) scheme: every successful request under the
+ * target latency increases it by {@code 1 / limit}, i.e. by about one per round of requests, while a rejection or a
+ * slow request halves it. The executor backs off as soon as the cluster stops coping and probes for more throughput
+ * otherwise.
+ * <p>
+ * The requests in flight when the cluster stops coping all answer late or rejected, for the same reason. So the limit
+ * is halved at most once per round: only by requests acquired after the last decrease.
+ */
+@Slf4j
+public class AdaptiveBulkController {
+
+  /**
+   * Constants.
+   */
+  private static final double MIN_LIMIT = 1;
+  private static final double DECREASE_FACTOR = 0.5;
+
+  /**
+   * Controllers by cluster and settings, shared by the partitions running on this executor.
+   */
+  private static final ConcurrentMap<ControllerKey, AdaptiveBulkController> CONTROLLERS = new ConcurrentHashMap<>();
+
+  /**
+   * Configuration.
+   */
+  private final double maxLimit;
+  private final long targetLatencyMs;
+
+  /**
+   * State.
+   */
+  private double limit;
+  private int inFlight;
+  private long decreases;
+
+  public AdaptiveBulkController(int maxConcurrency, long targetLatencyMs) {
+    checkArgument(maxConcurrency >= MIN_LIMIT, "The maximum concurrency must be positive: %s", maxConcurrency);
+    this.maxLimit = maxConcurrency;
+    this.targetLatencyMs = targetLatencyMs;
+    this.limit = Math.max(MIN_LIMIT, Math.floor(maxLimit / 2));
+  }
+
+  public static AdaptiveBulkController getController(@NonNull String esUri, @NonNull BulkSettings settings) {
+    val key = new ControllerKey(esUri, settings.getMaxConcurrency(), settings.getTargetLatencyMs());
+
+    return CONTROLLERS.computeIfAbsent(key,
+        k -> new AdaptiveBulkController(k.getMaxConcurrency(), k.getTargetLatencyMs()));
+  }
+
+  /**
+   * Blocks until a bulk request may be sent.
+   * 
+   * @return the epoch of the request, to be passed to {@link #release(long, long, boolean)}
+   */
+  public synchronized long acquire() throws InterruptedException {
+    while (inFlight >= getLimit()) {
+      wait();
+    }
+
+    inFlight++;
+
+    return decreases;
+  }
+
+  /**
+   * Releases the slot of a bulk request acquired in {@code epoch}, which took {@code latencyMs} and some of which items
+   * were {@code rejected}.
+   */
+  public synchronized void release(long epoch, long latencyMs, boolean rejected) {
+    inFlight--;
+
+    if (rejected || latencyMs > targetLatencyMs) {
+      // Already decreased for the requests in flight with this one
+      if (epoch == decreases) {
+        decreases++;
+        val previous = getLimit();
+        limit = Math.max(MIN_LIMIT, limit * DECREASE_FACTOR);
+        if (getLimit() != previous) {
+          log.info("Decreased bulk concurrency to {} after a {} request", getLimit(), rejected ? "rejected" : "slow");
+        }
+      }
+    } else {
+      limit = Math.min(maxLimit, limit + 1 / limit);
+    }
+
+    notifyAll();
+  }
+
+  /**
+   * Releases the slot of a failed bulk request.
+   */
+  public synchronized void release() {
+    inFlight--;
+    notifyAll();
+  }
+
+  /**
+   * @return the current number of bulk requests allowed in flight
+   */
+  public synchronized int getLimit() {
+    return (int) limit;
+  }
+
+  @Value
+  private static class ControllerKey {
+
+    String esUri;
+    int maxConcurrency;
+    long targetLatencyMs;
+
+  }
+
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.index.io;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+import lombok.extern.slf4j.Slf4j;
+
+import org.icgc.dcc.release.core.document.DocumentType;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+/**
+ * Groups JSON-encoded documents into bulk requests of at most {@link BulkSettings#getMaxBulkBytes()} bytes. Requests are
+ * sent once the {@link AdaptiveBulkController} lets them through, and rejected items are retried with an exponential
+ * backoff.
+ * <p>
+ * Not thread-safe: a writer is used by a single partition.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class AdaptiveBulkWriter implements Closeable {
+
+  /**
+   * Dependencies.
+   */
+  @NonNull
+  private final BulkSender sender;
+  @NonNull
+  private final AdaptiveBulkController controller;
+
+  /**
+   * Configuration.
+   */
+  @NonNull
+  private final BulkSettings settings;
+
+  /**
+   * State.
+   */
+  private final List<BulkItem> pending = Lists.newArrayList();
+  private long pendingBytes;
+  @Getter
+  private final BulkMetrics metrics = new BulkMetrics();
+
+  /**
+   * Writes a JSON-encoded {@code source}. It's owned by the writer afterwards, so it must not be reused.
+   */
+  public void write(@NonNull String id, @NonNull DocumentType type, @NonNull byte[] source) throws IOException {
+    add(new BulkItem(id, type, source));
+  }
+
+  public void delete(@NonNull String id, @NonNull DocumentType type) throws IOException {
+    add(BulkItem.delete(id, type));
+  }
+
+  public void flush() throws IOException {
+    if (pending.isEmpty()) {
+      return;
+    }
+
+    val items = Lists.newArrayList(pending);
+    pending.clear();
+    pendingBytes = 0;
+
+    sendAll(items);
+  }
+
+  /**
+   * Writes a JSON-encoded {@code source} too big to be batched with others in a request of its own, right away. It's
+   * owned by the writer afterwards, so it must not be reused.
+   */
+  public void writeSingle(@NonNull String id, @NonNull DocumentType type, @NonNull byte[] source) throws IOException {
+    sendAll(ImmutableList.of(new BulkItem(id, type, source)));
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      flush();
+    } finally {
+      sender.close();
+    }
+  }
+
+  /**
+   * Sends the {@code items}, retrying the rejected ones.
+   */
+  private void sendAll(List<BulkItem> items) throws IOException {
+    long backoffMs = settings.getBackoffMs();
+    for (int retries = 0; !items.isEmpty(); retries++) {
+      checkState(retries <= settings.getMaxRetries(), "Bulk items still rejected after %s retries", retries - 1);
+      if (retries > 0) {
+        log.info("Retrying {} rejected bulk items in {} ms...", items.size(), backoffMs);
+        sleep(backoffMs);
+        backoffMs *= 2;
+      }
+
+      items = send(items);
+    }
+  }
+
+  private void add(BulkItem item) throws IOException {
+    if (!pending.isEmpty() && pendingBytes + item.getSize() > settings.getMaxBulkBytes()) {
+      flush();
+    }
+
+    pending.add(item);
+    pendingBytes += item.getSize();
+  }
+
+  private List<BulkItem> send(List<BulkItem> items) throws IOException {
+    val epoch = acquire();
+    val concurrency = controller.getLimit();
+    val watch = Stopwatch.createStarted();
+
+    List<BulkItem> rejected;
+    try {
+      rejected = sender.send(items);
+    } catch (Throwable t) {
+      controller.release();
+      throw t;
+    }
+
+    val latencyMs = watch.elapsed(TimeUnit.MILLISECONDS);
+    controller.release(epoch, latencyMs, !rejected.isEmpty());
+    metrics.recordRequest(items.size(), getBytes(items, rejected), latencyMs, rejected.size(), concurrency);
+
+    return rejected;
+  }
+
+  private long acquire() throws IOException {
+    try {
+      return controller.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting to send a bulk request", e);
+    }
+  }
+
+  private static long getBytes(List<BulkItem> items, List<BulkItem> rejected) {
+    long bytes = 0;
+    for (val item : items) {
+      bytes += item.getSize();
+    }
+    for (val item : rejected) {
+      bytes -= item.getSize();
+    }
+
+    return bytes;
+  }
+
+  private static void sleep(long millis) throws IOException {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while backing off", e);
+    }
+  }
+
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.index.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import lombok.NonNull;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.io.Text;
+import org.icgc.dcc.release.job.index.model.ContainerRange;
+
+/**
+ * Reads the documents of a range of a big document container.
+ */
+public class BigDocumentContainerReader implements Closeable {
+
+  /**
+   * Configuration.
+   */
+  private final long end;
+
+  /**
+   * State.
+   */
+  private final SequenceFile.Reader reader;
+
+  public BigDocumentContainerReader(@NonNull Configuration conf, @NonNull ContainerRange range) throws IOException {
+    this.end = range.getEnd();
+    this.reader = new SequenceFile.Reader(conf, SequenceFile.Reader.file(new Path(range.getPath())));
+    reader.seek(range.getStart());
+  }
+
+  /**
+   * Reads the next document of the range into the writables.
+   * 
+   * @return {@code false} past the end of the range
+   */
+  public boolean next(@NonNull Text id, @NonNull BytesWritable source) throws IOException {
+    return reader.getPosition() < end && reader.next(id, source);
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+
+}
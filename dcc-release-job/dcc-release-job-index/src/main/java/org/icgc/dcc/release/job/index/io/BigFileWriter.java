@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.index.io;
+
+import static com.google.common.base.Preconditions.checkState;
+import static java.lang.String.format;
+import static org.apache.hadoop.io.SequenceFile.Writer.compression;
+import static org.apache.hadoop.io.SequenceFile.Writer.file;
+import static org.apache.hadoop.io.SequenceFile.Writer.keyClass;
+import static org.apache.hadoop.io.SequenceFile.Writer.valueClass;
+import static org.icgc.dcc.release.job.index.utils.BigDocumentContainers.getContainerName;
+import static org.icgc.dcc.release.job.index.utils.BigDocumentContainers.getIndexPath;
+import static org.icgc.dcc.release.job.index.utils.BigDocumentContainers.getTempPath;
+import static org.icgc.dcc.release.job.index.utils.IndexTasks.getBigFilesDir;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+
+import lombok.NonNull;
+import lombok.val;
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.io.SequenceFile.CompressionType;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.compress.CodecPool;
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.io.compress.CompressionCodecFactory;
+import org.icgc.dcc.common.hadoop.fs.Configurations;
+import org.icgc.dcc.release.core.document.DocumentType;
+
+/**
+ * Writes the documents too big to be bulk indexed to the file system, to be indexed by {@code IndexBigFilesTask}. The
+ * documents are packed in containers of the configured size, so an executor creates a few files instead of one per
+ * document. Each source is compressed on its own, so any document can be read from its offset in the container index.
+ * <p>
+ * A container and its index are renamed into place once closed, so that a failed task attempt doesn't leave a truncated
+ * container behind.
+ */
+@Slf4j
+public class BigFileWriter implements Closeable {
+
+  /**
+   * Configuration.
+   */
+  private final String bigFilesDir;
+  private final DocumentType documentType;
+  private final BigDocumentSettings settings;
+
+  /**
+   * Dependencies.
+   */
+  private final Configuration conf;
+  private final CompressionCodec codec;
+
+  /**
+   * State.
+   */
+  private final String writerId = UUID.randomUUID().toString();
+  private int containerCount;
+  private Path containerPath;
+  private SequenceFile.Writer containerWriter;
+  private SequenceFile.Writer indexWriter;
+
+  public BigFileWriter(@NonNull String workingDir, @NonNull DocumentType documentType,
+      @NonNull Map<String, String> fsSettings, @NonNull BigDocumentSettings settings) {
+    this.bigFilesDir = getBigFilesDir(workingDir);
+    this.documentType = documentType;
+    this.settings = settings;
+    this.conf = Configurations.fromMap(fsSettings);
+    this.codec = getCodec(conf, settings.getCodec());
+  }
+
+  /**
+   * Fails when the codec is unknown or can't compress, e.g. {@code snappy} without the native Hadoop libraries.
+   */
+  public static CompressionCodec getCodec(@NonNull Configuration conf, @NonNull String codecName) {
+    val codec = new CompressionCodecFactory(conf).getCodecByName(codecName);
+    checkState(codec != null, "No compression codec named '%s'", codecName);
+
+    try {
+      CodecPool.returnCompressor(CodecPool.getCompressor(codec, conf));
+    } catch (RuntimeException e) {
+      throw new IllegalStateException(format("Compression codec '%s' is not loaded. Is the native Hadoop library "
+          + "available? Otherwise set a pure Java codec such as 'default'", codecName), e);
+    }
+
+    return codec;
+  }
+
+  /**
+   * Writes the {@code source} as stored in the document sequence files.
+   */
+  public void write(@NonNull String id, @NonNull BytesWritable source) throws IOException {
+    if (containerWriter == null) {
+      openContainer();
+    }
+
+    val key = new Text(id);
+    indexWriter.append(key, new LongWritable(containerWriter.getLength()));
+    containerWriter.append(key, source);
+
+    if (containerWriter.getLength() >= settings.getContainerBytes()) {
+      closeContainer();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    closeContainer();
+  }
+
+  private void openContainer() throws IOException {
+    containerPath = new Path(bigFilesDir, getContainerName(documentType.getName(), writerId, containerCount++));
+    log.info("Saving big documents to {}", containerPath);
+
+    containerWriter = SequenceFile.createWriter(conf,
+        file(getTempPath(containerPath)),
+        keyClass(Text.class),
+        valueClass(BytesWritable.class),
+        compression(CompressionType.RECORD, codec));
+    indexWriter = SequenceFile.createWriter(conf,
+        file(getTempPath(getIndexPath(containerPath))),
+        keyClass(Text.class),
+        valueClass(LongWritable.class),
+        compression(CompressionType.NONE));
+  }
+
+  private void closeContainer() throws IOException {
+    if (containerWriter == null) {
+      return;
+    }
+
+    containerWriter.close();
+    indexWriter.close();
+
+    // The index first, so that a container is complete as soon as it's visible
+    val fileSystem = containerPath.getFileSystem(conf);
+    val indexPath = getIndexPath(containerPath);
+    rename(fileSystem, getTempPath(indexPath), indexPath);
+    rename(fileSystem, getTempPath(containerPath), containerPath);
+    log.info("Closed big documents container {}", containerPath);
+
+    containerWriter = null;
+    indexWriter = null;
+  }
+
+  private static void rename(FileSystem fileSystem, Path source, Path target) throws IOException {
+    checkState(fileSystem.rename(source, target), "Could not rename '%s' to '%s'", source, target);
+  }
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.index.io;
+
+import static org.icgc.dcc.common.core.util.Formats.formatBytes;
+import static org.icgc.dcc.common.core.util.Formats.formatCount;
+
+import java.io.Serializable;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * Bulk indexing metrics of a partition, merged into the summary of the task.
+ */
+@Getter
+public class BulkMetrics implements Serializable {
+
+  private long documents;
+  private long bytes;
+  private long bigDocuments;
+  private long requests;
+  private long rejectedRequests;
+  private long rejectedDocuments;
+  private long totalLatencyMs;
+  private long maxLatencyMs;
+  private int minConcurrency = Integer.MAX_VALUE;
+  private int maxConcurrency;
+
+  public void recordRequest(int documents, long bytes, long latencyMs, int rejectedDocuments, int concurrency) {
+    this.requests++;
+    this.documents += documents - rejectedDocuments;
+    this.bytes += bytes;
+    this.totalLatencyMs += latencyMs;
+    this.maxLatencyMs = Math.max(maxLatencyMs, latencyMs);
+    this.minConcurrency = Math.min(minConcurrency, concurrency);
+    this.maxConcurrency = Math.max(maxConcurrency, concurrency);
+
+    if (rejectedDocuments > 0) {
+      this.rejectedRequests++;
+      this.rejectedDocuments += rejectedDocuments;
+    }
+  }
+
+  public void recordBigDocument() {
+    bigDocuments++;
+  }
+
+  public long getAverageLatencyMs() {
+    return requests == 0 ? 0 : totalLatencyMs / requests;
+  }
+
+  public double getRejectionRate() {
+    return requests == 0 ? 0 : (double) rejectedRequests / requests;
+  }
+
+  public BulkMetrics merge(@NonNull BulkMetrics other) {
+    documents += other.documents;
+    bytes += other.bytes;
+    bigDocuments += other.bigDocuments;
+    requests += other.requests;
+    rejectedRequests += other.rejectedRequests;
+    rejectedDocuments += other.rejectedDocuments;
+    totalLatencyMs += other.totalLatencyMs;
+    maxLatencyMs = Math.max(maxLatencyMs, other.maxLatencyMs);
+    minConcurrency = Math.min(minConcurrency, other.minConcurrency);
+    maxConcurrency = Math.max(maxConcurrency, other.maxConcurrency);
+
+    return this;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s documents (%s) in %s bulk requests, %s big documents, average latency %s ms, "
+        + "max latency %s ms, %s rejected requests (%.1f%%), %s rejected documents, concurrency %s-%s",
+        formatCount(documents), formatBytes(bytes), formatCount(requests), formatCount(bigDocuments),
+        getAverageLatencyMs(), maxLatencyMs, formatCount(rejectedRequests), getRejectionRate() * 100,
+        formatCount(rejectedDocuments), requests == 0 ? 0 : minConcurrency, maxConcurrency);
+  }
+
+}
@@ -17,19 +17,14 @@
  */
 package org.icgc.dcc.release.job.index.io;
 
-import java.util.Map;
+import java.io.Serializable;
 
-import lombok.Builder;
-import lombok.Value;
-
-@Value
-@Builder
-public class DocumentWriterContext {
+/**
+ * Creates the {@link BulkSender} of a partition on the executor.
+ */
+@FunctionalInterface
+public interface BulkSenderFactory extends Serializable {
 
-  String indexName;
-  int documentThreshold;
-  String workingDir;
-  Map<String, String> fsSettings;
-  String esUri;
+  BulkSender createSender();
 
 }
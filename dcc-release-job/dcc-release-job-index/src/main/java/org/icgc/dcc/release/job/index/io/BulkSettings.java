@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.index.io;
+
+import java.io.Serializable;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Configuration of the {@link AdaptiveBulkWriter} and of its {@link AdaptiveBulkController}.
+ */
+@Value
+@Builder
+public class BulkSettings implements Serializable {
+
+  /**
+   * Maximum size of the sources of a bulk request. A single bigger source is sent on its own.
+   */
+  long maxBulkBytes;
+
+  /**
+   * Maximum number of bulk requests in flight per executor.
+   */
+  int maxConcurrency;
+
+  /**
+   * Bulk request latency above which the concurrency is decreased.
+   */
+  long targetLatencyMs;
+
+  /**
+   * Maximum number of times rejected bulk items are retried.
+   */
+  int maxRetries;
+
+  /**
+   * Initial delay before retrying rejected bulk items, doubled on every retry.
+   */
+  long backoffMs;
+
+}
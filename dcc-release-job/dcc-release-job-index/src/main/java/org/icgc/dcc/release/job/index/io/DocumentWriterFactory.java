@@ -21,7 +21,6 @@ import static lombok.AccessLevel.PRIVATE;
 import static org.icgc.dcc.dcc.common.es.impl.DocumentWriterContextFactory.createContext;
 import lombok.NoArgsConstructor;
 import lombok.NonNull;
-import lombok.val;
 
 import org.icgc.dcc.dcc.common.es.core.DocumentWriter;
 
@@ -32,17 +31,8 @@ public final class DocumentWriterFactory {
     return org.icgc.dcc.dcc.common.es.DocumentWriterFactory.createDocumentWriter(indexName, esUri);
   }
 
-  public static DocumentWriter createDocumentWriter(@NonNull DocumentWriterContext context) {
-    return org.icgc.dcc.dcc.common.es.DocumentWriterFactory.createDocumentWriter(
-        context.getIndexName(), context.getEsUri());
-  }
-
-  public static DocumentWriter createFilteringDocumentWriter(@NonNull DocumentWriterContext context) {
-    val writerContext = createContext(context.getIndexName(), context.getEsUri());
-
-    return new FilteringElasticSearchDocumentWriter(writerContext, context.getDocumentThreshold(),
-        context.getWorkingDir(),
-        context.getFsSettings());
+  public static JsonDocumentWriter createJsonDocumentWriter(@NonNull String esUri, @NonNull String indexName) {
+    return new JsonDocumentWriter(createContext(indexName, esUri));
   }
 
 }
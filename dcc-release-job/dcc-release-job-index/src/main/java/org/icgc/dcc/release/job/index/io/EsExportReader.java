@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.index.io;
+
+import static com.google.common.base.Preconditions.checkState;
+import static lombok.AccessLevel.PRIVATE;
+import static org.icgc.dcc.common.core.util.Joiners.PATH;
+import static org.icgc.dcc.release.job.index.utils.Documents.convertDocument;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import lombok.Cleanup;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.icgc.dcc.dcc.common.es.core.DocumentWriter;
+import org.icgc.dcc.release.core.document.Document;
+import org.icgc.dcc.release.core.document.DocumentType;
+import org.icgc.dcc.release.core.util.JacksonFactory;
+import org.icgc.dcc.release.job.index.model.EsExportManifest;
+import org.icgc.dcc.release.job.index.model.EsExportShard;
+import org.icgc.dcc.release.job.index.utils.EsExports;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.io.ByteStreams;
+
+/**
+ * Reads back the Elasticsearch export archives of a document type listed in its manifest.
+ * <p>
+ * Each archive is verified against the manifest: its documents must belong to the shard's ID hash range, and their
+ * number must match.
+ */
+@Slf4j
+@RequiredArgsConstructor(access = PRIVATE)
+public class EsExportReader {
+
+  /**
+   * Constants.
+   */
+  private static final String SETTINGS_ENTRY = "_settings";
+  private static final String MAPPING_ENTRY = "_mapping";
+
+  /**
+   * Dependencies.
+   */
+  @NonNull
+  private final FileSystem fileSystem;
+
+  /**
+   * Configuration.
+   */
+  @NonNull
+  private final Path exportDir;
+  @NonNull
+  @Getter
+  private final EsExportManifest manifest;
+
+  public static EsExportReader createReader(@NonNull FileSystem fileSystem, @NonNull Path exportDir,
+      @NonNull String indexName, @NonNull String documentTypeName) throws IOException {
+    val manifestPath = new Path(exportDir, EsExports.getManifestName(indexName, documentTypeName));
+    log.info("Reading Elasticsearch export manifest '{}'...", manifestPath);
+
+    return new EsExportReader(fileSystem, exportDir, EsExports.readManifest(fileSystem, manifestPath));
+  }
+
+  public ObjectNode readSettings() throws IOException {
+    return readHeader(PATH.join(manifest.getIndexName(), SETTINGS_ENTRY));
+  }
+
+  public ObjectNode readMapping() throws IOException {
+    return readHeader(PATH.join(manifest.getIndexName(), manifest.getDocumentType(), MAPPING_ENTRY));
+  }
+
+  /**
+   * Indexes all the documents of the shard set with the {@code documentWriter}.
+   * 
+   * @return the number of documents restored
+   */
+  public long restore(@NonNull DocumentWriter documentWriter) throws IOException {
+    return readDocuments(document -> {
+      try {
+        documentWriter.write(convertDocument(document));
+      } catch (IOException e) {
+        throw new IllegalStateException("Failed to restore document " + document.getId(), e);
+      }
+    });
+  }
+
+  /**
+   * @return the number of documents read
+   */
+  public long readDocuments(@NonNull Consumer<Document> consumer) throws IOException {
+    long total = 0;
+    for (val archive : manifest.getArchives()) {
+      total += readDocuments(archive, consumer);
+    }
+
+    return total;
+  }
+
+  private long readDocuments(EsExportShard archive, Consumer<Document> consumer) throws IOException {
+    log.info("Reading archive '{}'...", archive.getFileName());
+    val documentType = DocumentType.byName(manifest.getDocumentType());
+    val documentPrefix = PATH.join(manifest.getIndexName(), manifest.getDocumentType(), "");
+
+    @Cleanup
+    val tarInputStream = openArchive(archive);
+    long documents = 0;
+    TarArchiveEntry entry;
+    while ((entry = tarInputStream.getNextTarEntry()) != null) {
+      val name = entry.getName();
+      if (!name.startsWith(documentPrefix) || name.endsWith(MAPPING_ENTRY)) {
+        continue;
+      }
+
+      val id = name.substring(documentPrefix.length());
+      checkState(archive.contains(EsExports.getHash(id)), "Document '%s' is outside of the hash range of %s", id,
+          archive);
+
+      consumer.accept(new Document(documentType, id, readEntry(tarInputStream)));
+      documents++;
+    }
+
+    checkState(documents == archive.getDocuments(), "Read %s documents instead of %s from %s", documents,
+        archive.getDocuments(), archive);
+
+    return documents;
+  }
+
+  private ObjectNode readHeader(String entryName) throws IOException {
+    checkState(!manifest.getArchives().isEmpty(), "No archives to read '%s' from", entryName);
+
+    // Every archive carries the same headers
+    @Cleanup
+    val tarInputStream = openArchive(manifest.getArchives().get(0));
+    TarArchiveEntry entry;
+    while ((entry = tarInputStream.getNextTarEntry()) != null) {
+      if (entry.getName().equals(entryName)) {
+        return readEntry(tarInputStream);
+      }
+    }
+
+    throw new IllegalStateException("Archive entry '" + entryName + "' is missing");
+  }
+
+  private TarArchiveInputStream openArchive(EsExportShard archive) throws IOException {
+    val archivePath = new Path(exportDir, archive.getFileName());
+
+    return new TarArchiveInputStream(new GZIPInputStream(fileSystem.open(archivePath)));
+  }
+
+  private static ObjectNode readEntry(TarArchiveInputStream tarInputStream) throws IOException {
+    val bytes = ByteStreams.toByteArray(tarInputStream);
+
+    return JacksonFactory.MAPPER.readValue(bytes, ObjectNode.class);
+  }
+
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.index.io;
+
+import java.io.IOException;
+
+import lombok.NonNull;
+
+import org.icgc.dcc.dcc.common.es.impl.DefaultDocumentWriter;
+import org.icgc.dcc.dcc.common.es.impl.DocumentWriterContext;
+import org.icgc.dcc.release.core.document.DocumentType;
+
+/**
+ * Writes documents which sources are already JSON-encoded.
+ */
+public class JsonDocumentWriter extends DefaultDocumentWriter {
+
+  public JsonDocumentWriter(@NonNull DocumentWriterContext context) {
+    super(context);
+  }
+
+  /**
+   * Writes a JSON-encoded {@code source} as is. It's owned by the bulk request afterwards, so it must not be reused.
+   */
+  public void write(@NonNull String id, @NonNull DocumentType type, @NonNull byte[] source) throws IOException {
+    write(id, type::getName, source);
+  }
+
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.index.io;
+
+import static org.icgc.dcc.dcc.common.es.TransportClientFactory.createClient;
+
+import java.io.IOException;
+import java.util.List;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+
+import org.elasticsearch.client.Client;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.rest.RestStatus;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Sends bulk index and delete requests with a transport client. Items failing with a {@code 429 Too Many Requests}
+ * status are reported as rejected, any other failure fails the request.
+ */
+@RequiredArgsConstructor
+public class TransportBulkSender implements BulkSender {
+
+  /**
+   * Dependencies.
+   */
+  @NonNull
+  private final Client client;
+
+  /**
+   * Configuration.
+   */
+  @NonNull
+  private final String indexName;
+
+  public static TransportBulkSender createSender(@NonNull String esUri, @NonNull String indexName) {
+    return new TransportBulkSender(createClient(esUri, false), indexName);
+  }
+
+  public static BulkSenderFactory createFactory(@NonNull String esUri, @NonNull String indexName) {
+    return () -> createSender(esUri, indexName);
+  }
+
+  @Override
+  public List<BulkItem> send(List<BulkItem> items) throws IOException {
+    val request = client.prepareBulk();
+    for (val item : items) {
+      val typeName = item.getType().getName();
+      if (item.isDelete()) {
+        request.add(client.prepareDelete(indexName, typeName, item.getId()));
+      } else {
+        request.add(client.prepareIndex(indexName, typeName, item.getId()).setSource(item.getSource()));
+      }
+    }
+
+    try {
+      val response = request.execute().actionGet();
+      if (!response.hasFailures()) {
+        return ImmutableList.of();
+      }
+
+      val rejected = ImmutableList.<BulkItem> builder();
+      for (val itemResponse : response.getItems()) {
+        if (!itemResponse.isFailed()) {
+          continue;
+        }
+
+        if (itemResponse.getFailure().getStatus() != RestStatus.TOO_MANY_REQUESTS) {
+          throw new IOException("Failed to index document '" + itemResponse.getId() + "': "
+              + itemResponse.getFailureMessage());
+        }
+
+        rejected.add(items.get(itemResponse.getItemId()));
+      }
+
+      return rejected.build();
+    } catch (EsRejectedExecutionException e) {
+      return items;
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    client.close();
+  }
+
+}
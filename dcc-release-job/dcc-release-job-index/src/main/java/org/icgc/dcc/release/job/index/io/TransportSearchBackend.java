@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.index.io;
+
+import static org.icgc.dcc.dcc.common.es.TransportClientFactory.createClient;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+
+import org.elasticsearch.client.Client;
+import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.elasticsearch.search.aggregations.bucket.terms.Terms;
+import org.icgc.dcc.release.core.document.DocumentType;
+
+import com.google.common.collect.Maps;
+
+/**
+ * Counts documents with a single {@code _type} terms aggregation, and gets them with multi-get requests.
+ */
+@RequiredArgsConstructor
+public class TransportSearchBackend implements SearchBackend {
+
+  /**
+   * Constants.
+   */
+  private static final String TYPES_AGGREGATION = "types";
+
+  /**
+   * Dependencies.
+   */
+  @NonNull
+  private final Client client;
+
+  /**
+   * Configuration.
+   */
+  @NonNull
+  private final String indexName;
+
+  public static SearchBackendFactory createFactory(@NonNull String esUri, @NonNull String indexName) {
+    return () -> new TransportSearchBackend(createClient(esUri, false), indexName);
+  }
+
+  @Override
+  public Map<String, Long> countByType() {
+    val response = client.prepareSearch(indexName)
+        .setSize(0)
+        .addAggregation(AggregationBuilders.terms(TYPES_AGGREGATION)
+            .field("_type")
+            .size(DocumentType.values().length))
+        .execute()
+        .actionGet();
+
+    Terms types = response.getAggregations().get(TYPES_AGGREGATION);
+    val counts = Maps.<String, Long> newHashMap();
+    for (val bucket : types.getBuckets()) {
+      counts.put(bucket.getKeyAsString(), bucket.getDocCount());
+    }
+
+    return counts;
+  }
+
+  @Override
+  public Map<String, byte[]> getSources(@NonNull String typeName, @NonNull List<String> ids) throws IOException {
+    val responses = client.prepareMultiGet()
+        .add(indexName, typeName, ids)
+        .execute()
+        .actionGet();
+
+    val sources = Maps.<String, byte[]> newHashMap();
+    for (val item : responses) {
+      if (item.isFailed()) {
+        throw new IOException("Failed to get document '" + item.getId() + "': " + item.getFailure().getMessage());
+      }
+
+      val response = item.getResponse();
+      if (response.isExists()) {
+        sources.put(response.getId(), response.getSourceAsBytes());
+      }
+    }
+
+    return sources;
+  }
+
+  @Override
+  public void close() {
+    client.close();
+  }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.index.model;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.Serializable;
+import java.util.SortedSet;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+
+import com.google.common.collect.Sets;
+
+/**
+ * Verification results of the documents of a type in a partition, merged into the results of the type.
+ * <p>
+ * The checksum is the sum of the document hashes, so it doesn't depend on the order or the partitioning of the
+ * documents. Only the first IDs of the failed documents are kept, in ID order.
+ */
+@Getter
+@RequiredArgsConstructor
+public class DocumentVerification implements Serializable {
+
+  /**
+   * Constants.
+   */
+  private static final int MAX_FAILED_IDS = 10;
+
+  @NonNull
+  private final String typeName;
+  private long documents;
+  private long checksum;
+  private long sampled;
+  private long missing;
+  private long mismatched;
+  private final SortedSet<String> failedIds = Sets.newTreeSet();
+
+  public void recordDocument(long hash) {
+    documents++;
+    checksum += hash;
+  }
+
+  public void recordMatched() {
+    sampled++;
+  }
+
+  public void recordMissing(@NonNull String id) {
+    sampled++;
+    missing++;
+    addFailedId(id);
+  }
+
+  public void recordMismatched(@NonNull String id) {
+    sampled++;
+    mismatched++;
+    addFailedId(id);
+  }
+
+  public boolean isValid() {
+    return missing == 0 && mismatched == 0;
+  }
+
+  public DocumentVerification merge(@NonNull DocumentVerification other) {
+    checkArgument(typeName.equals(other.typeName), "Can't merge verifications of types '%s' and '%s'", typeName,
+        other.typeName);
+    documents += other.documents;
+    checksum += other.checksum;
+    sampled += other.sampled;
+    missing += other.missing;
+    mismatched += other.mismatched;
+    other.failedIds.forEach(this::addFailedId);
+
+    return this;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s: %s documents, checksum %016x, %s sampled, %s missing, %s mismatched%s", typeName,
+        documents, checksum, sampled, missing, mismatched, failedIds.isEmpty() ? "" : " " + failedIds);
+  }
+
+  private void addFailedId(String id) {
+    failedIds.add(id);
+    if (failedIds.size() > MAX_FAILED_IDS) {
+      failedIds.remove(failedIds.last());
+    }
+  }
+
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.index.model;
+
+import java.util.List;
+
+import lombok.NonNull;
+import lombok.Value;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Lists the Elasticsearch export archives of a document type. Shards without documents have no archive.
+ */
+@Value
+public class EsExportManifest {
+
+  /**
+   * The exported index.
+   */
+  String indexName;
+
+  /**
+   * The exported document type name.
+   */
+  String documentType;
+
+  /**
+   * The number of shards the document IDs were split into.
+   */
+  int shards;
+
+  /**
+   * The archives, ordered by shard.
+   */
+  List<EsExportShard> archives;
+
+  @JsonCreator
+  public EsExportManifest(
+      @NonNull @JsonProperty("indexName") String indexName,
+      @NonNull @JsonProperty("documentType") String documentType,
+      @JsonProperty("shards") int shards,
+      @NonNull @JsonProperty("archives") List<EsExportShard> archives)
+  {
+    this.indexName = indexName;
+    this.documentType = documentType;
+    this.shards = shards;
+    this.archives = ImmutableList.copyOf(archives);
+  }
+
+}
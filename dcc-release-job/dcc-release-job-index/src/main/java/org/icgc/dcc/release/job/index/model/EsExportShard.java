@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.index.model;
+
+import java.io.Serializable;
+
+import lombok.NonNull;
+import lombok.Value;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * An Elasticsearch export archive holding the documents of a type whose ID hashes fall in {@code [minHash, maxHash)}.
+ */
+@Value
+public class EsExportShard implements Serializable {
+
+  /**
+   * The shard number.
+   */
+  int shard;
+
+  /**
+   * The archive file name, relative to the export directory.
+   */
+  String fileName;
+
+  /**
+   * The number of documents in the archive.
+   */
+  long documents;
+
+  /**
+   * The first document ID hash of the shard, inclusive.
+   */
+  long minHash;
+
+  /**
+   * The last document ID hash of the shard, exclusive.
+   */
+  long maxHash;
+
+  @JsonCreator
+  public EsExportShard(
+      @JsonProperty("shard") int shard,
+      @NonNull @JsonProperty("fileName") String fileName,
+      @JsonProperty("documents") long documents,
+      @JsonProperty("minHash") long minHash,
+      @JsonProperty("maxHash") long maxHash)
+  {
+    this.shard = shard;
+    this.fileName = fileName;
+    this.documents = documents;
+    this.minHash = minHash;
+    this.maxHash = maxHash;
+  }
+
+  public boolean contains(long hash) {
+    return hash >= minHash && hash < maxHash;
+  }
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.index.model;
+
+import static org.icgc.dcc.release.core.util.JacksonFactory.MAPPER;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+
+import lombok.NonNull;
+import lombok.SneakyThrows;
+import lombok.Value;
+import lombok.val;
+
+import org.elasticsearch.common.xcontent.support.XContentMapValues;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * The {@code _source} includes and excludes of a type mapping. The sources of a type filtering them are stored without
+ * the filtered out fields, so they can only be compared with documents filtered the same way.
+ */
+@Value
+public class SourceFilter implements Serializable {
+
+  /**
+   * Constants.
+   */
+  public static final SourceFilter NONE = new SourceFilter(ImmutableList.of(), ImmutableList.of());
+  private static final TypeReference<Map<String, Object>> SOURCE_TYPE = new TypeReference<Map<String, Object>>() {};
+  private static final ObjectWriter CANONICAL_WRITER = MAPPER.writer()
+      .with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+
+  @NonNull
+  List<String> includes;
+  @NonNull
+  List<String> excludes;
+
+  public boolean isFiltering() {
+    return !includes.isEmpty() || !excludes.isEmpty();
+  }
+
+  /**
+   * Filters the JSON {@code source} as Elasticsearch does when storing it.
+   * 
+   * @return the filtered source with the fields of every object sorted by name, so that equal sources are equal bytes
+   */
+  @SneakyThrows
+  public byte[] apply(@NonNull byte[] source) {
+    Map<String, Object> document = MAPPER.readValue(source, SOURCE_TYPE);
+    val filtered = XContentMapValues.filter(document, toArray(includes), toArray(excludes));
+
+    return CANONICAL_WRITER.writeValueAsBytes(filtered);
+  }
+
+  private static String[] toArray(List<String> fields) {
+    return fields.toArray(new String[fields.size()]);
+  }
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.index.model;
+
+import static org.icgc.dcc.common.core.util.Formats.formatCount;
+
+import java.io.Serializable;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * Changes of an incremental index update of a partition, merged into the summary of the task.
+ */
+@Getter
+public class UpdateSummary implements Serializable {
+
+  private long upserts;
+  private long bigUpserts;
+  private long deletes;
+  private long unchanged;
+
+  public void recordUpsert() {
+    upserts++;
+  }
+
+  /**
+   * Records an upsert of a document too big to be batched with others.
+   */
+  public void recordBigUpsert() {
+    upserts++;
+    bigUpserts++;
+  }
+
+  public void recordDelete() {
+    deletes++;
+  }
+
+  public void recordUnchanged() {
+    unchanged++;
+  }
+
+  public UpdateSummary merge(@NonNull UpdateSummary other) {
+    upserts += other.upserts;
+    bigUpserts += other.bigUpserts;
+    deletes += other.deletes;
+    unchanged += other.unchanged;
+
+    return this;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s upserts (%s big), %s deletes, %s unchanged documents", formatCount(upserts),
+        formatCount(bigUpserts), formatCount(deletes), formatCount(unchanged));
+  }
+
+}
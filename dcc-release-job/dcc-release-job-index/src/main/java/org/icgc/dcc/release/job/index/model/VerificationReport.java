@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.index.model;
+
+import static java.lang.String.format;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.SortedMap;
+
+import lombok.NonNull;
+import lombok.Value;
+import lombok.val;
+
+import com.google.common.collect.Maps;
+
+/**
+ * Verification results of an index by type name. The report only depends on the documents and the index, not on the
+ * partitioning of the documents, so runs over the same release can be compared.
+ */
+@Value
+public class VerificationReport {
+
+  String indexName;
+  double samplingRate;
+  SortedMap<String, DocumentVerification> verifications;
+
+  /**
+   * The number of indexed documents of the verified types.
+   */
+  SortedMap<String, Long> indexCounts;
+
+  public static VerificationReport create(@NonNull String indexName, double samplingRate,
+      @NonNull Collection<DocumentVerification> partitionVerifications, @NonNull Map<String, Long> indexCounts) {
+    val verifications = Maps.<String, DocumentVerification> newTreeMap();
+    for (val partitionVerification : partitionVerifications) {
+      verifications.merge(partitionVerification.getTypeName(), partitionVerification, DocumentVerification::merge);
+    }
+
+    val verifiedIndexCounts = Maps.<String, Long> newTreeMap();
+    for (val typeName : verifications.keySet()) {
+      verifiedIndexCounts.put(typeName, indexCounts.getOrDefault(typeName, 0L));
+    }
+
+    return new VerificationReport(indexName, samplingRate, verifications, verifiedIndexCounts);
+  }
+
+  public boolean isValid() {
+    return verifications.values().stream()
+        .allMatch(verification -> verification.isValid()
+            && verification.getDocuments() == indexCounts.get(verification.getTypeName()));
+  }
+
+  @Override
+  public String toString() {
+    val report = new StringBuilder(format("Index '%s', sampling rate %s%n", indexName, samplingRate));
+    for (val verification : verifications.values()) {
+      report.append(format("  %s, %s indexed%n", verification, indexCounts.get(verification.getTypeName())));
+    }
+
+    return report.toString();
+  }
+
+}
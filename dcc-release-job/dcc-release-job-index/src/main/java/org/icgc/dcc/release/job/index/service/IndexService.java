@@ -23,6 +23,7 @@ import static com.google.common.base.Strings.repeat;
 import static com.google.common.base.Throwables.propagate;
 import static com.google.common.collect.ImmutableList.copyOf;
 import static com.google.common.collect.ImmutableMap.of;
+import static com.google.common.collect.Sets.difference;
 import static com.google.common.io.Resources.getResource;
 import static java.lang.Boolean.FALSE;
 import static java.lang.Boolean.TRUE;
@@ -36,6 +37,7 @@ import static org.icgc.dcc.release.core.util.JacksonFactory.MAPPER;
 import java.io.Closeable;
 import java.io.IOException;
 import java.net.URL;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -44,11 +46,13 @@ import org.elasticsearch.client.Client;
 import org.elasticsearch.client.ClusterAdminClient;
 import org.elasticsearch.client.IndicesAdminClient;
 import org.icgc.dcc.release.core.document.DocumentType;
+import org.icgc.dcc.release.job.index.model.SourceFilter;
 import org.joda.time.DateTime;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 
@@ -68,6 +72,11 @@ public class IndexService implements Closeable {
    */
   private static final String ES_CONFIG_BASE_PATH = "org/icgc/dcc/release/resources/mappings";
 
+  /**
+   * Index setting holding the number of shards.
+   */
+  public static final String NUMBER_OF_SHARDS_SETTING = "index.number_of_shards";
+
   /**
    * Dependencies.
    */
@@ -77,7 +86,14 @@ public class IndexService implements Closeable {
   @Getter(lazy = true, value = PRIVATE)
   private final ClusterAdminClient clusterClient = client.admin().cluster();
 
-  public void initializeIndex(@NonNull String indexName, @NonNull Set<DocumentType> types) {
+  /**
+   * Recreates the index to load all the document types, or unfreezes it to load some of them again. A recreated index
+   * gets the mappings of the other types only: the mappings of the {@code types} are put by
+   * {@link #putTypeMapping(String, DocumentType)} as they are loaded.
+   * 
+   * @return whether the index was recreated
+   */
+  public boolean initializeIndex(@NonNull String indexName, @NonNull Set<DocumentType> types) {
     val client = getIndexClient();
 
     log.info("Checking index '{}' for existence...", indexName);
@@ -101,34 +117,73 @@ public class IndexService implements Closeable {
         unfreezeIndex(indexName);
 
         // FIXME: Remove all the documents from type, because a type can't be deleted anymore.
-        return;
+        return false;
       }
     }
 
     try {
-      log.info("Creating index '{}'...", indexName);
-      checkState(client
-          .prepareCreate(indexName)
-          .setSettings(IndexService.getSettings().toString())
-          .execute()
-          .actionGet()
-          .isAcknowledged(),
-          "Index '%s' creation was not acknowledged!", indexName);
-
-      initializeTypeMappings(indexName, copyOf(DocumentType.values()));
+      val otherTypes = difference(ImmutableSet.copyOf(DocumentType.values()), types);
+      createIndex(indexName, IndexService.getSettings(), otherTypes);
     } catch (Throwable t) {
       propagate(t);
     }
+
+    return true;
   }
 
+  /**
+   * Prepares the index for incremental updates: it's created if it doesn't exist yet, and unfrozen otherwise. Unlike
+   * {@link #initializeIndex(String, Set)}, existing documents are kept.
+   * 
+   * @return whether the index was created
+   */
   @SneakyThrows
-  private void initializeTypeMappings(String indexName, Iterable<DocumentType> types) {
+  public boolean initializeIncrementalIndex(@NonNull String indexName) {
+    val exists = getIndexClient().prepareExists(indexName)
+        .execute()
+        .actionGet()
+        .isExists();
+
+    if (exists) {
+      log.info("Unfreezing index '{}' for incremental updates...", indexName);
+      unfreezeIndex(indexName);
+
+      return false;
+    }
+
+    createIndex(indexName, getSettings());
+
+    return true;
+  }
+
+  /**
+   * Creates the index with the {@code settings} and the mappings of all the document types.
+   */
+  public void createIndex(@NonNull String indexName, @NonNull ObjectNode settings) {
+    createIndex(indexName, settings, copyOf(DocumentType.values()));
+  }
+
+  /**
+   * Creates the index with the {@code settings} and the mappings of the {@code types}.
+   */
+  public void createIndex(@NonNull String indexName, @NonNull ObjectNode settings,
+      @NonNull Iterable<DocumentType> types) {
+    log.info("Creating index '{}'...", indexName);
+    checkState(getIndexClient()
+        .prepareCreate(indexName)
+        .setSettings(settings.toString())
+        .execute()
+        .actionGet()
+        .isAcknowledged(),
+        "Index '%s' creation was not acknowledged!", indexName);
+
     for (val type : types) {
-      initializeIndexType(indexName, type);
+      putTypeMapping(indexName, type);
     }
   }
 
-  private void initializeIndexType(String indexName, DocumentType type) throws JsonProcessingException, IOException {
+  @SneakyThrows
+  public void putTypeMapping(@NonNull String indexName, @NonNull DocumentType type) {
     val typeName = type.getName();
     val source = IndexService.getTypeMapping(typeName).toString();
 
@@ -184,6 +239,14 @@ public class IndexService implements Closeable {
         .actionGet();
   }
 
+  public void refreshIndex(@NonNull String indexName) {
+    // Makes the documents loaded so far visible to searches, as automatic refreshes are disabled while indexing
+    getIndexClient()
+        .prepareRefresh(indexName)
+        .execute()
+        .actionGet();
+  }
+
   public void freezeIndex(@NonNull String indexName) {
     // Don't use index.blocks.read_only
     // as it's buggy
@@ -246,6 +309,20 @@ public class IndexService implements Closeable {
     return (ObjectNode) MAPPER.readTree(settingsFileUrl);
   }
 
+  public static int getNumberOfShards() throws IOException {
+    return getSettings().get(NUMBER_OF_SHARDS_SETTING).asInt();
+  }
+
+  /**
+   * @return the {@code _source} includes and excludes of the type mapping
+   */
+  @SneakyThrows
+  public static SourceFilter getSourceFilter(@NonNull String typeName) {
+    JsonNode source = getTypeMapping(typeName).path(typeName).path("_source");
+
+    return new SourceFilter(getFields(source.path("includes")), getFields(source.path("excludes")));
+  }
+
   public static ObjectNode getTypeMapping(String typeName) throws JsonProcessingException, IOException {
     String resourceName = format("%s/%s.mapping.json", ES_CONFIG_BASE_PATH, typeName);
     URL mappingFileUrl = getResource(resourceName);
@@ -269,6 +346,15 @@ public class IndexService implements Closeable {
     client.close();
   }
 
+  private static List<String> getFields(JsonNode fields) {
+    val result = ImmutableList.<String> builder();
+    for (val field : fields) {
+      result.add(field.textValue());
+    }
+
+    return result.build();
+  }
+
   private Set<String> getIndexNames() {
     val state = client.admin()
         .cluster()
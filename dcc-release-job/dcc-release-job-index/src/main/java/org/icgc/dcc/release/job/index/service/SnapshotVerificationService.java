@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.index.service;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Map;
+
+import lombok.Cleanup;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.elasticsearch.client.Client;
+import org.icgc.dcc.release.job.index.utils.EmbeddedNodes;
+import org.icgc.dcc.release.job.index.utils.IndexSnapshots;
+
+/**
+ * Verifies an index snapshot repository by restoring it on an embedded node and comparing the document counts of the
+ * restored index with the expected ones.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class SnapshotVerificationService {
+
+  /**
+   * Dependencies.
+   */
+  @NonNull
+  private final FileSystem fileSystem;
+
+  /**
+   * Configuration.
+   */
+  @NonNull
+  private final Path snapshotPath;
+  @NonNull
+  private final String indexName;
+
+  public void verify(@NonNull Map<String, Long> expectedCounts) throws IOException {
+    val localDir = Files.createTempDirectory("dcc-index-snapshot-").toFile();
+    try {
+      val repositoryDir = new File(localDir, "repository");
+      log.info("Copying snapshot repository '{}' to '{}'...", snapshotPath, repositoryDir);
+      fileSystem.copyToLocalFile(false, snapshotPath, new Path(repositoryDir.getAbsolutePath()), true);
+
+      @Cleanup
+      val node = EmbeddedNodes.startNode(new File(localDir, "home"), repositoryDir);
+      val client = node.client();
+      restore(client, repositoryDir);
+      verifyCounts(client, expectedCounts);
+    } finally {
+      FileUtils.deleteDirectory(localDir);
+    }
+  }
+
+  private void restore(Client client, File repositoryDir) {
+    EmbeddedNodes.registerRepository(client, IndexSnapshots.REPOSITORY_NAME, repositoryDir);
+
+    val snapshotName = IndexSnapshots.getSnapshotName(indexName);
+    log.info("Restoring snapshot '{}'...", snapshotName);
+    val restoreInfo = client.admin().cluster()
+        .prepareRestoreSnapshot(IndexSnapshots.REPOSITORY_NAME, snapshotName)
+        .setWaitForCompletion(true)
+        .execute()
+        .actionGet()
+        .getRestoreInfo();
+    checkState(restoreInfo != null && restoreInfo.failedShards() == 0, "Failed to restore snapshot '%s': %s",
+        snapshotName, restoreInfo);
+
+    client.admin().indices()
+        .prepareRefresh(indexName)
+        .execute()
+        .actionGet();
+  }
+
+  private void verifyCounts(Client client, Map<String, Long> expectedCounts) {
+    for (val entry : expectedCounts.entrySet()) {
+      val typeName = entry.getKey();
+      val expectedCount = entry.getValue();
+      val count = client.prepareSearch(indexName)
+          .setTypes(typeName)
+          .setSize(0)
+          .execute()
+          .actionGet()
+          .getHits()
+          .getTotalHits();
+
+      checkState(count == expectedCount, "Restored index '%s' has %s '%s' documents instead of %s", indexName, count,
+          typeName, expectedCount);
+      log.info("Restored {} '{}' documents", count, typeName);
+    }
+  }
+
+}
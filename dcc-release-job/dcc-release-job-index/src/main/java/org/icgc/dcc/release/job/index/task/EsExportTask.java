@@ -17,13 +17,24 @@
  */
 package org.icgc.dcc.release.job.index.task;
 
+import static com.google.common.base.Preconditions.checkState;
+import static org.icgc.dcc.common.core.util.Formats.formatCount;
+import static org.icgc.dcc.common.core.util.stream.Collectors.toImmutableList;
+import static org.icgc.dcc.release.core.util.DocumentSources.readSource;
+import static org.icgc.dcc.release.core.util.Tuples.tuple;
+
+import java.util.List;
 import java.util.Map;
 
+import lombok.EqualsAndHashCode;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
 import lombok.val;
+import lombok.extern.slf4j.Slf4j;
 
 import org.apache.hadoop.fs.Path;
+import org.apache.spark.Partitioner;
 import org.apache.spark.api.java.JavaRDD;
 import org.icgc.dcc.common.hadoop.fs.HadoopUtils;
 import org.icgc.dcc.release.core.document.Document;
@@ -33,7 +44,16 @@ import org.icgc.dcc.release.core.task.TaskType;
 import org.icgc.dcc.release.core.util.Configurations;
 import org.icgc.dcc.release.job.index.function.CreateDocument;
 import org.icgc.dcc.release.job.index.function.CreateEsExportTar;
+import org.icgc.dcc.release.job.index.model.EsExportManifest;
+import org.icgc.dcc.release.job.index.model.EsExportShard;
+import org.icgc.dcc.release.job.index.utils.EsExports;
 
+/**
+ * Exports the documents of a type to {@code shards} archives written in parallel, and a manifest listing them.
+ * 
+ * @see EsExports
+ */
+@Slf4j
 @RequiredArgsConstructor
 public class EsExportTask extends GenericIndexTask {
 
@@ -43,6 +63,11 @@ public class EsExportTask extends GenericIndexTask {
   private final String indexName;
   @NonNull
   private final DocumentType documentType;
+  private final int shards;
+
+  public EsExportTask(String indexName, DocumentType documentType) {
+    this(indexName, documentType, 1);
+  }
 
   @Override
   public TaskType getType() {
@@ -57,10 +82,44 @@ public class EsExportTask extends GenericIndexTask {
   @Override
   public void execute(TaskContext taskContext) {
     prepareDirs(taskContext);
-    readDocuments(taskContext)
-        .coalesce(1)
-        .foreachPartition(createExportTarFucntion(taskContext));
+    val archives = shardDocuments(readDocuments(taskContext))
+        .mapPartitionsWithIndex(createExportTarFucntion(taskContext), true)
+        .collect();
+
+    writeManifest(taskContext, archives);
+  }
+
+  private JavaRDD<Document> shardDocuments(JavaRDD<Document> documents) {
+    if (shards == 1) {
+      // No need to shuffle
+      return documents.coalesce(1);
+    }
+
+    return documents
+        .mapToPair(document -> tuple(document.getId(), document))
+        .partitionBy(new DocumentIdPartitioner(shards))
+        .values();
+  }
 
+  @SneakyThrows
+  private void writeManifest(TaskContext taskContext, List<EsExportShard> archives) {
+    val sortedArchives = archives.stream()
+        .sorted((left, right) -> Integer.compare(left.getShard(), right.getShard()))
+        .collect(toImmutableList());
+    for (int shard = 0; shard < shards; shard++) {
+      // Empty shards included
+      checkState(shard < sortedArchives.size() && sortedArchives.get(shard).getShard() == shard,
+          "No archive of shard %s in %s", shard, sortedArchives);
+    }
+
+    val manifest = new EsExportManifest(indexName, documentType.getName(), shards, sortedArchives);
+    val manifestPath = EsExports.getManifestPath(taskContext.getJobContext().getWorkingDir(), indexName,
+        documentType.getName());
+
+    EsExports.writeManifest(taskContext.getFileSystem(), manifestPath, manifest);
+    log.info("Exported {} '{}' documents to {} archive(s) listed in '{}'",
+        formatCount(sortedArchives.stream().mapToLong(EsExportShard::getDocuments).sum()), documentType.getName(),
+        sortedArchives.size(), manifestPath);
   }
 
   private CreateEsExportTar createExportTarFucntion(TaskContext taskContext) {
@@ -68,6 +127,7 @@ public class EsExportTask extends GenericIndexTask {
         indexName,
         taskContext.getJobContext().getWorkingDir(),
         documentType.getName(),
+        shards,
         getFileSystemSettings(taskContext));
   }
 
@@ -79,7 +139,11 @@ public class EsExportTask extends GenericIndexTask {
   }
 
   private JavaRDD<Document> readDocuments(TaskContext taskContext) {
+    val bigDocuments = readBigDocumentInput(taskContext, documentType)
+        .mapToPair(document -> tuple(document._1.toString(), readSource(document._2.copyBytes())));
+
     return readUnpartitionedSequenceFileInput(taskContext, documentType.getOutputFileType())
+        .union(bigDocuments)
         .map(new CreateDocument(documentType));
   }
 
@@ -87,4 +151,25 @@ public class EsExportTask extends GenericIndexTask {
     return Configurations.getSettings(taskContext.getFileSystem().getConf());
   }
 
+  /**
+   * Assigns each document to the shard of its ID hash range.
+   */
+  @RequiredArgsConstructor
+  @EqualsAndHashCode(callSuper = false)
+  private static class DocumentIdPartitioner extends Partitioner {
+
+    private final int shards;
+
+    @Override
+    public int numPartitions() {
+      return shards;
+    }
+
+    @Override
+    public int getPartition(Object key) {
+      return EsExports.getShard((String) key, shards);
+    }
+
+  }
+
 }
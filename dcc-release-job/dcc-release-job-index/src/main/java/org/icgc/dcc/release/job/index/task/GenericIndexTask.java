@@ -18,39 +18,60 @@
 package org.icgc.dcc.release.job.index.task;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.regex.Pattern.compile;
+import static java.util.regex.Pattern.quote;
 import static org.icgc.dcc.common.core.util.Formats.formatBytes;
+import static org.icgc.dcc.common.core.util.Separators.UNDERSCORE;
+import static org.icgc.dcc.common.core.util.stream.Collectors.toImmutableList;
 import static org.icgc.dcc.common.hadoop.fs.HadoopUtils.checkExistence;
-import static org.icgc.dcc.release.core.document.DocumentType.byFileType;
-import static org.icgc.dcc.release.core.util.DocumentRDDs.combineDocumentSequenceFile;
+import static org.icgc.dcc.common.hadoop.fs.HadoopUtils.lsFile;
+import static org.icgc.dcc.release.job.index.utils.IndexTasks.GZIP_EXTENSION;
+
+import java.util.List;
+
 import lombok.val;
 import lombok.extern.slf4j.Slf4j;
 
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.hadoop.io.Text;
 import org.apache.hadoop.mapred.JobConf;
-import org.apache.spark.api.java.JavaRDD;
-import org.icgc.dcc.release.core.document.Document;
+import org.apache.spark.api.java.JavaPairRDD;
+import org.icgc.dcc.release.core.document.DocumentType;
 import org.icgc.dcc.release.core.job.FileType;
 import org.icgc.dcc.release.core.task.GenericTask;
 import org.icgc.dcc.release.core.task.TaskContext;
+import org.icgc.dcc.release.core.util.Configurations;
+import org.icgc.dcc.release.core.util.JavaRDDs;
+import org.icgc.dcc.release.job.index.function.ReadBigDocument;
+
+import scala.Tuple2;
+
+import com.google.common.collect.ImmutableList;
 
 @Slf4j
 public abstract class GenericIndexTask extends GenericTask {
 
   /**
+   * Reads the document IDs and sources as stored, without decoding them. The writables are reused by the record
+   * reader, so they must be consumed before moving to the next record.
+   * 
    * @param size split/combine size in MBytes
    */
-  protected JavaRDD<Document> readDocumnetInput(TaskContext taskContext, FileType inputFileType, int size) {
+  protected JavaPairRDD<Text, BytesWritable> readRawDocumentInput(TaskContext taskContext, FileType inputFileType,
+      int size) {
     val conf = createJobConf(taskContext);
 
-    return readDocumentInput(taskContext, conf, inputFileType, size);
+    return readRawDocumentInput(taskContext, conf, inputFileType, size);
   }
 
   /**
    * @param size split/combine size in MBytes
    */
-  protected JavaRDD<Document> readDocumentInput(TaskContext taskContext, JobConf hadoopConf, FileType inputFileType,
-      int size) {
-    checkArgument(taskContext.isCompressOutput(), "readDocumentInput method doesn't support reading from uncompressed "
-        + "files");
+  protected JavaPairRDD<Text, BytesWritable> readRawDocumentInput(TaskContext taskContext, JobConf hadoopConf,
+      FileType inputFileType, int size) {
+    checkArgument(taskContext.isCompressOutput(), "readRawDocumentInput method doesn't support reading from "
+        + "uncompressed files");
     val maxFileSize = size * 1024L * 1024L;
 
     log.debug("Setting input split size of {}", formatBytes(maxFileSize));
@@ -61,10 +82,60 @@ public abstract class GenericIndexTask extends GenericTask {
     val sparkContext = taskContext.getSparkContext();
     val path = taskContext.getPath(inputFileType);
     if (!checkExistence(taskContext.getFileSystem(), path)) {
-      return taskContext.getSparkContext().emptyRDD();
+      return JavaPairRDD.fromJavaRDD(sparkContext.<Tuple2<Text, BytesWritable>> emptyRDD());
     }
 
-    return combineDocumentSequenceFile(sparkContext, path, hadoopConf, byFileType(inputFileType));
+    return JavaRDDs.combineTextKeySequenceFile(sparkContext, path, hadoopConf);
+  }
+
+  /**
+   * Reads the documents of the type stored with the rest of them and the ones the document job stored in their own
+   * files as too big, in the shape of {@link #readUnpartitionedRawSequenceFileInput}.
+   */
+  protected JavaPairRDD<Text, BytesWritable> readAllRawDocumentInput(TaskContext taskContext,
+      DocumentType documentType) {
+    return readUnpartitionedRawSequenceFileInput(taskContext, documentType.getOutputFileType())
+        .union(readBigDocumentInput(taskContext, documentType));
+  }
+
+  /**
+   * Reads the documents of the type the document job stored in their own files as too big. These are never project
+   * partitioned, so there are none to read for a project.
+   */
+  protected JavaPairRDD<Text, BytesWritable> readBigDocumentInput(TaskContext taskContext,
+      DocumentType documentType) {
+    val sparkContext = taskContext.getSparkContext();
+    val files = taskContext.getProjectName().isPresent() ?
+        ImmutableList.<String> of() :
+        getBigDocumentFiles(taskContext, documentType);
+    if (files.isEmpty()) {
+      return JavaPairRDD.fromJavaRDD(sparkContext.<Tuple2<Text, BytesWritable>> emptyRDD());
+    }
+
+    log.info("Reading {} big '{}' documents...", files.size(), documentType.getName());
+    val fsSettings = Configurations.getSettings(taskContext.getFileSystem().getConf());
+
+    return sparkContext.parallelize(files, files.size())
+        .mapToPair(new ReadBigDocument(fsSettings));
+  }
+
+  /**
+   * @return qualified paths, to be resolved by the executors
+   */
+  private static List<String> getBigDocumentFiles(TaskContext taskContext, DocumentType documentType) {
+    val fileSystem = taskContext.getFileSystem();
+    val bigDocumentsPath = new Path(taskContext.getPath(FileType.BIG_DOCUMENT));
+    if (!checkExistence(fileSystem, bigDocumentsPath)) {
+      return ImmutableList.of();
+    }
+
+    // Named after the document type
+    val prefix = documentType.getName() + UNDERSCORE;
+
+    return lsFile(fileSystem, bigDocumentsPath, compile(".*" + quote(GZIP_EXTENSION) + "$")).stream()
+        .filter(path -> path.getName().startsWith(prefix))
+        .map(path -> fileSystem.makeQualified(path).toString())
+        .collect(toImmutableList());
   }
 
 }
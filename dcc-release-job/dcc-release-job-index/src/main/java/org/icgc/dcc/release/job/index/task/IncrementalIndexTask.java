@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.index.task;
+
+import static com.google.common.base.Preconditions.checkState;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.icgc.dcc.release.core.util.DocumentSources.toJson;
+import static org.icgc.dcc.release.core.util.Tuples.tuple;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.val;
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.spark.api.java.JavaPairRDD;
+import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.storage.StorageLevel;
+import org.icgc.dcc.common.hadoop.fs.HadoopUtils;
+import org.icgc.dcc.release.core.document.DocumentType;
+import org.icgc.dcc.release.core.task.Task;
+import org.icgc.dcc.release.core.task.TaskContext;
+import org.icgc.dcc.release.core.task.TaskPriority;
+import org.icgc.dcc.release.core.task.TaskType;
+import org.icgc.dcc.release.core.util.Configurations;
+import org.icgc.dcc.release.core.util.JavaRDDs;
+import org.icgc.dcc.release.job.index.function.UpdateDocuments;
+import org.icgc.dcc.release.job.index.io.BigDocumentSettings;
+import org.icgc.dcc.release.job.index.io.BulkSenderFactory;
+import org.icgc.dcc.release.job.index.io.BulkSettings;
+import org.icgc.dcc.release.job.index.model.UpdateSummary;
+import org.icgc.dcc.release.job.index.utils.Documents;
+import org.icgc.dcc.release.job.index.utils.IndexHashes;
+
+import scala.Tuple2;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+
+/**
+ * Updates the index with the differences between the documents of the previous release and the current ones, per
+ * project for the project partitioned types. The documents are compared by the hashes the previous release left in its
+ * sidecar files, and the current hashes are written to the sidecar files of the current release once the index is
+ * updated. Without previous hashes, all the documents are upserted.
+ * 
+ * @see IndexHashes
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class IncrementalIndexTask extends GenericIndexTask {
+
+  private static final String TEMP_SUFFIX = "_temp";
+  private static final double UPSERT_FILTER_FPP = 0.01;
+
+  @NonNull
+  private final String esUri;
+  @NonNull
+  private final DocumentType documentType;
+  @Getter
+  @NonNull
+  private final Optional<String> previousWorkingDir;
+  @NonNull
+  private final BulkSettings bulkSettings;
+  @NonNull
+  private final BigDocumentSettings bigDocumentSettings;
+  @NonNull
+  private final BulkSenderFactory senderFactory;
+
+  @Override
+  public TaskType getType() {
+    return documentType.getOutputFileType().isPartitioned() ? TaskType.FILE_TYPE_PROJECT : TaskType.FILE_TYPE;
+  }
+
+  @Override
+  public TaskPriority getPriority() {
+    return documentType.getPriority();
+  }
+
+  @Override
+  public String getName() {
+    return Task.getName(super.getName(), documentType.getName());
+  }
+
+  @Override
+  @SneakyThrows
+  public void execute(TaskContext taskContext) {
+    val projectName = taskContext.getProjectName();
+    val hashesPath = IndexHashes.getHashesPath(taskContext.getJobContext().getWorkingDir(), documentType.getName(),
+        projectName);
+    val tempHashesPath = hashesPath.suffix(TEMP_SUFFIX);
+    val fileSystem = taskContext.getFileSystem();
+    fileSystem.delete(tempHashesPath, true);
+    HadoopUtils.mkdirs(fileSystem, tempHashesPath);
+
+    // Only the IDs and hashes are shuffled to find the changes
+    val documents = readDocuments(taskContext);
+    val previousHashes = readPreviousHashes(taskContext, hashesPath);
+    val changes = documents
+        .mapToPair(document -> tuple(document._1.toString(), getHash(document)))
+        .fullOuterJoin(previousHashes.orElse(JavaPairRDD.fromJavaRDD(
+            taskContext.getSparkContext().<Tuple2<String, Long>> emptyRDD())))
+        .persist(StorageLevel.MEMORY_AND_DISK_SER());
+
+    try {
+      // Without previous hashes, all the documents are upserted
+      val upserts = previousHashes.isPresent() ?
+          filterUpserts(taskContext, documents, changes
+              .filter(change -> isUpsert(change._2._1.orNull(), change._2._2.orNull()))
+              .keys()) :
+          documents;
+
+      // Joined by the partitioner of the changes, so that only the upserted sources move
+      val summary = changes.leftOuterJoin(readSources(upserts))
+          .mapPartitionsWithIndex(createUpdateFunction(taskContext, tempHashesPath), false)
+          .collect().stream()
+          .reduce(new UpdateSummary(), UpdateSummary::merge);
+
+      // The hashes are only published once the index has all the changes
+      fileSystem.delete(hashesPath, true);
+      checkState(fileSystem.rename(tempHashesPath, hashesPath), "Failed to rename '%s' to '%s'", tempHashesPath,
+          hashesPath);
+
+      log.info("Updated '{}'{}: {}", documentType.getName(), projectName.map(name -> " of " + name).orElse(""),
+          summary);
+    } finally {
+      changes.unpersist(false);
+    }
+  }
+
+  /**
+   * Reads the document IDs and sources as stored, to be read twice: for the hashes and for the upserted sources.
+   */
+  private JavaPairRDD<Text, BytesWritable> readDocuments(TaskContext taskContext) {
+    val path = taskContext.getPath(documentType.getOutputFileType());
+    val sparkContext = taskContext.getSparkContext();
+    JavaPairRDD<Text, BytesWritable> documents = taskContext.exists(documentType.getOutputFileType()) ?
+        JavaRDDs.sequenceFile(sparkContext, path, Text.class, BytesWritable.class) :
+        JavaPairRDD.fromJavaRDD(sparkContext.<Tuple2<Text, BytesWritable>> emptyRDD());
+
+    return documents.union(readBigDocumentInput(taskContext, documentType));
+  }
+
+  /**
+   * Filters the documents by a Bloom filter of the upserted IDs, before their sources are decoded and shuffled. The
+   * false positives are dropped by the join with the changes.
+   */
+  private static JavaPairRDD<Text, BytesWritable> filterUpserts(TaskContext taskContext,
+      JavaPairRDD<Text, BytesWritable> documents, JavaRDD<String> upsertIds) {
+    val upsertFilter = taskContext.getSparkContext().broadcast(createUpsertFilter(upsertIds));
+
+    return documents.filter(document -> upsertFilter.value().mightContain(document._1.toString()));
+  }
+
+  /**
+   * @return the JSON-encoded source by document ID
+   */
+  private static JavaPairRDD<String, byte[]> readSources(JavaPairRDD<Text, BytesWritable> documents) {
+    return documents.mapToPair(document -> tuple(document._1.toString(), toJson(document._2.copyBytes())));
+  }
+
+  private static BloomFilter<String> createUpsertFilter(JavaRDD<String> upsertIds) {
+    val upsertFilter = BloomFilter.create(Funnels.stringFunnel(UTF_8), upsertIds.count(), UPSERT_FILTER_FPP);
+
+    return upsertIds.aggregate(upsertFilter,
+        (filter, id) -> {
+          filter.put(id);
+          return filter;
+        },
+        (filter, other) -> {
+          filter.putAll(other);
+          return filter;
+        });
+  }
+
+  private static boolean isUpsert(Long currentHash, Long previousHash) {
+    return currentHash != null && !currentHash.equals(previousHash);
+  }
+
+  private static long getHash(Tuple2<Text, BytesWritable> document) {
+    return Documents.getHash(document._1.toString(), toJson(document._2.copyBytes()));
+  }
+
+  /**
+   * @return the previous hashes by document ID, if any
+   */
+  private Optional<JavaPairRDD<String, Long>> readPreviousHashes(TaskContext taskContext, Path hashesPath)
+      throws IOException {
+    if (!previousWorkingDir.isPresent()) {
+      return Optional.empty();
+    }
+
+    val previousHashesPath = IndexHashes.getHashesPath(previousWorkingDir.get(), documentType.getName(),
+        taskContext.getProjectName());
+    checkState(!previousHashesPath.equals(hashesPath), "Previous and current hashes are both in '%s'", hashesPath);
+    if (!taskContext.getFileSystem().exists(previousHashesPath)) {
+      log.warn("No previous hashes in '{}'. Upserting all the documents...", previousHashesPath);
+
+      return Optional.empty();
+    }
+
+    return Optional.of(JavaRDDs.sequenceFile(taskContext.getSparkContext(), previousHashesPath.toString(),
+        Text.class, LongWritable.class)
+        .mapToPair(hash -> tuple(hash._1.toString(), hash._2.get())));
+  }
+
+  private UpdateDocuments createUpdateFunction(TaskContext taskContext, Path hashesPath) {
+    return new UpdateDocuments(
+        esUri,
+        documentType,
+        hashesPath.toString(),
+        getFileSystemSettings(taskContext),
+        bulkSettings,
+        bigDocumentSettings,
+        senderFactory);
+  }
+
+  private static Map<String, String> getFileSystemSettings(TaskContext taskContext) {
+    return Configurations.getSettings(taskContext.getFileSystem().getConf());
+  }
+
+}
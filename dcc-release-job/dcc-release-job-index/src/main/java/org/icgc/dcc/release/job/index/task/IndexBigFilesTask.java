@@ -17,98 +17,205 @@
  */
 package org.icgc.dcc.release.job.index.task;
 
-import static com.google.common.base.Preconditions.checkState;
 import static java.util.regex.Pattern.compile;
+import static java.util.regex.Pattern.quote;
+import static lombok.AccessLevel.PRIVATE;
+import static org.icgc.dcc.common.core.util.Formats.formatBytes;
+import static org.icgc.dcc.common.core.util.Separators.EMPTY_STRING;
+import static org.icgc.dcc.common.core.util.Separators.UNDERSCORE;
+import static org.icgc.dcc.common.core.util.stream.Collectors.toImmutableList;
 import static org.icgc.dcc.common.hadoop.fs.HadoopUtils.checkExistence;
-import static org.icgc.dcc.common.hadoop.fs.HadoopUtils.getInputStream;
 import static org.icgc.dcc.common.hadoop.fs.HadoopUtils.lsFile;
-import static org.icgc.dcc.release.core.util.JacksonFactory.SMILE_READER;
-import static org.icgc.dcc.release.job.index.io.DocumentWriterFactory.createDocumentWriter;
-import static org.icgc.dcc.release.job.index.utils.Documents.convertDocument;
+import static org.icgc.dcc.release.job.index.utils.BigDocumentContainers.CONTAINER_EXTENSION;
+import static org.icgc.dcc.release.job.index.utils.BigDocumentContainers.getRanges;
+import static org.icgc.dcc.release.job.index.utils.IndexTasks.GZIP_EXTENSION;
 import static org.icgc.dcc.release.job.index.utils.IndexTasks.getBigFilesPath;
-import static org.icgc.dcc.release.job.index.utils.IndexTasks.getDocumentTypeFromFileName;
-import static org.icgc.dcc.release.job.index.utils.IndexTasks.getIdFromFileName;
 import static org.icgc.dcc.release.job.index.utils.IndexTasks.getIndexName;
 
+import java.math.RoundingMode;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
-import lombok.Cleanup;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.val;
 import lombok.extern.slf4j.Slf4j;
 
+import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
-import org.icgc.dcc.release.core.document.Document;
+import org.icgc.dcc.release.core.document.DocumentType;
+import org.icgc.dcc.release.core.job.FileType;
 import org.icgc.dcc.release.core.task.GenericTask;
+import org.icgc.dcc.release.core.task.Task;
 import org.icgc.dcc.release.core.task.TaskContext;
+import org.icgc.dcc.release.core.task.TaskPriority;
 import org.icgc.dcc.release.core.task.TaskType;
-import org.icgc.dcc.release.job.index.utils.IndexTasks;
-
-import com.fasterxml.jackson.databind.node.ObjectNode;
-
+import org.icgc.dcc.release.core.util.Configurations;
+import org.icgc.dcc.release.job.index.function.BigDocumentContainerIndexer;
+import org.icgc.dcc.release.job.index.function.BigFileIndexer;
+import org.icgc.dcc.release.job.index.model.ContainerRange;
+import org.icgc.dcc.release.job.index.utils.BigDocumentContainers;
+import org.icgc.dcc.release.job.index.utils.BigFilePlanner;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.math.LongMath;
+
+/**
+ * Indexes the documents too big to be indexed with the rest, of all the document types or of a single one. The big
+ * document files and ranges of the big document containers are packed by size into bins indexed in parallel by the
+ * executors.
+ */
 @Slf4j
-@RequiredArgsConstructor
+@RequiredArgsConstructor(access = PRIVATE)
 public class IndexBigFilesTask extends GenericTask {
 
   @NonNull
   private final String esUri;
+  @NonNull
+  private final Optional<DocumentType> documentType;
+
+  public IndexBigFilesTask(@NonNull String esUri) {
+    this(esUri, Optional.empty());
+  }
+
+  public IndexBigFilesTask(@NonNull String esUri, @NonNull DocumentType documentType) {
+    this(esUri, Optional.of(documentType));
+  }
+
+  @Override
+  public String getName() {
+    return documentType.isPresent() ? Task.getName(super.getName(), documentType.get().getName()) : super.getName();
+  }
+
+  @Override
+  public TaskPriority getPriority() {
+    return documentType.isPresent() ? documentType.get().getPriority() : super.getPriority();
+  }
 
   @Override
-  @SneakyThrows
   public void execute(TaskContext taskContext) {
-    val files = getFiles(taskContext);
-    if (files.isEmpty()) {
+    val indexName = getIndexName(taskContext.getJobContext().getReleaseName());
+    indexFiles(taskContext, indexName);
+    indexContainers(taskContext, indexName);
+  }
+
+  private void indexFiles(TaskContext taskContext, String indexName) {
+    val fileSizes = getFileSizes(taskContext);
+    if (fileSizes.isEmpty()) {
       log.info("No big files found for indexing.");
       return;
     }
 
-    val indexName = getIndexName(taskContext.getJobContext().getReleaseName());
-    @Cleanup
-    val documentWriter = createDocumentWriter(esUri, indexName);
-
-    int loadedDocsCount = 0;
-    for (val file : files) {
-      val document = createDocument(taskContext.getFileSystem(), file);
-      log.info("[{}/{}] Loading document {} to {} index type...", ++loadedDocsCount, files.size(), document.getId(),
-          document.getType().getName());
-      documentWriter.write(convertDocument(document));
-    }
+    val sparkContext = taskContext.getSparkContext();
+    val bins = BigFilePlanner.plan(fileSizes, sparkContext.defaultParallelism());
+    log.info("Indexing {} big files ({}) in {} bins...", fileSizes.size(), formatBytes(sum(fileSizes.values())),
+        bins.size());
+
+    sparkContext.parallelize(bins, bins.size())
+        .foreach(new BigFileIndexer(esUri, indexName, getFileSystemSettings(taskContext)));
   }
 
-  private static Document createDocument(FileSystem fileSystem, Path path) {
-    val fileName = path.getName();
-    val type = getDocumentTypeFromFileName(fileName);
-    val id = getIdFromFileName(fileName);
-    val source = readSource(fileSystem, path);
-    checkState(source.isObject(), "Source is not a valid ObjectNode");
+  /**
+   * The containers are split into ranges of about the size of a bin, so that a big container is indexed by several
+   * executors.
+   */
+  private void indexContainers(TaskContext taskContext, String indexName) {
+    val containers = getContainers(taskContext);
+    if (containers.isEmpty()) {
+      log.info("No big document containers found for indexing.");
+      return;
+    }
+
+    val sparkContext = taskContext.getSparkContext();
+    val parallelism = sparkContext.defaultParallelism();
+    val totalBytes = sum(containers.values());
+    val maxRangeBytes = Math.max(1L, LongMath.divide(totalBytes, parallelism, RoundingMode.CEILING));
+
+    val rangeSizes = ImmutableMap.<ContainerRange, Long> builder();
+    for (val container : containers.entrySet()) {
+      val offsets = readOffsets(taskContext.getFileSystem().getConf(), new Path(container.getKey()));
+      for (val range : getRanges(container.getKey(), offsets, container.getValue(), maxRangeBytes)) {
+        rangeSizes.put(range, range.getLength());
+      }
+    }
+
+    val bins = BigFilePlanner.plan(rangeSizes.build(), parallelism);
+    log.info("Indexing {} big document containers ({}) in {} bins...", containers.size(), formatBytes(totalBytes),
+        bins.size());
 
-    return new Document(type, id, source);
+    sparkContext.parallelize(bins, bins.size())
+        .foreach(new BigDocumentContainerIndexer(esUri, indexName, getFileSystemSettings(taskContext)));
   }
 
-  @SneakyThrows
-  private static ObjectNode readSource(FileSystem fileSystem, Path path) {
-    @Cleanup
-    val inputStream = getInputStream(fileSystem, path);
+  /**
+   * @return sizes by qualified path, to be resolved by the executors
+   */
+  private Map<String, Long> getFileSizes(TaskContext taskContext) {
+    val fileSystem = taskContext.getFileSystem();
+    val bigDocumentsPath = new Path(taskContext.getPath(FileType.BIG_DOCUMENT));
 
-    return SMILE_READER.readValue(inputStream);
+    return getSizes(fileSystem, getFiles(fileSystem, bigDocumentsPath, GZIP_EXTENSION));
   }
 
-  private Collection<Path> getFiles(TaskContext taskContext) {
+  /**
+   * @return container sizes by qualified path
+   */
+  private Map<String, Long> getContainers(TaskContext taskContext) {
+    val fileSystem = taskContext.getFileSystem();
     val bigFilesPath = getBigFilesPath(taskContext.getJobContext().getWorkingDir());
+
+    return getSizes(fileSystem, getFiles(fileSystem, bigFilesPath, CONTAINER_EXTENSION));
+  }
+
+  private static Map<String, Long> getSizes(FileSystem fileSystem, Collection<Path> paths) {
+    val sizes = ImmutableMap.<String, Long> builder();
+    for (val path : paths) {
+      sizes.put(fileSystem.makeQualified(path).toString(), getLength(fileSystem, path));
+    }
+
+    return sizes.build();
+  }
+
+  /**
+   * The big files of a document type are named after it.
+   */
+  private Collection<Path> getFiles(FileSystem fileSystem, Path bigFilesPath, String extension) {
     log.debug("Checking path {} for big files...", bigFilesPath);
 
-    val fileSystem = taskContext.getFileSystem();
     if (!checkExistence(fileSystem, bigFilesPath)) {
       log.debug("{} path does not exist.", bigFilesPath);
 
       return Collections.emptyList();
     }
 
-    return lsFile(fileSystem, bigFilesPath, compile(".*" + IndexTasks.GZIP_EXTENSION + "$"));
+    val prefix = documentType.isPresent() ? documentType.get().getName() + UNDERSCORE : EMPTY_STRING;
+
+    return lsFile(fileSystem, bigFilesPath, compile(".*" + quote(extension) + "$")).stream()
+        .filter(path -> path.getName().startsWith(prefix))
+        .collect(toImmutableList());
+  }
+
+  @SneakyThrows
+  private static List<Long> readOffsets(Configuration conf, Path containerPath) {
+    return BigDocumentContainers.readOffsets(conf, containerPath);
+  }
+
+  @SneakyThrows
+  private static long getLength(FileSystem fileSystem, Path path) {
+    return fileSystem.getFileStatus(path).getLen();
+  }
+
+  private static long sum(Collection<Long> values) {
+    return values.stream().mapToLong(Long::longValue).sum();
+  }
+
+  private static Map<String, String> getFileSystemSettings(TaskContext taskContext) {
+    return Configurations.getSettings(taskContext.getFileSystem().getConf());
   }
 
   @Override
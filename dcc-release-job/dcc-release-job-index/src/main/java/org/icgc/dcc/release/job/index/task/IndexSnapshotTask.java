@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.index.task;
+
+import static com.google.common.base.Preconditions.checkState;
+import static org.icgc.dcc.common.core.util.stream.Collectors.toImmutableList;
+import static org.icgc.dcc.release.core.util.Tuples.tuple;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.val;
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.spark.api.java.JavaPairRDD;
+import org.icgc.dcc.release.core.document.DocumentType;
+import org.icgc.dcc.release.core.task.TaskContext;
+import org.icgc.dcc.release.core.task.TaskType;
+import org.icgc.dcc.release.core.util.Configurations;
+import org.icgc.dcc.release.job.index.function.BuildIndexShard;
+import org.icgc.dcc.release.job.index.io.BulkSettings;
+import org.icgc.dcc.release.job.index.model.IndexSnapshotShard;
+import org.icgc.dcc.release.job.index.service.SnapshotVerificationService;
+import org.icgc.dcc.release.job.index.utils.IndexSnapshots;
+
+import scala.Tuple2;
+
+import com.google.common.collect.Maps;
+
+/**
+ * Builds the index offline instead of loading a cluster. The documents of all the types are routed to the shards of
+ * the index as Elasticsearch would, every shard is built on an executor, and the shards are assembled into a snapshot
+ * repository the index can be restored from.
+ * 
+ * @see BuildIndexShard
+ * @see IndexSnapshots
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class IndexSnapshotTask extends GenericIndexTask {
+
+  @NonNull
+  private final String indexName;
+  @NonNull
+  private final Set<DocumentType> documentTypes;
+  private final int shards;
+  @NonNull
+  private final BulkSettings bulkSettings;
+  private final boolean forceMerge;
+  private final boolean verifyRestore;
+
+  @Override
+  public TaskType getType() {
+    return TaskType.FILE_TYPE;
+  }
+
+  @Override
+  @SneakyThrows
+  public void execute(TaskContext taskContext) {
+    checkState(!documentTypes.isEmpty(), "No document types to build the snapshot of index '%s' from", indexName);
+    val workingDir = taskContext.getJobContext().getWorkingDir();
+    val snapshotShards = readDocuments(taskContext)
+        .partitionBy(new EsShardPartitioner(shards))
+        .mapPartitionsWithIndex(createBuildShardFunction(taskContext), true)
+        .collect();
+    checkState(snapshotShards.size() == shards, "Built %s shards out of %s", snapshotShards.size(), shards);
+
+    val fileSystem = taskContext.getFileSystem();
+    val snapshotPath = IndexSnapshots.getSnapshotPath(workingDir);
+    IndexSnapshots.assemble(fileSystem, IndexSnapshots.getPartsPath(workingDir), snapshotPath, snapshotShards);
+
+    val documentCounts = getDocumentCounts(snapshotShards);
+    log.info("Built snapshot '{}' of index '{}' in '{}': {}", IndexSnapshots.getSnapshotName(indexName), indexName,
+        snapshotPath, documentCounts);
+
+    if (verifyRestore) {
+      new SnapshotVerificationService(fileSystem, snapshotPath, indexName).verify(documentCounts);
+    }
+  }
+
+  /**
+   * The sources are copied out of the reused writables, as they are shuffled.
+   */
+  private JavaPairRDD<String, Tuple2<DocumentType, byte[]>> readDocuments(TaskContext taskContext) {
+    val documents = documentTypes.stream()
+        .map(documentType -> readDocuments(taskContext, documentType))
+        .collect(toImmutableList());
+
+    return taskContext.getSparkContext().union(documents.get(0), documents.subList(1, documents.size()));
+  }
+
+  private JavaPairRDD<String, Tuple2<DocumentType, byte[]>> readDocuments(TaskContext taskContext,
+      DocumentType documentType) {
+    return readAllRawDocumentInput(taskContext, documentType)
+        .mapToPair(document -> tuple(document._1.toString(), tuple(documentType, document._2.copyBytes())));
+  }
+
+  private BuildIndexShard createBuildShardFunction(TaskContext taskContext) {
+    return new BuildIndexShard(
+        indexName,
+        shards,
+        IndexSnapshots.getPartsPath(taskContext.getJobContext().getWorkingDir()).toString(),
+        Configurations.getSettings(taskContext.getFileSystem().getConf()),
+        bulkSettings,
+        forceMerge);
+  }
+
+  private static Map<String, Long> getDocumentCounts(List<IndexSnapshotShard> snapshotShards) {
+    val documentCounts = Maps.<String, Long> newTreeMap();
+    for (val snapshotShard : snapshotShards) {
+      snapshotShard.getDocuments().forEach((type, count) -> documentCounts.merge(type, count, Long::sum));
+    }
+
+    return documentCounts;
+  }
+
+}
@@ -17,24 +17,31 @@
  */
 package org.icgc.dcc.release.job.index.task;
 
+import static org.icgc.dcc.release.core.util.Tuples.tuple;
+
 import java.util.Map;
 
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
+import lombok.val;
+import lombok.extern.slf4j.Slf4j;
 
-import org.apache.spark.api.java.JavaRDD;
-import org.icgc.dcc.release.core.document.Document;
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.spark.api.java.JavaPairRDD;
 import org.icgc.dcc.release.core.document.DocumentType;
 import org.icgc.dcc.release.core.task.Task;
 import org.icgc.dcc.release.core.task.TaskContext;
 import org.icgc.dcc.release.core.task.TaskPriority;
 import org.icgc.dcc.release.core.task.TaskType;
 import org.icgc.dcc.release.core.util.Configurations;
-import org.icgc.dcc.release.job.index.function.CreateDocument;
 import org.icgc.dcc.release.job.index.function.DocumentIndexer;
+import org.icgc.dcc.release.job.index.io.BulkMetrics;
+import org.icgc.dcc.release.job.index.io.BigDocumentSettings;
+import org.icgc.dcc.release.job.index.io.BulkSettings;
+import org.icgc.dcc.release.job.index.io.TransportBulkSender;
 
-
-
+@Slf4j
 @RequiredArgsConstructor
 public class IndexTask extends GenericIndexTask {
 
@@ -46,7 +53,15 @@ public class IndexTask extends GenericIndexTask {
   private final String indexName;
   @NonNull
   private final DocumentType documentType;
-  private final int bigDocumentThresholdMb;
+  @NonNull
+  private final BulkSettings bulkSettings;
+  @NonNull
+  private final BigDocumentSettings bigDocumentSettings;
+
+  /**
+   * The number of shards of the index to route the documents to before indexing, or {@code 0} to index them as read.
+   */
+  private final int routingShards;
 
   @Override
   public TaskType getType() {
@@ -69,26 +84,50 @@ public class IndexTask extends GenericIndexTask {
 
   @Override
   public void execute(TaskContext taskContext) {
-    JavaRDD<Document> documents = readDocuments(taskContext);
-    // If the documentType has parallelism set coalesce the number of mappers to that number.
-    if (!documentType.hasDefaultParallelism()) {
+    JavaPairRDD<Text, BytesWritable> documents = readDocuments(taskContext);
+    if (routingShards > 0) {
+      documents = routeDocuments(documents);
+    } else if (!documentType.hasDefaultParallelism()) {
+      // If the documentType has parallelism set coalesce the number of mappers to that number.
       documents = documents.coalesce(documentType.getParallelism());
     }
 
-    documents.foreachPartition(new DocumentIndexer(
+    val metrics = documents.mapPartitions(new DocumentIndexer(
         esUri,
-        indexName,
+        documentType,
         getFileSystemConfig(taskContext),
-        bigDocumentThresholdMb,
-        taskContext.getJobContext().getWorkingDir()));
-
+        taskContext.getJobContext().getWorkingDir(),
+        bulkSettings,
+        bigDocumentSettings,
+        TransportBulkSender.createFactory(esUri, indexName)))
+        .collect().stream()
+        .reduce(new BulkMetrics(), BulkMetrics::merge);
+
+    log.info("Indexed '{}': {}", getName(), metrics);
   }
 
-  private JavaRDD<Document> readDocuments(TaskContext taskContext) {
+  /**
+   * The sources are passed to {@link DocumentIndexer} as stored, without being parsed.
+   */
+  private JavaPairRDD<Text, BytesWritable> readDocuments(TaskContext taskContext) {
     return documentType.hasDefaultParallelism() ?
-        readDocumnetInput(taskContext, documentType.getOutputFileType(), PARTITION_SIZE_MB) :
-        readUnpartitionedSequenceFileInput(taskContext, documentType.getOutputFileType())
-            .map(new CreateDocument(documentType));
+        readRawDocumentInput(taskContext, documentType.getOutputFileType(), PARTITION_SIZE_MB) :
+        readUnpartitionedRawSequenceFileInput(taskContext, documentType.getOutputFileType());
+  }
+
+  /**
+   * Groups the documents by target shard, so the bulk requests of a partition only hit the shards of the partition. The
+   * writables are reused by the record reader, so they are copied before the shuffle.
+   */
+  private JavaPairRDD<Text, BytesWritable> routeDocuments(JavaPairRDD<Text, BytesWritable> documents) {
+    val partitions = documentType.hasDefaultParallelism() ?
+        routingShards :
+        Math.min(documentType.getParallelism(), routingShards);
+
+    return documents
+        .mapToPair(document -> tuple(document._1.toString(), document._2.copyBytes()))
+        .partitionBy(new EsShardPartitioner(routingShards, partitions))
+        .mapToPair(document -> tuple(new Text(document._1), new BytesWritable(document._2)));
   }
 
   private static Map<String, String> getFileSystemConfig(TaskContext taskContext) {
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.index.task;
+
+import static com.google.common.base.Preconditions.checkState;
+import static org.icgc.dcc.common.core.util.stream.Collectors.toImmutableList;
+
+import java.util.Set;
+
+import lombok.Cleanup;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.val;
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.spark.api.java.JavaRDD;
+import org.icgc.dcc.release.core.document.DocumentType;
+import org.icgc.dcc.release.core.task.TaskContext;
+import org.icgc.dcc.release.core.task.TaskType;
+import org.icgc.dcc.release.job.index.function.VerifyDocuments;
+import org.icgc.dcc.release.job.index.io.SearchBackendFactory;
+import org.icgc.dcc.release.job.index.model.DocumentVerification;
+import org.icgc.dcc.release.job.index.model.VerificationReport;
+import org.icgc.dcc.release.job.index.service.IndexService;
+
+/**
+ * Verifies the index against the documents on the executors: every document is counted and checksummed, and a sample
+ * of them is compared with its indexed source. The document counts are compared with the index counts of the types.
+ * 
+ * @see VerifyDocuments
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class VerifyIndexTask extends GenericIndexTask {
+
+  private static final int BATCH_SIZE = 500;
+
+  @NonNull
+  private final String indexName;
+  @NonNull
+  private final Set<DocumentType> documentTypes;
+  private final double samplingRate;
+  @NonNull
+  private final SearchBackendFactory backendFactory;
+
+  @Getter
+  private VerificationReport report;
+
+  @Override
+  public TaskType getType() {
+    return TaskType.FILE_TYPE;
+  }
+
+  @Override
+  @SneakyThrows
+  public void execute(TaskContext taskContext) {
+    checkState(!documentTypes.isEmpty(), "No document types to verify index '%s' against", indexName);
+    val verifications = documentTypes.stream()
+        .map(documentType -> verifyDocuments(taskContext, documentType))
+        .collect(toImmutableList());
+    val partitionVerifications = taskContext.getSparkContext()
+        .union(verifications.get(0), verifications.subList(1, verifications.size()))
+        .collect();
+
+    @Cleanup
+    val backend = backendFactory.createBackend();
+    report = VerificationReport.create(indexName, samplingRate, partitionVerifications, backend.countByType());
+    log.info("Verified index:\n{}", report);
+
+    checkState(report.isValid(), "Verification of index '%s' failed:\n%s", indexName, report);
+  }
+
+  private JavaRDD<DocumentVerification> verifyDocuments(TaskContext taskContext, DocumentType documentType) {
+    return readAllRawDocumentInput(taskContext, documentType)
+        .mapPartitions(new VerifyDocuments(documentType, IndexService.getSourceFilter(documentType.getName()),
+            samplingRate, BATCH_SIZE, backendFactory));
+  }
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.index.utils;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.String.format;
+import static lombok.AccessLevel.PRIVATE;
+import static org.icgc.dcc.common.core.util.Separators.UNDERSCORE;
+
+import java.io.IOException;
+import java.util.List;
+
+import lombok.Cleanup;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+import lombok.val;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.io.Text;
+import org.icgc.dcc.release.job.index.model.ContainerRange;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Layout of the containers the big documents are packed in. A container is a sequence file of document IDs and
+ * compressed sources. Its index is a sequence file of the document IDs and their offsets in the container, which allows
+ * to seek to any document.
+ */
+@NoArgsConstructor(access = PRIVATE)
+public final class BigDocumentContainers {
+
+  public static final String CONTAINER_EXTENSION = ".seq";
+  public static final String INDEX_EXTENSION = ".idx";
+  public static final String TEMP_EXTENSION = ".tmp";
+
+  /**
+   * The document type is the first part of the name, as in the big document files.
+   */
+  public static String getContainerName(@NonNull String typeName, @NonNull String writerId, int container) {
+    return typeName + UNDERSCORE + writerId + format("-%05d", container) + CONTAINER_EXTENSION;
+  }
+
+  public static Path getIndexPath(@NonNull Path containerPath) {
+    val name = containerPath.getName();
+    val baseName = name.substring(0, name.length() - CONTAINER_EXTENSION.length());
+
+    return new Path(containerPath.getParent(), baseName + INDEX_EXTENSION);
+  }
+
+  /**
+   * A container and its index are written under a temporary name, so that only complete ones are indexed.
+   */
+  public static Path getTempPath(@NonNull Path path) {
+    return path.suffix(TEMP_EXTENSION);
+  }
+
+  /**
+   * @return the offsets of the documents of the container, in order
+   */
+  public static List<Long> readOffsets(@NonNull Configuration conf, @NonNull Path containerPath) throws IOException {
+    @Cleanup
+    val reader = new SequenceFile.Reader(conf, SequenceFile.Reader.file(getIndexPath(containerPath)));
+    val id = new Text();
+    val offset = new LongWritable();
+
+    val offsets = ImmutableList.<Long> builder();
+    while (reader.next(id, offset)) {
+      offsets.add(offset.get());
+    }
+
+    return offsets.build();
+  }
+
+  /**
+   * Splits a container into ranges of consecutive documents. A range is closed at the first document boundary past
+   * {@code maxRangeBytes}, so a single document bigger than that gets a range of its own.
+   * 
+   * @param offsets the offsets of the documents of the container
+   * @param length the length of the container
+   */
+  public static List<ContainerRange> getRanges(@NonNull String containerPath, @NonNull List<Long> offsets,
+      long length, long maxRangeBytes) {
+    checkArgument(maxRangeBytes > 0, "The maximum range size must be positive: %s", maxRangeBytes);
+    if (offsets.isEmpty()) {
+      return ImmutableList.of();
+    }
+
+    val ranges = ImmutableList.<ContainerRange> builder();
+    long start = offsets.get(0);
+    for (val offset : offsets.subList(1, offsets.size())) {
+      if (offset - start >= maxRangeBytes) {
+        ranges.add(new ContainerRange(containerPath, start, offset));
+        start = offset;
+      }
+    }
+    ranges.add(new ContainerRange(containerPath, start, length));
+
+    return ranges.build();
+  }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.index.utils;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Comparator.comparing;
+import static lombok.AccessLevel.NONE;
+import static lombok.AccessLevel.PRIVATE;
+import static org.icgc.dcc.common.core.util.stream.Collectors.toImmutableList;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.PriorityQueue;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+
+/**
+ * Plans the distribution of the big document files among executors, balancing the number of bytes each of them
+ * indexes.
+ */
+@NoArgsConstructor(access = PRIVATE)
+public final class BigFilePlanner {
+
+  /**
+   * Packs the files into at most {@code bins} bins of similar total size. Files are placed largest first, each into the
+   * least loaded bin, which bounds the largest bin to 4/3 of the optimum.
+   * 
+   * @param fileSizes file sizes by file name, or by any other unit of work
+   * @return non-empty bins of file names
+   */
+  public static <T extends Comparable<? super T>> List<List<T>> plan(@NonNull Map<T, Long> fileSizes, int bins) {
+    checkArgument(bins > 0, "The number of bins must be positive: %s", bins);
+    val binCount = Math.min(bins, fileSizes.size());
+
+    val queue = new PriorityQueue<Bin<T>>(Math.max(binCount, 1),
+        Comparator.<Bin<T>> comparingLong(bin -> bin.getSize()).thenComparingInt(bin -> bin.getIndex()));
+    for (int i = 0; i < binCount; i++) {
+      queue.add(new Bin<T>(i));
+    }
+
+    val files = fileSizes.entrySet().stream()
+        .sorted(Entry.<T, Long> comparingByValue().reversed().thenComparing(Entry.<T, Long> comparingByKey()))
+        .collect(toImmutableList());
+    for (val file : files) {
+      val bin = queue.poll();
+      bin.add(file.getKey(), file.getValue());
+      queue.add(bin);
+    }
+
+    return queue.stream()
+        .sorted(comparing(Bin::getIndex))
+        .map(Bin::getFiles)
+        .collect(toImmutableList());
+  }
+
+  @Getter
+  @RequiredArgsConstructor
+  private static class Bin<T> {
+
+    private final int index;
+    private long size;
+    @Getter(NONE)
+    private final List<T> files = new ArrayList<>();
+
+    /**
+     * @return a serializable copy
+     */
+    public List<T> getFiles() {
+      return new ArrayList<>(files);
+    }
+
+    public void add(T file, long fileSize) {
+      files.add(file);
+      size += fileSize;
+    }
+
+  }
+
+}
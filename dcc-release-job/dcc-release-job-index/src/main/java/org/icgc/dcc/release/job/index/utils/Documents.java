@@ -17,6 +17,7 @@
  */
 package org.icgc.dcc.release.job.index.utils;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static lombok.AccessLevel.PRIVATE;
 import lombok.NoArgsConstructor;
 import lombok.NonNull;
@@ -24,9 +25,17 @@ import lombok.NonNull;
 import org.icgc.dcc.dcc.common.es.model.IndexDocument;
 import org.icgc.dcc.release.core.document.Document;
 
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
 @NoArgsConstructor(access = PRIVATE)
 public final class Documents {
 
+  /**
+   * Constants.
+   */
+  private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
   public static IndexDocument convertDocument(@NonNull Document document) {
     return new IndexDocument(
         document.getId(),
@@ -34,4 +43,16 @@ public final class Documents {
         document.getType()::getName);
   }
 
+  /**
+   * @return the content hash of a document as indexed, that is with its JSON-encoded source
+   */
+  public static long getHash(@NonNull String id, @NonNull byte[] json) {
+    return HASH_FUNCTION.newHasher()
+        .putString(id, UTF_8)
+        .putByte((byte) 0)
+        .putBytes(json)
+        .hash()
+        .asLong();
+  }
+
 }
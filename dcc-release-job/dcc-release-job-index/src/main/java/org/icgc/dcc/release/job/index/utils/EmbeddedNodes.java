@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.index.utils;
+
+import static com.google.common.base.Preconditions.checkState;
+import static lombok.AccessLevel.PRIVATE;
+
+import java.io.File;
+import java.util.UUID;
+
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+import lombok.SneakyThrows;
+import lombok.val;
+import lombok.extern.slf4j.Slf4j;
+
+import org.elasticsearch.client.Client;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.node.Node;
+
+/**
+ * In-JVM Elasticsearch nodes used to build and restore index snapshots without a cluster.
+ * <p>
+ * The nodes use the local transport and no HTTP, so nothing is bound to the network. Each node gets a cluster name of
+ * its own, because local transport nodes of the same JVM sharing a cluster name would join each other.
+ */
+@Slf4j
+@NoArgsConstructor(access = PRIVATE)
+public final class EmbeddedNodes {
+
+  /**
+   * Constants.
+   */
+  private static final String CLUSTER_NAME_PREFIX = "dcc-embedded-";
+  private static final String REPOSITORY_TYPE = "fs";
+
+  /**
+   * Starts a single-node cluster storing its data under {@code homeDir}, which may read and write snapshot repositories
+   * under {@code repoDir}.
+   */
+  @SneakyThrows
+  public static Node startNode(@NonNull File homeDir, @NonNull File repoDir) {
+    val clusterName = CLUSTER_NAME_PREFIX + UUID.randomUUID();
+    val settings = Settings.builder()
+        .put("cluster.name", clusterName)
+        .put("node.name", clusterName)
+        .put("path.home", homeDir.getAbsolutePath())
+        .put("path.repo", repoDir.getAbsolutePath())
+        .put("transport.type", "local")
+        .put("http.enabled", false)
+        .build();
+
+    log.info("Starting embedded node '{}' in '{}'...", clusterName, homeDir);
+    val node = new Node(settings);
+    node.start();
+
+    return node;
+  }
+
+  public static void registerRepository(@NonNull Client client, @NonNull String repositoryName,
+      @NonNull File location) {
+    val settings = Settings.builder()
+        .put("location", location.getAbsolutePath())
+        .put("compress", true);
+
+    checkState(client.admin().cluster()
+        .preparePutRepository(repositoryName)
+        .setType(REPOSITORY_TYPE)
+        .setSettings(settings)
+        .execute()
+        .actionGet()
+        .isAcknowledged(),
+        "Registration of repository '%s' at '%s' was not acknowledged", repositoryName, location);
+  }
+
+}
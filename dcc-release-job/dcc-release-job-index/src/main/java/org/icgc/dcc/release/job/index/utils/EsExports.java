@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.index.utils;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static lombok.AccessLevel.PRIVATE;
+import static org.apache.hadoop.fs.Path.SEPARATOR;
+
+import java.io.IOException;
+
+import lombok.Cleanup;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+import lombok.val;
+
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.icgc.dcc.release.core.util.JacksonFactory;
+import org.icgc.dcc.release.job.index.model.EsExportManifest;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+/**
+ * Naming and document ID sharding of the Elasticsearch export archives.
+ * <p>
+ * The unsigned 32-bit murmur3 hash space of the document IDs is split into {@code shards} contiguous ranges of equal
+ * size, one per archive, so the archive of a document only depends on its ID and the number of shards.
+ */
+@NoArgsConstructor(access = PRIVATE)
+public final class EsExports {
+
+  /**
+   * Constants.
+   */
+  private static final HashFunction HASH_FUNCTION = Hashing.murmur3_32();
+  private static final long HASH_SPACE = 1L << 32;
+  private static final String ARCHIVE_EXTENSION = ".tar.gz";
+  private static final String MANIFEST_EXTENSION = ".manifest.json";
+
+  public static long getHash(@NonNull String documentId) {
+    return HASH_FUNCTION.hashString(documentId, UTF_8).asInt() & 0xFFFFFFFFL;
+  }
+
+  public static int getShard(@NonNull String documentId, int shards) {
+    checkShards(shards);
+
+    return (int) (getHash(documentId) * shards >>> 32);
+  }
+
+  /**
+   * @return the first hash (inclusive) of the {@code shard}'s range
+   */
+  public static long getMinHash(int shard, int shards) {
+    checkShard(shard, shards);
+
+    return ceilDiv(shard * HASH_SPACE, shards);
+  }
+
+  /**
+   * @return the last hash (exclusive) of the {@code shard}'s range
+   */
+  public static long getMaxHash(int shard, int shards) {
+    checkShard(shard, shards);
+
+    return ceilDiv((shard + 1) * HASH_SPACE, shards);
+  }
+
+  /**
+   * A single shard keeps the name of the archives created before sharding.
+   */
+  public static String getArchiveName(@NonNull String indexName, @NonNull String documentTypeName, int shard,
+      int shards) {
+    checkShard(shard, shards);
+    val baseName = getBaseName(indexName, documentTypeName);
+
+    return shards == 1 ? baseName + ARCHIVE_EXTENSION : format("%s-%05d%s", baseName, shard, ARCHIVE_EXTENSION);
+  }
+
+  public static String getManifestName(@NonNull String indexName, @NonNull String documentTypeName) {
+    return getBaseName(indexName, documentTypeName) + MANIFEST_EXTENSION;
+  }
+
+  public static Path getManifestPath(@NonNull String workingDir, @NonNull String indexName,
+      @NonNull String documentTypeName) {
+    return new Path(IndexTasks.getEsExportDir(workingDir) + SEPARATOR + getManifestName(indexName, documentTypeName));
+  }
+
+  public static void writeManifest(@NonNull FileSystem fileSystem, @NonNull Path path,
+      @NonNull EsExportManifest manifest) throws IOException {
+    @Cleanup
+    val outputStream = fileSystem.create(path);
+    JacksonFactory.MAPPER.writerWithDefaultPrettyPrinter().writeValue(outputStream, manifest);
+  }
+
+  public static EsExportManifest readManifest(@NonNull FileSystem fileSystem, @NonNull Path path) throws IOException {
+    @Cleanup
+    val inputStream = fileSystem.open(path);
+
+    return JacksonFactory.MAPPER.readValue(inputStream, EsExportManifest.class);
+  }
+
+  private static String getBaseName(String indexName, String documentTypeName) {
+    return format("%s_%s", indexName.toLowerCase(), documentTypeName);
+  }
+
+  private static long ceilDiv(long dividend, long divisor) {
+    return (dividend + divisor - 1) / divisor;
+  }
+
+  private static void checkShard(int shard, int shards) {
+    checkShards(shards);
+    checkArgument(shard >= 0 && shard < shards, "Shard %s is out of range [0, %s)", shard, shards);
+  }
+
+  private static void checkShards(int shards) {
+    checkArgument(shards > 0, "The number of shards must be positive: %s", shards);
+  }
+
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.index.utils;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static lombok.AccessLevel.PRIVATE;
+
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+
+import org.elasticsearch.cluster.routing.Murmur3HashFunction;
+
+/**
+ * Resolves the shard Elasticsearch routes a document to. Documents are indexed without a custom routing, so the routing
+ * value is the document ID, and the index is created without {@code index.routing_partition_size} and with as many
+ * routing shards as shards.
+ * 
+ * @see org.elasticsearch.cluster.routing.OperationRouting
+ */
+@NoArgsConstructor(access = PRIVATE)
+public final class EsRouting {
+
+  public static int getHash(@NonNull String documentId) {
+    return Murmur3HashFunction.hash(documentId);
+  }
+
+  public static int getShard(@NonNull String documentId, int shards) {
+    checkArgument(shards > 0, "Number of shards must be positive. Got %s", shards);
+
+    return Math.floorMod(getHash(documentId), shards);
+  }
+
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.index.utils;
+
+import static java.lang.String.format;
+import static lombok.AccessLevel.PRIVATE;
+import static org.apache.hadoop.fs.Path.SEPARATOR;
+
+import java.util.Optional;
+
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+import lombok.val;
+
+import org.apache.hadoop.fs.Path;
+import org.icgc.dcc.release.core.util.Partitions;
+
+/**
+ * Layout of the document hash sidecar files of an indexed release. Each type has a directory of sequence files of
+ * document ID and hash, partitioned by project like the documents of the type.
+ * 
+ * @see Documents#getHash(String, byte[])
+ */
+@NoArgsConstructor(access = PRIVATE)
+public final class IndexHashes {
+
+  /**
+   * Constants.
+   */
+  private static final String HASHES_DIR = "index_hashes";
+
+  public static Path getHashesPath(@NonNull String workingDir) {
+    return new Path(workingDir + SEPARATOR + HASHES_DIR);
+  }
+
+  public static Path getHashesPath(@NonNull String workingDir, @NonNull String typeName,
+      @NonNull Optional<String> projectName) {
+    val typePath = new Path(getHashesPath(workingDir), typeName);
+
+    return projectName.isPresent() ? new Path(typePath, Partitions.getPartitionName(projectName.get())) : typePath;
+  }
+
+  public static String getPartFileName(int partition) {
+    return format("part-%05d", partition);
+  }
+
+}
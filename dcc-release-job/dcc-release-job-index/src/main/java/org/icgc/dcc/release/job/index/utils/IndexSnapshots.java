@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.index.utils;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.lang.String.format;
+import static lombok.AccessLevel.PRIVATE;
+import static org.apache.hadoop.fs.Path.SEPARATOR;
+import static org.icgc.dcc.common.core.util.stream.Collectors.toImmutableList;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+import lombok.val;
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.FileUtil;
+import org.apache.hadoop.fs.Path;
+import org.icgc.dcc.release.job.index.model.IndexSnapshotShard;
+
+/**
+ * Naming and assembly of the index snapshot repository built by the executors.
+ * <p>
+ * Every executor snapshots a whole index in which only its own shard holds documents, to a repository of its own. The
+ * repositories only differ by the snapshot UUID and the repository index ID, so the assembled repository is the
+ * repository of shard {@code 0} with every other shard directory replaced by the one of the shard's repository. The
+ * shard level files don't reference the index ID, and reference the snapshot by name, which is the same in all the
+ * repositories. Only the shard snapshot file is named after the snapshot UUID:
+ * 
+ * <pre>
+ * index-0, index.latest, snap-&lt;uuid&gt;.dat, meta-&lt;uuid&gt;.dat
+ * indices/&lt;index id&gt;/meta-&lt;uuid&gt;.dat
+ * indices/&lt;index id&gt;/&lt;shard&gt;/index-0, snap-&lt;uuid&gt;.dat, __&lt;blob&gt;...
+ * </pre>
+ */
+@Slf4j
+@NoArgsConstructor(access = PRIVATE)
+public final class IndexSnapshots {
+
+  /**
+   * Constants.
+   */
+  public static final String REPOSITORY_NAME = "dcc-release";
+  private static final String SNAPSHOT_DIR = "es_snapshot";
+  private static final String PARTS_DIR = "es_snapshot_parts";
+  private static final String INDICES_DIR = "indices";
+
+  public static Path getSnapshotPath(@NonNull String workingDir) {
+    return new Path(workingDir + SEPARATOR + SNAPSHOT_DIR);
+  }
+
+  public static Path getPartsPath(@NonNull String workingDir) {
+    return new Path(workingDir + SEPARATOR + PARTS_DIR);
+  }
+
+  public static Path getPartPath(@NonNull Path partsPath, int shard) {
+    return new Path(partsPath, format("%05d", shard));
+  }
+
+  public static String getSnapshotName(@NonNull String indexName) {
+    return indexName;
+  }
+
+  /**
+   * @return the ID of the only index snapshotted to the local repository at {@code repositoryDir}
+   */
+  public static String getIndexId(@NonNull File repositoryDir) {
+    val indexIds = new File(repositoryDir, INDICES_DIR).list();
+    checkState(indexIds != null && indexIds.length == 1, "Expected a single index in repository '%s'", repositoryDir);
+
+    return indexIds[0];
+  }
+
+  /**
+   * Assembles the repositories of the {@code shards} under {@code partsPath} into a single repository at
+   * {@code snapshotPath}, and removes them.
+   */
+  public static void assemble(@NonNull FileSystem fileSystem, @NonNull Path partsPath, @NonNull Path snapshotPath,
+      @NonNull List<IndexSnapshotShard> shards) throws IOException {
+    checkArgument(!shards.isEmpty(), "No shards to assemble");
+    val sortedShards = shards.stream()
+        .sorted((left, right) -> Integer.compare(left.getShard(), right.getShard()))
+        .collect(toImmutableList());
+    for (int i = 0; i < sortedShards.size(); i++) {
+      checkState(sortedShards.get(i).getShard() == i, "Missing shard %s of %s", i, sortedShards.size());
+    }
+
+    val base = sortedShards.get(0);
+    log.info("Assembling {} shards of snapshot {} into '{}'...", sortedShards.size(), base.getSnapshotUuid(),
+        snapshotPath);
+    fileSystem.delete(snapshotPath, true);
+    copy(fileSystem, getPartPath(partsPath, base.getShard()), snapshotPath);
+
+    for (val shard : sortedShards.subList(1, sortedShards.size())) {
+      val source = getShardPath(getPartPath(partsPath, shard.getShard()), shard.getIndexId(), shard.getShard());
+      val target = getShardPath(snapshotPath, base.getIndexId(), shard.getShard());
+      fileSystem.delete(target, true);
+      copy(fileSystem, source, target);
+
+      val snapshotFile = new Path(target, getShardSnapshotFileName(shard.getSnapshotUuid()));
+      val baseSnapshotFile = new Path(target, getShardSnapshotFileName(base.getSnapshotUuid()));
+      checkState(fileSystem.rename(snapshotFile, baseSnapshotFile), "Failed to rename '%s' to '%s'", snapshotFile,
+          baseSnapshotFile);
+    }
+
+    fileSystem.delete(partsPath, true);
+  }
+
+  private static Path getShardPath(Path repositoryPath, String indexId, int shard) {
+    return new Path(new Path(new Path(repositoryPath, INDICES_DIR), indexId), String.valueOf(shard));
+  }
+
+  private static String getShardSnapshotFileName(String snapshotUuid) {
+    return "snap-" + snapshotUuid + ".dat";
+  }
+
+  private static void copy(FileSystem fileSystem, Path source, Path target) throws IOException {
+    checkState(FileUtil.copy(fileSystem, source, fileSystem, target, false, fileSystem.getConf()),
+        "Failed to copy '%s' to '%s'", source, target);
+  }
+
+}
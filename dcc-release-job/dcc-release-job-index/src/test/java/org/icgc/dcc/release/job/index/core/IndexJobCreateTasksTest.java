@@ -31,6 +31,7 @@ import org.icgc.dcc.release.core.document.DocumentType;
 import org.icgc.dcc.release.core.task.Task;
 import org.icgc.dcc.release.job.index.config.IndexProperties;
 import org.icgc.dcc.release.job.index.task.EsExportTask;
+import org.icgc.dcc.release.job.index.task.IncrementalIndexTask;
 import org.icgc.dcc.release.job.index.task.IndexBigFilesTask;
 import org.icgc.dcc.release.job.index.task.IndexTask;
 import org.junit.Test;
@@ -107,7 +108,7 @@ public class IndexJobCreateTasksTest {
   @Test
   public void testCreateTasks_allIndex() throws Exception {
     Map<Class<? extends Task>, Integer> expectedTasks = ImmutableMap.of(
-        IndexBigFilesTask.class, 1,
+        IndexBigFilesTask.class, DOCUMENT_TYPES.size(),
         IndexTask.class, DOCUMENT_TYPES.size());
     val properties = new IndexProperties()
         .setEsUri(ES_URI)
@@ -117,14 +118,14 @@ public class IndexJobCreateTasksTest {
 
     IndexJob job = new IndexJob(properties);
     Collection<Task> tasks = job.createTasks(INDEX_NAME, DOCUMENT_TYPES);
-    assertThat(tasks).hasSize(DOCUMENT_TYPES.size() + 1);
+    assertThat(tasks).hasSize(2 * DOCUMENT_TYPES.size());
     verifyTasksType(expectedTasks, tasks);
   }
 
   @Test
   public void testCreateTasks_allTasks() throws Exception {
     Map<Class<? extends Task>, Integer> expectedTasks = ImmutableMap.of(
-        IndexBigFilesTask.class, 1,
+        IndexBigFilesTask.class, DOCUMENT_TYPES.size(),
         EsExportTask.class, DOCUMENT_TYPE_COUNT,
         IndexTask.class, DOCUMENT_TYPES.size());
     val properties = new IndexProperties()
@@ -135,7 +136,7 @@ public class IndexJobCreateTasksTest {
 
     IndexJob job = new IndexJob(properties);
     Collection<Task> tasks = job.createTasks(INDEX_NAME, DOCUMENT_TYPES);
-    assertThat(tasks).hasSize(DOCUMENT_TYPES.size() + DOCUMENT_TYPE_COUNT + 1);
+    assertThat(tasks).hasSize(2 * DOCUMENT_TYPES.size() + DOCUMENT_TYPE_COUNT);
     verifyTasksType(expectedTasks, tasks);
   }
 
@@ -156,6 +157,45 @@ public class IndexJobCreateTasksTest {
     verifyTasksType(expectedTasks, tasks);
   }
 
+  @Test
+  public void testCreateTypeTasks_incremental() throws Exception {
+    val properties = new IndexProperties()
+        .setEsUri(ES_URI)
+        .setExportEsIndex(false)
+        .setIndexDocuments(true)
+        .setBigDocumentsOnly(false)
+        .setIncremental(true)
+        .setPreviousWorkingDir("/previous");
+
+    IndexJob job = new IndexJob(properties);
+    val typeTasks = job.createTypeTasks(INDEX_NAME, DOCUMENT_TYPES, false);
+    assertThat(typeTasks.keySet()).isEqualTo(DOCUMENT_TYPES);
+    for (val tasks : typeTasks.values()) {
+      assertThat(tasks).hasSize(1);
+      assertThat(((IncrementalIndexTask) tasks.get(0)).getPreviousWorkingDir().get()).isEqualTo("/previous");
+    }
+  }
+
+  @Test
+  public void testCreateTypeTasks_incrementalCreatedIndex() throws Exception {
+    val properties = new IndexProperties()
+        .setEsUri(ES_URI)
+        .setExportEsIndex(false)
+        .setIndexDocuments(true)
+        .setBigDocumentsOnly(false)
+        .setIncremental(true)
+        .setPreviousWorkingDir("/previous");
+
+    // A newly created index has none of the documents of the previous release, so all of them are upserted
+    IndexJob job = new IndexJob(properties);
+    val typeTasks = job.createTypeTasks(INDEX_NAME, DOCUMENT_TYPES, true);
+    assertThat(typeTasks.keySet()).isEqualTo(DOCUMENT_TYPES);
+    for (val tasks : typeTasks.values()) {
+      assertThat(tasks).hasSize(1);
+      assertThat(((IncrementalIndexTask) tasks.get(0)).getPreviousWorkingDir().isPresent()).isFalse();
+    }
+  }
+
   private static void verifyTasksType(Map<Class<? extends Task>, Integer> expectedCounts,
       Collection<? extends Task> tasks) {
     for (val entry : expectedCounts.entrySet()) {
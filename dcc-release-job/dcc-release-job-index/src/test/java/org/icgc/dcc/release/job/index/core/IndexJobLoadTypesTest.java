@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.index.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.icgc.dcc.release.core.document.DocumentType.DONOR_CENTRIC_TYPE;
+import static org.icgc.dcc.release.core.document.DocumentType.DONOR_TYPE;
+import static org.icgc.dcc.release.core.document.DocumentType.GENE_TYPE;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anySetOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.isA;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+
+import lombok.val;
+
+import org.apache.spark.api.java.JavaSparkContext;
+import org.icgc.dcc.release.core.document.DocumentType;
+import org.icgc.dcc.release.core.job.JobContext;
+import org.icgc.dcc.release.core.task.Task;
+import org.icgc.dcc.release.job.index.config.IndexProperties;
+import org.icgc.dcc.release.job.index.service.IndexService;
+import org.icgc.dcc.release.job.index.task.VerifyIndexTask;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+public class IndexJobLoadTypesTest {
+
+  private static final String ES_URI = "es://localhost:9300";
+  private static final String INDEX_NAME = "icgc21";
+  private static final List<String> PROJECT_NAMES = ImmutableList.of("BRCA-UK", "LIRI-JP", "PACA-CA");
+
+  /**
+   * Class under test.
+   */
+  IndexJob job;
+
+  /**
+   * Dependencies.
+   */
+  IndexProperties properties;
+  JobContext jobContext;
+  JavaSparkContext sparkContext;
+  IndexService indexService;
+
+  @Before
+  public void setUp() {
+    properties = new IndexProperties()
+        .setEsUri(ES_URI)
+        .setExportEsIndex(false)
+        .setIndexDocuments(true)
+        .setBigDocumentsOnly(false)
+        .setVerifyDocuments(true);
+    job = new IndexJob(properties);
+
+    sparkContext = mock(JavaSparkContext.class);
+    when(sparkContext.defaultParallelism()).thenReturn(100);
+    jobContext = mock(JobContext.class);
+    when(jobContext.getJavaSparkContext()).thenReturn(sparkContext);
+    when(jobContext.getProjectNames()).thenReturn(PROJECT_NAMES);
+    indexService = mock(IndexService.class);
+  }
+
+  @Test
+  public void testLoadTypes() {
+    val indexTask = mock(Task.class);
+    val bigFilesTask = mock(Task.class);
+    job.loadTypes(jobContext, INDEX_NAME, indexService, ImmutableMap.of(DONOR_TYPE, ImmutableList.of(indexTask,
+        bigFilesTask)), true);
+
+    // Mapping, documents, big documents and verification
+    val inOrder = inOrder(indexService, jobContext);
+    inOrder.verify(indexService).putTypeMapping(INDEX_NAME, DONOR_TYPE);
+    inOrder.verify(jobContext).execute(any(ExecutorService.class), eq(indexTask));
+    inOrder.verify(jobContext).execute(any(ExecutorService.class), eq(bigFilesTask));
+    inOrder.verify(indexService).refreshIndex(INDEX_NAME);
+    inOrder.verify(jobContext).execute(any(ExecutorService.class), isA(VerifyIndexTask.class));
+  }
+
+  @Test
+  public void testLoadTypes_withoutVerification() {
+    properties.setVerifyDocuments(false);
+    val task = mock(Task.class);
+    job.loadTypes(jobContext, INDEX_NAME, indexService, ImmutableMap.of(DONOR_TYPE, ImmutableList.of(task)), true);
+
+    verify(jobContext).execute(any(ExecutorService.class), eq(task));
+    verify(jobContext, never()).execute(any(ExecutorService.class), isA(VerifyIndexTask.class));
+    verify(indexService, never()).refreshIndex(anyString());
+  }
+
+  @Test
+  public void testLoadTypes_existingIndex() {
+    // The index is kept, so are its mappings
+    when(indexService.initializeIndex(eq(INDEX_NAME), anySetOf(DocumentType.class))).thenReturn(false);
+    val indexCreated = job.prepareIndex(INDEX_NAME, indexService, ImmutableSet.of(DONOR_TYPE));
+    assertThat(indexCreated).isFalse();
+
+    val task = mock(Task.class);
+    job.loadTypes(jobContext, INDEX_NAME, indexService, ImmutableMap.of(DONOR_TYPE, ImmutableList.of(task)),
+        job.isPutMappings(indexCreated));
+
+    verify(indexService, never()).putTypeMapping(anyString(), any(DocumentType.class));
+    verify(jobContext).execute(any(ExecutorService.class), eq(task));
+  }
+
+  @Test
+  public void testLoadTypes_createdIndex() {
+    when(indexService.initializeIndex(eq(INDEX_NAME), anySetOf(DocumentType.class))).thenReturn(true);
+    val indexCreated = job.prepareIndex(INDEX_NAME, indexService, ImmutableSet.of(DONOR_TYPE));
+    assertThat(indexCreated).isTrue();
+    assertThat(job.isPutMappings(indexCreated)).isTrue();
+
+    // An incremental index is created with all the mappings
+    properties.setIncremental(true);
+    assertThat(job.isPutMappings(indexCreated)).isFalse();
+  }
+
+  @Test(timeout = 10_000)
+  public void testLoadTypes_failure() {
+    val failedTask = mock(Task.class);
+    val blockedTask = mock(Task.class);
+    val failure = new IllegalStateException("Failed");
+    doThrow(failure).when(jobContext).execute(any(ExecutorService.class), eq(failedTask));
+
+    // Waits until cancelled
+    doAnswer(invocation -> {
+      new CountDownLatch(1).await();
+      return null;
+    }).when(jobContext).execute(any(ExecutorService.class), eq(blockedTask));
+
+    Map<DocumentType, List<Task>> typeTasks = ImmutableMap.of(
+        DONOR_TYPE, ImmutableList.of(blockedTask),
+        GENE_TYPE, ImmutableList.of(failedTask));
+    try {
+      job.loadTypes(jobContext, INDEX_NAME, indexService, typeTasks, false);
+      fail("Expected the failure of the pipeline");
+    } catch (IllegalStateException e) {
+      assertThat(e).isSameAs(failure);
+    }
+
+    verify(sparkContext).cancelAllJobs();
+  }
+
+  @Test
+  public void testGetTaskPoolSize() {
+    // A task per project for the donors, a single one for the donor-centric documents of their own parallelism and
+    // for the unpartitioned genes
+    val documentTypes = ImmutableSet.of(DONOR_TYPE, DONOR_CENTRIC_TYPE, GENE_TYPE);
+    assertThat(job.getTaskPoolSize(jobContext, documentTypes)).isEqualTo(PROJECT_NAMES.size() + 2);
+
+    // Incremental tasks are all by project for partitioned types
+    properties.setIncremental(true);
+    assertThat(job.getTaskPoolSize(jobContext, documentTypes)).isEqualTo(2 * PROJECT_NAMES.size() + 1);
+
+    // Capped at the cluster parallelism
+    when(sparkContext.defaultParallelism()).thenReturn(4);
+    assertThat(job.getTaskPoolSize(jobContext, documentTypes)).isEqualTo(4);
+  }
+
+}
@@ -45,6 +45,7 @@ import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 
 @Slf4j
@@ -67,7 +68,7 @@ public class CreateEsExportTarTest {
   public void setUp() {
     this.workingDir = tmp.newFolder("working");
     exportTarFunction =
-        new CreateEsExportTar("icgc21", workingDir.getAbsolutePath(), DONOR_TYPE.getName(), FS_SETTINGS);
+        new CreateEsExportTar("icgc21", workingDir.getAbsolutePath(), DONOR_TYPE.getName(), 1, FS_SETTINGS);
   }
 
   /**
@@ -83,7 +84,10 @@ public class CreateEsExportTarTest {
   public void testCall() throws Exception {
     val docSource = $("{_donor_id:'DO1'}");
     val doc = new Document(DONOR_TYPE, "DO1", docSource);
-    exportTarFunction.call(Collections.singleton(doc).iterator());
+    val archives = ImmutableList.copyOf(exportTarFunction.call(0, Collections.singleton(doc).iterator()));
+    assertThat(archives).hasSize(1);
+    assertThat(archives.get(0).getFileName()).isEqualTo("icgc21_donor.tar.gz");
+    assertThat(archives.get(0).getDocuments()).isEqualTo(1);
 
     @Cleanup
     val tarIn = getTarReader();
@@ -114,6 +118,23 @@ public class CreateEsExportTarTest {
     }
   }
 
+  @Test
+  public void testCallEmpty() throws Exception {
+    val archives = ImmutableList.copyOf(exportTarFunction.call(0, Collections.<Document> emptyIterator()));
+    assertThat(archives).hasSize(1);
+    assertThat(archives.get(0).getShard()).isEqualTo(0);
+    assertThat(archives.get(0).getDocuments()).isEqualTo(0);
+
+    // Only the settings and mapping
+    @Cleanup
+    val tarIn = getTarReader();
+    int entries = 0;
+    while (tarIn.getNextTarEntry() != null) {
+      entries++;
+    }
+    assertThat(entries).isEqualTo(2);
+  }
+
   private TarArchiveInputStream getTarReader() throws IOException {
     val inputFileName = Joiners.PATH.join(workingDir.getAbsolutePath(), "es_export", "icgc21_donor.tar.gz");
     val gzipIn = new GZIPInputStream(new FileInputStream(new File(inputFileName)));
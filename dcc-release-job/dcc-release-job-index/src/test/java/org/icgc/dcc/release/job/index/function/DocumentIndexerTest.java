@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.index.function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.icgc.dcc.release.core.util.Tuples.tuple;
+import static org.icgc.dcc.release.job.index.utils.IndexTasks.getBigFilesDir;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import lombok.val;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.hadoop.io.Text;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.node.Node;
+import org.icgc.dcc.release.core.document.DocumentType;
+import org.icgc.dcc.release.core.util.Configurations;
+import org.icgc.dcc.release.core.util.JacksonFactory;
+import org.icgc.dcc.release.job.index.io.BigDocumentSettings;
+import org.icgc.dcc.release.job.index.io.BulkSettings;
+import org.icgc.dcc.release.job.index.io.TransportBulkSender;
+import org.icgc.dcc.release.job.index.utils.BigDocumentContainers;
+import org.icgc.dcc.release.job.index.utils.EmbeddedNodes;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import scala.Tuple2;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Iterators;
+
+public class DocumentIndexerTest {
+
+  /**
+   * Constants.
+   */
+  private static final String ES_URI = "es://embedded";
+  private static final String INDEX_NAME = "test-index";
+  private static final DocumentType DOCUMENT_TYPE = DocumentType.DONOR_TYPE;
+  private static final BulkSettings BULK_SETTINGS = BulkSettings.builder()
+      .maxBulkBytes(1024)
+      .maxConcurrency(1)
+      .targetLatencyMs(5_000)
+      .maxRetries(0)
+      .backoffMs(0)
+      .build();
+  private static final BigDocumentSettings BIG_DOCUMENT_SETTINGS = BigDocumentSettings.builder()
+      .thresholdBytes(1_000)
+      .containerBytes(1024 * 1024)
+      .codec("default")
+      .build();
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  Node node;
+  Client client;
+  String workingDir;
+
+  @Before
+  public void setUp() throws Exception {
+    node = EmbeddedNodes.startNode(tmp.newFolder("home"), tmp.newFolder("repo"));
+    client = node.client();
+    client.admin().indices().prepareCreate(INDEX_NAME)
+        .setSettings(Settings.builder()
+            .put("index.number_of_shards", 1)
+            .put("index.number_of_replicas", 0))
+        .execute()
+        .actionGet();
+    client.admin().cluster().prepareHealth(INDEX_NAME)
+        .setWaitForGreenStatus()
+        .execute()
+        .actionGet();
+    workingDir = tmp.newFolder("working").getAbsolutePath();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    node.close();
+  }
+
+  @Test
+  public void testCall() throws Exception {
+    val smile = createDocument("DO1", 10);
+    val json = createDocument("DO2", 10);
+    val bigSmile = createDocument("DO3", 2_000);
+    val bigJson = createDocument("DO4", 2_000);
+    val documents = ImmutableList.of(
+        tuple("DO1", JacksonFactory.SMILE_WRITER.writeValueAsBytes(smile)),
+        tuple("DO2", JacksonFactory.MAPPER.writeValueAsBytes(json)),
+        tuple("DO3", JacksonFactory.SMILE_WRITER.writeValueAsBytes(bigSmile)),
+        tuple("DO4", JacksonFactory.MAPPER.writeValueAsBytes(bigJson)));
+
+    val metrics = Iterables.getOnlyElement(createIndexer().call(read(documents)));
+
+    assertThat(metrics.getDocuments()).isEqualTo(2);
+    assertThat(metrics.getBigDocuments()).isEqualTo(2);
+
+    client.admin().indices().prepareRefresh(INDEX_NAME).execute().actionGet();
+    assertThat(getSource("DO1")).isEqualTo(smile);
+    assertThat(getSource("DO2")).isEqualTo(json);
+    assertThat(getSource("DO3")).isNull();
+    assertThat(getSource("DO4")).isNull();
+
+    // The big documents are left to the big document containers
+    val containers = new File(getBigFilesDir(workingDir))
+        .listFiles((dir, name) -> name.endsWith(BigDocumentContainers.CONTAINER_EXTENSION));
+    assertThat(containers).hasSize(1);
+  }
+
+  private DocumentIndexer createIndexer() {
+    val client = this.client;
+
+    return new DocumentIndexer(
+        ES_URI,
+        DOCUMENT_TYPE,
+        Configurations.getSettings(new Configuration()),
+        workingDir,
+        BULK_SETTINGS,
+        BIG_DOCUMENT_SETTINGS,
+        () -> new TransportBulkSender(client, INDEX_NAME));
+  }
+
+  private ObjectNode getSource(String id) throws Exception {
+    val response = client.prepareGet(INDEX_NAME, DOCUMENT_TYPE.getName(), id).execute().actionGet();
+
+    return response.isExists() ? (ObjectNode) JacksonFactory.MAPPER.readTree(response.getSourceAsBytes()) : null;
+  }
+
+  /**
+   * Reuses the writables across the documents, as the record reader does.
+   */
+  private static Iterator<Tuple2<Text, BytesWritable>> read(List<Tuple2<String, byte[]>> documents) {
+    val id = new Text();
+    val source = new BytesWritable();
+
+    return Iterators.transform(documents.iterator(), document -> {
+      id.set(document._1);
+      source.set(document._2, 0, document._2.length);
+
+      return tuple(id, source);
+    });
+  }
+
+  private static ObjectNode createDocument(String id, int paddingLength) {
+    Map<String, Object> fields = ImmutableMap.of(
+        "_donor_id", id,
+        "padding", Strings.repeat("x", paddingLength),
+        "count", paddingLength);
+
+    return JacksonFactory.MAPPER.valueToTree(fields);
+  }
+
+}
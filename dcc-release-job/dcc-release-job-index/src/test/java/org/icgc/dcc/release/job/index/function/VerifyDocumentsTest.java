@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.index.function;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.icgc.dcc.release.core.document.DocumentType.DONOR_TYPE;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.hadoop.io.Text;
+import org.icgc.dcc.release.core.document.DocumentType;
+import org.icgc.dcc.release.job.index.io.SearchBackend;
+import org.icgc.dcc.release.job.index.io.SearchBackendFactory;
+import org.icgc.dcc.release.job.index.model.DocumentVerification;
+import org.icgc.dcc.release.job.index.model.SourceFilter;
+import org.icgc.dcc.release.job.index.model.VerificationReport;
+import org.icgc.dcc.release.job.index.service.IndexService;
+import org.junit.Test;
+
+import scala.Tuple2;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Maps;
+
+public class VerifyDocumentsTest {
+
+  private static final List<String> IDS = ImmutableList.of("DO1", "DO2", "DO3", "DO4");
+
+  @Test
+  public void testCallValid() throws Exception {
+    val backend = new StubSearchBackendFactory(getSources(IDS));
+    val verification = verify(IDS, 1.0, backend);
+
+    assertThat(verification.getDocuments()).isEqualTo(4);
+    assertThat(verification.getSampled()).isEqualTo(4);
+    assertThat(verification.isValid()).isTrue();
+  }
+
+  @Test
+  public void testCallInvalid() throws Exception {
+    val sources = getSources(IDS);
+    sources.remove("DO2");
+    sources.put("DO3", getSource("DO3", "changed"));
+    val verification = verify(IDS, 1.0, new StubSearchBackendFactory(sources));
+
+    assertThat(verification.getMissing()).isEqualTo(1);
+    assertThat(verification.getMismatched()).isEqualTo(1);
+    assertThat(verification.getFailedIds()).containsExactly("DO2", "DO3");
+    assertThat(verification.isValid()).isFalse();
+  }
+
+  @Test
+  public void testCallNotSampled() throws Exception {
+    val verification = verify(IDS, 0, new StubSearchBackendFactory(Maps.newHashMap()));
+
+    assertThat(verification.getDocuments()).isEqualTo(4);
+    assertThat(verification.getSampled()).isEqualTo(0);
+    assertThat(verification.isValid()).isTrue();
+  }
+
+  @Test
+  public void testChecksumOrderIndependent() throws Exception {
+    val backend = new StubSearchBackendFactory(getSources(IDS));
+    val verification = verify(IDS, 0.5, backend);
+    val reversed = verify(ImmutableList.copyOf(IDS).reverse(), 0.5, backend);
+
+    assertThat(reversed.getChecksum()).isEqualTo(verification.getChecksum());
+    assertThat(reversed.getSampled()).isEqualTo(verification.getSampled());
+  }
+
+  @Test
+  public void testReport() throws Exception {
+    val backend = new StubSearchBackendFactory(getSources(IDS));
+    val partitions = ImmutableList.of(
+        verify(IDS.subList(0, 2), 1.0, backend),
+        verify(IDS.subList(2, 4), 1.0, backend));
+
+    val report = VerificationReport.create("index", 1.0, partitions, ImmutableMap.of(DONOR_TYPE.getName(), 4L));
+    assertThat(report.isValid()).isTrue();
+    assertThat(report.getVerifications().get(DONOR_TYPE.getName()).getChecksum())
+        .isEqualTo(verify(IDS, 1.0, backend).getChecksum());
+
+    val incomplete = VerificationReport.create("index", 1.0, partitions, ImmutableMap.of(DONOR_TYPE.getName(), 3L));
+    assertThat(incomplete.isValid()).isFalse();
+  }
+
+  @Test
+  public void testCallFiltered() throws Exception {
+    // Stored as filtered by Elasticsearch, which doesn't keep the field order
+    val sources = Maps.<String, byte[]> newHashMap();
+    for (val id : IDS) {
+      sources.put(id, ("{\"field\":\"value\",\"_donor_id\":\"" + id + "\"}").getBytes(UTF_8));
+    }
+    val backend = new StubSearchBackendFactory(sources);
+    val filter = new SourceFilter(ImmutableList.of(), ImmutableList.of("secret"));
+
+    val verification = verify(IDS, 1.0, filter, backend, VerifyDocumentsTest::getSecretSource);
+    assertThat(verification.getSampled()).isEqualTo(4);
+    assertThat(verification.isValid()).isTrue();
+
+    val unfiltered = verify(IDS, 1.0, SourceFilter.NONE, backend, VerifyDocumentsTest::getSecretSource);
+    assertThat(unfiltered.getMismatched()).isEqualTo(4);
+  }
+
+  @Test
+  public void testGetSourceFilter() {
+    val filter = IndexService.getSourceFilter(DocumentType.DONOR_CENTRIC_TYPE.getName());
+    assertThat(filter.isFiltering()).isTrue();
+    assertThat(filter.getExcludes()).containsExactly("gene.*");
+
+    assertThat(IndexService.getSourceFilter(DONOR_TYPE.getName()).isFiltering()).isFalse();
+  }
+
+  private static DocumentVerification verify(List<String> ids, double samplingRate, SearchBackendFactory backend)
+      throws Exception {
+    return verify(ids, samplingRate, SourceFilter.NONE, backend, id -> getSource(id, "value"));
+  }
+
+  private static DocumentVerification verify(List<String> ids, double samplingRate, SourceFilter sourceFilter,
+      SearchBackendFactory backend, Function<String, byte[]> sources) throws Exception {
+    val function = new VerifyDocuments(DONOR_TYPE, sourceFilter, samplingRate, 3, backend);
+    val documents = ids.stream()
+        .map(id -> new Tuple2<Text, BytesWritable>(new Text(id), new BytesWritable(sources.apply(id))))
+        .iterator();
+
+    return Iterables.getOnlyElement(function.call(documents));
+  }
+
+  private static Map<String, byte[]> getSources(List<String> ids) {
+    val sources = Maps.<String, byte[]> newHashMap();
+    for (val id : ids) {
+      sources.put(id, getSource(id, "value"));
+    }
+
+    return sources;
+  }
+
+  private static byte[] getSecretSource(String id) {
+    return ("{\"_donor_id\":\"" + id + "\",\"secret\":{\"x\":1},\"field\":\"value\"}").getBytes(UTF_8);
+  }
+
+  private static byte[] getSource(String id, String value) {
+    return ("{\"_donor_id\":\"" + id + "\",\"field\":\"" + value + "\"}").getBytes(UTF_8);
+  }
+
+  @RequiredArgsConstructor
+  private static class StubSearchBackendFactory implements SearchBackendFactory {
+
+    private final Map<String, byte[]> sources;
+
+    @Override
+    public SearchBackend createBackend() {
+      return new SearchBackend() {
+
+        @Override
+        public Map<String, Long> countByType() {
+          return ImmutableMap.of(DONOR_TYPE.getName(), (long) sources.size());
+        }
+
+        @Override
+        public Map<String, byte[]> getSources(String typeName, List<String> ids) {
+          val found = Maps.<String, byte[]> newHashMap();
+          for (val id : ids) {
+            if (sources.containsKey(id)) {
+              found.put(id, sources.get(id));
+            }
+          }
+
+          return found;
+        }
+
+        @Override
+        public void close() {
+        }
+
+      };
+    }
+
+  }
+
+}
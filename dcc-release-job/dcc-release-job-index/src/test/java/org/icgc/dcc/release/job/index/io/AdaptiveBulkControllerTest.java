@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.index.io;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import lombok.val;
+
+import org.junit.Test;
+
+import com.google.common.primitives.Longs;
+
+public class AdaptiveBulkControllerTest {
+
+  private static final String ES_URI = "es://localhost:9300";
+
+  @Test
+  public void testReleaseConcurrentSlowRequests() throws Exception {
+    val controller = new AdaptiveBulkController(8, 10);
+    assertThat(controller.getLimit()).isEqualTo(4);
+
+    // All the requests in flight answer late
+    val epochs = new long[4];
+    for (int i = 0; i < epochs.length; i++) {
+      epochs[i] = controller.acquire();
+    }
+    for (val epoch : epochs) {
+      controller.release(epoch, 20, false);
+    }
+
+    // Halved once for all of them
+    assertThat(controller.getLimit()).isEqualTo(2);
+
+    // A request acquired after the decrease halves it again
+    controller.release(controller.acquire(), 0, true);
+    assertThat(controller.getLimit()).isEqualTo(1);
+  }
+
+  @Test
+  public void testReleaseSlowRequestsAcrossDecreases() throws Exception {
+    val controller = new AdaptiveBulkController(8, 10);
+    val first = controller.acquire();
+    val second = controller.acquire();
+    controller.release(first, 20, false);
+
+    // Acquired after the decrease, unlike the second one
+    val third = controller.acquire();
+    controller.release(second, 20, false);
+    controller.release(third, 20, false);
+
+    assertThat(Longs.asList(first, second, third)).containsExactly(0L, 0L, 1L);
+    assertThat(controller.getLimit()).isEqualTo(1);
+  }
+
+  @Test
+  public void testGetController() {
+    val settings = createSettings(4, 1_000);
+
+    assertThat(AdaptiveBulkController.getController(ES_URI, settings))
+        .isSameAs(AdaptiveBulkController.getController(ES_URI, createSettings(4, 1_000)))
+        .isNotSameAs(AdaptiveBulkController.getController(ES_URI, createSettings(8, 1_000)))
+        .isNotSameAs(AdaptiveBulkController.getController(ES_URI, createSettings(4, 2_000)))
+        .isNotSameAs(AdaptiveBulkController.getController("es://other:9300", settings));
+  }
+
+  private static BulkSettings createSettings(int maxConcurrency, long targetLatencyMs) {
+    return BulkSettings.builder()
+        .maxBulkBytes(1_000)
+        .maxConcurrency(maxConcurrency)
+        .targetLatencyMs(targetLatencyMs)
+        .maxRetries(0)
+        .backoffMs(0)
+        .build();
+  }
+
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.index.io;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.icgc.dcc.release.core.document.DocumentType.DONOR_TYPE;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+public class AdaptiveBulkWriterTest {
+
+  private static final int DOCUMENT_SIZE = 100;
+
+  @Test
+  public void testWriteBulkBytes() throws Exception {
+    val sender = new StubBulkSender(0, 0);
+    val writer = new AdaptiveBulkWriter(sender, new AdaptiveBulkController(4, 1_000), createSettings(350));
+
+    write(writer, "DO", 10);
+    writer.close();
+
+    // 3 documents of 100 bytes fit in 350 bytes
+    assertThat(sender.getRequestSizes()).containsExactly(3, 3, 3, 1);
+    assertThat(sender.getIds()).hasSize(10);
+    assertThat(writer.getMetrics().getDocuments()).isEqualTo(10);
+    assertThat(writer.getMetrics().getBytes()).isEqualTo(10 * DOCUMENT_SIZE);
+    assertThat(writer.getMetrics().getRequests()).isEqualTo(4);
+    assertThat(writer.getMetrics().getRejectedRequests()).isZero();
+  }
+
+  @Test
+  public void testWriteOversizedDocument() throws Exception {
+    val sender = new StubBulkSender(0, 0);
+    val writer = new AdaptiveBulkWriter(sender, new AdaptiveBulkController(4, 1_000), createSettings(50));
+
+    write(writer, "DO", 2);
+    writer.close();
+
+    assertThat(sender.getRequestSizes()).containsExactly(1, 1);
+  }
+
+  @Test
+  public void testWriteSingle() throws Exception {
+    val sender = new StubBulkSender(0, 0);
+    val writer = new AdaptiveBulkWriter(sender, new AdaptiveBulkController(4, 1_000), createSettings(1_000));
+
+    write(writer, "DO", 2);
+    writer.writeSingle("DO2", DONOR_TYPE, new byte[DOCUMENT_SIZE]);
+
+    // Sent right away, on its own
+    assertThat(sender.getRequestSizes()).containsExactly(1);
+
+    writer.close();
+    assertThat(sender.getRequestSizes()).containsExactly(1, 2);
+    assertThat(sender.getIds()).hasSize(3);
+  }
+
+  @Test
+  public void testWriteRejected() throws Exception {
+    val sender = new StubBulkSender(0, 3);
+    val controller = new AdaptiveBulkController(8, 1_000);
+    val writer = new AdaptiveBulkWriter(sender, controller, createSettings(1_000));
+
+    write(writer, "DO", 5);
+    writer.close();
+
+    // Retried until accepted
+    assertThat(sender.getIds()).hasSize(5);
+    assertThat(sender.getRequestSizes()).containsExactly(5, 5, 5, 5);
+
+    val metrics = writer.getMetrics();
+    assertThat(metrics.getDocuments()).isEqualTo(5);
+    assertThat(metrics.getRequests()).isEqualTo(4);
+    assertThat(metrics.getRejectedRequests()).isEqualTo(3);
+    assertThat(metrics.getRejectedDocuments()).isEqualTo(15);
+    assertThat(metrics.getRejectionRate()).isEqualTo(0.75);
+
+    // Halved from 4 down to 1, then increased by one
+    assertThat(controller.getLimit()).isEqualTo(2);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testWriteRejectedTooManyTimes() throws Exception {
+    val sender = new StubBulkSender(0, Integer.MAX_VALUE);
+    val writer = new AdaptiveBulkWriter(sender, new AdaptiveBulkController(8, 1_000), createSettings(1_000));
+
+    write(writer, "DO", 1);
+    writer.flush();
+  }
+
+  @Test
+  public void testControllerSlowRequests() throws Exception {
+    val sender = new StubBulkSender(20, 0);
+    val controller = new AdaptiveBulkController(8, 10);
+    val writer = new AdaptiveBulkWriter(sender, controller, createSettings(DOCUMENT_SIZE));
+
+    write(writer, "DO", 3);
+    writer.close();
+
+    assertThat(controller.getLimit()).isEqualTo(1);
+    assertThat(writer.getMetrics().getMaxLatencyMs()).isGreaterThanOrEqualTo(20);
+  }
+
+  @Test
+  public void testControllerSharedByPartitions() throws Exception {
+    val maxConcurrency = 3;
+    val sender = new StubBulkSender(5, 0);
+    val controller = new AdaptiveBulkController(maxConcurrency, 1_000);
+    val executor = Executors.newFixedThreadPool(8);
+
+    val futures = Lists.<Future<BulkMetrics>> newArrayList();
+    for (int partition = 0; partition < 8; partition++) {
+      val prefix = "P" + partition + "-";
+      futures.add(executor.submit(() -> {
+        val writer = new AdaptiveBulkWriter(sender, controller, createSettings(DOCUMENT_SIZE));
+        write(writer, prefix, 10);
+        writer.flush();
+
+        return writer.getMetrics();
+      }));
+    }
+
+    val metrics = new BulkMetrics();
+    for (val future : futures) {
+      metrics.merge(future.get());
+    }
+    executor.shutdown();
+
+    assertThat(metrics.getDocuments()).isEqualTo(80);
+    assertThat(metrics.getRequests()).isEqualTo(80);
+    assertThat(sender.getIds()).hasSize(80);
+    assertThat(sender.getMaxInFlight()).isLessThanOrEqualTo(maxConcurrency);
+    assertThat(controller.getLimit()).isEqualTo(maxConcurrency);
+  }
+
+  private static void write(AdaptiveBulkWriter writer, String prefix, int count) throws IOException {
+    for (int i = 0; i < count; i++) {
+      writer.write(prefix + i, DONOR_TYPE, new byte[DOCUMENT_SIZE]);
+    }
+  }
+
+  private static BulkSettings createSettings(long maxBulkBytes) {
+    return BulkSettings.builder()
+        .maxBulkBytes(maxBulkBytes)
+        .maxConcurrency(8)
+        .targetLatencyMs(1_000)
+        .maxRetries(5)
+        .backoffMs(1)
+        .build();
+  }
+
+  /**
+   * Stands in for the bulk endpoint, injecting latency and rejecting whole requests like an overloaded cluster
+   * answering {@code 429 Too Many Requests}.
+   */
+  @RequiredArgsConstructor
+  private static class StubBulkSender implements BulkSender {
+
+    private final long latencyMs;
+    private final int rejectedRequests;
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final List<Integer> requestSizes = new CopyOnWriteArrayList<>();
+    private final Set<String> ids = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public List<BulkItem> send(List<BulkItem> items) throws IOException {
+      val current = inFlight.incrementAndGet();
+      maxInFlight.accumulateAndGet(current, Math::max);
+      requestSizes.add(items.size());
+
+      try {
+        Thread.sleep(latencyMs);
+      } catch (InterruptedException e) {
+        throw new IOException(e);
+      } finally {
+        inFlight.decrementAndGet();
+      }
+
+      if (requests.incrementAndGet() <= rejectedRequests) {
+        return items;
+      }
+
+      for (val item : items) {
+        assertThat(ids.add(item.getId())).isTrue();
+      }
+
+      return ImmutableList.of();
+    }
+
+    public List<Integer> getRequestSizes() {
+      return requestSizes;
+    }
+
+    public Set<String> getIds() {
+      return ids;
+    }
+
+    public int getMaxInFlight() {
+      return maxInFlight.get();
+    }
+
+    @Override
+    public void close() {
+    }
+
+  }
+
+}
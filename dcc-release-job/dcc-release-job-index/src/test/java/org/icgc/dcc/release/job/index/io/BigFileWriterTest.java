@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.index.io;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.icgc.dcc.release.core.document.DocumentType.DONOR_TYPE;
+import static org.icgc.dcc.release.job.index.utils.IndexTasks.getBigFilesDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import lombok.Cleanup;
+import lombok.val;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.hadoop.io.Text;
+import org.icgc.dcc.release.core.util.Configurations;
+import org.icgc.dcc.release.job.index.model.ContainerRange;
+import org.icgc.dcc.release.job.index.utils.BigDocumentContainers;
+import org.icgc.dcc.release.job.index.utils.IndexTasks;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+public class BigFileWriterTest {
+
+  private static final int DOCUMENT_COUNT = 10;
+  private static final BigDocumentSettings SETTINGS = BigDocumentSettings.builder()
+      .thresholdBytes(0)
+      .containerBytes(1_000)
+      .codec("default")
+      .build();
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  Configuration conf;
+  String workingDir;
+
+  @Before
+  public void setUp() throws IOException {
+    conf = new Configuration();
+    workingDir = tmp.newFolder().getAbsolutePath();
+  }
+
+  @Test
+  public void testWrite() throws IOException {
+    val sources = write();
+    val containers = getContainers();
+
+    // Documents of about 250 compressed bytes, rotated at 1000 bytes
+    assertThat(containers.size()).isBetween(2, DOCUMENT_COUNT);
+    for (val container : containers) {
+      assertThat(container.getName()).startsWith(DONOR_TYPE.getName() + "_");
+      assertThat(IndexTasks.getDocumentTypeFromFileName(container.getName())).isEqualTo(DONOR_TYPE);
+    }
+
+    assertThat(read(getRanges(containers, Long.MAX_VALUE))).isEqualTo(sources);
+    assertThat(getTempFiles()).isEmpty();
+  }
+
+  @Test
+  public void testWriteIncomplete() throws IOException {
+    val writer = new BigFileWriter(workingDir, DONOR_TYPE, Configurations.getSettings(conf), SETTINGS);
+    writer.write("DO1", new BytesWritable("{\"_donor_id\":\"DO1\"}".getBytes(UTF_8)));
+
+    // Not indexed before it's closed
+    assertThat(getContainers()).isEmpty();
+    assertThat(getTempFiles()).hasSize(2);
+
+    writer.close();
+    assertThat(getContainers()).hasSize(1);
+    assertThat(getTempFiles()).isEmpty();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testUnknownCodec() {
+    BigFileWriter.getCodec(conf, "unknown");
+  }
+
+  @Test
+  public void testReadRanges() throws IOException {
+    val sources = write();
+    val containers = getContainers();
+
+    // A range per document
+    val ranges = getRanges(containers, 1);
+    assertThat(ranges).hasSize(DOCUMENT_COUNT);
+    assertThat(read(ranges)).isEqualTo(sources);
+  }
+
+  private Map<String, String> write() throws IOException {
+    val sources = ImmutableMap.<String, String> builder();
+    @Cleanup
+    val writer = new BigFileWriter(workingDir, DONOR_TYPE, Configurations.getSettings(conf), SETTINGS);
+    for (int i = 0; i < DOCUMENT_COUNT; i++) {
+      val id = "DO" + i;
+      val source = "{\"_donor_id\":\"" + id + "\",\"padding\":\"" + getPadding(i) + "\"}";
+      writer.write(id, new BytesWritable(source.getBytes(UTF_8)));
+      sources.put(id, source);
+    }
+
+    return sources.build();
+  }
+
+  /**
+   * @return 500 hex digits, not compressible much further
+   */
+  private static String getPadding(int seed) {
+    val random = new Random(seed);
+    val padding = new StringBuilder();
+    while (padding.length() < 500) {
+      padding.append(Long.toHexString(random.nextLong()));
+    }
+
+    return padding.substring(0, 500);
+  }
+
+  private List<File> getContainers() {
+    val files = new File(getBigFilesDir(workingDir))
+        .listFiles((dir, name) -> name.endsWith(BigDocumentContainers.CONTAINER_EXTENSION));
+
+    return ImmutableList.copyOf(files);
+  }
+
+  private List<File> getTempFiles() {
+    val files = new File(getBigFilesDir(workingDir))
+        .listFiles((dir, name) -> name.endsWith(BigDocumentContainers.TEMP_EXTENSION));
+
+    return ImmutableList.copyOf(files);
+  }
+
+  private List<ContainerRange> getRanges(List<File> containers, long maxRangeBytes) throws IOException {
+    val ranges = ImmutableList.<ContainerRange> builder();
+    for (val container : containers) {
+      val path = new Path(container.getAbsolutePath());
+      val offsets = BigDocumentContainers.readOffsets(conf, path);
+      ranges.addAll(BigDocumentContainers.getRanges(path.toString(), offsets, container.length(), maxRangeBytes));
+    }
+
+    return ranges.build();
+  }
+
+  private Map<String, String> read(List<ContainerRange> ranges) throws IOException {
+    val sources = ImmutableMap.<String, String> builder();
+    val id = new Text();
+    val source = new BytesWritable();
+    for (val range : ranges) {
+      @Cleanup
+      val reader = new BigDocumentContainerReader(conf, range);
+      while (reader.next(id, source)) {
+        sources.put(id.toString(), new String(source.getBytes(), 0, source.getLength(), UTF_8));
+      }
+    }
+
+    return sources.build();
+  }
+
+}
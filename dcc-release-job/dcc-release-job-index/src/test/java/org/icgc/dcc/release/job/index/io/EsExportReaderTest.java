@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.index.io;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.icgc.dcc.release.core.document.DocumentType.DONOR_TYPE;
+import static org.icgc.dcc.release.test.util.TestJsonNodes.$;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import lombok.val;
+
+import org.icgc.dcc.common.hadoop.fs.FileSystems;
+import org.icgc.dcc.release.core.document.Document;
+import org.icgc.dcc.release.core.util.Configurations;
+import org.icgc.dcc.release.job.index.function.CreateEsExportTar;
+import org.icgc.dcc.release.job.index.model.EsExportManifest;
+import org.icgc.dcc.release.job.index.model.EsExportShard;
+import org.icgc.dcc.release.job.index.utils.EsExports;
+import org.icgc.dcc.release.job.index.utils.IndexTasks;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+public class EsExportReaderTest {
+
+  private static final String INDEX_NAME = "icgc21";
+  private static final int DOCUMENT_COUNT = 1000;
+  private static final int SHARDS = 4;
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  @Test
+  public void testReadDocuments() throws Exception {
+    val fileSystem = FileSystems.getDefaultLocalFileSystem();
+    val workingDir = tmp.newFolder("working").getAbsolutePath();
+    val exportDir = IndexTasks.getEsExportPath(workingDir);
+    fileSystem.mkdirs(exportDir);
+
+    export(workingDir, Configurations.getSettings(fileSystem.getConf()));
+
+    val reader = EsExportReader.createReader(fileSystem, exportDir, INDEX_NAME, DONOR_TYPE.getName());
+    val manifest = reader.getManifest();
+    assertThat(manifest.getShards()).isEqualTo(SHARDS);
+    assertThat(manifest.getArchives()).hasSize(SHARDS);
+    assertThat(manifest.getArchives().stream().mapToLong(EsExportShard::getDocuments).sum()).isEqualTo(DOCUMENT_COUNT);
+    verifyHashRanges(manifest.getArchives());
+
+    assertThat(reader.readSettings()).isNotNull();
+    assertThat(reader.readMapping().has(DONOR_TYPE.getName())).isTrue();
+
+    val ids = Lists.<String> newArrayList();
+    val count = reader.readDocuments(document -> {
+      assertThat(document.getType()).isEqualTo(DONOR_TYPE);
+      assertThat(document.getSource()).isEqualTo(createSource(document.getId()));
+      ids.add(document.getId());
+    });
+
+    assertThat(count).isEqualTo(DOCUMENT_COUNT);
+    assertThat(ids).hasSize(DOCUMENT_COUNT);
+    assertThat((Set<String>) Sets.newHashSet(ids)).isEqualTo(createIds());
+  }
+
+  /**
+   * Mimics {@code EsExportTask} without Spark: shards the documents by ID and writes an archive per shard.
+   */
+  private static void export(String workingDir, Map<String, String> fsSettings) throws Exception {
+    val shardDocuments = ArrayListMultimap.<Integer, Document> create();
+    for (val id : createIds()) {
+      shardDocuments.put(EsExports.getShard(id, SHARDS), new Document(DONOR_TYPE, id, createSource(id)));
+    }
+
+    val exportTar = new CreateEsExportTar(INDEX_NAME, workingDir, DONOR_TYPE.getName(), SHARDS, fsSettings);
+    val archives = ImmutableList.<EsExportShard> builder();
+    for (int shard = 0; shard < SHARDS; shard++) {
+      archives.addAll(exportTar.call(shard, shardDocuments.get(shard).iterator()));
+    }
+
+    val manifest = new EsExportManifest(INDEX_NAME, DONOR_TYPE.getName(), SHARDS, archives.build());
+    EsExports.writeManifest(FileSystems.getDefaultLocalFileSystem(),
+        EsExports.getManifestPath(workingDir, INDEX_NAME, DONOR_TYPE.getName()), manifest);
+  }
+
+  private static void verifyHashRanges(List<EsExportShard> archives) {
+    long minHash = 0;
+    for (int shard = 0; shard < SHARDS; shard++) {
+      val archive = archives.get(shard);
+      assertThat(archive.getShard()).isEqualTo(shard);
+      assertThat(archive.getMinHash()).isEqualTo(minHash);
+      assertThat(archive.getMaxHash()).isGreaterThan(minHash);
+      assertThat(archive.getFileName()).isEqualTo(
+          EsExports.getArchiveName(INDEX_NAME, DONOR_TYPE.getName(), shard, SHARDS));
+
+      minHash = archive.getMaxHash();
+    }
+
+    // Full coverage of the unsigned 32-bit hash space
+    assertThat(minHash).isEqualTo(1L << 32);
+  }
+
+  private static Set<String> createIds() {
+    val ids = Sets.<String> newHashSet();
+    for (int i = 0; i < DOCUMENT_COUNT; i++) {
+      ids.add("DO" + i);
+    }
+
+    return ids;
+  }
+
+  private static ObjectNode createSource(String id) {
+    return $("{_donor_id:'" + id + "'}");
+  }
+
+}
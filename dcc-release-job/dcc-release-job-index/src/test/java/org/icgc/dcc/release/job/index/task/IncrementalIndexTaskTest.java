@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.index.task;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.hadoop.io.SequenceFile.Writer.file;
+import static org.apache.hadoop.io.SequenceFile.Writer.keyClass;
+import static org.apache.hadoop.io.SequenceFile.Writer.valueClass;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.icgc.dcc.release.core.document.DocumentType.DONOR_TYPE;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import lombok.Cleanup;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.io.Text;
+import org.icgc.dcc.release.core.job.JobType;
+import org.icgc.dcc.release.core.util.Partitions;
+import org.icgc.dcc.release.job.index.io.BigDocumentSettings;
+import org.icgc.dcc.release.job.index.io.BulkItem;
+import org.icgc.dcc.release.job.index.io.BulkSender;
+import org.icgc.dcc.release.job.index.io.BulkSenderFactory;
+import org.icgc.dcc.release.job.index.io.BulkSettings;
+import org.icgc.dcc.release.job.index.utils.IndexHashes;
+import org.icgc.dcc.release.test.job.AbstractJobTest;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+public class IncrementalIndexTaskTest extends AbstractJobTest {
+
+  private static final String PROJECT = "BRCA-UK";
+  private static final String ES_URI = "es://stub:9300";
+  private static final BulkSettings BULK_SETTINGS = BulkSettings.builder()
+      .maxBulkBytes(1024)
+      .maxConcurrency(1)
+      .targetLatencyMs(5_000)
+      .maxRetries(0)
+      .backoffMs(0)
+      .build();
+  private static final BigDocumentSettings BIG_DOCUMENT_SETTINGS = BigDocumentSettings.builder()
+      .thresholdBytes(100)
+      .containerBytes(1024 * 1024)
+      .codec("default")
+      .build();
+  private static final String BIG_VALUE = Strings.repeat("e", 200);
+
+  /**
+   * The stub indices, by index name and document ID. Shared with the senders created from the deserialized factories.
+   */
+  private static final Map<String, Map<String, String>> INDICES = new ConcurrentHashMap<>();
+
+  File previousWorkingDir;
+  File currentWorkingDir;
+
+  @Override
+  @Before
+  public void setUp() {
+    super.setUp();
+    INDICES.clear();
+    previousWorkingDir = workingDir;
+    currentWorkingDir = new File(workingDir.getParentFile(), "current");
+  }
+
+  @Test
+  public void testExecute() throws IOException {
+    // Previous release, without previous hashes
+    givenPreviousRelease("incremental");
+
+    // Current release: DO1 unchanged, DO2 changed, DO3 removed, DO4 added and DO5 added over the threshold
+    val index = getIndex("incremental");
+    index.put("DO1", "unchanged");
+    givenCurrentRelease();
+    execute("incremental", Optional.of(previousWorkingDir.getAbsolutePath()));
+
+    assertThat(index).containsOnlyKeys("DO1", "DO2", "DO4", "DO5");
+    assertThat(index.get("DO1")).isEqualTo("unchanged");
+    assertThat(index.get("DO2")).contains("b2");
+    assertThat(index.get("DO4")).contains("d");
+    assertThat(index.get("DO5")).contains(BIG_VALUE);
+    assertThat(getHashesPath(currentWorkingDir)).isDirectory();
+  }
+
+  @Test
+  public void testExecuteCreatedIndex() throws IOException {
+    givenPreviousRelease("icgc20");
+
+    // The previous hashes are ignored for a newly created index, as by the IndexJob
+    givenCurrentRelease();
+    execute("icgc21", Optional.empty());
+
+    val index = getIndex("icgc21");
+    assertThat(index).containsOnlyKeys("DO1", "DO2", "DO4", "DO5");
+    assertThat(index.get("DO1")).contains("a");
+    assertThat(index.get("DO2")).contains("b2");
+    assertThat(index.get("DO4")).contains("d");
+    assertThat(getIndex("icgc20")).containsOnlyKeys("DO1", "DO2", "DO3");
+
+    // Hashed for the next release
+    assertThat(getHashesPath(currentWorkingDir)).isDirectory();
+  }
+
+  private void givenPreviousRelease(String indexName) throws IOException {
+    givenDocuments(previousWorkingDir, ImmutableMap.of(
+        "DO1", "a",
+        "DO2", "b",
+        "DO3", "c"));
+    execute(indexName, Optional.empty());
+    assertThat(getIndex(indexName)).containsOnlyKeys("DO1", "DO2", "DO3");
+    assertThat(getHashesPath(previousWorkingDir)).isDirectory();
+  }
+
+  private void givenCurrentRelease() throws IOException {
+    workingDir = currentWorkingDir;
+    givenDocuments(currentWorkingDir, ImmutableMap.of(
+        "DO1", "a",
+        "DO2", "b2",
+        "DO4", "d",
+        "DO5", BIG_VALUE));
+  }
+
+  private void execute(String indexName, Optional<String> previousWorkingDir) {
+    val task = new IncrementalIndexTask(ES_URI, DONOR_TYPE, previousWorkingDir, BULK_SETTINGS,
+        BIG_DOCUMENT_SETTINGS, new StubBulkSenderFactory(indexName));
+    task.execute(createTaskContext(JobType.INDEX, PROJECT));
+  }
+
+  private static Map<String, String> getIndex(String indexName) {
+    return INDICES.computeIfAbsent(indexName, name -> new ConcurrentHashMap<>());
+  }
+
+  private static File getHashesPath(File workingDir) {
+    return new File(IndexHashes.getHashesPath(workingDir.getAbsolutePath(), DONOR_TYPE.getName(), Optional.of(PROJECT))
+        .toString());
+  }
+
+  private void givenDocuments(File workingDir, Map<String, String> documents) throws IOException {
+    val projectDir = new File(new File(workingDir, DONOR_TYPE.getOutputFileType().getDirName()),
+        Partitions.getPartitionName(PROJECT));
+    assertThat(projectDir.mkdirs()).isTrue();
+
+    @Cleanup
+    val writer = SequenceFile.createWriter(fileSystem.getConf(),
+        file(new Path(new File(projectDir, "part-00000").getAbsolutePath())),
+        keyClass(Text.class),
+        valueClass(BytesWritable.class));
+    for (val entry : documents.entrySet()) {
+      val source = "{\"_donor_id\":\"" + entry.getKey() + "\",\"value\":\"" + entry.getValue() + "\"}";
+      writer.append(new Text(entry.getKey()), new BytesWritable(source.getBytes(UTF_8)));
+    }
+  }
+
+  @RequiredArgsConstructor
+  private static class StubBulkSenderFactory implements BulkSenderFactory {
+
+    private final String indexName;
+
+    @Override
+    public BulkSender createSender() {
+      val index = getIndex(indexName);
+
+      return new BulkSender() {
+
+        @Override
+        public List<BulkItem> send(List<BulkItem> items) {
+          for (val item : items) {
+            if (item.isDelete()) {
+              assertThat(index.remove(item.getId())).isNotNull();
+            } else {
+              index.put(item.getId(), new String(item.getSource(), UTF_8));
+            }
+          }
+
+          return ImmutableList.of();
+        }
+
+        @Override
+        public void close() {
+        }
+
+      };
+    }
+
+  }
+
+}
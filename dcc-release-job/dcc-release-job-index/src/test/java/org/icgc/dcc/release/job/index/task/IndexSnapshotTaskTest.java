@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.index.task;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+
+import lombok.val;
+
+import org.icgc.dcc.release.core.document.DocumentType;
+import org.icgc.dcc.release.core.job.JobType;
+import org.icgc.dcc.release.job.index.io.BulkSettings;
+import org.icgc.dcc.release.job.index.utils.IndexSnapshots;
+import org.icgc.dcc.release.job.index.utils.IndexTasks;
+import org.icgc.dcc.release.test.job.AbstractJobTest;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableSet;
+
+public class IndexSnapshotTaskTest extends AbstractJobTest {
+
+  private static final int SHARDS = 3;
+  private static final BulkSettings BULK_SETTINGS = BulkSettings.builder()
+      .maxBulkBytes(1024 * 1024)
+      .maxConcurrency(1)
+      .targetLatencyMs(5_000)
+      .maxRetries(0)
+      .backoffMs(0)
+      .build();
+
+  @Test
+  public void testExecute() {
+    given(new File(INPUT_TEST_FIXTURES_DIR));
+    val indexName = IndexTasks.getIndexName(RELEASE_VERSION);
+
+    // Verifies the restored document counts
+    val task = new IndexSnapshotTask(indexName, ImmutableSet.copyOf(DocumentType.values()), SHARDS, BULK_SETTINGS,
+        true, true);
+    task.execute(createTaskContext(JobType.INDEX));
+
+    val snapshotDir = new File(IndexSnapshots.getSnapshotPath(workingDir.getAbsolutePath()).toString());
+    assertThat(new File(snapshotDir, "index-0")).exists();
+    val indexId = IndexSnapshots.getIndexId(snapshotDir);
+    for (int shard = 0; shard < SHARDS; shard++) {
+      assertThat(new File(snapshotDir, "indices/" + indexId + "/" + shard)).isDirectory();
+    }
+    assertThat(new File(IndexSnapshots.getPartsPath(workingDir.getAbsolutePath()).toString())).doesNotExist();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testExecuteWithoutTypes() {
+    val task = new IndexSnapshotTask(IndexTasks.getIndexName(RELEASE_VERSION), ImmutableSet.of(), SHARDS,
+        BULK_SETTINGS, true, true);
+    task.execute(createTaskContext(JobType.INDEX));
+  }
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.index.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+
+import lombok.val;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+public class BigFilePlannerTest {
+
+  @Test
+  public void testPlan() {
+    val fileSizes = ImmutableMap.<String, Long> builder()
+        .put("a", 10L)
+        .put("b", 8L)
+        .put("c", 7L)
+        .put("d", 5L)
+        .put("e", 4L)
+        .put("f", 2L)
+        .build();
+
+    val bins = BigFilePlanner.plan(fileSizes, 3);
+
+    assertThat(bins).containsExactly(
+        ImmutableList.of("a", "f"),
+        ImmutableList.of("b", "e"),
+        ImmutableList.of("c", "d"));
+    assertThat(getSizes(bins, fileSizes)).containsExactly(12L, 12L, 12L);
+  }
+
+  @Test
+  public void testPlanFewerFilesThanBins() {
+    val bins = BigFilePlanner.plan(ImmutableMap.of("a", 1L, "b", 2L), 10);
+
+    assertThat(bins).containsExactly(ImmutableList.of("b"), ImmutableList.of("a"));
+  }
+
+  @Test
+  public void testPlanEmpty() {
+    assertThat(BigFilePlanner.plan(ImmutableMap.<String, Long> of(), 4)).isEmpty();
+  }
+
+  @Test
+  public void testPlanDeterministic() {
+    val fileSizes = ImmutableMap.of("b", 5L, "a", 5L, "c", 5L, "d", 5L);
+
+    assertThat(BigFilePlanner.plan(fileSizes, 2)).containsExactly(
+        ImmutableList.of("a", "c"),
+        ImmutableList.of("b", "d"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testPlanNoBins() {
+    BigFilePlanner.plan(ImmutableMap.of("a", 1L), 0);
+  }
+
+  private static List<Long> getSizes(List<List<String>> bins, Map<String, Long> fileSizes) {
+    val sizes = ImmutableList.<Long> builder();
+    for (val bin : bins) {
+      sizes.add(bin.stream().mapToLong(fileSizes::get).sum());
+    }
+
+    return sizes.build();
+  }
+
+}
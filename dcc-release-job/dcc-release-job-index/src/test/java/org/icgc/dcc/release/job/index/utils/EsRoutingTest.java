@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.index.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class EsRoutingTest {
+
+  /**
+   * Reference murmur3 hashes of the UTF-16 code units, as Elasticsearch routes documents.
+   */
+  @Test
+  public void testGetHash() {
+    assertThat(EsRouting.getHash("hell")).isEqualTo(0x5a0cb7c3);
+    assertThat(EsRouting.getHash("hello")).isEqualTo(0xd7c31989);
+    assertThat(EsRouting.getHash("hello w")).isEqualTo(0x22ab2984);
+    assertThat(EsRouting.getHash("hello wo")).isEqualTo(0xdf0ca123);
+    assertThat(EsRouting.getHash("hello wor")).isEqualTo(0xe7744d61);
+    assertThat(EsRouting.getHash("The quick brown fox jumps over the lazy dog")).isEqualTo(0xe07db09c);
+    assertThat(EsRouting.getHash("The quick brown fox jumps over the lazy cog")).isEqualTo(0x4e63d2ad);
+  }
+
+  @Test
+  public void testGetShard() {
+    // Negative hashes
+    assertThat(EsRouting.getShard("hello", 30)).isEqualTo(1);
+    assertThat(EsRouting.getShard("DO1", 30)).isEqualTo(12);
+    assertThat(EsRouting.getShard("MU12345", 5)).isEqualTo(4);
+
+    // Positive hashes
+    assertThat(EsRouting.getShard("hell", 30)).isEqualTo(15);
+    assertThat(EsRouting.getShard("ENSG00000141510", 30)).isEqualTo(28);
+    assertThat(EsRouting.getShard("ENSG00000141510", 1)).isEqualTo(0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testGetShardInvalid() {
+    EsRouting.getShard("DO1", 0);
+  }
+
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.join.config;
+
+import static com.google.common.collect.Lists.newArrayList;
+
+import java.io.Serializable;
+import java.util.List;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+
+@Data
+@Accessors(chain = true)
+@NoArgsConstructor
+public class JoinProperties implements Serializable {
+
+  /**
+   * Join tasks (analysis file types) to execute. All of them are executed if empty.
+   */
+  List<String> tasks = newArrayList();
+
+  /**
+   * If 'big' tasks should be executed sequentially project-by-project. The property is useful for execution on small
+   * clusters that can't process the whole ICGC dataset.
+   */
+  boolean sequential = false;
+
+  /**
+   * Whether to delete the join output before the execution.
+   */
+  boolean clean = true;
+
+  /**
+   * Maximum number of independent join tasks executed concurrently.
+   */
+  int parallelism = 4;
+
+  /**
+   * Maximum size of a lookup file type (e.g. methylation array probes) which is broadcast to the executors. Bigger ones
+   * are joined with a sort-merge join.
+   */
+  int broadcastThresholdMb = 64;
+
+  /**
+   * Directory of the join output cache shared between releases. Projects whose inputs didn't change are restored from
+   * the cache instead of being joined. The cache is disabled if not set.
+   */
+  String cacheDir;
+
+  /**
+   * How primary files are joined with their meta files. {@code AUTO} broadcasts meta files up to
+   * {@code broadcastThresholdMb} and sort-merge joins bigger ones.
+   */
+  MetaJoinMode metaJoinMode = MetaJoinMode.AUTO;
+
+  public long getBroadcastThreshold() {
+    return broadcastThresholdMb * 1024L * 1024L;
+  }
+
+  public long getMetaBroadcastThreshold() {
+    switch (metaJoinMode) {
+    case BROADCAST:
+      return Long.MAX_VALUE;
+    case SORT_MERGE:
+      return -1L;
+    default:
+      return getBroadcastThreshold();
+    }
+  }
+
+  public static enum MetaJoinMode {
+    AUTO,
+    BROADCAST,
+    SORT_MERGE;
+  }
+
+}
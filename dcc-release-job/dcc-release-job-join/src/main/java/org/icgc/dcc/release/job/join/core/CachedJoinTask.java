@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.join.core;
+
+import java.util.Set;
+
+import lombok.NonNull;
+import lombok.val;
+
+import org.icgc.dcc.release.core.job.FileType;
+import org.icgc.dcc.release.core.task.ForwardingTask;
+import org.icgc.dcc.release.core.task.Task;
+import org.icgc.dcc.release.core.task.TaskContext;
+import org.icgc.dcc.release.core.task.TaskPriority;
+
+/**
+ * Restores the outputs of a project from the {@link JoinCache} when its inputs didn't change. Otherwise executes the
+ * delegate and stores its outputs.
+ */
+class CachedJoinTask extends ForwardingTask {
+
+  /**
+   * Dependencies.
+   */
+  private final JoinCache cache;
+
+  /**
+   * Configuration.
+   */
+  private final Set<FileType> inputFileTypes;
+  private final Set<FileType> outputFileTypes;
+
+  CachedJoinTask(@NonNull Task delegate, @NonNull JoinCache cache, @NonNull Set<FileType> inputFileTypes,
+      @NonNull Set<FileType> outputFileTypes) {
+    super(delegate);
+    this.cache = cache;
+    this.inputFileTypes = inputFileTypes;
+    this.outputFileTypes = outputFileTypes;
+  }
+
+  @Override
+  public void execute(TaskContext taskContext) {
+    val key = cache.getKey(taskContext, getName(), inputFileTypes);
+    if (cache.restore(taskContext, key, outputFileTypes)) {
+      return;
+    }
+
+    delegate.execute(taskContext);
+    cache.store(taskContext, key, outputFileTypes);
+  }
+
+  @Override
+  public TaskPriority getPriority() {
+    return delegate.getPriority();
+  }
+
+}
@@ -0,0 +1,319 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.join.core;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static java.util.Comparator.comparing;
+import static java.util.stream.Collectors.toList;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.jar.JarFile;
+
+import lombok.Cleanup;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.val;
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.FileUtil;
+import org.apache.hadoop.fs.Path;
+import org.icgc.dcc.release.core.job.FileType;
+import org.icgc.dcc.release.core.submission.SubmissionFileSchema;
+import org.icgc.dcc.release.core.submission.SubmissionFileSchemas;
+import org.icgc.dcc.release.core.task.TaskContext;
+import org.icgc.dcc.release.job.join.config.JoinProperties;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Ordering;
+import com.google.common.hash.Funnels;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+
+/**
+ * Content-addressed cache of join outputs shared between releases.
+ * <p>
+ * The outputs of a project are stored under {@code <cacheDir>/<key>/<output file type>}, where the key is a hash of the
+ * join code, the submission schemas, the join settings, the task name, the project name and the content of every input
+ * file of the project. A project whose inputs didn't change since a previous release is copied from the cache instead
+ * of being joined again.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class JoinCache {
+
+  /**
+   * Version of the join output format. The cached outputs are keyed by the compiled join code as well, so this only has
+   * to be incremented when the output changes without a code change, e.g. through a dependency.
+   */
+  public static final int VERSION = 1;
+
+  private static final String TEMP_ENTRY_PREFIX = "_tmp-";
+  private static final String CODE_PACKAGE_PATH = "org/icgc/dcc/release/";
+  private static final String CLASS_EXTENSION = ".class";
+
+  /**
+   * Digest of the compiled classes of this JVM, resolved once.
+   */
+  private static final Supplier<String> CODE_DIGEST = Suppliers.memoize(JoinCache::resolveCodeDigest);
+
+  /**
+   * Configuration.
+   */
+  @NonNull
+  private final String cacheDir;
+  @NonNull
+  private final String version;
+
+  /**
+   * @param schemas the submission schemas, which define the controlled fields masked by the join
+   */
+  public JoinCache(@NonNull String cacheDir, @NonNull SubmissionFileSchemas schemas,
+      @NonNull JoinProperties properties) {
+    this(cacheDir, resolveVersion(schemas, properties));
+  }
+
+  /**
+   * Calculates the cache key of the {@code taskName} outputs for the project of the {@code taskContext}.
+   */
+  @SneakyThrows
+  public String getKey(@NonNull TaskContext taskContext, @NonNull String taskName,
+      @NonNull Set<FileType> inputFileTypes) {
+    val hasher = Hashing.sha256().newHasher();
+    putString(hasher, version);
+    putString(hasher, taskName);
+    putString(hasher, taskContext.getProjectName().orElse(""));
+
+    val fileSystem = taskContext.getFileSystem();
+    for (val fileType : Ordering.natural().sortedCopy(inputFileTypes)) {
+      putString(hasher, fileType.getId());
+
+      val path = new Path(taskContext.getPath(fileType));
+      if (fileSystem.exists(path)) {
+        putFiles(hasher, fileSystem, path);
+      }
+    }
+
+    return hasher.hash().toString();
+  }
+
+  /**
+   * Copies the cached {@code outputFileTypes} to the working directory.
+   * 
+   * @return {@code false} if there is no cache entry for the {@code key}
+   */
+  @SneakyThrows
+  public boolean restore(@NonNull TaskContext taskContext, @NonNull String key,
+      @NonNull Set<FileType> outputFileTypes) {
+    val fileSystem = taskContext.getFileSystem();
+    val cacheFileSystem = getCacheFileSystem(taskContext);
+    val entryPath = getEntryPath(key);
+    if (!cacheFileSystem.exists(entryPath)) {
+      return false;
+    }
+
+    for (val fileType : outputFileTypes) {
+      val cachedPath = new Path(entryPath, fileType.getId());
+      if (cacheFileSystem.exists(cachedPath)) {
+        val outputPath = new Path(taskContext.getPath(fileType));
+        fileSystem.delete(outputPath, true);
+        FileUtil.copy(cacheFileSystem, cachedPath, fileSystem, outputPath, false, fileSystem.getConf());
+      }
+    }
+
+    log.info("Restored {} from cache entry '{}'", outputFileTypes, entryPath);
+
+    return true;
+  }
+
+  /**
+   * Copies the {@code outputFileTypes} from the working directory to the cache. The entry is staged under a temporary
+   * name and renamed when complete, so a partially written entry is never restored.
+   */
+  @SneakyThrows
+  public void store(@NonNull TaskContext taskContext, @NonNull String key, @NonNull Set<FileType> outputFileTypes) {
+    val fileSystem = taskContext.getFileSystem();
+    val cacheFileSystem = getCacheFileSystem(taskContext);
+    val tempPath = new Path(cacheDir, TEMP_ENTRY_PREFIX + key + "-" + UUID.randomUUID());
+    cacheFileSystem.mkdirs(tempPath);
+
+    for (val fileType : outputFileTypes) {
+      val outputPath = new Path(taskContext.getPath(fileType));
+      if (fileSystem.exists(outputPath)) {
+        val cachedPath = new Path(tempPath, fileType.getId());
+        FileUtil.copy(fileSystem, outputPath, cacheFileSystem, cachedPath, false, fileSystem.getConf());
+      }
+    }
+
+    val entryPath = getEntryPath(key);
+    if (!cacheFileSystem.rename(tempPath, entryPath)) {
+      // Stored concurrently by another task
+      cacheFileSystem.delete(tempPath, true);
+    }
+
+    log.info("Stored {} to cache entry '{}'", outputFileTypes, entryPath);
+  }
+
+  private Path getEntryPath(String key) {
+    return new Path(cacheDir, key);
+  }
+
+  private FileSystem getCacheFileSystem(TaskContext taskContext) throws IOException {
+    return new Path(cacheDir).getFileSystem(taskContext.getFileSystem().getConf());
+  }
+
+  private static void putFiles(Hasher hasher, FileSystem fileSystem, Path dir) throws IOException {
+    val dirPrefix = fileSystem.makeQualified(dir).toUri().getPath();
+    for (val file : listFiles(fileSystem, dir)) {
+      val path = file.getPath();
+      putString(hasher, path.toUri().getPath().substring(dirPrefix.length()));
+      hasher.putLong(file.getLen());
+
+      // Checksums are cheap on HDFS. Other file systems may not support them
+      val checksum = fileSystem.getFileChecksum(path);
+      if (checksum != null) {
+        hasher.putBytes(checksum.getBytes());
+      } else {
+        @Cleanup
+        val inputStream = fileSystem.open(path);
+        ByteStreams.copy(inputStream, Funnels.asOutputStream(hasher));
+      }
+    }
+  }
+
+  private static List<FileStatus> listFiles(FileSystem fileSystem, Path dir) throws IOException {
+    val result = Lists.<FileStatus> newArrayList();
+    val files = fileSystem.listFiles(dir, true);
+    while (files.hasNext()) {
+      val file = files.next();
+      if (!isHidden(file.getPath())) {
+        result.add(file);
+      }
+    }
+
+    result.sort(comparing((FileStatus file) -> file.getPath().toString()));
+
+    return result;
+  }
+
+  private static boolean isHidden(Path path) {
+    val name = path.getName();
+
+    return name.startsWith("_") || name.startsWith(".");
+  }
+
+  private static void putString(Hasher hasher, String value) {
+    hasher.putInt(value.length());
+    hasher.putString(value, UTF_8);
+  }
+
+  private static String resolveVersion(SubmissionFileSchemas schemas, JoinProperties properties) {
+    val implementationVersion = JoinCache.class.getPackage().getImplementationVersion();
+
+    return VERSION + "-" + (implementationVersion == null ? "dev" : implementationVersion) + "-" + CODE_DIGEST.get()
+        + "-" + getConfigurationDigest(schemas, properties);
+  }
+
+  /**
+   * @return digest of the submission schemas and of the join settings
+   */
+  static String getConfigurationDigest(@NonNull SubmissionFileSchemas schemas, @NonNull JoinProperties properties) {
+    val hasher = Hashing.sha256().newHasher();
+    val sortedSchemas = schemas.values().stream()
+        .sorted(comparing(SubmissionFileSchema::getName))
+        .toArray(SubmissionFileSchema[]::new);
+    for (val schema : sortedSchemas) {
+      putString(hasher, schema.getName());
+      putString(hasher, String.valueOf(schema.getPattern()));
+      for (val field : schema.getFields()) {
+        putString(hasher, field.getName());
+        putString(hasher, field.getType().name());
+        hasher.putBoolean(field.isControlled());
+        putTerms(hasher, field.getTerms());
+      }
+    }
+
+    putString(hasher, properties.getMetaJoinMode().name());
+    hasher.putLong(properties.getBroadcastThreshold());
+
+    return hasher.hash().toString();
+  }
+
+  /**
+   * Hashes the classes of the release, from the job jar or from the classes directory of a development build.
+   */
+  @SneakyThrows
+  private static String resolveCodeDigest() {
+    val hasher = Hashing.sha256().newHasher();
+    val location = new File(JoinCache.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+    if (location.isDirectory()) {
+      val root = location.toPath();
+      @Cleanup
+      val paths = Files.walk(root.resolve(CODE_PACKAGE_PATH));
+      val classFiles = paths
+          .filter(path -> path.toString().endsWith(CLASS_EXTENSION))
+          .sorted()
+          .collect(toList());
+      for (val classFile : classFiles) {
+        putString(hasher, root.relativize(classFile).toString());
+        hasher.putBytes(Files.readAllBytes(classFile));
+      }
+    } else {
+      // The CRCs are of the class contents, so rebuilding the same code doesn't change the digest
+      @Cleanup
+      val jarFile = new JarFile(location);
+      val classCrcs = Maps.<String, Long> newTreeMap();
+      jarFile.stream()
+          .filter(entry -> entry.getName().startsWith(CODE_PACKAGE_PATH) && entry.getName().endsWith(CLASS_EXTENSION))
+          .forEach(entry -> classCrcs.put(entry.getName(), entry.getCrc()));
+      for (val entry : classCrcs.entrySet()) {
+        putString(hasher, entry.getKey());
+        hasher.putLong(entry.getValue());
+      }
+    }
+
+    return hasher.hash().toString();
+  }
+
+  private static void putTerms(Hasher hasher, Map<String, String> terms) {
+    if (terms == null) {
+      hasher.putInt(-1);
+      return;
+    }
+
+    hasher.putInt(terms.size());
+    for (val term : new TreeMap<>(terms).entrySet()) {
+      putString(hasher, term.getKey());
+      putString(hasher, String.valueOf(term.getValue()));
+    }
+  }
+
+}
@@ -17,19 +17,27 @@
  */
 package org.icgc.dcc.release.job.join.core;
 
-import static com.google.common.base.Stopwatch.createStarted;
-import static java.lang.Boolean.parseBoolean;
-import static java.lang.System.getProperty;
+import static com.google.common.base.Suppliers.memoize;
 import static java.util.Collections.emptyList;
-import static org.icgc.dcc.common.core.util.Splitters.COMMA;
+import static org.icgc.dcc.release.core.job.FileType.BIOMARKER;
 import static org.icgc.dcc.release.core.job.FileType.CLINICAL;
+import static org.icgc.dcc.release.core.job.FileType.DONOR_SURROGATE_KEY;
+import static org.icgc.dcc.release.core.job.FileType.EXPOSURE;
+import static org.icgc.dcc.release.core.job.FileType.FAMILY;
+import static org.icgc.dcc.release.core.job.FileType.METH_ARRAY_PROBES;
 import static org.icgc.dcc.release.core.job.FileType.OBSERVATION;
+import static org.icgc.dcc.release.core.job.FileType.RAW_SEQUENCE_DATA;
+import static org.icgc.dcc.release.core.job.FileType.SAMPLE_SURROGATE_KEY;
+import static org.icgc.dcc.release.core.job.FileType.SPECIMEN_SURROGATE_KEY_IMAGE;
 import static org.icgc.dcc.release.core.job.FileType.SSM_P;
+import static org.icgc.dcc.release.core.job.FileType.SURGERY;
+import static org.icgc.dcc.release.core.job.FileType.THERAPY;
 
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Executors;
 import java.util.function.Predicate;
 
 import lombok.NonNull;
@@ -40,7 +48,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.spark.api.java.JavaSparkContext;
 import org.apache.spark.broadcast.Broadcast;
 import org.icgc.dcc.common.core.model.FieldNames;
-import org.icgc.dcc.common.core.util.Joiners;
 import org.icgc.dcc.common.core.util.stream.Collectors;
 import org.icgc.dcc.release.core.job.FileType;
 import org.icgc.dcc.release.core.job.GenericJob;
@@ -48,8 +55,10 @@ import org.icgc.dcc.release.core.job.JobContext;
 import org.icgc.dcc.release.core.job.JobType;
 import org.icgc.dcc.release.core.submission.SubmissionFileField;
 import org.icgc.dcc.release.core.submission.SubmissionFileSchemas;
+import org.icgc.dcc.release.core.task.ForwardingTask;
 import org.icgc.dcc.release.core.task.Task;
-import org.icgc.dcc.release.core.util.Loggers;
+import org.icgc.dcc.release.core.task.TaskContext;
+import org.icgc.dcc.release.job.join.config.JoinProperties;
 import org.icgc.dcc.release.job.join.model.DonorSample;
 import org.icgc.dcc.release.job.join.task.ClinicalJoinTask;
 import org.icgc.dcc.release.job.join.task.MethArrayJoinTask;
@@ -63,10 +72,10 @@ import org.icgc.dcc.release.job.join.task.SgvJoinTask;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Iterables;
 import com.google.common.collect.Sets;
 
 @Slf4j
@@ -81,6 +90,8 @@ public class JoinJob extends GenericJob {
   private final SubmissionFileSchemas schemas;
   @NonNull
   private final JavaSparkContext sparkContext;
+  @NonNull
+  private final JoinProperties properties;
 
   private static final Set<FileType> ANALYSIS_FILE_TYPES = ImmutableSet.of(
       FileType.MIRNA_SEQ,
@@ -96,21 +107,9 @@ public class JoinJob extends GenericJob {
       FileType.SGV);
 
   /**
-   * Valid tasks the Join Job can execute
+   * Input file types of the {@link ClinicalJoinTask}. Meta file types are read to resolve raw sequence data.
    */
-  private static final String VALID_TASKS = Joiners.COMMA.join(ANALYSIS_FILE_TYPES);
-
-  /**
-   * A comma-separated list of join tasks(file types) to execute.
-   */
-  private static final String EXECUTE_TASKS_PROPERTY = "joinjob.tasks";
-
-  /**
-   * If 'big' tasks should be executed sequentially project-by-project. The property is useful for execution on small
-   * clusters that can't process the whole ICGC dataset.
-   */
-  private static final String SEQUENTIAL_PROPERTY = "joinjob.sequential";
-  private static final String CLEAN_PROPERTY = "joinjob.clean";
+  private static final Set<FileType> CLINICAL_INPUT_FILE_TYPES = resolveClinicalInputFileTypes();
 
   /**
    * Helps to define what dependencies the task requires.
@@ -147,82 +146,114 @@ public class JoinJob extends GenericJob {
   }
 
   private void clean(JobContext jobContext) {
-    if (isClean()) {
+    if (properties.isClean()) {
       delete(jobContext, getDeleteFileTypes());
     }
   }
 
   private void join(JobContext jobContext) {
-    val resolveRawSequenceDataTask = new ResolveRawSequenceDataTask();
-    jobContext.execute(resolveRawSequenceDataTask);
-    val rawSequenceDataBroadcast = createBroadcast(resolveRawSequenceDataTask.getProjectRawSequenceData());
-    jobContext.execute(new ClinicalJoinTask(rawSequenceDataBroadcast));
+    val graph = createTaskGraph(jobContext);
+    val executor = Executors.newFixedThreadPool(properties.getParallelism());
+    try {
+      graph.execute(jobContext, executor);
+    } finally {
+      executor.shutdown();
+    }
+  }
 
-    // Discard the broadcast
-    rawSequenceDataBroadcast.destroy(false);
+  JoinTaskGraph createTaskGraph(JobContext jobContext) {
+    val graph = new JoinTaskGraph();
+    graph.add(CLINICAL.getId(), CLINICAL_INPUT_FILE_TYPES, ImmutableSet.of(CLINICAL), this::joinClinical);
 
     // Find which types to join if command arguments where provided
     val executeFileTypes = resolveExecuteFileTypes();
-
     if (executeFileTypes.isEmpty()) {
-      return;
+      return graph;
     }
 
-    // Resolve reference data required downstream
-    val resolveDonorSamplesTask = new ResolveDonorSamplesTask();
-    val resolveSampleIds = new ResolveSampleSurrogateSampleIds();
-    jobContext.execute(resolveDonorSamplesTask);
-    val donorSamples = createBroadcast(resolveDonorSamplesTask.getProjectDonorSamples());
+    // Reference data required downstream. Resolved once by the first task which requires it
+    Supplier<Broadcast<Map<String, Map<String, DonorSample>>>> donorSamples =
+        memoize(() -> resolveDonorSamples(jobContext));
+    Supplier<Broadcast<Map<String, Map<String, String>>>> sampleSurrogateSampleIds =
+        memoize(() -> resolveSampleSurrogateSampleIds(jobContext));
+
+    for (val executeFileType : executeFileTypes) {
+      val outputFileType = resolveOutputFileType(executeFileType);
+      val inputFileTypes = resolveInputFileTypes(executeFileType);
+      val outputFileTypes = resolveOutputFileTypes(executeFileType);
+      graph.add(
+          outputFileType.getId(),
+          inputFileTypes,
+          outputFileTypes,
+          context -> executeTask(context, createTask(executeFileType, donorSamples, sampleSurrogateSampleIds),
+              inputFileTypes, outputFileTypes));
+    }
 
-    // Create and execute join tasks
-    val tasks = createTasks(jobContext, executeFileTypes, resolveSampleIds, donorSamples);
-    executeTasks(jobContext, tasks);
+    return graph;
   }
 
-  private static void executeTasks(JobContext jobContext, List<Task> tasks) {
-    val totalTasks = tasks.size();
-    int currentTaskId = 1;
-    val watches = createStarted();
-    for (val task : tasks) {
-      Loggers.logWithHeader("[{}/{}] Joining '{}'", currentTaskId, totalTasks, task.getName());
-      watches.reset().start();
-      if (isBigTask(task)) {
-        jobContext.executeSequentially(task);
-      } else {
-        jobContext.execute(task);
+  private void joinClinical(JobContext jobContext) {
+    val resolveRawSequenceDataTask = new ResolveRawSequenceDataTask();
+    val clinicalJoinTask = new ClinicalJoinTask(resolveRawSequenceDataTask.getProjectRawSequenceDataFiles());
+
+    // The raw sequence data of a project is only resolved when its clinical join isn't restored from the cache
+    val task = new ForwardingTask(clinicalJoinTask) {
+
+      @Override
+      public void execute(TaskContext taskContext) {
+        resolveRawSequenceDataTask.execute(taskContext);
+        delegate.execute(taskContext);
       }
-      Loggers.logWithHeader("[{}/{}] Finished executing '{}' in {}", currentTaskId++, totalTasks, task.getName(),
-          watches);
-    }
+
+    };
+    jobContext.execute(withCache(task, CLINICAL_INPUT_FILE_TYPES, ImmutableSet.of(CLINICAL)));
   }
 
-  private static boolean isBigTask(Task task) {
-    val sequential = Boolean.valueOf(getProperty(SEQUENTIAL_PROPERTY, "false"));
+  private Broadcast<Map<String, Map<String, DonorSample>>> resolveDonorSamples(JobContext jobContext) {
+    val resolveDonorSamplesTask = new ResolveDonorSamplesTask();
+    jobContext.execute(resolveDonorSamplesTask);
 
-    return sequential && (task instanceof ObservationJoinTask || task instanceof SgvJoinTask);
+    return createBroadcast(resolveDonorSamplesTask.getProjectDonorSamples());
   }
 
-  private List<Task> createTasks(JobContext jobContext, List<FileType> executeFileTypes,
-      ResolveSampleSurrogateSampleIds resolveSampleIds,
-      Broadcast<Map<String, Map<String, DonorSample>>> donorSamples) {
-    val tasks = ImmutableList.<Task> builder();
+  private Broadcast<Map<String, Map<String, String>>> resolveSampleSurrogateSampleIds(JobContext jobContext) {
+    val resolveSampleIds = new ResolveSampleSurrogateSampleIds();
+    jobContext.execute(resolveSampleIds);
 
-    boolean hasResolvedSamples = false;
-    for (val executeFileType : executeFileTypes) {
-      if (isPrimaryTask(executeFileType)) {
-        tasks.add(createPrimaryTask(executeFileType, donorSamples));
+    return createBroadcast(resolveSampleIds.getSampleSurrogateSampleId());
+  }
+
+  private void executeTask(JobContext jobContext, Task task, Set<FileType> inputFileTypes,
+      Set<FileType> outputFileTypes) {
+    val cachedTask = withCache(task, inputFileTypes, outputFileTypes);
+    if (isBigTask(task)) {
+      jobContext.executeSequentially(cachedTask);
+    } else {
+      jobContext.execute(cachedTask);
+    }
+  }
 
-      } else {
-        if (!hasResolvedSamples) {
-          jobContext.execute(resolveSampleIds);
-        }
+  private Task withCache(Task task, Set<FileType> inputFileTypes, Set<FileType> outputFileTypes) {
+    val cacheDir = properties.getCacheDir();
+    if (cacheDir == null) {
+      return task;
+    }
 
-        val sampleSurrogateSampleIds = createBroadcast(resolveSampleIds.getSampleSurrogateSampleId());
-        tasks.add(createSecondaryTask(executeFileType, donorSamples, sampleSurrogateSampleIds));
-      }
+    return new CachedJoinTask(task, new JoinCache(cacheDir, schemas, properties), inputFileTypes, outputFileTypes);
+  }
+
+  private boolean isBigTask(Task task) {
+    return properties.isSequential() && (task instanceof ObservationJoinTask || task instanceof SgvJoinTask);
+  }
+
+  private Task createTask(FileType executeFileType,
+      Supplier<Broadcast<Map<String, Map<String, DonorSample>>>> donorSamples,
+      Supplier<Broadcast<Map<String, Map<String, String>>>> sampleSurrogateSampleIds) {
+    if (isPrimaryTask(executeFileType)) {
+      return createPrimaryTask(executeFileType, donorSamples.get());
     }
 
-    return tasks.build();
+    return createSecondaryTask(executeFileType, donorSamples.get(), sampleSurrogateSampleIds.get());
   }
 
   private Task createSecondaryTask(FileType executeFileType,
@@ -232,10 +263,11 @@ public class JoinJob extends GenericJob {
     case SSM_P:
       return new ObservationJoinTask(donorSamples, sampleSurrogateSampleIds, resolveControlledFields());
     case SGV_P:
-      return new SgvJoinTask(donorSamples, sampleSurrogateSampleIds);
+      return new SgvJoinTask(donorSamples, sampleSurrogateSampleIds, properties.getMetaBroadcastThreshold());
       // return new SecondaryJoinTask(donorSamples, sampleSurrogateSampleIds, FileType.SGV_P_MASKED);
     default:
-      return new SecondaryJoinTask(donorSamples, sampleSurrogateSampleIds, executeFileType);
+      return new SecondaryJoinTask(donorSamples, sampleSurrogateSampleIds, executeFileType,
+          properties.getMetaBroadcastThreshold());
     }
   }
 
@@ -255,13 +287,14 @@ public class JoinJob extends GenericJob {
         && !field.getName().equals(FieldNames.SubmissionFieldNames.SUBMISSION_OBSERVATION_MUTATED_FROM_ALLELE);
   }
 
-  private static Task createPrimaryTask(FileType executeFileType,
+  private Task createPrimaryTask(FileType executeFileType,
       Broadcast<Map<String, Map<String, DonorSample>>> donorSamples) {
     if (executeFileType == FileType.METH_ARRAY_P) {
-      return new MethArrayJoinTask(donorSamples);
+      return new MethArrayJoinTask(donorSamples, properties.getMetaBroadcastThreshold(),
+          properties.getBroadcastThreshold());
     }
 
-    return new PrimaryMetaJoinTask(donorSamples, executeFileType);
+    return new PrimaryMetaJoinTask(donorSamples, executeFileType, properties.getMetaBroadcastThreshold());
   }
 
   private static boolean isPrimaryTask(FileType executeFileType) {
@@ -270,11 +303,56 @@ public class JoinJob extends GenericJob {
     return taskType == TaskType.PRIMARY;
   }
 
-  private static List<FileType> resolveExecuteFileTypes() {
-    val tasksProperty = getProperty(EXECUTE_TASKS_PROPERTY, VALID_TASKS);
-    log.info("Requested join tasks: {}", tasksProperty);
-    val tasks = COMMA.split(tasksProperty);
-    if (Iterables.size(tasks) == 1 && Iterables.contains(tasks, CLINICAL.getId())) {
+  /**
+   * Resolves file types read by a join task. Every task depends on the {@link FileType#CLINICAL} output to resolve
+   * donor samples.
+   */
+  private static Set<FileType> resolveInputFileTypes(FileType executeFileType) {
+    val result = ImmutableSet.<FileType> builder()
+        .add(CLINICAL)
+        .add(resolveFileType(executeFileType, "_M"));
+
+    switch (executeFileType) {
+    case SSM_P:
+      result.add(FileType.SSM_P_MASKED_SURROGATE_KEY);
+      break;
+    case SGV_P:
+      result.add(FileType.SGV_P_MASKED);
+      break;
+    case METH_ARRAY_P:
+      result.add(executeFileType, METH_ARRAY_PROBES);
+      break;
+    default:
+      result.add(executeFileType);
+    }
+
+    if (!isPrimaryTask(executeFileType)) {
+      result.add(resolveFileType(executeFileType, "_S"), SAMPLE_SURROGATE_KEY);
+    }
+
+    return result.build();
+  }
+
+  private static Set<FileType> resolveOutputFileTypes(FileType executeFileType) {
+    val outputFileType = resolveOutputFileType(executeFileType);
+
+    return executeFileType == SSM_P ? ImmutableSet.of(outputFileType, OBSERVATION) : ImmutableSet.of(outputFileType);
+  }
+
+  private static FileType resolveOutputFileType(FileType executeFileType) {
+    return resolveFileType(executeFileType, "");
+  }
+
+  private static FileType resolveFileType(FileType executeFileType, String suffix) {
+    return FileType.getFileType(executeFileType.name().replaceAll("_P$", suffix));
+  }
+
+  private List<FileType> resolveExecuteFileTypes() {
+    val tasks = properties.getTasks().isEmpty() ?
+        ANALYSIS_FILE_TYPES.stream().map(FileType::getId).collect(Collectors.toImmutableList()) :
+        properties.getTasks();
+    log.info("Requested join tasks: {}", tasks);
+    if (tasks.size() == 1 && tasks.contains(CLINICAL.getId())) {
       return emptyList();
     }
 
@@ -301,9 +379,23 @@ public class JoinJob extends GenericJob {
     }
   }
 
+  private static Set<FileType> resolveClinicalInputFileTypes() {
+    val result = ImmutableSet.<FileType> builder()
+        .add(DONOR_SURROGATE_KEY, SPECIMEN_SURROGATE_KEY_IMAGE, SAMPLE_SURROGATE_KEY)
+        .add(THERAPY, FAMILY, EXPOSURE, BIOMARKER, SURGERY);
+    for (val fileType : FileType.values()) {
+      if (fileType.isMetaFileType()) {
+        result.add(fileType);
+      }
+    }
+
+    return result.build();
+  }
+
   private static FileType[] getDeleteFileTypes() {
     val result = Sets.newHashSet(ANALYSIS_FILE_TYPES);
     result.add(CLINICAL);
+    result.add(RAW_SEQUENCE_DATA);
     result.add(OBSERVATION);
 
     return result.toArray(new FileType[result.size()]);
@@ -313,14 +405,4 @@ public class JoinJob extends GenericJob {
     return sparkContext.broadcast(value);
   }
 
-  private static boolean isClean() {
-    val cleanProperty = getProperty(CLEAN_PROPERTY, "true");
-    boolean clean = true;
-    try {
-      clean = parseBoolean(cleanProperty);
-    } catch (Exception e) {
-    }
-
-    return clean;
-  }
 }
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.join.core;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.base.Stopwatch.createStarted;
+import static com.google.common.base.Throwables.propagate;
+import static org.icgc.dcc.common.core.util.stream.Collectors.toImmutableSet;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+
+import lombok.NonNull;
+import lombok.Value;
+import lombok.val;
+import lombok.extern.slf4j.Slf4j;
+
+import org.icgc.dcc.release.core.job.FileType;
+import org.icgc.dcc.release.core.job.JobContext;
+import org.icgc.dcc.release.core.util.Loggers;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * Dependency graph of the join tasks.
+ * <p>
+ * Each node declares the {@link FileType}s it reads and writes. A node depends on every other node which writes one of
+ * its inputs. Input file types not written by any node (e.g. the stage job output) are considered available. Independent
+ * branches of the graph are executed concurrently.
+ */
+@Slf4j
+public class JoinTaskGraph {
+
+  /**
+   * State.
+   */
+  private final Map<String, Node> nodes = Maps.newLinkedHashMap();
+
+  public JoinTaskGraph add(@NonNull String name, @NonNull Set<FileType> inputs, @NonNull Set<FileType> outputs,
+      @NonNull Consumer<JobContext> action) {
+    checkArgument(!nodes.containsKey(name), "Join task '%s' is already defined", name);
+    nodes.put(name, new Node(name, ImmutableSet.copyOf(inputs), ImmutableSet.copyOf(outputs), action));
+
+    return this;
+  }
+
+  public Set<String> getDependencies(@NonNull String name) {
+    val node = getNode(name);
+
+    return nodes.values().stream()
+        .filter(other -> other != node && !Sets.intersection(other.getOutputs(), node.getInputs()).isEmpty())
+        .map(Node::getName)
+        .collect(toImmutableSet());
+  }
+
+  /**
+   * @return node names in an order where every node follows its dependencies
+   */
+  public List<String> getExecutionOrder() {
+    val result = ImmutableList.<String> builder();
+    val pending = Lists.newArrayList(nodes.keySet());
+    val completed = Sets.<String> newHashSet();
+
+    while (!pending.isEmpty()) {
+      val ready = pending.stream()
+          .filter(name -> completed.containsAll(getDependencies(name)))
+          .collect(toImmutableSet());
+      checkState(!ready.isEmpty(), "Cyclic dependencies between join tasks %s", pending);
+
+      // Keep the declaration order for the nodes of the same level
+      for (val name : nodes.keySet()) {
+        if (ready.contains(name)) {
+          result.add(name);
+        }
+      }
+
+      pending.removeAll(ready);
+      completed.addAll(ready);
+    }
+
+    return result.build();
+  }
+
+  /**
+   * Executes the graph. A node is started on the {@code executor} as soon as all its dependencies have completed. A
+   * failed node prevents execution of its dependents.
+   */
+  public void execute(@NonNull JobContext jobContext, @NonNull ExecutorService executor) {
+    val executionOrder = getExecutionOrder();
+    val totalTasks = executionOrder.size();
+    val futures = Maps.<String, CompletableFuture<Void>> newHashMap();
+
+    int currentTaskId = 1;
+    for (val name : executionOrder) {
+      val node = getNode(name);
+      val taskId = currentTaskId++;
+      val dependencies = getDependencies(name).stream()
+          .map(futures::get)
+          .toArray(CompletableFuture[]::new);
+
+      val future = CompletableFuture.allOf(dependencies)
+          .thenRunAsync(() -> execute(jobContext, node, taskId, totalTasks), executor);
+      futures.put(name, future);
+    }
+
+    await(futures.values());
+  }
+
+  private static void execute(JobContext jobContext, Node node, int taskId, int totalTasks) {
+    val watch = createStarted();
+    Loggers.logWithHeader("[{}/{}] Joining '{}'", taskId, totalTasks, node.getName());
+    node.getAction().accept(jobContext);
+    Loggers.logWithHeader("[{}/{}] Finished executing '{}' in {}", taskId, totalTasks, node.getName(), watch);
+  }
+
+  private static void await(Iterable<CompletableFuture<Void>> futures) {
+    try {
+      CompletableFuture.allOf(Iterables.toArray(futures, CompletableFuture.class)).join();
+    } catch (CompletionException e) {
+      log.error("Aborting join task(s) executions due to exception...", e.getCause());
+      propagate(e.getCause());
+    }
+  }
+
+  private Node getNode(String name) {
+    val node = nodes.get(name);
+    checkArgument(node != null, "Unknown join task '%s'", name);
+
+    return node;
+  }
+
+  @Value
+  private static class Node {
+
+    String name;
+    Set<FileType> inputs;
+    Set<FileType> outputs;
+    Consumer<JobContext> action;
+
+  }
+
+}
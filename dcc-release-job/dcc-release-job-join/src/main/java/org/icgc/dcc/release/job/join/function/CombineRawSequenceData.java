@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2015 The Ontario Institute for Cancer Research. All rights reserved.                             
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
  *                                                                                                               
  * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
  * You should have received a copy of the GNU General Public License along with                                  
@@ -19,52 +19,73 @@ package org.icgc.dcc.release.job.join.function;
 
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Strings.isNullOrEmpty;
-import static lombok.AccessLevel.PRIVATE;
+import static org.icgc.dcc.common.core.model.FieldNames.SEQUENCE_DATA_LIBRARY_STRATEGY;
+import static org.icgc.dcc.common.core.model.FieldNames.SEQUENCE_DATA_REPOSITORY;
 import static org.icgc.dcc.common.core.model.FieldNames.LoaderFieldNames.AVAILABLE_RAW_SEQUENCE_DATA;
 import static org.icgc.dcc.common.core.model.FieldNames.SubmissionFieldNames.SUBMISSION_ANALYZED_SAMPLE_ID;
+import static org.icgc.dcc.common.core.model.FieldNames.SubmissionFieldNames.SUBMISSION_OBSERVATION_RAW_DATA_ACCESSION;
 import static org.icgc.dcc.release.core.util.ObjectNodes.textValue;
-import static org.icgc.dcc.release.core.util.Tuples.tuple;
-import static org.icgc.dcc.release.job.join.utils.JsonNodes.populateArrayNode;
-import lombok.NoArgsConstructor;
+
+import java.io.File;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
 import lombok.val;
-import scala.Tuple2;
+
+import org.apache.spark.SparkFiles;
+import org.apache.spark.api.java.function.Function;
+import org.icgc.dcc.release.job.join.model.RawSequenceDataTable;
 
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import com.google.common.base.Optional;
 
-@NoArgsConstructor(access = PRIVATE)
-public final class CombineSampleFunctions {
+/**
+ * Populates {@code available_raw_sequence_data} of a sample from a {@link RawSequenceDataTable} distributed with
+ * {@code SparkContext.addFile()}.
+ */
+@RequiredArgsConstructor
+public final class CombineRawSequenceData implements Function<ObjectNode, ObjectNode> {
 
-  public static Tuple2<String, ObjectNode> pairSampleId(ObjectNode node) {
-    return tuple(getSampleId(node), node);
-  }
+  /**
+   * Configuration.
+   */
+  @NonNull
+  private final String tableFileName;
 
-  public static ObjectNode combineSample(Tuple2<String, Tuple2<ObjectNode, Optional<Iterable<ObjectNode>>>> tuple) {
-    val sample = tuple._2._1;
-    val rawSeqData = tuple._2._2;
+  /**
+   * State.
+   */
+  private transient RawSequenceDataTable table;
 
-    val rawSeqDataArray = sample.withArray(AVAILABLE_RAW_SEQUENCE_DATA);
-    if (rawSeqData.isPresent()) {
-      populateArrayNode(rawSeqDataArray, rawSeqData.get(), CombineSampleFunctions::trimRawSequenceData);
+  @Override
+  public ObjectNode call(ObjectNode sample) throws Exception {
+    val sampleId = textValue(sample, SUBMISSION_ANALYZED_SAMPLE_ID);
+    checkState(!isNullOrEmpty(sampleId), "Failed to resolve %s for %s", SUBMISSION_ANALYZED_SAMPLE_ID, sample);
+
+    val rawSequenceDataArray = sample.withArray(AVAILABLE_RAW_SEQUENCE_DATA);
+    for (val rawSequenceData : getTable().get(sampleId)) {
+      val element = rawSequenceDataArray.addObject();
+      setText(element, SUBMISSION_OBSERVATION_RAW_DATA_ACCESSION, rawSequenceData.getRawDataAccession());
+      setText(element, SEQUENCE_DATA_REPOSITORY, rawSequenceData.getRepository());
+      setText(element, SEQUENCE_DATA_LIBRARY_STRATEGY, rawSequenceData.getLibraryStrategy());
     }
 
     return sample;
   }
 
-  public static String extractSampleId(ObjectNode node) {
-    return getSampleId(node);
-  }
+  private RawSequenceDataTable getTable() {
+    if (table == null) {
+      table = RawSequenceDataTable.open(new File(SparkFiles.get(tableFileName)));
+    }
 
-  private static String getSampleId(ObjectNode node) {
-    val sampleId = textValue(node, SUBMISSION_ANALYZED_SAMPLE_ID);
-    checkState(!isNullOrEmpty(sampleId), "Failed to resolve %s for %s", SUBMISSION_ANALYZED_SAMPLE_ID, node);
-    return sampleId;
+    return table;
   }
 
-  private static ObjectNode trimRawSequenceData(ObjectNode node) {
-    node.remove(SUBMISSION_ANALYZED_SAMPLE_ID);
-
-    return node;
+  private static void setText(ObjectNode node, String fieldName, String value) {
+    if (value == null) {
+      node.putNull(fieldName);
+    } else {
+      node.put(fieldName, value);
+    }
   }
 
 }
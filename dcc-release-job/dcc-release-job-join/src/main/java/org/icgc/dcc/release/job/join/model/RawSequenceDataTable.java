@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.join.model;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.util.Comparator.comparing;
+import static lombok.AccessLevel.PRIVATE;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import lombok.Cleanup;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.val;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Read-only lookup table of {@link RawSequenceData} by analyzed sample id.
+ * <p>
+ * The table is built on the driver and written once to a file. Strings are de-duplicated into a pool and entries
+ * reference them by index, so the file is read through a memory mapping without any deserialization. Layout:
+ * 
+ * <pre>
+ * int    entry count
+ * int    string count
+ * int[]  4 string indices per entry (sample id, accession, repository, library strategy), ordered by sample id
+ * int[]  string count + 1 offsets into the string data
+ * byte[] UTF-8 string data
+ * </pre>
+ */
+@RequiredArgsConstructor(access = PRIVATE)
+public final class RawSequenceDataTable {
+
+  /**
+   * Constants.
+   */
+  private static final int FIELD_COUNT = 4;
+  private static final int NULL_INDEX = -1;
+  private static final int HEADER_SIZE = 2 * Integer.BYTES;
+
+  /**
+   * Tables opened by this JVM keyed by their absolute path, length and modification time, so that a file rewritten at
+   * the same path is mapped again. Weakly held, so that a mapping is released once the tasks using it are done instead
+   * of living as long as the executor.
+   */
+  private static final Cache<String, RawSequenceDataTable> TABLES = CacheBuilder.newBuilder()
+      .weakValues()
+      .build();
+
+  /**
+   * State.
+   */
+  @NonNull
+  private final ByteBuffer buffer;
+  private final int entryCount;
+  private final int offsetsPosition;
+  private final int dataPosition;
+
+  public static void write(@NonNull Collection<RawSequenceData> rawSequenceData, @NonNull OutputStream outputStream)
+      throws IOException {
+    val entries = rawSequenceData.stream()
+        .distinct()
+        .sorted(comparing(RawSequenceData::getSampleId))
+        .toArray(RawSequenceData[]::new);
+
+    val pool = Maps.<String, Integer> newLinkedHashMap();
+    val indices = new int[entries.length * FIELD_COUNT];
+    int i = 0;
+    for (val entry : entries) {
+      indices[i++] = intern(pool, entry.getSampleId());
+      indices[i++] = intern(pool, entry.getRawDataAccession());
+      indices[i++] = intern(pool, entry.getRepository());
+      indices[i++] = intern(pool, entry.getLibraryStrategy());
+    }
+
+    val out = new DataOutputStream(outputStream);
+    out.writeInt(entries.length);
+    out.writeInt(pool.size());
+    for (val index : indices) {
+      out.writeInt(index);
+    }
+
+    val strings = Lists.<byte[]> newArrayListWithCapacity(pool.size());
+    int offset = 0;
+    out.writeInt(offset);
+    for (val value : pool.keySet()) {
+      val bytes = value.getBytes(UTF_8);
+      strings.add(bytes);
+      offset += bytes.length;
+      out.writeInt(offset);
+    }
+
+    for (val bytes : strings) {
+      out.write(bytes);
+    }
+
+    out.flush();
+  }
+
+  /**
+   * Memory-maps the table at {@code file}. Subsequent calls for the same, unchanged file return the already mapped
+   * table while it's in use.
+   */
+  @SneakyThrows
+  public static RawSequenceDataTable open(@NonNull File file) {
+    val key = file.getAbsolutePath() + ":" + file.length() + ":" + file.lastModified();
+
+    return TABLES.get(key, () -> map(file));
+  }
+
+  public List<RawSequenceData> get(@NonNull String sampleId) {
+    // Lower bound of the sample id
+    int low = 0;
+    int high = entryCount;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (getField(middle, 0).compareTo(sampleId) < 0) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+
+    val result = ImmutableList.<RawSequenceData> builder();
+    for (int entry = low; entry < entryCount && getField(entry, 0).equals(sampleId); entry++) {
+      result.add(new RawSequenceData(sampleId, getField(entry, 1), getField(entry, 2), getField(entry, 3)));
+    }
+
+    return result.build();
+  }
+
+  public int size() {
+    return entryCount;
+  }
+
+  private String getField(int entry, int field) {
+    val index = buffer.getInt(HEADER_SIZE + (entry * FIELD_COUNT + field) * Integer.BYTES);
+
+    return index == NULL_INDEX ? null : getString(index);
+  }
+
+  private String getString(int index) {
+    val start = buffer.getInt(offsetsPosition + index * Integer.BYTES);
+    val end = buffer.getInt(offsetsPosition + (index + 1) * Integer.BYTES);
+    val bytes = new byte[end - start];
+
+    // Duplicate to keep lookups thread-safe
+    val data = buffer.duplicate();
+    data.position(dataPosition + start);
+    data.get(bytes);
+
+    return new String(bytes, UTF_8);
+  }
+
+  private static int intern(Map<String, Integer> pool, String value) {
+    if (value == null) {
+      return NULL_INDEX;
+    }
+
+    return pool.computeIfAbsent(value, key -> pool.size());
+  }
+
+  @SneakyThrows
+  private static RawSequenceDataTable map(File file) {
+    @Cleanup
+    val channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+    val buffer = channel.map(READ_ONLY, 0, channel.size());
+    val entryCount = buffer.getInt(0);
+    val stringCount = buffer.getInt(Integer.BYTES);
+    val offsetsPosition = HEADER_SIZE + entryCount * FIELD_COUNT * Integer.BYTES;
+    val dataPosition = offsetsPosition + (stringCount + 1) * Integer.BYTES;
+
+    return new RawSequenceDataTable(buffer, entryCount, offsetsPosition, dataPosition);
+  }
+
+}
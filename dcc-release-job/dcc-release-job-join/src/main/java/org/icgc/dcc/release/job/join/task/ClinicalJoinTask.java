@@ -36,13 +36,12 @@ import lombok.val;
 
 import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaRDD;
-import org.apache.spark.broadcast.Broadcast;
 import org.icgc.dcc.release.core.job.FileType;
 import org.icgc.dcc.release.core.task.GenericTask;
 import org.icgc.dcc.release.core.task.TaskContext;
 import org.icgc.dcc.release.job.join.function.CombineClinical;
 import org.icgc.dcc.release.job.join.function.CombineDonor;
-import org.icgc.dcc.release.job.join.function.CombineSampleFunctions;
+import org.icgc.dcc.release.job.join.function.CombineRawSequenceData;
 import org.icgc.dcc.release.job.join.function.CombineSpecimen;
 import org.icgc.dcc.release.job.join.function.ExtractDonorId;
 import org.icgc.dcc.release.job.join.function.ExtractSpecimenId;
@@ -58,7 +57,7 @@ import com.google.common.base.Optional;
 public class ClinicalJoinTask extends GenericTask {
 
   @NonNull
-  private final Broadcast<Map<String, JavaRDD<ObjectNode>>> rawSequenceDataBroadcast;
+  private final Map<String, String> projectRawSequenceDataFiles;
 
   @Override
   public void execute(TaskContext taskContext) {
@@ -128,18 +127,10 @@ public class ClinicalJoinTask extends GenericTask {
   }
 
   private JavaRDD<ObjectNode> joinSampleAndRawSequenceData(TaskContext taskContext, JavaRDD<ObjectNode> sample) {
-    val rawSeqData = getRawSequenceData(taskContext);
-
-    return sample
-        .mapToPair(CombineSampleFunctions::pairSampleId)
-        .leftOuterJoin(rawSeqData.groupBy(CombineSampleFunctions::extractSampleId))
-        .map(CombineSampleFunctions::combineSample);
-  }
-
-  private JavaRDD<ObjectNode> getRawSequenceData(TaskContext taskContext) {
     val projectName = resolveProjectName(taskContext);
+    val tableFileName = projectRawSequenceDataFiles.get(projectName);
 
-    return rawSequenceDataBroadcast.value().get(projectName);
+    return sample.map(new CombineRawSequenceData(tableFileName));
   }
 
 }
@@ -17,39 +17,33 @@
  */
 package org.icgc.dcc.release.job.join.task;
 
-import static org.icgc.dcc.common.core.model.FieldNames.SEQUENCE_DATA_LIBRARY_STRATEGY;
-import static org.icgc.dcc.common.core.model.FieldNames.SEQUENCE_DATA_REPOSITORY;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.base.Strings.isNullOrEmpty;
 import static org.icgc.dcc.common.core.model.FieldNames.SubmissionFieldNames.SUBMISSION_ANALYZED_SAMPLE_ID;
 import static org.icgc.dcc.common.core.model.FieldNames.SubmissionFieldNames.SUBMISSION_OBSERVATION_RAW_DATA_ACCESSION;
 import static org.icgc.dcc.common.core.model.FieldNames.SubmissionFieldNames.SUBMISSION_OBSERVATION_RAW_DATA_REPOSITORY;
 import static org.icgc.dcc.common.core.model.FieldNames.SubmissionFieldNames.SUBMISSION_OBSERVATION_SEQUENCING_STRATEGY;
-import static org.icgc.dcc.release.core.util.JacksonFactory.MAPPER;
-
-import java.util.Map;
+import static org.icgc.dcc.release.core.util.ObjectNodes.textValue;
 
 import lombok.val;
 
 import org.apache.spark.api.java.function.Function;
+import org.icgc.dcc.release.job.join.model.RawSequenceData;
 
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import com.google.common.collect.ImmutableMap;
-
-public final class CreateRawSequenceDataObject implements Function<ObjectNode, ObjectNode> {
 
-  private static final Map<String, String> RAW_SEQUENCE_DATA_FIELDS_MAPPING = ImmutableMap.of(
-      SUBMISSION_ANALYZED_SAMPLE_ID, SUBMISSION_ANALYZED_SAMPLE_ID,
-      SUBMISSION_OBSERVATION_RAW_DATA_ACCESSION, SUBMISSION_OBSERVATION_RAW_DATA_ACCESSION,
-      SUBMISSION_OBSERVATION_RAW_DATA_REPOSITORY, SEQUENCE_DATA_REPOSITORY,
-      SUBMISSION_OBSERVATION_SEQUENCING_STRATEGY, SEQUENCE_DATA_LIBRARY_STRATEGY);
+public final class CreateRawSequenceData implements Function<ObjectNode, RawSequenceData> {
 
   @Override
-  public ObjectNode call(ObjectNode node) throws Exception {
-    val rawSequenceDataObject = MAPPER.createObjectNode();
-    for (val entry : RAW_SEQUENCE_DATA_FIELDS_MAPPING.entrySet()) {
-      rawSequenceDataObject.set(entry.getValue(), node.get(entry.getKey()));
-    }
-
-    return rawSequenceDataObject;
+  public RawSequenceData call(ObjectNode node) throws Exception {
+    val sampleId = textValue(node, SUBMISSION_ANALYZED_SAMPLE_ID);
+    checkState(!isNullOrEmpty(sampleId), "Failed to resolve %s for %s", SUBMISSION_ANALYZED_SAMPLE_ID, node);
+
+    return new RawSequenceData(
+        sampleId,
+        textValue(node, SUBMISSION_OBSERVATION_RAW_DATA_ACCESSION),
+        textValue(node, SUBMISSION_OBSERVATION_RAW_DATA_REPOSITORY),
+        textValue(node, SUBMISSION_OBSERVATION_SEQUENCING_STRATEGY));
   }
 
-}
\ No newline at end of file
+}
@@ -17,13 +17,16 @@
  */
 package org.icgc.dcc.release.job.join.task;
 
+import static org.icgc.dcc.common.core.util.Formats.formatBytes;
 import static org.icgc.dcc.release.core.util.FieldNames.JoinFieldNames.ARRAY_PLATFORM;
 import static org.icgc.dcc.release.core.util.FieldNames.JoinFieldNames.PROBE_ID;
 import static org.icgc.dcc.release.core.util.Keys.getKey;
+import static org.icgc.dcc.release.core.util.Partitions.getPartitionsCount;
 
 import java.util.Map;
 
 import lombok.val;
+import lombok.extern.slf4j.Slf4j;
 
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.api.java.function.Function;
@@ -31,36 +34,64 @@ import org.apache.spark.broadcast.Broadcast;
 import org.icgc.dcc.release.core.function.KeyFields;
 import org.icgc.dcc.release.core.job.FileType;
 import org.icgc.dcc.release.core.task.TaskContext;
-import org.icgc.dcc.release.core.util.SparkWorkaroundUtils;
+import org.icgc.dcc.release.core.util.SortMergeJoins;
 import org.icgc.dcc.release.job.join.model.DonorSample;
 
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import scala.Tuple2;
 
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.base.Optional;
+
+/**
+ * Joins methylation array primary and meta files with the array probes.
+ * <p>
+ * Probes of a small array platform are broadcast to the executors. If the probes file is bigger than
+ * {@code broadcastThreshold} bytes the probes and the primary records are co-partitioned by the probe key and joined with
+ * a sort-merge join instead.
+ */
+@Slf4j
 public class MethArrayJoinTask extends PrimaryMetaJoinTask {
 
   private static final FileType PRIMARY_FILE_TYPE = FileType.METH_ARRAY_P;
   private static final String[] PROBE_JOIN_KEYS = { ARRAY_PLATFORM, PROBE_ID };
 
-  public MethArrayJoinTask(Broadcast<Map<String, Map<String, DonorSample>>> donorSamplesByProject) {
-    super(donorSamplesByProject, PRIMARY_FILE_TYPE);
+  private final long broadcastThreshold;
+
+  public MethArrayJoinTask(Broadcast<Map<String, Map<String, DonorSample>>> donorSamplesByProject,
+      long metaBroadcastThreshold, long broadcastThreshold) {
+    super(donorSamplesByProject, PRIMARY_FILE_TYPE, metaBroadcastThreshold);
+    this.broadcastThreshold = broadcastThreshold;
   }
 
   @Override
   public void execute(TaskContext taskContext) {
     val primaryMeta = joinPrimaryMeta(taskContext);
-    val probes = resolveProbes(taskContext);
-    val output = joinPrimaryMetaProbes(primaryMeta, probes);
+    val output = isBroadcastProbes(taskContext) ?
+        joinPrimaryMetaProbes(primaryMeta, resolveProbes(taskContext)) :
+        sortMergeJoinPrimaryMetaProbes(primaryMeta, readProbes(taskContext));
 
     writeOutput(taskContext, output, FileType.METH_ARRAY);
   }
 
+  private boolean isBroadcastProbes(TaskContext taskContext) {
+    val probesSize = getInputSize(taskContext, FileType.METH_ARRAY_PROBES);
+    val broadcast = probesSize <= broadcastThreshold;
+    log.info("Probes size is {}. Joining with {} join...", formatBytes(probesSize),
+        broadcast ? "broadcast" : "sort-merge");
+
+    return broadcast;
+  }
+
+  private JavaRDD<ObjectNode> readProbes(TaskContext taskContext) {
+    return readInput(taskContext, FileType.METH_ARRAY_PROBES);
+  }
+
   private Broadcast<Map<String, ObjectNode>> resolveProbes(TaskContext taskContext) {
-    val probes = readInput(taskContext, FileType.METH_ARRAY_PROBES)
-        .mapToPair(new KeyFields(PROBE_JOIN_KEYS))
-        .collectAsMap();
+    val probes = SortMergeJoins.collectLookup(readProbes(taskContext)
+        .mapToPair(new KeyFields(PROBE_JOIN_KEYS)));
     val sparkContext = taskContext.getSparkContext();
 
-    return sparkContext.broadcast(SparkWorkaroundUtils.toHashMap(probes));
+    return sparkContext.broadcast(probes);
   }
 
   private static JavaRDD<ObjectNode> joinPrimaryMetaProbes(JavaRDD<ObjectNode> primaryMeta,
@@ -68,6 +99,27 @@ public class MethArrayJoinTask extends PrimaryMetaJoinTask {
     return primaryMeta.map(joinProbes(probes));
   }
 
+  private static JavaRDD<ObjectNode> sortMergeJoinPrimaryMetaProbes(JavaRDD<ObjectNode> primaryMeta,
+      JavaRDD<ObjectNode> probes) {
+    val keyFunction = new KeyFields(PROBE_JOIN_KEYS);
+    val primaryMetaPairs = primaryMeta.mapToPair(keyFunction);
+    val probePairs = probes.mapToPair(keyFunction);
+    val partitions = getPartitionsCount(primaryMetaPairs, probePairs);
+
+    return SortMergeJoins.leftOuterJoin(primaryMetaPairs, probePairs, partitions)
+        .map(MethArrayJoinTask::combineProbe);
+  }
+
+  private static ObjectNode combineProbe(Tuple2<ObjectNode, Optional<ObjectNode>> tuple) {
+    val row = tuple._1;
+    val probe = tuple._2;
+    if (probe.isPresent()) {
+      row.setAll(probe.get());
+    }
+
+    return row;
+  }
+
   private static Function<ObjectNode, ObjectNode> joinProbes(Broadcast<Map<String, ObjectNode>> probes) {
     return row -> {
       String key = getKey(row, PROBE_JOIN_KEYS);
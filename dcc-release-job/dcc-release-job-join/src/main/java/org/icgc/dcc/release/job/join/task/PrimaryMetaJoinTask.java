@@ -21,7 +21,9 @@ import static com.google.common.base.Preconditions.checkState;
 import static java.lang.String.format;
 import static org.icgc.dcc.common.core.model.FieldNames.SubmissionFieldNames.SUBMISSION_ANALYZED_SAMPLE_ID;
 import static org.icgc.dcc.common.core.model.FieldNames.SubmissionFieldNames.SUBMISSION_OBSERVATION_ANALYSIS_ID;
+import static org.icgc.dcc.common.core.util.Formats.formatBytes;
 import static org.icgc.dcc.release.core.util.Keys.getKey;
+import static org.icgc.dcc.release.core.util.Partitions.getPartitionsCount;
 import static org.icgc.dcc.release.job.join.utils.Tasks.resolveDonorSamples;
 
 import java.util.Map;
@@ -29,19 +31,31 @@ import java.util.Map;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.val;
+import lombok.extern.slf4j.Slf4j;
 
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.broadcast.Broadcast;
 import org.icgc.dcc.release.core.job.FileType;
 import org.icgc.dcc.release.core.task.GenericTask;
 import org.icgc.dcc.release.core.task.TaskContext;
-import org.icgc.dcc.release.core.util.SparkWorkaroundUtils;
+import org.icgc.dcc.release.core.util.SortMergeJoins;
 import org.icgc.dcc.release.job.join.function.EnrichPrimaryMeta;
 import org.icgc.dcc.release.job.join.function.KeyAnalysisIdAnalyzedSampleIdField;
 import org.icgc.dcc.release.job.join.model.DonorSample;
 
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import scala.Tuple2;
 
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.base.Optional;
+
+/**
+ * Joins primary and meta files by analysis and analyzed sample id.
+ * <p>
+ * Meta files up to {@code metaBroadcastThreshold} bytes are collected to the driver and broadcast to the executors.
+ * Bigger ones are joined with a sort-merge join, so the meta records never leave the executors. Either join fails on
+ * a repeated meta key.
+ */
+@Slf4j
 @RequiredArgsConstructor
 public class PrimaryMetaJoinTask extends GenericTask {
 
@@ -53,6 +67,7 @@ public class PrimaryMetaJoinTask extends GenericTask {
   private final Broadcast<Map<String, Map<String, DonorSample>>> donorSamplesbyProject;
   @NonNull
   protected final FileType primaryFileType;
+  private final long metaBroadcastThreshold;
 
   @Override
   public void execute(TaskContext taskContext) {
@@ -77,18 +92,34 @@ public class PrimaryMetaJoinTask extends GenericTask {
 
   private JavaRDD<ObjectNode> join(JavaRDD<ObjectNode> primary, JavaRDD<ObjectNode> meta,
       Map<String, DonorSample> donorSamples, TaskContext taskContext) {
-    val keyFunction = new KeyAnalysisIdAnalyzedSampleIdField();
     val outputFileType = resolveOutputFileType(primaryFileType);
     val type = outputFileType.getId();
+    val primaryMeta = isBroadcastMeta(taskContext) ?
+        joinPrimaryMeta(primary, broadcastMeta(meta, taskContext)) :
+        sortMergeJoinPrimaryMeta(primary, meta);
 
+    return primaryMeta
+        .map(new EnrichPrimaryMeta(type, donorSamples));
+  }
+
+  private boolean isBroadcastMeta(TaskContext taskContext) {
+    val metaFileType = resolveMetaFileType(primaryFileType);
+    val metaSize = getInputSize(taskContext, metaFileType);
+    val broadcast = metaSize <= metaBroadcastThreshold;
+    log.info("{} size is {}. Joining with {} join...", metaFileType.getId(), formatBytes(metaSize),
+        broadcast ? "broadcast" : "sort-merge");
+
+    return broadcast;
+  }
+
+  private static Broadcast<Map<String, ObjectNode>> broadcastMeta(JavaRDD<ObjectNode> meta,
+      TaskContext taskContext) {
     // Meta file type is small. We are going to put it in memory and distribute between the workers.
-    val metaPairs = meta.mapToPair(keyFunction).collectAsMap();
-    final Broadcast<Map<String, ObjectNode>> metaPairsBroadcast = taskContext
-        .getSparkContext()
-        .broadcast(SparkWorkaroundUtils.toHashMap(metaPairs));
+    val metaPairs = SortMergeJoins.collectLookup(meta.mapToPair(new KeyAnalysisIdAnalyzedSampleIdField()));
 
-    return joinPrimaryMeta(primary, metaPairsBroadcast)
-        .map(new EnrichPrimaryMeta(type, donorSamples));
+    return taskContext
+        .getSparkContext()
+        .broadcast(metaPairs);
   }
 
   private static JavaRDD<ObjectNode> joinPrimaryMeta(
@@ -98,13 +129,36 @@ public class PrimaryMetaJoinTask extends GenericTask {
         .map(p -> {
           String key = getKey(p, SUBMISSION_OBSERVATION_ANALYSIS_ID, SUBMISSION_ANALYZED_SAMPLE_ID);
           ObjectNode metaValue = metaPairsBroadcast.value().get(key);
-          checkState(metaValue != null, "A primary record must have a corresponding record in the meta file");
+          checkMetaPresent(metaValue != null);
           p.setAll(metaValue);
 
           return p;
         });
   }
 
+  private static JavaRDD<ObjectNode> sortMergeJoinPrimaryMeta(JavaRDD<ObjectNode> primary, JavaRDD<ObjectNode> meta) {
+    val keyFunction = new KeyAnalysisIdAnalyzedSampleIdField();
+    val primaryPairs = primary.mapToPair(keyFunction);
+    val metaPairs = meta.mapToPair(keyFunction);
+    val partitions = getPartitionsCount(primaryPairs, metaPairs);
+
+    return SortMergeJoins.leftOuterJoin(primaryPairs, metaPairs, partitions)
+        .map(PrimaryMetaJoinTask::combineMeta);
+  }
+
+  private static ObjectNode combineMeta(Tuple2<ObjectNode, Optional<ObjectNode>> tuple) {
+    val primary = tuple._1;
+    val meta = tuple._2;
+    checkMetaPresent(meta.isPresent());
+    primary.setAll(meta.get());
+
+    return primary;
+  }
+
+  private static void checkMetaPresent(boolean present) {
+    checkState(present, "A primary record must have a corresponding record in the meta file");
+  }
+
   private JavaRDD<ObjectNode> parsePrimary(FileType primaryFileType, TaskContext taskContext) {
     return readInput(taskContext, primaryFileType);
   }
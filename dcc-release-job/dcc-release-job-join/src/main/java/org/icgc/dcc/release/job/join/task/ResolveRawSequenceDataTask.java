@@ -22,27 +22,35 @@ import static java.util.stream.Collectors.toList;
 import static org.icgc.dcc.release.core.job.FileType.EXP_ARRAY_M;
 import static org.icgc.dcc.release.core.job.FileType.METH_ARRAY_M;
 import static org.icgc.dcc.release.core.job.FileType.PEXP_M;
+import static org.icgc.dcc.release.core.job.FileType.RAW_SEQUENCE_DATA;
 import static org.icgc.dcc.release.core.util.Tasks.resolveProjectName;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import lombok.Cleanup;
 import lombok.Getter;
+import lombok.SneakyThrows;
 import lombok.val;
+import lombok.extern.slf4j.Slf4j;
 
+import org.apache.hadoop.fs.Path;
 import org.apache.spark.api.java.JavaRDD;
 import org.icgc.dcc.release.core.job.FileType;
 import org.icgc.dcc.release.core.task.GenericTask;
 import org.icgc.dcc.release.core.task.TaskContext;
+import org.icgc.dcc.release.job.join.model.RawSequenceData;
+import org.icgc.dcc.release.job.join.model.RawSequenceDataTable;
 
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
 
 /**
- * Creates a reference data of the following structure: {@code Map<ProjectId, RDD<ObjectNode>>},<br>
- * where the {@code ObjectNode} contains data like:
+ * Creates a reference data of the following structure: {@code Map<ProjectId, TableFileName>},<br>
+ * where each project's distinct raw sequence data is collected to the driver and written once to the working directory
+ * as a {@link RawSequenceDataTable}:
  * 
  * <pre>
  *  {
@@ -53,26 +61,33 @@ import com.google.common.collect.Maps;
  *  }
  * </pre>
  * 
- * The reference data is used by the {@link ClinicalJoinTask} to create samples.
+ * The table is distributed to the executors with {@code SparkContext.addFile()} and is used by the
+ * {@link ClinicalJoinTask} to create samples.
  */
+@Slf4j
 public class ResolveRawSequenceDataTask extends GenericTask {
 
   private static final Set<FileType> EXCLUDE_RAW_SEQUENCE_FILE_TYPES = ImmutableSet.of(METH_ARRAY_M, EXP_ARRAY_M,
       PEXP_M);
 
   @Getter
-  private final Map<String, JavaRDD<ObjectNode>> projectRawSequenceData = Maps.newConcurrentMap();
+  private final Map<String, String> projectRawSequenceDataFiles = Maps.newConcurrentMap();
 
   @Override
   public void execute(TaskContext taskContext) {
-    val rawSequenceData = resolveRawSequenceData(taskContext);
+    val rawSequenceData = resolveRawSequenceData(taskContext).collect();
     val projectName = resolveProjectName(taskContext);
-    projectRawSequenceData.put(projectName, rawSequenceData);
+    val tablePath = writeTable(taskContext, projectName, rawSequenceData);
+    log.info("Wrote {} raw sequence data entries of project '{}' to '{}'", rawSequenceData.size(), projectName,
+        tablePath);
+
+    taskContext.getSparkContext().addFile(tablePath.toString());
+    projectRawSequenceDataFiles.put(projectName, tablePath.getName());
   }
 
-  private JavaRDD<ObjectNode> resolveRawSequenceData(TaskContext taskContext) {
-    JavaRDD<ObjectNode> resultRdd = null;
-    val createRawSeqDataFunction = new CreateRawSequenceDataObject();
+  private JavaRDD<RawSequenceData> resolveRawSequenceData(TaskContext taskContext) {
+    JavaRDD<RawSequenceData> resultRdd = null;
+    val createRawSeqDataFunction = new CreateRawSequenceData();
 
     for (val fileType : filterMetaTypes()) {
       val currentRdd = readInput(taskContext, fileType)
@@ -89,6 +104,21 @@ public class ResolveRawSequenceDataTask extends GenericTask {
     return resultRdd.distinct();
   }
 
+  @SneakyThrows
+  private static Path writeTable(TaskContext taskContext, String projectName,
+      Collection<RawSequenceData> rawSequenceData) {
+    // File names must be unique across projects as the executors resolve added files by name
+    val fileSystem = taskContext.getFileSystem();
+    val path = new Path(taskContext.getPath(RAW_SEQUENCE_DATA), RAW_SEQUENCE_DATA.getId() + "-" + projectName);
+
+    @Cleanup
+    val outputStream = fileSystem.create(path, true);
+    RawSequenceDataTable.write(rawSequenceData, outputStream);
+
+    // Qualify, otherwise addFile() treats the path as local
+    return fileSystem.makeQualified(path);
+  }
+
   private static List<FileType> filterMetaTypes() {
     return newArrayList(FileType.values()).stream()
         .filter(ft -> ft.isMetaFileType() && !EXCLUDE_RAW_SEQUENCE_FILE_TYPES.contains(ft))
@@ -75,9 +75,10 @@ public class SecondaryJoinTask extends PrimaryMetaJoinTask {
   public SecondaryJoinTask(
       Broadcast<Map<String, Map<String, DonorSample>>> donorSamplesbyProject,
       Broadcast<Map<String, Map<String, String>>> sampleSurrogateSampleIdsByProject,
-      FileType primaryFileType)
+      FileType primaryFileType,
+      long metaBroadcastThreshold)
   {
-    super(donorSamplesbyProject, primaryFileType);
+    super(donorSamplesbyProject, primaryFileType, metaBroadcastThreshold);
     this.sampleSurrogateSampleIdsByProject = sampleSurrogateSampleIdsByProject;
   }
 
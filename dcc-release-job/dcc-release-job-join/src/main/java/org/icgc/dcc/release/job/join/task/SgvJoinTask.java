@@ -45,8 +45,9 @@ public class SgvJoinTask extends SecondaryJoinTask {
 
   public SgvJoinTask(
       Broadcast<Map<String, Map<String, DonorSample>>> donorSamplesbyProject,
-      Broadcast<Map<String, Map<String, String>>> sampleSurrogateSampleIdsByProject) {
-    super(donorSamplesbyProject, sampleSurrogateSampleIdsByProject, PRIMARY_FILE_TYPE);
+      Broadcast<Map<String, Map<String, String>>> sampleSurrogateSampleIdsByProject,
+      long metaBroadcastThreshold) {
+    super(donorSamplesbyProject, sampleSurrogateSampleIdsByProject, PRIMARY_FILE_TYPE, metaBroadcastThreshold);
   }
 
   @Override
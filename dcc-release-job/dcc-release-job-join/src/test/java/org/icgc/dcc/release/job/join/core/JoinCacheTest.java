@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.join.core;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.icgc.dcc.release.core.job.FileType.CLINICAL;
+import static org.icgc.dcc.release.core.job.FileType.DONOR_SURROGATE_KEY;
+import static org.icgc.dcc.release.job.join.config.JoinProperties.MetaJoinMode.SORT_MERGE;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.util.Optional;
+
+import lombok.SneakyThrows;
+import lombok.val;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.icgc.dcc.common.core.model.ValueType;
+import org.icgc.dcc.release.core.job.FileType;
+import org.icgc.dcc.release.core.submission.SubmissionFileField;
+import org.icgc.dcc.release.core.submission.SubmissionFileSchema;
+import org.icgc.dcc.release.core.submission.SubmissionFileSchemas;
+import org.icgc.dcc.release.core.task.TaskContext;
+import org.icgc.dcc.release.job.join.config.JoinProperties;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.Files;
+
+public class JoinCacheTest {
+
+  private static final String PROJECT_NAME = "BRCA-UK";
+  private static final String TASK_NAME = "clinical-join-task";
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  File workingDir;
+  TaskContext taskContext;
+  JoinCache cache;
+
+  @Before
+  @SneakyThrows
+  public void setUp() {
+    workingDir = tmp.newFolder("working");
+    taskContext = mock(TaskContext.class);
+    when(taskContext.getProjectName()).thenReturn(Optional.of(PROJECT_NAME));
+    when(taskContext.getFileSystem()).thenReturn(FileSystem.getLocal(new Configuration()));
+    when(taskContext.getPath(any(FileType.class))).thenAnswer(
+        invocation -> getPath((FileType) invocation.getArguments()[0]).getAbsolutePath());
+
+    cache = new JoinCache(tmp.newFolder("cache").getAbsolutePath(), "1-test");
+  }
+
+  @Test
+  public void testGetKey() {
+    write(DONOR_SURROGATE_KEY, "part-00000", "donor");
+    val key = getKey();
+
+    assertThat(getKey()).isEqualTo(key);
+    assertThat(new JoinCache(tmp.getRoot().getAbsolutePath(), "2-test")
+        .getKey(taskContext, TASK_NAME, ImmutableSet.of(DONOR_SURROGATE_KEY)))
+        .isNotEqualTo(key);
+
+    write(DONOR_SURROGATE_KEY, "part-00000", "donor2");
+    assertThat(getKey()).isNotEqualTo(key);
+  }
+
+  @Test
+  public void testGetConfigurationDigest() {
+    val properties = new JoinProperties();
+    val digest = JoinCache.getConfigurationDigest(createSchemas(false), properties);
+    assertThat(JoinCache.getConfigurationDigest(createSchemas(false), new JoinProperties())).isEqualTo(digest);
+
+    // Controlled fields are masked by the join
+    assertThat(JoinCache.getConfigurationDigest(createSchemas(true), properties)).isNotEqualTo(digest);
+    assertThat(JoinCache.getConfigurationDigest(createSchemas(false), properties.setMetaJoinMode(SORT_MERGE)))
+        .isNotEqualTo(digest);
+  }
+
+  @Test
+  public void testStoreRestore() {
+    write(DONOR_SURROGATE_KEY, "part-00000", "donor");
+    write(CLINICAL, "part-00000", "clinical");
+    val key = getKey();
+    val outputFileTypes = ImmutableSet.of(CLINICAL);
+
+    assertThat(cache.restore(taskContext, key, outputFileTypes)).isFalse();
+    cache.store(taskContext, key, outputFileTypes);
+
+    write(CLINICAL, "part-00000", "stale");
+    assertThat(cache.restore(taskContext, key, outputFileTypes)).isTrue();
+    assertThat(read(CLINICAL, "part-00000")).isEqualTo("clinical");
+  }
+
+  private static SubmissionFileSchemas createSchemas(boolean controlled) {
+    val fields = ImmutableList.of(
+        new SubmissionFileField("analysis_id", ValueType.TEXT, false, null),
+        new SubmissionFileField("control_genotype", ValueType.TEXT, controlled, ImmutableMap.of("1", "A")));
+
+    return new SubmissionFileSchemas(ImmutableList.of(new SubmissionFileSchema("ssm_p", "^ssm_p\\.txt$", fields)));
+  }
+
+  private String getKey() {
+    return cache.getKey(taskContext, TASK_NAME, ImmutableSet.of(DONOR_SURROGATE_KEY));
+  }
+
+  private File getPath(FileType fileType) {
+    return new File(new File(workingDir, fileType.getDirName()), "project_name=" + PROJECT_NAME);
+  }
+
+  @SneakyThrows
+  private void write(FileType fileType, String fileName, String content) {
+    val file = new File(getPath(fileType), fileName);
+    Files.createParentDirs(file);
+    Files.write(content, file, UTF_8);
+  }
+
+  @SneakyThrows
+  private String read(FileType fileType, String fileName) {
+    return Files.toString(new File(getPath(fileType), fileName), UTF_8);
+  }
+
+}
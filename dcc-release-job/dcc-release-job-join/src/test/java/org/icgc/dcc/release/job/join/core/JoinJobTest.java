@@ -30,6 +30,7 @@ import lombok.val;
 import lombok.extern.slf4j.Slf4j;
 
 import org.icgc.dcc.release.core.job.FileType;
+import org.icgc.dcc.release.job.join.config.JoinProperties;
 import org.icgc.dcc.release.test.function.DonorJsonComparator;
 import org.icgc.dcc.release.test.job.AbstractJobTest;
 import org.icgc.dcc.release.test.util.SubmissionFiles;
@@ -51,7 +52,7 @@ public class JoinJobTest extends AbstractJobTest {
   @Override
   public void setUp() {
     super.setUp();
-    this.job = new JoinJob(SubmissionFiles.getSchemas(), sparkContext);
+    this.job = new JoinJob(SubmissionFiles.getSchemas(), sparkContext, new JoinProperties());
   }
 
   @Test
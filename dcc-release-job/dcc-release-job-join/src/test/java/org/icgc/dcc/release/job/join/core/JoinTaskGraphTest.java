@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.join.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.icgc.dcc.release.core.job.FileType.CLINICAL;
+import static org.icgc.dcc.release.core.job.FileType.CNSM;
+import static org.icgc.dcc.release.core.job.FileType.CNSM_P;
+import static org.icgc.dcc.release.core.job.FileType.DONOR_SURROGATE_KEY;
+import static org.icgc.dcc.release.core.job.FileType.OBSERVATION;
+import static org.icgc.dcc.release.core.job.FileType.SSM;
+import static org.icgc.dcc.release.core.job.FileType.SSM_P_MASKED_SURROGATE_KEY;
+import static org.mockito.Mockito.mock;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import lombok.SneakyThrows;
+import lombok.val;
+
+import org.icgc.dcc.release.core.job.JobContext;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+
+public class JoinTaskGraphTest {
+
+  @Test
+  public void testGetDependencies() {
+    val graph = createGraph(context -> {});
+
+    assertThat(graph.getDependencies("clinical")).isEmpty();
+    assertThat(graph.getDependencies("ssm")).containsOnly("clinical");
+    assertThat(graph.getDependencies("cnsm")).containsOnly("clinical");
+    assertThat(graph.getExecutionOrder()).containsExactly("clinical", "ssm", "cnsm");
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testGetExecutionOrderCyclic() {
+    val graph = new JoinTaskGraph()
+        .add("a", ImmutableSet.of(SSM), ImmutableSet.of(CNSM), context -> {})
+        .add("b", ImmutableSet.of(CNSM), ImmutableSet.of(SSM), context -> {});
+
+    graph.getExecutionOrder();
+  }
+
+  @Test
+  @SneakyThrows
+  public void testExecute() {
+    val executed = Lists.<String> newCopyOnWriteArrayList();
+
+    // Independent branches must overlap: each one waits for the other to start
+    val latch = new CountDownLatch(2);
+    val graph = createBlockingGraph(executed, latch);
+
+    val executor = Executors.newFixedThreadPool(2);
+    graph.execute(mock(JobContext.class), executor);
+    executor.shutdown();
+    executor.awaitTermination(1, TimeUnit.SECONDS);
+
+    assertThat(executed).hasSize(3);
+    assertThat(executed.get(0)).isEqualTo("clinical");
+    assertThat(executed.subList(1, 3)).containsOnly("ssm", "cnsm");
+  }
+
+  @Test(expected = RuntimeException.class)
+  public void testExecuteFailure() {
+    val executed = Lists.<String> newCopyOnWriteArrayList();
+    val graph = new JoinTaskGraph()
+        .add("clinical", ImmutableSet.of(DONOR_SURROGATE_KEY), ImmutableSet.of(CLINICAL), context -> {
+          throw new IllegalStateException("Failed");
+        })
+        .add("ssm", ImmutableSet.of(CLINICAL), ImmutableSet.of(SSM), context -> executed.add("ssm"));
+
+    try {
+      graph.execute(mock(JobContext.class), Executors.newSingleThreadExecutor());
+    } finally {
+      assertThat(executed).isEmpty();
+    }
+  }
+
+  private static JoinTaskGraph createBlockingGraph(List<String> executed, CountDownLatch latch) {
+    return new JoinTaskGraph()
+        .add("clinical", ImmutableSet.of(DONOR_SURROGATE_KEY), ImmutableSet.of(CLINICAL), context -> {
+          executed.add("clinical");
+        })
+        .add("ssm", ImmutableSet.of(CLINICAL, SSM_P_MASKED_SURROGATE_KEY), ImmutableSet.of(SSM, OBSERVATION),
+            context -> {
+              await(latch);
+              executed.add("ssm");
+            })
+        .add("cnsm", ImmutableSet.of(CLINICAL, CNSM_P), ImmutableSet.of(CNSM), context -> {
+          await(latch);
+          executed.add("cnsm");
+        });
+  }
+
+  private static JoinTaskGraph createGraph(Consumer<JobContext> action) {
+    return new JoinTaskGraph()
+        .add("clinical", ImmutableSet.of(DONOR_SURROGATE_KEY), ImmutableSet.of(CLINICAL), action)
+        .add("ssm", ImmutableSet.of(CLINICAL, SSM_P_MASKED_SURROGATE_KEY), ImmutableSet.of(SSM, OBSERVATION), action)
+        .add("cnsm", ImmutableSet.of(CLINICAL, CNSM_P), ImmutableSet.of(CNSM), action);
+  }
+
+  @SneakyThrows
+  private static void await(CountDownLatch latch) {
+    latch.countDown();
+    assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+  }
+
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.join.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+
+import lombok.Cleanup;
+import lombok.SneakyThrows;
+import lombok.val;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.ImmutableList;
+
+public class RawSequenceDataTableTest {
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  @Test
+  @SneakyThrows
+  public void testGet() {
+    val first = new RawSequenceData("ASID2", "EGAS1:EGAD1", "EGA", "RNA-Seq");
+    val second = new RawSequenceData("ASID2", "EGAS2", "EGA", null);
+    val third = new RawSequenceData("ASID1", "ACC", "CGHub", "WGS");
+
+    val file = tmp.newFile();
+    @Cleanup
+    val outputStream = new FileOutputStream(file);
+    RawSequenceDataTable.write(ImmutableList.of(first, second, third, first), outputStream);
+
+    val table = RawSequenceDataTable.open(file);
+    assertThat(table.size()).isEqualTo(3);
+    assertThat(table.get("ASID1")).containsExactly(third);
+    assertThat(table.get("ASID2")).containsOnly(first, second);
+    assertThat(table.get("ASID0")).isEmpty();
+    assertThat(table.get("ASID3")).isEmpty();
+    assertThat(RawSequenceDataTable.open(file)).isSameAs(table);
+  }
+
+  @Test
+  @SneakyThrows
+  public void testOpenRewritten() {
+    val file = tmp.newFile();
+    write(file, new RawSequenceData("ASID1", "ACC", "CGHub", "WGS"));
+    val table = RawSequenceDataTable.open(file);
+    assertThat(table.get("ASID2")).isEmpty();
+
+    // Same path, different content
+    val rewritten = new RawSequenceData("ASID2", "EGAS2", "EGA", null);
+    write(file, rewritten, new RawSequenceData("ASID3", "EGAS3", "EGA", "WGS"));
+    assertThat(file.setLastModified(file.lastModified() + 1000)).isTrue();
+
+    val rewrittenTable = RawSequenceDataTable.open(file);
+    assertThat(rewrittenTable).isNotSameAs(table);
+    assertThat(rewrittenTable.size()).isEqualTo(2);
+    assertThat(rewrittenTable.get("ASID2")).containsExactly(rewritten);
+  }
+
+  @Test
+  @SneakyThrows
+  public void testGetEmpty() {
+    val file = tmp.newFile();
+    @Cleanup
+    val outputStream = new FileOutputStream(file);
+    RawSequenceDataTable.write(ImmutableList.of(), outputStream);
+
+    val table = RawSequenceDataTable.open(file);
+    assertThat(table.size()).isEqualTo(0);
+    assertThat(table.get("ASID1")).isEmpty();
+  }
+
+  @SneakyThrows
+  private static void write(File file, RawSequenceData... rawSequenceData) {
+    @Cleanup
+    val outputStream = new FileOutputStream(file);
+    RawSequenceDataTable.write(ImmutableList.copyOf(rawSequenceData), outputStream);
+  }
+
+}
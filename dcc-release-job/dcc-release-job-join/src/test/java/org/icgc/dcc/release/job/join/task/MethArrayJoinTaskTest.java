@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.release.job.join.task;
+
+import static java.util.Collections.emptyMap;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.util.List;
+
+import lombok.val;
+
+import org.icgc.dcc.release.core.job.FileType;
+import org.icgc.dcc.release.core.job.JobType;
+import org.icgc.dcc.release.test.job.AbstractJobTest;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableList;
+
+public class MethArrayJoinTaskTest extends AbstractJobTest {
+
+  private static final String PROJECT_NAME = "BRCA-UK";
+
+  @Before
+  @Override
+  public void setUp() {
+    super.setUp();
+    given(new File(INPUT_TEST_FIXTURES_DIR));
+    given(inputFile(PROJECT_NAME)
+        .fileType(FileType.METH_ARRAY_PROBES)
+        .rows(ImmutableList.of(
+            row("{array_platform:'HumanMethylation450_after_2011_08_02',probe_id:'cg05039241',chromosome:'1'}"),
+            row("{array_platform:'HumanMethylation450_after_2011_08_02',probe_id:'cg00000000',chromosome:'2'}"))));
+  }
+
+  @Test
+  public void testExecuteBroadcast() {
+    val results = execute(Long.MAX_VALUE);
+
+    assertThat(results).hasSize(1);
+    assertThat(results.get(0).path("chromosome").textValue()).isEqualTo("1");
+  }
+
+  @Test
+  public void testExecuteSortMerge() {
+    val results = execute(0L);
+
+    assertThat(results).hasSize(1);
+    assertThat(results.get(0).path("chromosome").textValue()).isEqualTo("1");
+  }
+
+  private List<ObjectNode> execute(long broadcastThreshold) {
+    val taskContext = createTaskContext(JobType.JOIN, PROJECT_NAME);
+    val task = new MethArrayJoinTask(taskContext.getSparkContext().broadcast(emptyMap()), broadcastThreshold,
+        broadcastThreshold);
+    task.execute(taskContext);
+
+    return produces(PROJECT_NAME, FileType.METH_ARRAY);
+  }
+
+}
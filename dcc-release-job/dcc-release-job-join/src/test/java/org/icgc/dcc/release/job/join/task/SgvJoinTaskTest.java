@@ -28,6 +28,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.icgc.dcc.release.core.job.FileType;
 import org.icgc.dcc.release.core.job.JobType;
 import org.icgc.dcc.release.core.task.TaskContext;
+import org.icgc.dcc.release.job.join.config.JoinProperties;
 import org.icgc.dcc.release.test.job.AbstractJobTest;
 import org.junit.Before;
 import org.junit.Test;
@@ -49,7 +50,8 @@ public class SgvJoinTaskTest extends AbstractJobTest {
     taskContext = createTaskContext(JobType.JOIN, PROJECT_NAME);
     val sparkContext = taskContext.getSparkContext();
 
-    task = new SgvJoinTask(sparkContext.broadcast(emptyMap()), sparkContext.broadcast(emptyMap()));
+    task = new SgvJoinTask(sparkContext.broadcast(emptyMap()), sparkContext.broadcast(emptyMap()),
+        new JoinProperties().getMetaBroadcastThreshold());
   }
 
   @Test